@@ -0,0 +1,56 @@
+package com.gitlab.orchestrator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks reading a manifest, both eagerly with {@link CsvParser#parse(String)} and
+ * lazily with {@link CsvParser#stream(String)}.
+ */
+@State(Scope.Benchmark)
+public class CsvParsingBenchmark extends BenchmarkDefaults {
+
+    @Param({"10", "1000", "100000"})
+    public int rows;
+
+    @Param({"0", "20", "200"})
+    public int variables;
+
+    private final CsvParser csvParser = new CsvParser();
+    private Path manifest;
+
+    @Setup(Level.Trial)
+    public void writeManifest() throws IOException {
+        manifest = Files.createTempFile("flow-forge-bench-", ".csv");
+        SyntheticData.writeManifest(manifest, rows, variables);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteManifest() throws IOException {
+        Files.deleteIfExists(manifest);
+    }
+
+    @Benchmark
+    public List<PipelineConfig> parse() throws IOException {
+        return csvParser.parse(manifest.toString());
+    }
+
+    @Benchmark
+    public void stream(Blackhole blackhole) throws IOException {
+        try (Stream<PipelineConfig> configs = csvParser.stream(manifest.toString())) {
+            configs.forEach(blackhole::consume);
+        }
+    }
+}
@@ -0,0 +1,823 @@
+package com.gitlab.orchestrator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class responsible for standing in for the GitLab REST API during load and latency tests.
+ * An embedded HTTP server implements the pipeline endpoints used by the orchestrator
+ * (create, get, list and cancel, plus listing the jobs of a pipeline) on top of simulated
+ * pipelines that go from pending to running to a final status on a timer. Each pipeline has
+ * a "compile" job followed by a "test" job, which waits in the queue for a tenth of the build.
+ * Build durations, the pipeline failure rate, response latency and injected 429/500 responses
+ * are all configurable, so thousands of pipelines can be run against it on a laptop with no network.
+ * A request quota per access token can be set as well: like GitLab, every response then carries
+ * the RateLimit-* headers, and requests beyond the quota of the current window are rejected with 429.
+ * When a webhook URL is set, it also POSTs a "Pipeline Hook" event whenever a pipeline starts
+ * running or finishes, like a project webhook of a real instance.
+ * <p>
+ * It can also be started on its own and pointed to with --gitlab-url:
+ * <pre>
+ *     java -cp flow-forge-benchmarks.jar com.gitlab.orchestrator.FakeGitLabServer --port=8929 --build-ms=30000
+ * </pre>
+ */
+public class FakeGitLabServer implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(FakeGitLabServer.class);
+    private static final String PROJECTS_PATH = "/api/v4/projects/";
+    private static final DateTimeFormatter TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    static {
+        // The JDK server closes idle keep-alive connections beyond 200 right away, so pooled clients would
+        // write requests to closed sockets; GitLab keeps them open until its keep-alive timeout instead
+        if (System.getProperty("sun.net.httpserver.maxIdleConnections") == null) {
+            System.setProperty("sun.net.httpserver.maxIdleConnections", "10000");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService handler;
+    private final ScheduledExecutorService webhookTimer;
+    private final HttpClient webhookClient = HttpClient.newHttpClient();
+    private final ObjectMapper json = new ObjectMapper();
+    private final AtomicLong nextPipelineId = new AtomicLong(1000);
+    private final ConcurrentMap<String, AtomicLong> nextPipelineIids = new ConcurrentHashMap<>();
+    private final AtomicLong nextProjectId = new AtomicLong(100000);
+    // Numeric IDs given to the projects addressed by path
+    private final ConcurrentMap<String, Long> projectPathIds = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, NavigableMap<Long, SimulatedPipeline>> projects = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Long> projectBuildDurationsMs = new ConcurrentHashMap<>();
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder rateLimitedCount = new LongAdder();
+    private final LongAdder errorCount = new LongAdder();
+    private final LongAdder webhookCount = new LongAdder();
+
+    private volatile long queueDelayMs;
+    private volatile long buildDurationMs = 5000;
+    private volatile long buildJitterMs;
+    private volatile double pipelineFailureRate;
+    private volatile long latencyMs;
+    private volatile long latencyJitterMs;
+    private volatile double rateLimitRate;
+    private volatile int retryAfterSeconds = 1;
+    private volatile double errorRate;
+    private volatile int quota;
+    private volatile int quotaWindowSeconds = 60;
+    private final ConcurrentMap<String, long[]> quotaWindows = new ConcurrentHashMap<>();
+    private volatile String webhookUrl;
+    private volatile String webhookToken = "";
+
+    /**
+     * Starts the server.
+     *
+     * @param port Port to listen on, 0 for any free port
+     * @throws IOException If the server cannot be started
+     */
+    public FakeGitLabServer(int port) throws IOException {
+        AtomicInteger threadCount = new AtomicInteger();
+        // Simulated latency blocks a thread per request, so the pool grows with the load
+        this.handler = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "fake-gitlab-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.webhookTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "fake-gitlab-webhooks");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(port), 1024);
+        this.server.createContext(PROJECTS_PATH, this::handle);
+        this.server.setExecutor(handler);
+        this.server.start();
+        logger.info("Fake GitLab API listening on {}", getBaseUrl());
+    }
+
+    /**
+     * Runs the server until the process is stopped.
+     * Options: --port, --queue-ms, --build-ms, --build-jitter-ms, --failure-rate, --latency-ms,
+     * --latency-jitter-ms, --rate-limit-rate, --retry-after-seconds, --error-rate, --quota,
+     * --quota-window-seconds, --webhook-url and --webhook-token.
+     *
+     * @param args Command line options of the form "--name=value"
+     * @throws IOException          If the server cannot be started
+     * @throws InterruptedException If interrupted while running
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = parseOptions(args);
+        FakeGitLabServer server = new FakeGitLabServer(Integer.parseInt(options.getOrDefault("port", "8929")));
+        server.configure(options);
+        Thread.currentThread().join();
+    }
+
+    /**
+     * Applies the simulation options given on a command line, leaving the others unchanged.
+     *
+     * @param options Options keyed by name, without the leading "--"
+     */
+    public void configure(Map<String, String> options) {
+        if (options.containsKey("queue-ms")) {
+            setQueueDelayMs(Long.parseLong(options.get("queue-ms")));
+        }
+        if (options.containsKey("build-ms") || options.containsKey("build-jitter-ms")) {
+            setBuildDuration(Long.parseLong(options.getOrDefault("build-ms", String.valueOf(buildDurationMs))),
+                    Long.parseLong(options.getOrDefault("build-jitter-ms", String.valueOf(buildJitterMs))));
+        }
+        if (options.containsKey("failure-rate")) {
+            setPipelineFailureRate(Double.parseDouble(options.get("failure-rate")));
+        }
+        if (options.containsKey("latency-ms") || options.containsKey("latency-jitter-ms")) {
+            setLatency(Long.parseLong(options.getOrDefault("latency-ms", String.valueOf(latencyMs))),
+                    Long.parseLong(options.getOrDefault("latency-jitter-ms", String.valueOf(latencyJitterMs))));
+        }
+        if (options.containsKey("rate-limit-rate")) {
+            setRateLimitRate(Double.parseDouble(options.get("rate-limit-rate")));
+        }
+        if (options.containsKey("retry-after-seconds")) {
+            setRetryAfterSeconds(Integer.parseInt(options.get("retry-after-seconds")));
+        }
+        if (options.containsKey("error-rate")) {
+            setErrorRate(Double.parseDouble(options.get("error-rate")));
+        }
+        if (options.containsKey("quota")) {
+            setQuota(Integer.parseInt(options.get("quota")),
+                    Integer.parseInt(options.getOrDefault("quota-window-seconds", String.valueOf(quotaWindowSeconds))));
+        }
+        if (options.containsKey("webhook-url")) {
+            setWebhook(options.get("webhook-url"), options.getOrDefault("webhook-token", ""));
+        }
+    }
+
+    /**
+     * Parses "--name=value" options; arguments that are not options are ignored.
+     *
+     * @param args Command line arguments
+     * @return Options keyed by name
+     */
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                String[] option = arg.substring(2).split("=", 2);
+                options.put(option[0], option.length > 1 ? option[1] : "");
+            }
+        }
+        return options;
+    }
+
+    /**
+     * @return Base URL to configure the orchestrator with, e.g. "http://localhost:8929"
+     */
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Sets how long new pipelines stay pending before they start running.
+     *
+     * @param queueDelayMs Pending time in milliseconds
+     */
+    public void setQueueDelayMs(long queueDelayMs) {
+        this.queueDelayMs = queueDelayMs;
+    }
+
+    /**
+     * Sets how long simulated pipelines run. Each pipeline draws its duration uniformly
+     * from [duration - jitter, duration + jitter].
+     *
+     * @param durationMs Mean build duration in milliseconds
+     * @param jitterMs   Maximum deviation from the mean in milliseconds
+     */
+    public void setBuildDuration(long durationMs, long jitterMs) {
+        this.buildDurationMs = durationMs;
+        this.buildJitterMs = jitterMs;
+    }
+
+    /**
+     * Overrides the mean build duration of one project, e.g. to give a run a few long chains.
+     *
+     * @param projectId  Project ID as it appears in the request path
+     * @param durationMs Mean build duration in milliseconds
+     */
+    public void setProjectBuildDuration(String projectId, long durationMs) {
+        projectBuildDurationsMs.put(projectId, durationMs);
+    }
+
+    /**
+     * @param pipelineFailureRate Fraction of the pipelines that end as failed, between 0 and 1
+     */
+    public void setPipelineFailureRate(double pipelineFailureRate) {
+        this.pipelineFailureRate = pipelineFailureRate;
+    }
+
+    /**
+     * Sets the latency added to every response. Each request draws its latency uniformly
+     * from [latency, latency + jitter].
+     *
+     * @param latencyMs Minimum latency in milliseconds
+     * @param jitterMs  Maximum extra latency in milliseconds
+     */
+    public void setLatency(long latencyMs, long jitterMs) {
+        this.latencyMs = latencyMs;
+        this.latencyJitterMs = jitterMs;
+    }
+
+    /**
+     * @param rateLimitRate Fraction of the requests rejected with 429 Too Many Requests, between 0 and 1
+     */
+    public void setRateLimitRate(double rateLimitRate) {
+        this.rateLimitRate = rateLimitRate;
+    }
+
+    /**
+     * @param retryAfterSeconds Value of the Retry-After header sent with 429 responses
+     */
+    public void setRetryAfterSeconds(int retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * @param errorRate Fraction of the requests failing with 500 Internal Server Error, between 0 and 1
+     */
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * Limits the requests per access token and window, like GitLab's authenticated API rate limit.
+     *
+     * @param quota         Requests accepted per token and window, 0 for no limit
+     * @param windowSeconds Length of a window in seconds; windows start on multiples of it
+     */
+    public void setQuota(int quota, int windowSeconds) {
+        this.quota = quota;
+        this.quotaWindowSeconds = Math.max(1, windowSeconds);
+    }
+
+    /**
+     * Sends pipeline events to a webhook receiver, e.g. the orchestrator's webhook listener.
+     * Only pipelines created afterwards send events.
+     *
+     * @param url   URL the events are POSTed to, or null to stop sending them
+     * @param token Value of the X-Gitlab-Token header, or empty to send none
+     */
+    public void setWebhook(String url, String token) {
+        this.webhookUrl = url;
+        this.webhookToken = token;
+    }
+
+    /**
+     * @return Number of requests received, including rejected ones
+     */
+    public long getRequestCount() {
+        return requestCount.sum();
+    }
+
+    /**
+     * @return Number of requests rejected with 429
+     */
+    public long getRateLimitedCount() {
+        return rateLimitedCount.sum();
+    }
+
+    /**
+     * @return Number of requests failed with an injected 500
+     */
+    public long getErrorCount() {
+        return errorCount.sum();
+    }
+
+    /**
+     * @return Number of webhook events sent
+     */
+    public long getWebhookCount() {
+        return webhookCount.sum();
+    }
+
+    /**
+     * @return Number of pipelines created so far
+     */
+    public int getPipelineCount() {
+        int count = 0;
+        for (NavigableMap<Long, SimulatedPipeline> pipelines : projects.values()) {
+            count += pipelines.size();
+        }
+        return count;
+    }
+
+    /**
+     * Handles a single API request.
+     *
+     * @param exchange HTTP exchange
+     * @throws IOException If the response cannot be written
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            requestCount.increment();
+            simulateLatency();
+
+            if (!consumeQuota(exchange)) {
+                rateLimitedCount.increment();
+                sendMessage(exchange, 429, "429 Too Many Requests");
+                return;
+            }
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (random.nextDouble() < rateLimitRate) {
+                rateLimitedCount.increment();
+                exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSeconds));
+                sendMessage(exchange, 429, "429 Too Many Requests");
+                return;
+            }
+            if (random.nextDouble() < errorRate) {
+                errorCount.increment();
+                sendMessage(exchange, 500, "500 Internal Server Error");
+                return;
+            }
+
+            // Paths look like <projectId>/pipeline, <projectId>/pipelines[/<pipelineId>[/cancel|/jobs]]
+            String[] path = exchange.getRequestURI().getRawPath().substring(PROJECTS_PATH.length()).split("/");
+            String method = exchange.getRequestMethod();
+            String projectId = URLDecoder.decode(path[0], StandardCharsets.UTF_8);
+
+            if (path.length == 2 && "pipeline".equals(path[1]) && "POST".equals(method)) {
+                createPipeline(exchange, projectId);
+            } else if (path.length == 2 && "pipelines".equals(path[1]) && "GET".equals(method)) {
+                listPipelines(exchange, projectId);
+            } else if (path.length == 3 && "pipelines".equals(path[1]) && "GET".equals(method)) {
+                SimulatedPipeline pipeline = findPipeline(projectId, path[2]);
+                if (pipeline == null) {
+                    sendMessage(exchange, 404, "404 Not found");
+                } else {
+                    sendJson(exchange, 200, pipeline.toJson(System.currentTimeMillis()));
+                }
+            } else if (path.length == 4 && "pipelines".equals(path[1]) && "jobs".equals(path[3])
+                    && "GET".equals(method)) {
+                SimulatedPipeline pipeline = findPipeline(projectId, path[2]);
+                if (pipeline == null) {
+                    sendMessage(exchange, 404, "404 Not found");
+                } else {
+                    sendJson(exchange, 200, pipeline.jobsToJson(System.currentTimeMillis()));
+                }
+            } else if (path.length == 4 && "pipelines".equals(path[1]) && "cancel".equals(path[3])
+                    && "POST".equals(method)) {
+                SimulatedPipeline pipeline = findPipeline(projectId, path[2]);
+                if (pipeline == null) {
+                    sendMessage(exchange, 404, "404 Not found");
+                } else {
+                    if (pipeline.cancel(System.currentTimeMillis())) {
+                        sendWebhook(pipeline);
+                    }
+                    sendJson(exchange, 200, pipeline.toJson(System.currentTimeMillis()));
+                }
+            } else {
+                sendMessage(exchange, 404, "404 Not found");
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Error handling {} {}: {}", exchange.getRequestMethod(), exchange.getRequestURI(), e.toString());
+            sendMessage(exchange, 400, "400 Bad request");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Counts a request against the quota of its access token and sets the RateLimit-* headers GitLab sends.
+     *
+     * @param exchange HTTP exchange
+     * @return False if the quota of the current window is used up
+     */
+    private boolean consumeQuota(HttpExchange exchange) {
+        int limit = quota;
+        if (limit <= 0) {
+            return true;
+        }
+
+        long now = System.currentTimeMillis();
+        long windowMs = TimeUnit.SECONDS.toMillis(quotaWindowSeconds);
+        String token = String.valueOf(exchange.getRequestHeaders().getFirst("PRIVATE-TOKEN"));
+        // Window end and requests used so far, per token
+        long[] window = quotaWindows.computeIfAbsent(token, key -> new long[2]);
+        long used;
+        long windowEnd;
+        synchronized (window) {
+            if (now >= window[0]) {
+                window[0] = (now / windowMs + 1) * windowMs;
+                window[1] = 0;
+            }
+            used = ++window[1];
+            windowEnd = window[0];
+        }
+
+        exchange.getResponseHeaders().set("RateLimit-Limit", String.valueOf(limit));
+        exchange.getResponseHeaders().set("RateLimit-Observed", String.valueOf(used));
+        exchange.getResponseHeaders().set("RateLimit-Remaining", String.valueOf(Math.max(0, limit - used)));
+        exchange.getResponseHeaders().set("RateLimit-Reset", String.valueOf(TimeUnit.MILLISECONDS.toSeconds(windowEnd)));
+        if (used <= limit) {
+            return true;
+        }
+        exchange.getResponseHeaders().set("Retry-After", String.valueOf((windowEnd - now + 999) / 1000));
+        return false;
+    }
+
+    /**
+     * Creates a pipeline from a form or JSON body, as sent by gitlab4j without and with variables.
+     *
+     * @param exchange  HTTP exchange
+     * @param projectId Project ID or path
+     * @throws IOException If the request cannot be read or the response cannot be written
+     */
+    private void createPipeline(HttpExchange exchange, String projectId) throws IOException {
+        String ref;
+        try (InputStream body = exchange.getRequestBody()) {
+            String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+            if (contentType != null && contentType.startsWith("application/json")) {
+                JsonNode request = json.readTree(body);
+                ref = request.path("ref").asText(null);
+            } else {
+                ref = parseQuery(new String(body.readAllBytes(), StandardCharsets.UTF_8)).get("ref");
+            }
+        }
+        if (ref == null) {
+            ref = parseQuery(exchange.getRequestURI().getRawQuery()).get("ref");
+        }
+        if (ref == null || ref.isEmpty()) {
+            sendMessage(exchange, 400, "ref is missing");
+            return;
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now = System.currentTimeMillis();
+        long meanDuration = projectBuildDurationsMs.getOrDefault(projectId, buildDurationMs);
+        long duration = Math.max(0, meanDuration + (buildJitterMs > 0 ? random.nextLong(-buildJitterMs, buildJitterMs + 1) : 0));
+        long iid = nextPipelineIids.computeIfAbsent(projectId, key -> new AtomicLong()).incrementAndGet();
+        long numericProjectId = projectId.chars().allMatch(Character::isDigit) ? Long.parseLong(projectId)
+                : projectPathIds.computeIfAbsent(projectId, key -> nextProjectId.incrementAndGet());
+        SimulatedPipeline pipeline = new SimulatedPipeline(nextPipelineId.incrementAndGet(), iid, projectId,
+                numericProjectId, ref, now, now + queueDelayMs, now + queueDelayMs + duration,
+                random.nextDouble() < pipelineFailureRate);
+        projects.computeIfAbsent(projectId, key -> new ConcurrentSkipListMap<>()).put(pipeline.id, pipeline);
+        if (webhookUrl != null) {
+            // A canceled pipeline already sent its event when it was canceled
+            webhookTimer.schedule(() -> {
+                if (pipeline.canceledAt == Long.MAX_VALUE) {
+                    sendWebhook(pipeline);
+                }
+            }, pipeline.startedAt - now, TimeUnit.MILLISECONDS);
+            webhookTimer.schedule(() -> {
+                if (pipeline.canceledAt == Long.MAX_VALUE) {
+                    sendWebhook(pipeline);
+                }
+            }, pipeline.finishedAt - now, TimeUnit.MILLISECONDS);
+        }
+
+        sendJson(exchange, 201, pipeline.toJson(now));
+    }
+
+    /**
+     * Lists the pipelines of a project, honouring updated_after, sort, page and per_page,
+     * and sends the pagination headers read by gitlab4j's Pager. Like GitLab, the listing
+     * only carries the summary fields of each pipeline.
+     *
+     * @param exchange  HTTP exchange
+     * @param projectId Project ID or path
+     * @throws IOException If the response cannot be written
+     */
+    private void listPipelines(HttpExchange exchange, String projectId) throws IOException {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        long updatedAfter = query.containsKey("updated_after") ? parseTimestamp(query.get("updated_after")) : Long.MIN_VALUE;
+        int perPage = Math.min(MAX_PAGE_SIZE, Integer.parseInt(query.getOrDefault("per_page", String.valueOf(DEFAULT_PAGE_SIZE))));
+        int page = Math.max(1, Integer.parseInt(query.getOrDefault("page", "1")));
+
+        long now = System.currentTimeMillis();
+        NavigableMap<Long, SimulatedPipeline> pipelines = projects.getOrDefault(projectId, new ConcurrentSkipListMap<>());
+        Iterable<SimulatedPipeline> ordered = "asc".equals(query.get("sort"))
+                ? pipelines.values() : pipelines.descendingMap().values();
+        List<SimulatedPipeline> matching = new ArrayList<>();
+        for (SimulatedPipeline pipeline : ordered) {
+            if (pipeline.updatedAt(now) >= updatedAfter) {
+                matching.add(pipeline);
+            }
+        }
+
+        int totalPages = Math.max(1, (matching.size() + perPage - 1) / perPage);
+        List<Map<String, Object>> body = new ArrayList<>();
+        for (int i = (page - 1) * perPage; i < Math.min(matching.size(), page * perPage); i++) {
+            body.add(matching.get(i).toSummaryJson(now));
+        }
+
+        exchange.getResponseHeaders().set("X-Page", String.valueOf(page));
+        exchange.getResponseHeaders().set("X-Per-Page", String.valueOf(perPage));
+        exchange.getResponseHeaders().set("X-Total", String.valueOf(matching.size()));
+        exchange.getResponseHeaders().set("X-Total-Pages", String.valueOf(totalPages));
+        exchange.getResponseHeaders().set("X-Next-Page", page < totalPages ? String.valueOf(page + 1) : "");
+        exchange.getResponseHeaders().set("X-Prev-Page", page > 1 ? String.valueOf(page - 1) : "");
+        sendJson(exchange, 200, body);
+    }
+
+    /**
+     * POSTs a "Pipeline Hook" event with the current status of a pipeline, without waiting for the answer.
+     *
+     * @param pipeline Pipeline whose status changed
+     */
+    private void sendWebhook(SimulatedPipeline pipeline) {
+        String url = webhookUrl;
+        if (url == null) {
+            return;
+        }
+
+        Map<String, Object> project = new LinkedHashMap<>();
+        project.put("id", pipeline.numericProjectId);
+        project.put("path_with_namespace", pipeline.projectPath());
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("object_kind", "pipeline");
+        event.put("object_attributes", pipeline.toJson(System.currentTimeMillis()));
+        event.put("project", project);
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .header("X-Gitlab-Event", "Pipeline Hook");
+        if (!webhookToken.isEmpty()) {
+            request.header("X-Gitlab-Token", webhookToken);
+        }
+        try {
+            request.POST(HttpRequest.BodyPublishers.ofByteArray(json.writeValueAsBytes(event)));
+        } catch (IOException e) {
+            logger.warn("Could not serialize webhook event of pipeline {}: {}", pipeline.id, e.toString());
+            return;
+        }
+        webhookCount.increment();
+        webhookClient.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            if (error != null) {
+                logger.warn("Webhook event of pipeline {} could not be delivered: {}", pipeline.id, error.toString());
+            } else if (response.statusCode() != 200) {
+                logger.warn("Webhook event of pipeline {} was answered with {}", pipeline.id, response.statusCode());
+            }
+        });
+    }
+
+    /**
+     * @param projectId  Project ID or path
+     * @param pipelineId Pipeline ID from the request path
+     * @return The pipeline, or null if the project has no such pipeline
+     */
+    private SimulatedPipeline findPipeline(String projectId, String pipelineId) {
+        NavigableMap<Long, SimulatedPipeline> pipelines = projects.get(projectId);
+        return pipelines != null ? pipelines.get(Long.parseLong(pipelineId)) : null;
+    }
+
+    /**
+     * Sleeps for the configured response latency.
+     */
+    private void simulateLatency() {
+        long delay = latencyMs + (latencyJitterMs > 0 ? ThreadLocalRandom.current().nextLong(latencyJitterMs + 1) : 0);
+        if (delay <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void sendMessage(HttpExchange exchange, int status, String message) throws IOException {
+        sendJson(exchange, status, Map.of("message", message));
+    }
+
+    private void sendJson(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = json.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Parses a URL encoded query string or form body.
+     *
+     * @param query Raw query, may be null
+     * @return Parameters keyed by name
+     */
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                parameters.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * @param value ISO 8601 timestamp, e.g. "2024-01-01T08:00:00Z"
+     * @return Epoch milliseconds
+     */
+    private static long parseTimestamp(String value) {
+        try {
+            return OffsetDateTime.parse(value).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return Instant.parse(value).toEpochMilli();
+        }
+    }
+
+    /**
+     * Stops the server.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        handler.shutdownNow();
+        webhookTimer.shutdownNow();
+    }
+
+    /**
+     * A pipeline whose status is derived from the clock: pending until startedAt,
+     * running until finishedAt, then success or failed, unless canceled before.
+     */
+    private static final class SimulatedPipeline {
+        private final long id;
+        private final long iid;
+        private final String projectId;
+        private final long numericProjectId;
+        private final String ref;
+        private final long createdAt;
+        private final long startedAt;
+        private final long finishedAt;
+        private final boolean fails;
+        private volatile long canceledAt = Long.MAX_VALUE;
+
+        SimulatedPipeline(long id, long iid, String projectId, long numericProjectId, String ref, long createdAt,
+                          long startedAt, long finishedAt, boolean fails) {
+            this.id = id;
+            this.iid = iid;
+            this.projectId = projectId;
+            this.numericProjectId = numericProjectId;
+            this.ref = ref;
+            this.createdAt = createdAt;
+            this.startedAt = startedAt;
+            this.finishedAt = finishedAt;
+            this.fails = fails;
+        }
+
+        /**
+         * @return True if the pipeline was canceled by this call, false if it had already finished or been canceled
+         */
+        synchronized boolean cancel(long now) {
+            if (now < finishedAt && canceledAt == Long.MAX_VALUE) {
+                canceledAt = now;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * @return Full path of the project, the one it was addressed by or a made-up one for a numeric ID
+         */
+        String projectPath() {
+            return projectId.equals(String.valueOf(numericProjectId)) ? "group/project-" + projectId : projectId;
+        }
+
+        String status(long now) {
+            if (canceledAt <= now) {
+                return "canceled";
+            }
+            if (now < startedAt) {
+                return "pending";
+            }
+            if (now < finishedAt) {
+                return "running";
+            }
+            return fails ? "failed" : "success";
+        }
+
+        long updatedAt(long now) {
+            if (canceledAt <= now) {
+                return canceledAt;
+            }
+            if (now >= finishedAt) {
+                return finishedAt;
+            }
+            return now >= startedAt ? startedAt : createdAt;
+        }
+
+        /**
+         * @return The fields GitLab returns for each pipeline of a listing
+         */
+        Map<String, Object> toSummaryJson(long now) {
+            Map<String, Object> pipeline = new LinkedHashMap<>();
+            pipeline.put("id", id);
+            pipeline.put("iid", iid);
+            pipeline.put("project_id", numericProjectId);
+            pipeline.put("sha", Long.toHexString(id * 0x9E3779B97F4A7C15L));
+            pipeline.put("ref", ref);
+            pipeline.put("status", status(now));
+            pipeline.put("source", "api");
+            pipeline.put("created_at", TIMESTAMP.format(Instant.ofEpochMilli(createdAt)));
+            pipeline.put("updated_at", TIMESTAMP.format(Instant.ofEpochMilli(updatedAt(now))));
+            pipeline.put("web_url", "http://localhost/" + projectId + "/-/pipelines/" + id);
+            return pipeline;
+        }
+
+        /**
+         * @return The fields GitLab returns for a single pipeline, which add its timings to the summary
+         */
+        Map<String, Object> toJson(long now) {
+            long endedAt = Math.min(canceledAt, finishedAt);
+            boolean started = now >= startedAt && canceledAt >= startedAt;
+            Map<String, Object> pipeline = toSummaryJson(now);
+            pipeline.put("started_at", started ? TIMESTAMP.format(Instant.ofEpochMilli(startedAt)) : null);
+            pipeline.put("finished_at", now >= endedAt ? TIMESTAMP.format(Instant.ofEpochMilli(endedAt)) : null);
+            pipeline.put("duration", started && now >= endedAt ? (endedAt - startedAt) / 1000 : null);
+            return pipeline;
+        }
+
+        /**
+         * The build is split in two: "compile" runs the first half, then "test" waits in the
+         * queue for a tenth of the build and runs the rest. A failing pipeline fails in "test".
+         */
+        List<Map<String, Object>> jobsToJson(long now) {
+            long buildMs = finishedAt - startedAt;
+            long compileEnd = startedAt + buildMs / 2;
+            long testStart = compileEnd + buildMs / 10;
+            List<Map<String, Object>> jobs = new ArrayList<>();
+            jobs.add(jobToJson(now, id * 10 + 1, "compile", "build", createdAt, startedAt, compileEnd, false));
+            jobs.add(jobToJson(now, id * 10 + 2, "test", "test", compileEnd, testStart, finishedAt, fails));
+            return jobs;
+        }
+
+        private Map<String, Object> jobToJson(long now, long jobId, String name, String stage, long jobCreatedAt,
+                                              long jobStartedAt, long jobFinishedAt, boolean jobFails) {
+            long endedAt = Math.min(canceledAt, jobFinishedAt);
+            boolean created = now >= jobCreatedAt && canceledAt >= jobCreatedAt;
+            boolean started = now >= jobStartedAt && canceledAt >= jobStartedAt;
+            String status;
+            if (!created) {
+                status = canceledAt <= now ? "skipped" : "created";
+            } else if (now >= endedAt) {
+                status = canceledAt <= jobFinishedAt ? "canceled" : jobFails ? "failed" : "success";
+            } else {
+                status = started ? "running" : "pending";
+            }
+
+            Map<String, Object> job = new LinkedHashMap<>();
+            job.put("id", jobId);
+            job.put("name", name);
+            job.put("stage", stage);
+            job.put("status", status);
+            job.put("ref", ref);
+            job.put("created_at", TIMESTAMP.format(Instant.ofEpochMilli(created ? jobCreatedAt : createdAt)));
+            job.put("started_at", started ? TIMESTAMP.format(Instant.ofEpochMilli(jobStartedAt)) : null);
+            job.put("finished_at", created && now >= endedAt ? TIMESTAMP.format(Instant.ofEpochMilli(endedAt)) : null);
+            job.put("duration", started ? (Math.min(now, endedAt) - jobStartedAt) / 1000.0 : null);
+            job.put("queued_duration", created ? (Math.min(now, Math.min(jobStartedAt, endedAt)) - jobCreatedAt) / 1000.0 : null);
+            job.put("web_url", "http://localhost/" + projectId + "/-/jobs/" + jobId);
+            return job;
+        }
+    }
+}
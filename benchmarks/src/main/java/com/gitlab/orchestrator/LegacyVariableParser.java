@@ -0,0 +1,60 @@
+package com.gitlab.orchestrator;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The variable parser PipelineConfig used before {@link VariableParser}, kept as the
+ * baseline of {@link VariableParsingBenchmark}.
+ */
+final class LegacyVariableParser {
+
+    private LegacyVariableParser() {
+    }
+
+    /**
+     * Parses a colon-separated string of key-value pairs into a map.
+     *
+     * @param variablesStr String in format "key1=value1:key2=value2:key3=value3"
+     * @return Map of key-value pairs
+     */
+    static Map<String, String> parse(String variablesStr) {
+        Map<String, String> vars = new HashMap<>();
+        
+        if (variablesStr != null && !variablesStr.trim().isEmpty()) {
+            // Check if format is using colon as delimiter (new format)
+            if (variablesStr.contains(":")) {
+                String[] pairs = variablesStr.split(":");
+                for (String pair : pairs) {
+                    if (pair.contains("=")) {
+                        String[] keyValue = pair.split("=", 2);
+                        if (keyValue.length == 2) {
+                            vars.put(keyValue[0].trim(), keyValue[1].trim());
+                        }
+                    }
+                }
+            } 
+            // For backward compatibility - support comma as delimiter (old format)
+            else if (variablesStr.contains(",")) {
+                String[] pairs = variablesStr.split(",");
+                for (String pair : pairs) {
+                    if (pair.contains("=")) {
+                        String[] keyValue = pair.split("=", 2);
+                        if (keyValue.length == 2) {
+                            vars.put(keyValue[0].trim(), keyValue[1].trim());
+                        }
+                    }
+                }
+            }
+            // Single key-value pair without delimiter
+            else if (variablesStr.contains("=")) {
+                String[] keyValue = variablesStr.split("=", 2);
+                if (keyValue.length == 2) {
+                    vars.put(keyValue[0].trim(), keyValue[1].trim());
+                }
+            }
+        }
+        
+        return vars;
+    }
+}
@@ -0,0 +1,120 @@
+package com.gitlab.orchestrator;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Class responsible for running the whole orchestrator against a {@link FakeGitLabServer} at any size.
+ * Writes a synthetic manifest, starts the fake server on a free port, runs
+ * {@link GitLabPipelineExecutor} in parallel mode against it and prints the throughput.
+ * The scaled-down runs checked by the build are in PipelineLoadTest.
+ * <p>
+ * Options: --pipelines (default 1000) and --variables (default 20) size the manifest, the
+ * {@link FakeGitLabServer} options shape the simulation, --webhooks makes the fake server report
+ * pipeline events to the orchestrator's webhook listener, and every other option is passed on
+ * to the orchestrator, e.g.
+ * <pre>
+ *     java -Dlogback.configurationFile=logback-bench.xml -cp flow-forge-benchmarks.jar \
+ *         com.gitlab.orchestrator.LoadTestRunner --pipelines=5000 --build-ms=20000 --build-jitter-ms=10000 \
+ *         --latency-ms=50 --rate-limit-rate=0.01 --max-concurrency=500
+ * </pre>
+ */
+public final class LoadTestRunner {
+    private static final Set<String> SIMULATION_OPTIONS = Set.of("pipelines", "variables", "port", "queue-ms",
+            "build-ms", "build-jitter-ms", "failure-rate", "latency-ms", "latency-jitter-ms", "rate-limit-rate",
+            "retry-after-seconds", "error-rate", "quota", "quota-window-seconds", "webhook-url", "webhook-token", "webhooks");
+    private static final String WEBHOOK_SECRET = "load-test-secret";
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = FakeGitLabServer.parseOptions(args);
+        int pipelineCount = Integer.parseInt(options.getOrDefault("pipelines", "1000"));
+        int variableCount = Integer.parseInt(options.getOrDefault("variables", "20"));
+
+        Path workDir = Files.createTempDirectory("flow-forge-load-test");
+        Path manifest = workDir.resolve("pipelines.csv");
+        SyntheticData.writeManifest(manifest, pipelineCount, variableCount);
+
+        try (FakeGitLabServer server = new FakeGitLabServer(0)) {
+            server.configure(options);
+
+            List<String> executorArgs = executorArgs(server, manifest, workDir);
+            if (options.containsKey("webhooks")) {
+                executorArgs.addAll(enableWebhooks(server));
+            }
+            for (String arg : args) {
+                String name = arg.startsWith("--") ? arg.substring(2).split("=", 2)[0] : "";
+                if (!name.isEmpty() && !SIMULATION_OPTIONS.contains(name)) {
+                    executorArgs.add(arg);
+                }
+            }
+
+            long start = System.nanoTime();
+            GitLabPipelineExecutor.main(executorArgs.toArray(new String[0]));
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("%n%d pipelines in %.1f s (%.1f pipelines/s)%n", server.getPipelineCount(), seconds,
+                    server.getPipelineCount() / seconds);
+            System.out.printf("%d API requests (%.1f per pipeline), %d rejected with 429, %d failed with 500%n",
+                    server.getRequestCount(), server.getRequestCount() / (double) Math.max(1, server.getPipelineCount()),
+                    server.getRateLimitedCount(), server.getErrorCount());
+            if (server.getWebhookCount() > 0) {
+                System.out.printf("%d webhook events sent%n", server.getWebhookCount());
+            }
+        }
+    }
+
+    /**
+     * Builds the orchestrator arguments of a run against the fake server, with defaults suited
+     * to a local server; options added after them override them.
+     *
+     * @param server   Fake GitLab server
+     * @param manifest Manifest of the run
+     * @param workDir  Directory receiving the journal and build history of the run
+     * @return Mutable list of orchestrator arguments
+     */
+    static List<String> executorArgs(FakeGitLabServer server, Path manifest, Path workDir) {
+        return new ArrayList<>(List.of(manifest.toString(),
+                "--gitlab-url=" + server.getBaseUrl(),
+                "--mode=parallel",
+                "--max-concurrency=200",
+                "--http-max-connections=200",
+                "--poll-min-interval-ms=500",
+                "--poll-max-interval-ms=5000",
+                "--rate-limit=10000",
+                "--rate-burst=1000",
+                "--journal=" + workDir.resolve("journal.log"),
+                "--build-history=" + workDir.resolve("build-history.log")));
+    }
+
+    /**
+     * Makes the fake server send its pipeline events to a webhook listener on a free port.
+     *
+     * @param server Fake GitLab server
+     * @return Orchestrator arguments starting the webhook listener
+     * @throws IOException If no port can be found
+     */
+    static List<String> enableWebhooks(FakeGitLabServer server) throws IOException {
+        int webhookPort = freePort();
+        server.setWebhook("http://localhost:" + webhookPort + "/webhooks/gitlab", WEBHOOK_SECRET);
+        return List.of("--webhook-port=" + webhookPort, "--webhook-secret=" + WEBHOOK_SECRET);
+    }
+
+    /**
+     * @return A port that was free a moment ago, for the orchestrator's webhook listener
+     * @throws IOException If no port can be found
+     */
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
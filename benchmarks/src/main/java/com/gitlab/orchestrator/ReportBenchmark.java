@@ -0,0 +1,55 @@
+package com.gitlab.orchestrator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * Benchmarks rendering the end-of-run reports.
+ * The CLI report is written to a discarding stream; the HTML report is written to
+ * flow-forge-report.html (and its further pages) in the working directory, as in a real run.
+ */
+@State(Scope.Benchmark)
+public class ReportBenchmark extends BenchmarkDefaults {
+
+    @Param({"10", "1000", "100000"})
+    public int rows;
+
+    @Param({"0", "20", "200"})
+    public int variables;
+
+    private final PipelineReporter reporter = new PipelineReporter();
+    private final HtmlReportGenerator htmlReportGenerator = new HtmlReportGenerator();
+    private List<PipelineResult> results;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        results = SyntheticData.results(rows, variables);
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void restore() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public void cliReport() {
+        reporter.generateCliReport(results);
+    }
+
+    @Benchmark
+    public void htmlReport() {
+        htmlReportGenerator.generateHtmlReport(results);
+    }
+}
@@ -0,0 +1,142 @@
+package com.gitlab.orchestrator;
+
+import org.gitlab4j.api.models.PipelineStatus;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Class responsible for generating synthetic manifests and results for the benchmarks.
+ * All generators are seeded, so every fork of a benchmark works on the same data.
+ */
+public final class SyntheticData {
+    private static final long SEED = 42L;
+    private static final String HEADER = "App Name,Project Id,Access Token,Branch Name,Variable and Values,Depends On";
+    private static final PipelineStatus[] FINAL_STATUSES = {
+            PipelineStatus.SUCCESS, PipelineStatus.SUCCESS, PipelineStatus.SUCCESS,
+            PipelineStatus.FAILED, PipelineStatus.CANCELED, PipelineStatus.SKIPPED
+    };
+
+    private SyntheticData() {
+    }
+
+    /**
+     * Builds a variables column in the manifest format, e.g. "VAR_0=value-0:VAR_1=value-1".
+     *
+     * @param variableCount Number of variables
+     * @return Variables string, empty if variableCount is 0
+     */
+    public static String variablesString(int variableCount) {
+        StringBuilder sb = new StringBuilder(variableCount * 24);
+        for (int i = 0; i < variableCount; i++) {
+            if (i > 0) {
+                sb.append(':');
+            }
+            sb.append("VAR_").append(i).append("=value-").append(i).append("-").append(Integer.toHexString(i * 7919));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Builds the variables column of one row of a manifest where every row shares the same
+     * base variables and overrides a few of them with row-specific values.
+     *
+     * @param row           Row number
+     * @param variableCount Number of variables
+     * @param overrides     Number of variables overridden by the row
+     * @return Variables string
+     */
+    public static String variablesString(int row, int variableCount, int overrides) {
+        StringBuilder sb = new StringBuilder(variablesString(variableCount));
+        for (int i = 0; i < Math.min(overrides, variableCount); i++) {
+            sb.append(":VAR_").append(i).append("=row-").append(row);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Builds a map of variables with the same keys and values as {@link #variablesString(int)}.
+     *
+     * @param variableCount Number of variables
+     * @return Insertion-ordered map of variables
+     */
+    public static Map<String, String> variables(int variableCount) {
+        Map<String, String> variables = new LinkedHashMap<>();
+        for (int i = 0; i < variableCount; i++) {
+            variables.put("VAR_" + i, "value-" + i + "-" + Integer.toHexString(i * 7919));
+        }
+        return variables;
+    }
+
+    /**
+     * Writes a manifest CSV file. Every tenth row depends on the row before it,
+     * which exercises the optional Depends On column.
+     *
+     * @param file          File to write
+     * @param rowCount      Number of pipeline rows
+     * @param variableCount Number of variables per row
+     * @throws IOException If the file cannot be written
+     */
+    public static void writeManifest(Path file, int rowCount, int variableCount) throws IOException {
+        String variables = variablesString(variableCount);
+
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (int row = 0; row < rowCount; row++) {
+                writer.write(appName(row));
+                writer.write(',');
+                writer.write(String.valueOf(10_000_000 + row % 500));
+                writer.write(",glpat-benchmark-token-");
+                writer.write(String.valueOf(row % 16));
+                writer.write(row % 3 == 0 ? ",main," : ",release/1." + row % 10 + ",");
+                writer.write(variables);
+                writer.write(',');
+                if (row > 0 && row % 10 == 0) {
+                    writer.write(appName(row - 1));
+                }
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Generates pipeline results with realistic spreads of statuses and build times.
+     *
+     * @param rowCount      Number of results
+     * @param variableCount Number of injected variables per result
+     * @return List of pipeline results
+     */
+    public static List<PipelineResult> results(int rowCount, int variableCount) {
+        Random random = new Random(SEED);
+        Map<String, String> variables = variables(variableCount);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 8, 0);
+        List<PipelineResult> results = new ArrayList<>(rowCount);
+
+        for (int row = 0; row < rowCount; row++) {
+            PipelineStatus status = FINAL_STATUSES[random.nextInt(FINAL_STATUSES.length)];
+            LocalDateTime start = base.plusSeconds(row * 5L);
+            LocalDateTime end = status == PipelineStatus.SKIPPED ? null : start.plusSeconds(30 + random.nextInt(1800));
+            results.add(new PipelineResult(appName(row), status == PipelineStatus.SKIPPED ? null : start, end,
+                    status, variables, 1_000_000L + row));
+        }
+        return results;
+    }
+
+    /**
+     * @param row Row number
+     * @return Synthetic application name of the row
+     */
+    public static String appName(int row) {
+        return "service-" + row;
+    }
+}
@@ -0,0 +1,62 @@
+package com.gitlab.orchestrator;
+
+import org.gitlab4j.api.models.Variable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Benchmarks turning the variables column of one row into pipeline variables: parsing the
+ * column when a {@link PipelineConfig} is built, and converting the parsed map into the
+ * GitLab variables sent with the trigger. The single-pass {@link VariableParser} is measured
+ * against the split-based parser it replaced. Converting a canonical {@link VariableSet}
+ * reuses its cached list, while a plain map is converted on every call.
+ */
+@State(Scope.Benchmark)
+public class VariableParsingBenchmark extends BenchmarkDefaults {
+
+    @Param({"0", "1", "20", "200"})
+    public int variables;
+
+    private String variablesString;
+    private Map<String, String> parsedVariables;
+    private Map<String, String> plainVariables;
+
+    @Setup
+    public void prepare() {
+        variablesString = SyntheticData.variablesString(variables);
+        parsedVariables = new PipelineConfig("app", "1", "token", "main", variablesString).getVariables();
+        plainVariables = new LinkedHashMap<>(parsedVariables);
+    }
+
+    @Benchmark
+    public PipelineConfig parseVariables() {
+        return new PipelineConfig("app", "1", "token", "main", variablesString);
+    }
+
+    @Benchmark
+    public Map<String, String> singlePassParser() {
+        return VariableParser.parse(variablesString);
+    }
+
+    @Benchmark
+    public Map<String, String> legacyParser() {
+        return LegacyVariableParser.parse(variablesString);
+    }
+
+    @Benchmark
+    public List<Variable> convertVariables() {
+        return GitLabPipelineExecutor.convertVariables(parsedVariables);
+    }
+
+    @Benchmark
+    public List<Variable> convertPlainMap() {
+        return GitLabPipelineExecutor.convertVariables(plainVariables);
+    }
+}
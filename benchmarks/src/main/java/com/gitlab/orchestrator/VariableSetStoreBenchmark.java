@@ -0,0 +1,52 @@
+package com.gitlab.orchestrator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks interning the variables of a manifest whose rows share a base variable set and
+ * each override a few variables, the typical shape of a release manifest.
+ * Every operation uses a fresh store, so each row is either a repeated string, a new delta
+ * or a new base layer exactly as in a real run.
+ */
+@State(Scope.Benchmark)
+public class VariableSetStoreBenchmark extends BenchmarkDefaults {
+
+    @Param({"1000"})
+    public int rows;
+
+    @Param({"20", "200"})
+    public int variables;
+
+    @Param({"0", "2"})
+    public int overrides;
+
+    private String[] columns;
+
+    @Setup
+    public void prepare() {
+        columns = new String[rows];
+        for (int row = 0; row < rows; row++) {
+            columns[row] = SyntheticData.variablesString(row, variables, overrides);
+        }
+    }
+
+    @Benchmark
+    public void intern(Blackhole blackhole) {
+        VariableSetStore store = new VariableSetStore();
+        for (String column : columns) {
+            blackhole.consume(store.intern(column));
+        }
+    }
+
+    @Benchmark
+    public void parseEveryRow(Blackhole blackhole) {
+        for (String column : columns) {
+            blackhole.consume(VariableParser.parse(column));
+        }
+    }
+}
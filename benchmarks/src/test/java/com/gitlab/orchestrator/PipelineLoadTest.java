@@ -0,0 +1,158 @@
+package com.gitlab.orchestrator;
+
+import org.gitlab4j.api.models.PipelineStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the whole orchestrator against a {@link FakeGitLabServer}, at a size that fits in the build.
+ * Larger runs are made with {@link LoadTestRunner}.
+ */
+@Timeout(120)
+class PipelineLoadTest {
+    @TempDir
+    Path workDir;
+
+    private FakeGitLabServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = new FakeGitLabServer(0);
+        server.setBuildDuration(300, 200);
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.close();
+    }
+
+    @Test
+    void runsEveryPipelineDespiteRateLimitedRequests() throws IOException {
+        server.setLatency(5, 5);
+        server.setRateLimitRate(0.05);
+
+        Map<String, RunJournal.Entry> journal = runSynthetic(300);
+
+        assertEquals(300, server.getPipelineCount());
+        assertAllSucceeded(journal, 300);
+        assertTrue(server.getRateLimitedCount() > 0, "no request was rejected with 429");
+    }
+
+    @Test
+    void completesPipelinesFromWebhookEvents() throws IOException {
+        List<String> webhookArgs = LoadTestRunner.enableWebhooks(server);
+
+        Map<String, RunJournal.Entry> journal = runSynthetic(100, webhookArgs.toArray(new String[0]));
+
+        assertAllSucceeded(journal, 100);
+        assertTrue(server.getWebhookCount() >= 100, server.getWebhookCount() + " webhook events sent");
+    }
+
+    @Test
+    void staysWithinTheQuotaReportedByGitLab() throws IOException {
+        server.setQuota(40, 5);
+        server.setBuildDuration(3000, 0);
+        // One access token shares the quota, and polling these builds would need more than it allows
+        Path manifest = workDir.resolve("pipelines.csv");
+        StringBuilder rows = new StringBuilder("App Name,Project Id,Access Token,Branch Name,Variable and Values,Depends On\n");
+        List<String> appNames = new ArrayList<>();
+        for (int row = 0; row < 30; row++) {
+            appNames.add(SyntheticData.appName(row));
+            rows.append(SyntheticData.appName(row)).append(',').append(row % 10).append(",token,main,A=1,\n");
+        }
+        Files.writeString(manifest, rows);
+
+        Map<String, RunJournal.Entry> journal = run(manifest, appNames, "--rate-limit=50", "--rate-burst=20");
+
+        assertAllSucceeded(journal, 30);
+        assertEquals(0, server.getRateLimitedCount());
+    }
+
+    @Test
+    void haltsTheRunAfterAFailedPipeline() throws IOException {
+        server.setPipelineFailureRate(1.0);
+        Path manifest = workDir.resolve("pipelines.csv");
+        Files.writeString(manifest, "App Name,Project Id,Access Token,Branch Name,Variable and Values,Depends On\n"
+                + "a,1,token,main,A=1,\n"
+                + "b,2,token,main,A=1,\n"
+                + "c,3,token,main,A=1,\n");
+
+        Map<String, RunJournal.Entry> journal = run(manifest, List.of("a", "b", "c"),
+                "--max-concurrency=1", "--read-ahead=0", "--cancellation-policy=let-running-finish");
+
+        assertEquals(1, server.getPipelineCount());
+        assertEquals(PipelineStatus.FAILED, journal.get("a").getFinalStatus());
+        assertNull(journal.get("b"));
+        assertNull(journal.get("c"));
+    }
+
+    /**
+     * Runs the orchestrator on a synthetic manifest.
+     *
+     * @param pipelineCount Number of rows of the manifest
+     * @param options       Orchestrator options on top of the defaults
+     * @return Journal entries of the run, keyed by app name
+     * @throws IOException If the manifest or journal cannot be accessed
+     */
+    private Map<String, RunJournal.Entry> runSynthetic(int pipelineCount, String... options) throws IOException {
+        Path manifest = workDir.resolve("pipelines.csv");
+        SyntheticData.writeManifest(manifest, pipelineCount, 5);
+        List<String> appNames = new ArrayList<>();
+        for (int row = 0; row < pipelineCount; row++) {
+            appNames.add(SyntheticData.appName(row));
+        }
+        return run(manifest, appNames, options);
+    }
+
+    /**
+     * Runs the orchestrator on a manifest with polling suited to short builds.
+     *
+     * @param manifest Manifest of the run
+     * @param appNames Apps of the manifest
+     * @param options  Orchestrator options on top of the defaults
+     * @return Journal entries of the run, keyed by app name
+     * @throws IOException If the journal cannot be read
+     */
+    private Map<String, RunJournal.Entry> run(Path manifest, List<String> appNames, String... options)
+            throws IOException {
+        List<String> args = LoadTestRunner.executorArgs(server, manifest, workDir);
+        args.add("--max-concurrency=50");
+        args.add("--poll-min-interval-ms=100");
+        args.add("--poll-max-interval-ms=500");
+        args.addAll(List.of(options));
+        GitLabPipelineExecutor.main(args.toArray(new String[0]));
+
+        Map<String, RunJournal.Entry> entries = new HashMap<>();
+        try (RunJournal journal = new RunJournal(workDir.resolve("journal.log").toString(), true)) {
+            for (String appName : appNames) {
+                RunJournal.Entry entry = journal.getPreviousEntry(appName);
+                if (entry != null) {
+                    entries.put(appName, entry);
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static void assertAllSucceeded(Map<String, RunJournal.Entry> journal, int pipelineCount) {
+        assertEquals(pipelineCount, journal.size());
+        for (RunJournal.Entry entry : journal.values()) {
+            assertEquals(PipelineStatus.SUCCESS, entry.getFinalStatus(), entry.getAppName());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.gitlab.orchestrator;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Class responsible for deciding how long to wait before polling a pipeline again.
+ * Pipelines are polled quickly right after being triggered (to catch early failures),
+ * then with an exponentially growing, jittered interval while they run. When the
+ * expected build time of the app is known, the interval is capped so that polling
+ * speeds up again as the pipeline approaches its expected finish time.
+ */
+public class AdaptivePollingPolicy {
+    private static final int FAST_POLLS = 3;
+    private static final double JITTER = 0.2;
+    private static final double NEAR_FINISH_FRACTION = 0.1;
+
+    private final long minIntervalMs;
+    private final long maxIntervalMs;
+
+    /**
+     * Constructor for AdaptivePollingPolicy.
+     *
+     * @param minIntervalMs Shortest delay between two polls in milliseconds
+     * @param maxIntervalMs Longest delay between two polls in milliseconds
+     */
+    public AdaptivePollingPolicy(long minIntervalMs, long maxIntervalMs) {
+        this.minIntervalMs = minIntervalMs;
+        this.maxIntervalMs = Math.max(minIntervalMs, maxIntervalMs);
+    }
+
+    /**
+     * Computes the delay before the next poll of a pipeline.
+     *
+     * @param elapsedMs        Time since the pipeline was triggered in milliseconds
+     * @param pollCount        Number of polls already made for the pipeline
+     * @param expectedDuration Expected build time of the app, or null if unknown
+     * @return Delay before the next poll in milliseconds
+     */
+    public long nextDelayMs(long elapsedMs, int pollCount, Duration expectedDuration) {
+        if (pollCount < FAST_POLLS) {
+            return minIntervalMs;
+        }
+
+        // Exponential backoff after the fast phase, capped at the maximum interval
+        int exponent = Math.min(pollCount - FAST_POLLS, 20);
+        long delay = Math.min(maxIntervalMs, minIntervalMs << exponent);
+
+        if (expectedDuration != null && !expectedDuration.isZero()) {
+            long expectedMs = expectedDuration.toMillis();
+            long remainingMs = expectedMs - elapsedMs;
+            long nearFinishMs = Math.max(minIntervalMs, (long) (expectedMs * NEAR_FINISH_FRACTION));
+
+            if (remainingMs > nearFinishMs) {
+                // Never sleep past the point where the pipeline is expected to finish
+                delay = Math.min(delay, Math.max(minIntervalMs, remainingMs / 2));
+            } else if (remainingMs > -nearFinishMs) {
+                delay = minIntervalMs;
+            }
+        }
+
+        return applyJitter(delay);
+    }
+
+    /**
+     * Computes the delay before polling a pipeline again after its status could not be fetched.
+     *
+     * @param consecutiveFailures Number of failed polls in a row, at least one
+     * @return Delay before the next poll in milliseconds, growing exponentially up to the maximum interval
+     */
+    public long failureDelayMs(int consecutiveFailures) {
+        int exponent = Math.min(Math.max(consecutiveFailures, 1), 20);
+        return applyJitter(Math.min(maxIntervalMs, minIntervalMs << exponent));
+    }
+
+    /**
+     * Spreads polls of pipelines started together so they do not hit the API in bursts.
+     *
+     * @param delayMs Delay in milliseconds
+     * @return Jittered delay, never shorter than the minimum interval
+     */
+    private long applyJitter(long delayMs) {
+        double factor = 1 + ThreadLocalRandom.current().nextDouble(-JITTER, JITTER);
+        return Math.max(minIntervalMs, (long) (delayMs * factor));
+    }
+
+    public long getMinIntervalMs() {
+        return minIntervalMs;
+    }
+}
@@ -0,0 +1,225 @@
+package com.gitlab.orchestrator;
+
+import org.gitlab4j.api.models.PipelineStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Class keeping the recent build times of each app.
+ * It is used to predict when a running pipeline is expected to finish, and to start the
+ * longest chains of a parallel run first.
+ * <p>
+ * When opened on a file, the history survives between runs: every recorded build time is
+ * appended as one tab-separated line ("app name", "milliseconds"), and the file is read back
+ * on startup. Only the most recent samples of each app are kept; the file is rewritten with
+ * just those once it has grown well beyond them.
+ */
+public class BuildTimeHistory implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(BuildTimeHistory.class);
+    private static final int MAX_SAMPLES_PER_APP = 20;
+    private static final int COMPACTION_FACTOR = 4;
+
+    private final ConcurrentMap<String, Deque<Duration>> samples = new ConcurrentHashMap<>();
+    private final Writer writer;
+
+    /**
+     * Constructor for an in-memory BuildTimeHistory, forgotten at the end of the run.
+     */
+    public BuildTimeHistory() {
+        this.writer = null;
+    }
+
+    /**
+     * Opens a persistent BuildTimeHistory, loading the build times recorded by previous runs.
+     *
+     * @param filePath Path of the history file, created if it does not exist
+     * @throws IOException If the history file cannot be read or opened
+     */
+    public BuildTimeHistory(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        if (Files.exists(path)) {
+            int lineCount = load(path);
+            int sampleCount = samples.values().stream().mapToInt(Deque::size).sum();
+            logger.info("Loaded {} build times of {} apps from {}", sampleCount, samples.size(), path);
+            if (lineCount > COMPACTION_FACTOR * Math.max(sampleCount, MAX_SAMPLES_PER_APP)) {
+                compact(path);
+            }
+        }
+        this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Records the build time of a finished pipeline. Only successful builds are recorded,
+     * since failed pipelines usually stop early and would skew the prediction.
+     *
+     * @param result Result of the pipeline execution
+     */
+    public void record(PipelineResult result) {
+        if (result.getStatus() != PipelineStatus.SUCCESS || result.getBuildTime().isZero()) {
+            return;
+        }
+
+        add(result.getAppName(), result.getBuildTime());
+        if (writer != null) {
+            synchronized (writer) {
+                try {
+                    writer.write(RunJournal.escape(result.getAppName()) + "\t" + result.getBuildTime().toMillis() + "\n");
+                    writer.flush();
+                } catch (IOException e) {
+                    logger.warn("Could not record the build time of app '{}': {}", result.getAppName(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the expected build time of an app, the median of its recent build times.
+     *
+     * @param appName Name of the application
+     * @return Expected build time, or null if the app has no history
+     */
+    public Duration expectedBuildTime(String appName) {
+        return getPercentile(appName, 50);
+    }
+
+    /**
+     * Returns a percentile of the recent build times of an app, using the nearest-rank method.
+     *
+     * @param appName    Name of the application
+     * @param percentile Percentile between 0 and 100, e.g. 90
+     * @return Build time at the percentile, or null if the app has no history
+     */
+    public Duration getPercentile(String appName, double percentile) {
+        Deque<Duration> appSamples = samples.get(appName);
+        if (appSamples == null) {
+            return null;
+        }
+
+        List<Duration> sorted;
+        synchronized (appSamples) {
+            sorted = new ArrayList<>(appSamples);
+        }
+        if (sorted.isEmpty()) {
+            return null;
+        }
+        Collections.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+        return sorted.get(Math.min(sorted.size() - 1, Math.max(0, rank - 1)));
+    }
+
+    /**
+     * Returns a build time to assume for apps without history: the median of the expected
+     * build times of the apps that have one.
+     *
+     * @return Typical build time, or null if no app has history
+     */
+    public Duration typicalBuildTime() {
+        List<Duration> expected = new ArrayList<>();
+        for (String appName : samples.keySet()) {
+            Duration appExpected = expectedBuildTime(appName);
+            if (appExpected != null) {
+                expected.add(appExpected);
+            }
+        }
+        if (expected.isEmpty()) {
+            return null;
+        }
+        Collections.sort(expected);
+        return expected.get(expected.size() / 2);
+    }
+
+    /**
+     * Closes the history file, if any.
+     */
+    @Override
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+        synchronized (writer) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                logger.warn("Error closing build time history: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void add(String appName, Duration buildTime) {
+        Deque<Duration> appSamples = samples.computeIfAbsent(appName, key -> new ArrayDeque<>());
+        synchronized (appSamples) {
+            appSamples.addLast(buildTime);
+            if (appSamples.size() > MAX_SAMPLES_PER_APP) {
+                appSamples.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * Reads the history file. Malformed lines, e.g. a truncated last line, are ignored.
+     *
+     * @param path Path of the history file
+     * @return Number of lines in the file
+     * @throws IOException If the file cannot be read
+     */
+    private int load(Path path) throws IOException {
+        int lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String[] fields = line.split("\t", -1);
+                try {
+                    if (fields.length != 2 || Long.parseLong(fields[1]) <= 0) {
+                        throw new IllegalArgumentException("expected an app name and a positive duration");
+                    }
+                    add(RunJournal.unescape(fields[0]), Duration.ofMillis(Long.parseLong(fields[1])));
+                } catch (RuntimeException e) {
+                    logger.warn("Ignoring malformed build time history line {}: {}", lineNumber, e.getMessage());
+                }
+            }
+        }
+        return lineNumber;
+    }
+
+    /**
+     * Rewrites the history file with only the samples kept in memory.
+     * The new file replaces the old one atomically, so a crash leaves either of them intact.
+     *
+     * @param path Path of the history file
+     * @throws IOException If the file cannot be rewritten
+     */
+    private void compact(Path path) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (BufferedWriter compacted = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Deque<Duration>> entry : samples.entrySet()) {
+                for (Duration buildTime : entry.getValue()) {
+                    compacted.write(RunJournal.escape(entry.getKey()) + "\t" + buildTime.toMillis() + "\n");
+                }
+            }
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.info("Compacted build time history {}", path);
+    }
+}
@@ -0,0 +1,38 @@
+package com.gitlab.orchestrator;
+
+/**
+ * Enum representing what happens to the other pipelines of a run, or of a group, when one fails.
+ */
+public enum CancellationPolicy {
+    /**
+     * Starts no further pipelines and cancels the ones still running, freeing their runners.
+     */
+    FAIL_FAST,
+
+    /**
+     * Starts no further pipelines but lets the running ones finish.
+     */
+    LET_RUNNING_FINISH,
+
+    /**
+     * Keeps going; only the pipelines downstream of the failed one are skipped.
+     */
+    CONTINUE_ALL;
+
+    /**
+     * Resolves a cancellation policy from its (case-insensitive) name, with "-" or "_" between words.
+     *
+     * @param value Policy name, e.g. "fail-fast"
+     * @return Matching cancellation policy
+     * @throws IllegalArgumentException If the value does not name a policy
+     */
+    public static CancellationPolicy fromString(String value) {
+        String name = value.trim().replace('-', '_');
+        for (CancellationPolicy policy : values()) {
+            if (policy.name().equalsIgnoreCase(name)) {
+                return policy;
+            }
+        }
+        throw new IllegalArgumentException("Unknown cancellation policy: " + value);
+    }
+}
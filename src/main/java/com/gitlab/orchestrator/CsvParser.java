@@ -7,8 +7,17 @@ import org.slf4j.LoggerFactory;
 
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Class responsible for parsing the CSV file containing pipeline configurations.
@@ -21,6 +30,13 @@ public class CsvParser {
     private static final int ACCESS_TOKEN_INDEX = 2;
     private static final int BRANCH_NAME_INDEX = 3;
     private static final int VARIABLES_INDEX = 4;
+    private static final String DEPENDS_ON_HEADER = "Depends On";
+    private static final String GITLAB_URL_HEADER = "GitLab URL";
+    private static final String GROUP_HEADER = "Group";
+    private static final String ON_FAILURE_HEADER = "On Failure";
+    private static final String PRIORITY_HEADER = "Priority";
+    private static final String RUNNER_TAGS_HEADER = "Runner Tags";
+    private static final String INDEPENDENT_HEADER = "Independent";
 
     /**
      * Reads the CSV file and parses it into PipelineConfig objects.
@@ -30,78 +46,289 @@ public class CsvParser {
      * @throws IOException If there is an error reading the file
      */
     public List<PipelineConfig> parse(String filePath) throws IOException {
+        try (Stream<PipelineConfig> configs = stream(filePath)) {
+            return configs.collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Opens the CSV file and parses it lazily, one row at a time, so that callers can start
+     * working on the first rows while later ones are still being read. Invalid rows are
+     * reported as soon as they are reached and left out of the stream.
+     * The returned stream must be closed to release the file.
+     *
+     * @param filePath Path to the CSV file
+     * @return Lazily parsed stream of PipelineConfig objects
+     * @throws IOException If the file cannot be opened or its header is invalid; read errors
+     *                     after the header surface as {@link UncheckedIOException}
+     */
+    public Stream<PipelineConfig> stream(String filePath) throws IOException {
         logger.info("Starting to parse CSV file: {}", filePath);
-        List<PipelineConfig> configs = new ArrayList<>();
+        return stream(new FileReader(filePath));
+    }
+
+    /**
+     * Parses CSV content lazily, one row at a time, e.g. a manifest submitted to the daemon.
+     * The returned stream must be closed to release the reader.
+     *
+     * @param source Reader of the CSV content, closed with the stream
+     * @return Lazily parsed stream of PipelineConfig objects
+     * @throws IOException If the header is invalid; read errors after the header surface as
+     *                     {@link UncheckedIOException}
+     */
+    public Stream<PipelineConfig> stream(Reader source) throws IOException {
+        CSVReader reader = new CSVReader(source);
         
-        try (CSVReader reader = new CSVReader(new FileReader(filePath))) {
+        try {
             String[] header = reader.readNext(); // Skip header row
             
             if (header == null || header.length < EXPECTED_COLUMN_COUNT) {
                 throw new IOException("CSV file header is missing or has incorrect format");
             }
             
-            String[] line;
-            int lineNumber = 1; // Start from 1 because we already read the header
-            
-            while ((line = reader.readNext()) != null) {
-                lineNumber++;
-                
-                if (line.length < EXPECTED_COLUMN_COUNT) {
-                    logger.warn("Line {} has fewer columns than expected ({}), skipping", lineNumber, EXPECTED_COLUMN_COUNT);
-                    continue;
-                }
-                
-                try {
-                    PipelineConfig config = new PipelineConfig(
-                            line[APP_NAME_INDEX],
-                            line[PROJECT_ID_INDEX],
-                            line[ACCESS_TOKEN_INDEX],
-                            line[BRANCH_NAME_INDEX],
-                            line.length > VARIABLES_INDEX ? line[VARIABLES_INDEX] : ""
-                    );
-                    
-                    validateConfig(config, lineNumber);
-                    configs.add(config);
-                    logger.debug("Added pipeline config for app: {}", config.getAppName());
-                } catch (Exception e) {
-                    logger.error("Error parsing line {}: {}", lineNumber, e.getMessage());
-                }
-            }
+            ConfigIterator iterator = new ConfigIterator(reader, header);
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                    .onClose(iterator::close);
         } catch (CsvValidationException e) {
+            reader.close();
             logger.error("Error validating CSV file", e);
             throw new IOException("Error validating CSV file: " + e.getMessage(), e);
+        } catch (IOException e) {
+            reader.close();
+            throw e;
         }
-        
-        logger.info("CSV parsing completed. Found {} valid pipeline configurations", configs.size());
-        return configs;
+    }
+
+    /**
+     * Iterator reading and validating one CSV row at a time.
+     */
+    private class ConfigIterator implements Iterator<PipelineConfig> {
+        private final CSVReader reader;
+        private final int dependsOnIndex;
+        private final int gitLabUrlIndex;
+        private final int groupIndex;
+        private final int onFailureIndex;
+        private final int priorityIndex;
+        private final int runnerTagsIndex;
+        private final int independentIndex;
+        private int lineNumber = 1; // Start from 1 because we already read the header
+        private int validCount;
+        private PipelineConfig next;
+        private boolean finished;
+
+        ConfigIterator(CSVReader reader, String[] header) {
+            this.reader = reader;
+            // Optional columns are located by header name so they can appear in any order
+            this.dependsOnIndex = findColumn(header, DEPENDS_ON_HEADER);
+            this.gitLabUrlIndex = findColumn(header, GITLAB_URL_HEADER);
+            this.groupIndex = findColumn(header, GROUP_HEADER);
+            this.onFailureIndex = findColumn(header, ON_FAILURE_HEADER);
+            this.priorityIndex = findColumn(header, PRIORITY_HEADER);
+            this.runnerTagsIndex = findColumn(header, RUNNER_TAGS_HEADER);
+            this.independentIndex = findColumn(header, INDEPENDENT_HEADER);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !finished) {
+                next = readNextValid();
+            }
+            return next != null;
+        }
+
+        @Override
+        public PipelineConfig next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            PipelineConfig config = next;
+            next = null;
+            return config;
+        }
+
+        /**
+         * Reads rows until a valid one is found, reporting invalid rows along the way.
+         *
+         * @return Next valid configuration, or null at the end of the file
+         */
+        private PipelineConfig readNextValid() {
+            try {
+                String[] line;
+                while ((line = reader.readNext()) != null) {
+                    lineNumber++;
+                    
+                    if (line.length < EXPECTED_COLUMN_COUNT) {
+                        logger.warn("Line {} has fewer columns than expected ({}), skipping", lineNumber, EXPECTED_COLUMN_COUNT);
+                        continue;
+                    }
+                    
+                    try {
+                        PipelineConfig config = new PipelineConfig(
+                                line[APP_NAME_INDEX],
+                                line[PROJECT_ID_INDEX],
+                                line[ACCESS_TOKEN_INDEX],
+                                line[BRANCH_NAME_INDEX],
+                                line.length > VARIABLES_INDEX ? line[VARIABLES_INDEX] : "",
+                                optionalValue(line, dependsOnIndex)
+                        );
+                        config.setGitLabUrl(optionalValue(line, gitLabUrlIndex));
+                        config.setGroup(optionalValue(line, groupIndex));
+                        String onFailure = optionalValue(line, onFailureIndex);
+                        if (!onFailure.trim().isEmpty()) {
+                            config.setOnFailure(CancellationPolicy.fromString(onFailure));
+                        }
+                        config.setPriority(parsePriority(optionalValue(line, priorityIndex), lineNumber));
+                        config.setRunnerTags(parseRunnerTags(optionalValue(line, runnerTagsIndex)));
+                        config.setIndependent(parseIndependent(optionalValue(line, independentIndex), lineNumber));
+                        
+                        validateConfig(config, "line " + lineNumber);
+                        validCount++;
+                        logger.debug("Added pipeline config for app: {}", config.getAppName());
+                        return config;
+                    } catch (Exception e) {
+                        logger.error("Error parsing line {}: {}", lineNumber, e.getMessage());
+                    }
+                }
+            } catch (CsvValidationException e) {
+                logger.error("Error validating CSV file", e);
+                throw new UncheckedIOException(new IOException("Error validating CSV file: " + e.getMessage(), e));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            
+            finished = true;
+            logger.info("CSV parsing completed. Found {} valid pipeline configurations", validCount);
+            return null;
+        }
+
+        void close() {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                logger.warn("Error closing CSV file: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Parses the optional priority of a row.
+     *
+     * @param value      Raw value of the "Priority" column
+     * @param lineNumber Line number for error reporting
+     * @return Priority, 1 if the value is empty
+     * @throws IllegalArgumentException If the value is not a positive integer
+     */
+    private int parsePriority(String value, int lineNumber) {
+        if (value.trim().isEmpty()) {
+            return 1;
+        }
+        try {
+            int priority = Integer.parseInt(value.trim());
+            if (priority > 0) {
+                return priority;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Priority must be a positive integer (line " + lineNumber + ")");
+    }
+
+    /**
+     * Parses the optional independent flag of a row.
+     *
+     * @param value      Raw value of the "Independent" column: "yes"/"true" or "no"/"false"
+     * @param lineNumber Line number for error reporting
+     * @return True if the row is independent, false if the value is empty
+     * @throws IllegalArgumentException If the value is not a yes/no value
+     */
+    private boolean parseIndependent(String value, int lineNumber) {
+        String flag = value.trim().toLowerCase();
+        if (flag.equals("yes") || flag.equals("true")) {
+            return true;
+        }
+        if (flag.isEmpty() || flag.equals("no") || flag.equals("false")) {
+            return false;
+        }
+        throw new IllegalArgumentException("Independent must be yes or no (line " + lineNumber + ")");
+    }
+
+    /**
+     * Parses the optional runner tags of a row.
+     *
+     * @param value Raw value of the "Runner Tags" column, tags separated by semicolons
+     * @return List of runner tags
+     */
+    private List<String> parseRunnerTags(String value) {
+        List<String> tags = new ArrayList<>();
+        for (String tag : value.split(";")) {
+            if (!tag.trim().isEmpty()) {
+                tags.add(tag.trim());
+            }
+        }
+        return tags;
+    }
+
+    /**
+     * Finds the index of an optional column by its header name.
+     *
+     * @param header     Header row of the CSV file
+     * @param columnName Name of the column to look for (case-insensitive)
+     * @return Index of the column, or -1 if the column is not present
+     */
+    private int findColumn(String[] header, String columnName) {
+        for (int i = 0; i < header.length; i++) {
+            if (header[i] != null && header[i].trim().equalsIgnoreCase(columnName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads the value of an optional column from a CSV line.
+     *
+     * @param line  CSV line
+     * @param index Index of the column, or -1 if the column is not present
+     * @return Column value, or an empty string if the column is absent
+     */
+    private String optionalValue(String[] line, int index) {
+        return index >= 0 && index < line.length ? line[index] : "";
     }
 
     /**
      * Validates a pipeline configuration.
      *
      * @param config     PipelineConfig to validate
-     * @param lineNumber Line number in the CSV file
+     * @param location   Where the configuration comes from, e.g. "line 3", for error reporting
      * @throws IllegalArgumentException If the configuration is invalid
      */
-    private void validateConfig(PipelineConfig config, int lineNumber) throws IllegalArgumentException {
+    static void validateConfig(PipelineConfig config, String location) throws IllegalArgumentException {
         if (config.getAppName() == null || config.getAppName().trim().isEmpty()) {
-            throw new IllegalArgumentException("App name is required (line " + lineNumber + ")");
+            throw new IllegalArgumentException("App name is required (" + location + ")");
         }
         
         if (config.getProjectId() == null || config.getProjectId().trim().isEmpty()) {
-            throw new IllegalArgumentException("Project ID is required (line " + lineNumber + ")");
+            throw new IllegalArgumentException("Project ID is required (" + location + ")");
         }
         
         if (config.getAccessToken() == null || config.getAccessToken().trim().isEmpty()) {
-            throw new IllegalArgumentException("Access token is required (line " + lineNumber + ")");
+            throw new IllegalArgumentException("Access token is required (" + location + ")");
         }
         
         // Branch name can be empty, defaults to "main" in the PipelineConfig constructor
         
+        // GitLab URL can be empty, the default instance is used then
+        String gitLabUrl = config.getGitLabUrl();
+        if (!gitLabUrl.isEmpty() && !gitLabUrl.startsWith("https://") && !gitLabUrl.startsWith("http://")) {
+            throw new IllegalArgumentException("GitLab URL must start with http:// or https:// (" + location + ")");
+        }
+        
         try {
             Integer.parseInt(config.getProjectId());
         } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("Project ID must be a number (line " + lineNumber + ")");
+            throw new IllegalArgumentException("Project ID must be a number (" + location + ")");
         }
     }
 }
@@ -0,0 +1,33 @@
+package com.gitlab.orchestrator;
+
+/**
+ * Enum representing the strategies available for executing the configured pipelines.
+ */
+public enum ExecutionMode {
+    /**
+     * Runs pipelines one at a time in CSV order. By default the run stops at the first failure.
+     */
+    SEQUENTIAL,
+
+    /**
+     * Runs independent pipelines concurrently, respecting the "Depends On" column.
+     * By default a failure only skips the pipelines downstream of it.
+     */
+    PARALLEL;
+
+    /**
+     * Resolves an execution mode from its (case-insensitive) name.
+     *
+     * @param value Mode name, e.g. "parallel"
+     * @return Matching execution mode
+     * @throws IllegalArgumentException If the value does not name a mode
+     */
+    public static ExecutionMode fromString(String value) {
+        for (ExecutionMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(value.trim())) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown execution mode: " + value);
+    }
+}
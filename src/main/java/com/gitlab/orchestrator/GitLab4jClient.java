@@ -0,0 +1,227 @@
+package com.gitlab.orchestrator;
+
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.conn.DefaultHttpResponseParserFactory;
+import org.apache.http.impl.conn.ManagedHttpClientConnectionFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.io.HttpMessageParser;
+import org.apache.http.io.HttpMessageParserFactory;
+import org.gitlab4j.api.Constants;
+import org.gitlab4j.api.GitLabApi;
+import org.gitlab4j.api.GitLabApiException;
+import org.gitlab4j.api.Pager;
+import org.gitlab4j.api.models.Job;
+import org.gitlab4j.api.models.Pipeline;
+import org.gitlab4j.api.models.PipelineFilter;
+import org.gitlab4j.api.models.Variable;
+import org.glassfish.jersey.apache.connector.ApacheClientProperties;
+import org.glassfish.jersey.client.ClientProperties;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class responsible for making the GitLab calls with gitlab4j, whose calls block until GitLab answers.
+ * Calls run on a pool with one thread per pooled keep-alive connection, so callers never block and
+ * the number of requests in flight is the same as with the asynchronous client. gitlab4j does not
+ * hand out the headers of successful responses, so the rate limit headers are read where the
+ * pooled connections parse the responses.
+ */
+public class GitLab4jClient implements GitLabClient {
+    private static final long IDLE_CONNECTION_TTL_SECONDS = 60;
+    private static final int VALIDATE_AFTER_INACTIVITY_MS = 2000;
+    private static final int PAGE_SIZE = 100;
+    private static final AtomicInteger clientCount = new AtomicInteger();
+
+    private final GitLabApi gitLabApi;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final ExecutorService callers;
+    private volatile RateLimitStatus rateLimitStatus;
+
+    /**
+     * Functional interface for a single blocking gitlab4j call.
+     *
+     * @param <T> Type of the call result
+     */
+    @FunctionalInterface
+    private interface GitLabCall<T> {
+        T call() throws GitLabApiException;
+    }
+
+    /**
+     * Constructor for GitLab4jClient, backed by a pooled keep-alive connection manager.
+     *
+     * @param baseUrl     GitLab base URL, e.g. "https://gitlab.com"
+     * @param accessToken GitLab access token
+     * @param settings    Connection pool size and timeouts of the instance
+     */
+    public GitLab4jClient(String baseUrl, String accessToken, GitLabHosts.Settings settings) {
+        int maxConnections = settings.getMaxConnections();
+        HttpMessageParserFactory<HttpResponse> responseParsers = (buffer, constraints) -> {
+            HttpMessageParser<HttpResponse> parser = DefaultHttpResponseParserFactory.INSTANCE.create(buffer, constraints);
+            return () -> {
+                HttpResponse response = parser.parse();
+                recordRateLimit(response);
+                return response;
+            };
+        };
+        this.connectionManager = new PoolingHttpClientConnectionManager(
+                RegistryBuilder.<ConnectionSocketFactory>create()
+                        .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                        .register("https", SSLConnectionSocketFactory.getSocketFactory())
+                        .build(),
+                new ManagedHttpClientConnectionFactory(responseParsers),
+                null, null, IDLE_CONNECTION_TTL_SECONDS, TimeUnit.SECONDS);
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+        connectionManager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MS);
+
+        Map<String, Object> clientProperties = new HashMap<>();
+        clientProperties.put(ApacheClientProperties.CONNECTION_MANAGER, connectionManager);
+        // Jersey would shut the pool down along with a runtime it discards; the pool is closed with this client
+        clientProperties.put(ApacheClientProperties.CONNECTION_MANAGER_SHARED, true);
+        // gitlab4j only switches to the Apache connector, and so to this pool, when a proxy property is
+        // present; without a value it is dropped from the Jersey configuration, leaving no proxy
+        clientProperties.put(ClientProperties.PROXY_URI, null);
+
+        this.gitLabApi = new GitLabApi(baseUrl, accessToken, clientProperties);
+        this.gitLabApi.setRequestTimeout(settings.getConnectTimeoutMs(), settings.getReadTimeoutMs());
+
+        String prefix = "gitlab4j-" + clientCount.incrementAndGet() + "-";
+        AtomicInteger threadCount = new AtomicInteger();
+        this.callers = Executors.newFixedThreadPool(maxConnections, runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public String getBaseUrl() {
+        return gitLabApi.getGitLabServerUrl();
+    }
+
+    @Override
+    public String getAccessToken() {
+        return gitLabApi.getAuthToken();
+    }
+
+    @Override
+    public RateLimitStatus getRateLimitStatus() {
+        return rateLimitStatus;
+    }
+
+    @Override
+    public CompletableFuture<Pipeline> createPipeline(String projectId, String ref, List<Variable> variables) {
+        return submit(() -> gitLabApi.getPipelineApi().createPipeline(projectId, ref, variables));
+    }
+
+    @Override
+    public CompletableFuture<Pipeline> getPipeline(String projectId, long pipelineId) {
+        return submit(() -> gitLabApi.getPipelineApi().getPipeline(projectId, pipelineId));
+    }
+
+    @Override
+    public CompletableFuture<List<Pipeline>> listPipelines(String projectId, Date updatedAfter, long minPipelineId) {
+        return submit(() -> {
+            PipelineFilter filter = new PipelineFilter()
+                    .withUpdatedAfter(updatedAfter)
+                    .withOrderBy(Constants.PipelineOrderBy.ID)
+                    .withSort(Constants.SortOrder.DESC);
+
+            List<Pipeline> pipelines = new ArrayList<>();
+            Pager<Pipeline> pager = gitLabApi.getPipelineApi().getPipelines(projectId, filter, PAGE_SIZE);
+            boolean pastOldest = false;
+            try {
+                while (!pastOldest && pager.hasNext()) {
+                    for (Pipeline pipeline : pager.next()) {
+                        if (pipeline.getId() < minPipelineId) {
+                            pastOldest = true;
+                            break;
+                        }
+                        pipelines.add(pipeline);
+                    }
+                }
+            } catch (RuntimeException e) {
+                // The pager wraps errors of subsequent pages in unchecked exceptions
+                if (e.getCause() instanceof GitLabApiException) {
+                    throw (GitLabApiException) e.getCause();
+                }
+                throw e;
+            }
+            return pipelines;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Pipeline> cancelPipeline(String projectId, long pipelineId) {
+        return submit(() -> gitLabApi.getPipelineApi().cancelPipelineJobs(projectId, pipelineId));
+    }
+
+    @Override
+    public CompletableFuture<List<Job>> listJobs(String projectId, long pipelineId) {
+        return submit(() -> gitLabApi.getJobApi().getJobsForPipeline(projectId, pipelineId, PAGE_SIZE).all());
+    }
+
+    /**
+     * Keeps the rate limit state reported by a response, if it has one.
+     *
+     * @param response Response as parsed by a pooled connection, before its body is read
+     */
+    private void recordRateLimit(HttpResponse response) {
+        RateLimitStatus status = RateLimitStatus.fromHeaders(name -> {
+            Header header = response.getFirstHeader(name);
+            return header != null ? header.getValue() : null;
+        });
+        if (status != null) {
+            rateLimitStatus = status;
+        }
+    }
+
+    /**
+     * Runs a blocking call on the pool.
+     *
+     * @param call The call to run
+     * @param <T>  Type of the call result
+     * @return Future completed with the result of the call
+     */
+    private <T> CompletableFuture<T> submit(GitLabCall<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            callers.execute(() -> {
+                try {
+                    result.complete(call.call());
+                } catch (GitLabApiException | RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new GitLabApiException("GitLab client has been closed"));
+        }
+        return result;
+    }
+
+    /**
+     * Stops the pool and closes the connections.
+     */
+    @Override
+    public void close() {
+        callers.shutdownNow();
+        gitLabApi.close();
+        connectionManager.close();
+    }
+}
@@ -0,0 +1,384 @@
+package com.gitlab.orchestrator;
+
+import org.gitlab4j.api.GitLabApiException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Class responsible for sending every GitLab API call through a rate limiter and retry policy.
+ * Each (GitLab instance, access token) pair gets its own {@link TokenBucket}. Calls rejected
+ * with 429 or failing with a transient 5xx/network error are retried with bounded, jittered
+ * exponential backoff, honouring the Retry-After and RateLimit-Reset headers sent by GitLab.
+ * The RateLimit-Remaining and RateLimit-Reset headers of every response, successful or not, also
+ * slow the bucket down before GitLab's rate limit window runs out, so calls stay close to the limit
+ * without tripping it.
+ * Waiting for the rate limiter and between retries happens on a scheduler thread, so calls made
+ * with an asynchronous {@link GitLabClient} never hold a thread.
+ */
+public class GitLabApiCaller {
+    private static final Logger logger = LoggerFactory.getLogger(GitLabApiCaller.class);
+    private static final long BASE_BACKOFF_MS = 1000;
+    private static final long MAX_BACKOFF_MS = 60000;
+
+    private final double permitsPerSecond;
+    private final int burst;
+    private final int maxRetries;
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final LongAdder requestCount = new LongAdder();
+    private final MetricsRegistry metrics = MetricsRegistry.getDefault();
+    private final ConcurrentMap<String, HostStats> hostStats = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, HostStats> hostStatsByUrl = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Constructor for GitLabApiCaller.
+     *
+     * @param permitsPerSecond Sustained request rate per GitLab instance and token
+     * @param burst            Number of requests that may be sent back to back
+     * @param maxRetries       Maximum number of retries of a failed call
+     */
+    public GitLabApiCaller(double permitsPerSecond, int burst, int maxRetries) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.maxRetries = maxRetries;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gitlab-api-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Executes a call that can safely be repeated, such as a read.
+     *
+     * @param client    GitLab client the call is made with
+     * @param operation Short description of the call, used in logs
+     * @param call      Starts the call; invoked again for every retry
+     * @param <T>       Type of the call result
+     * @return Future completed with the result of the call, or exceptionally with a {@link GitLabApiException}
+     * if the call fails permanently or runs out of retries
+     */
+    public <T> CompletableFuture<T> execute(GitLabClient client, String operation, Supplier<CompletableFuture<T>> call) {
+        return execute(client, operation, true, call);
+    }
+
+    /**
+     * Executes a call through the rate limiter, retrying transient failures. Nothing blocks:
+     * the call is started once the rate limiter allows it, and retries are scheduled after
+     * their backoff. Calls that are not idempotent (e.g. creating a pipeline) are only retried
+     * when GitLab guarantees the request was not processed (429 and 503).
+     *
+     * @param client     GitLab client the call is made with
+     * @param operation  Short description of the call, used in logs
+     * @param idempotent True if the call can safely be repeated
+     * @param call       Starts the call; invoked again for every retry
+     * @param <T>        Type of the call result
+     * @return Future completed with the result of the call, or exceptionally with a {@link GitLabApiException}
+     * if the call fails permanently or runs out of retries
+     */
+    public <T> CompletableFuture<T> execute(GitLabClient client, String operation, boolean idempotent,
+                                            Supplier<CompletableFuture<T>> call) {
+        TokenBucket bucket = buckets.computeIfAbsent(client.getBaseUrl() + '\u0000' + client.getAccessToken(),
+                key -> new TokenBucket(permitsPerSecond, burst));
+        HostStats stats = hostStatsByUrl.computeIfAbsent(client.getBaseUrl(),
+                url -> hostStats.computeIfAbsent(GitLabHosts.hostOf(url), HostStats::new));
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attempt(new Call<>(client, operation, idempotent, call, bucket, stats, result), 0);
+        return result;
+    }
+
+    /**
+     * Waits for a call made with {@link #execute}, for callers that need its result right away.
+     *
+     * @param future Future returned by execute
+     * @param <T>    Type of the call result
+     * @return Result of the call
+     * @throws GitLabApiException If the call failed or the wait was interrupted
+     */
+    public static <T> T await(CompletableFuture<T> future) throws GitLabApiException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GitLabApiException("Interrupted while waiting for GitLab");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof GitLabApiException) {
+                throw (GitLabApiException) e.getCause();
+            }
+            throw new GitLabApiException(e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+        }
+    }
+
+    /**
+     * Starts one attempt of a call once the rate limiter allows it.
+     *
+     * @param call    The call
+     * @param attempt Zero-based number of the attempt
+     */
+    private <T> void attempt(Call<T> call, int attempt) {
+        awaitTicket(call, attempt, call.bucket.reserve());
+    }
+
+    /**
+     * Sends one attempt of a call once the rate limiter releases its ticket. The delay is asked
+     * again after every wait, as the bucket may have been paused or slowed down meanwhile.
+     *
+     * @param call    The call
+     * @param attempt Zero-based number of the attempt
+     * @param ticket  Ticket of the attempt in the rate limiter queue
+     */
+    private <T> void awaitTicket(Call<T> call, int attempt, long ticket) {
+        long waitMs = call.bucket.delayMs(ticket);
+        if (waitMs <= 0) {
+            send(call, attempt);
+            return;
+        }
+        try {
+            scheduler.schedule(() -> awaitTicket(call, attempt, ticket), waitMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            call.result.completeExceptionally(new GitLabApiException("Rate limiter has been stopped (" + call.operation + ")"));
+        }
+    }
+
+    /**
+     * Sends one attempt of a call and handles its outcome.
+     *
+     * @param call    The call
+     * @param attempt Zero-based number of the attempt
+     */
+    private <T> void send(Call<T> call, int attempt) {
+        String operationKind = call.operation.split(" ", 2)[0];
+        requestCount.increment();
+        metrics.counter("flowforge_gitlab_api_calls_total", "GitLab API requests sent, including retries",
+                "operation", operationKind).increment();
+        long start = System.nanoTime();
+
+        CompletableFuture<T> response;
+        try {
+            response = call.starter.get();
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        response.whenComplete((value, error) -> {
+            call.stats.latency.recordSince(start);
+            RateLimitStatus rateLimit = call.client.getRateLimitStatus();
+            if (rateLimit != null) {
+                call.bucket.throttle(rateLimit.getRemaining(), rateLimit.getResetAtMillis());
+            }
+            if (error == null) {
+                call.result.complete(value);
+                return;
+            }
+
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (!(cause instanceof GitLabApiException)) {
+                call.stats.failures.increment();
+                call.result.completeExceptionally(cause);
+                return;
+            }
+            GitLabApiException e = (GitLabApiException) cause;
+            if (attempt >= maxRetries || !isRetryable(e, call.idempotent)) {
+                call.stats.failures.increment();
+                metrics.counter("flowforge_gitlab_api_failures_total", "GitLab API calls that failed for good",
+                        "operation", operationKind, "status", String.valueOf(e.getHttpStatus())).increment();
+                call.result.completeExceptionally(e);
+                return;
+            }
+            call.stats.retries.increment();
+            metrics.counter("flowforge_gitlab_api_retries_total", "GitLab API requests retried",
+                    "operation", operationKind, "status", String.valueOf(e.getHttpStatus())).increment();
+
+            long serverDelayMs = serverRequestedDelayMs(e);
+            if (e.getHttpStatus() == 429) {
+                call.bucket.pauseUntil(System.currentTimeMillis() + Math.max(serverDelayMs, BASE_BACKOFF_MS));
+            }
+
+            long delayMs = Math.min(MAX_BACKOFF_MS, Math.max(serverDelayMs, backoffMs(attempt)));
+            logger.warn("{} failed with HTTP {} ({}), retrying in {} ms (attempt {}/{})",
+                    call.operation, e.getHttpStatus(), e.getMessage(), delayMs, attempt + 1, maxRetries);
+            try {
+                scheduler.schedule(() -> attempt(call, attempt + 1), delayMs, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException rejected) {
+                call.result.completeExceptionally(e);
+            }
+        });
+    }
+
+    /**
+     * @return Number of requests sent so far, including retries
+     */
+    public long getRequestCount() {
+        return requestCount.sum();
+    }
+
+    /**
+     * @return Request statistics of every GitLab host called so far, keyed and sorted by host
+     */
+    public Map<String, HostStats> getHostStats() {
+        return Collections.unmodifiableMap(new TreeMap<>(hostStats));
+    }
+
+    /**
+     * Determines whether a failed call may be retried.
+     *
+     * @param e          Exception thrown by the call
+     * @param idempotent True if the call can safely be repeated
+     * @return True if the call may be retried
+     */
+    private boolean isRetryable(GitLabApiException e, boolean idempotent) {
+        int status = e.getHttpStatus();
+        if (status == 429 || status == 503) {
+            return true;
+        }
+        if (!idempotent) {
+            return false;
+        }
+        // Status 0 means no response was received, e.g. a connection reset
+        return status == 0 || status == 500 || status == 502 || status == 504;
+    }
+
+    /**
+     * Computes the delay requested by GitLab through the Retry-After or RateLimit-Reset headers.
+     *
+     * @param e Exception of the failed call
+     * @return Requested delay in milliseconds, or 0 if none was requested
+     */
+    private long serverRequestedDelayMs(GitLabApiException e) {
+        String retryAfter = header(e, "Retry-After");
+        if (retryAfter != null) {
+            try {
+                return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+            } catch (NumberFormatException notSeconds) {
+                try {
+                    ZonedDateTime date = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                    return Math.max(0, date.toInstant().toEpochMilli() - System.currentTimeMillis());
+                } catch (DateTimeParseException ignored) {
+                    logger.debug("Ignoring unparseable Retry-After header: {}", retryAfter);
+                }
+            }
+        }
+
+        String remaining = header(e, "RateLimit-Remaining");
+        String reset = header(e, "RateLimit-Reset");
+        if ("0".equals(remaining != null ? remaining.trim() : null) && reset != null) {
+            try {
+                long resetMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(reset.trim()));
+                return Math.max(0, resetMillis - System.currentTimeMillis());
+            } catch (NumberFormatException ignored) {
+                logger.debug("Ignoring unparseable RateLimit-Reset header: {}", reset);
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Computes the jittered exponential backoff for a retry.
+     *
+     * @param attempt Zero-based number of the failed attempt
+     * @return Delay in milliseconds
+     */
+    private long backoffMs(int attempt) {
+        long delay = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << Math.min(attempt, 16));
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    /**
+     * @param e    Exception of a failed call
+     * @param name Header name
+     * @return First value of the header in the error response, or null if there was none
+     */
+    private static String header(GitLabApiException e, String name) {
+        if (e instanceof HttpGitLabClient.ResponseException) {
+            return ((HttpGitLabClient.ResponseException) e).getHeader(name).orElse(null);
+        }
+        return e.getHeaders() != null ? e.getHeaders().getFirst(name) : null;
+    }
+
+    /**
+     * One call going through the rate limiter and retry policy.
+     *
+     * @param <T> Type of the call result
+     */
+    private static final class Call<T> {
+        private final GitLabClient client;
+        private final String operation;
+        private final boolean idempotent;
+        private final Supplier<CompletableFuture<T>> starter;
+        private final TokenBucket bucket;
+        private final HostStats stats;
+        private final CompletableFuture<T> result;
+
+        Call(GitLabClient client, String operation, boolean idempotent, Supplier<CompletableFuture<T>> starter,
+             TokenBucket bucket, HostStats stats, CompletableFuture<T> result) {
+            this.client = client;
+            this.operation = operation;
+            this.idempotent = idempotent;
+            this.starter = starter;
+            this.bucket = bucket;
+            this.stats = stats;
+            this.result = result;
+        }
+    }
+
+    /**
+     * Request statistics of one GitLab host.
+     */
+    public static final class HostStats {
+        private final String host;
+        private final LatencyHistogram latency;
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+
+        HostStats(String host) {
+            this.host = host;
+            this.latency = MetricsRegistry.getDefault().histogram("flowforge_gitlab_api_latency_seconds",
+                    "Latency of GitLab API requests per instance", "host", host);
+        }
+
+        public String getHost() {
+            return host;
+        }
+
+        /**
+         * @return Latency of every request sent to the host, including failed ones
+         */
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        /**
+         * @return Number of calls that failed for good
+         */
+        public long getFailureCount() {
+            return failures.sum();
+        }
+
+        /**
+         * @return Number of requests that were retried
+         */
+        public long getRetryCount() {
+            return retries.sum();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.gitlab.orchestrator;
+
+import org.gitlab4j.api.GitLabApiException;
+import org.gitlab4j.api.models.Job;
+import org.gitlab4j.api.models.Pipeline;
+import org.gitlab4j.api.models.Variable;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Client for the GitLab API calls made by the orchestrator, for one GitLab instance and access token.
+ * Every call returns immediately; the future completes with the result, or exceptionally with a
+ * {@link GitLabApiException} carrying the HTTP status (0 when no response was received).
+ * Calls are sent as is: rate limiting and retries are applied by the {@link GitLabApiCaller}, which
+ * also follows the rate limit headers the client keeps from the responses.
+ */
+public interface GitLabClient extends AutoCloseable {
+
+    /**
+     * @return Base URL of the GitLab instance, e.g. "https://gitlab.com"
+     */
+    String getBaseUrl();
+
+    /**
+     * @return Access token the calls are made with
+     */
+    String getAccessToken();
+
+    /**
+     * @return Rate limit state reported with the latest response of the instance, or null if no response reported one
+     */
+    RateLimitStatus getRateLimitStatus();
+
+    /**
+     * Triggers a pipeline.
+     *
+     * @param projectId Project ID or path
+     * @param ref       Branch or tag to run the pipeline for
+     * @param variables Pipeline variables, may be empty
+     * @return Future completed with the created pipeline
+     */
+    CompletableFuture<Pipeline> createPipeline(String projectId, String ref, List<Variable> variables);
+
+    /**
+     * Fetches a single pipeline.
+     *
+     * @param projectId  Project ID or path
+     * @param pipelineId Pipeline ID
+     * @return Future completed with the pipeline
+     */
+    CompletableFuture<Pipeline> getPipeline(String projectId, long pipelineId);
+
+    /**
+     * Lists the pipelines of a project updated after a given time, newest first, stopping at the
+     * first page that goes past the given pipeline ID.
+     *
+     * @param projectId     Project ID or path
+     * @param updatedAfter  Only pipelines updated after this time are listed
+     * @param minPipelineId Pipelines with a lower ID are not needed
+     * @return Future completed with the listed pipelines
+     */
+    CompletableFuture<List<Pipeline>> listPipelines(String projectId, Date updatedAfter, long minPipelineId);
+
+    /**
+     * Cancels the running and pending jobs of a pipeline.
+     *
+     * @param projectId  Project ID or path
+     * @param pipelineId Pipeline ID
+     * @return Future completed with the pipeline after the cancel request
+     */
+    CompletableFuture<Pipeline> cancelPipeline(String projectId, long pipelineId);
+
+    /**
+     * Lists every job of a pipeline.
+     *
+     * @param projectId  Project ID or path
+     * @param pipelineId Pipeline ID
+     * @return Future completed with the jobs of the pipeline
+     */
+    CompletableFuture<List<Job>> listJobs(String projectId, long pipelineId);
+
+    /**
+     * Releases the connections and threads of the client.
+     */
+    @Override
+    void close();
+}
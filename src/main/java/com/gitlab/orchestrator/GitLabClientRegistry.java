@@ -0,0 +1,116 @@
+package com.gitlab.orchestrator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Class responsible for sharing GitLab API clients between pipelines.
+ * One client, with its own pooled keep-alive connections, is created per
+ * (base URL, access token) pair and reused for every pipeline using that pair,
+ * so TLS handshakes and client setup are paid once instead of per CSV row.
+ * Pool size and timeouts come from the settings of the client's host, see {@link GitLabHosts};
+ * the implementation is chosen with {@link GitLabClientType}.
+ */
+public class GitLabClientRegistry implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(GitLabClientRegistry.class);
+
+    private final GitLabHosts hosts;
+    private final GitLabClientType clientType;
+    private final ConcurrentMap<ClientKey, GitLabClient> clients = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    /**
+     * Constructor for GitLabClientRegistry.
+     *
+     * @param hosts      Settings of the GitLab instances
+     * @param clientType Implementation of the clients
+     */
+    public GitLabClientRegistry(GitLabHosts hosts, GitLabClientType clientType) {
+        this.hosts = hosts;
+        this.clientType = clientType;
+    }
+
+    /**
+     * Returns the shared client for a GitLab instance and access token, creating it on first use.
+     *
+     * @param baseUrl     GitLab base URL, e.g. "https://gitlab.com"
+     * @param accessToken GitLab access token
+     * @return Shared GitLab client
+     * @throws IllegalStateException If the registry has been closed
+     */
+    public GitLabClient getClient(String baseUrl, String accessToken) {
+        if (closed) {
+            throw new IllegalStateException("GitLab client registry has been closed");
+        }
+        return clients.computeIfAbsent(new ClientKey(baseUrl, accessToken), this::createClient);
+    }
+
+    /**
+     * Creates a GitLab client with the settings of its host.
+     *
+     * @param key Base URL and access token of the client
+     * @return New GitLab client
+     */
+    private GitLabClient createClient(ClientKey key) {
+        GitLabHosts.Settings settings = hosts.getSettings(key.baseUrl);
+        logger.info("Creating {} GitLab client for {} (client #{}, {})", clientType.name().toLowerCase(), key.baseUrl,
+                clients.size() + 1, settings);
+        if (clientType == GitLabClientType.GITLAB4J) {
+            return new GitLab4jClient(key.baseUrl, key.accessToken, settings);
+        }
+        return new HttpGitLabClient(key.baseUrl, key.accessToken, settings);
+    }
+
+    /**
+     * Closes every client and its connection pool.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (GitLabClient client : clients.values()) {
+            try {
+                client.close();
+            } catch (Exception e) {
+                logger.warn("Error closing GitLab client: {}", e.getMessage());
+            }
+        }
+        if (!clients.isEmpty()) {
+            logger.info("Closed {} GitLab client(s)", clients.size());
+        }
+        clients.clear();
+    }
+
+    /**
+     * Key identifying a client by base URL and access token.
+     */
+    private static final class ClientKey {
+        private final String baseUrl;
+        private final String accessToken;
+
+        ClientKey(String baseUrl, String accessToken) {
+            this.baseUrl = baseUrl;
+            this.accessToken = accessToken;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ClientKey)) {
+                return false;
+            }
+            ClientKey other = (ClientKey) o;
+            return baseUrl.equals(other.baseUrl) && accessToken.equals(other.accessToken);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(baseUrl, accessToken);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.gitlab.orchestrator;
+
+/**
+ * Enum representing the implementations available for talking to the GitLab REST API.
+ */
+public enum GitLabClientType {
+    /**
+     * Non-blocking client built on java.net.http, negotiating HTTP/2 where the server supports it.
+     * Requests do not hold a thread while waiting for GitLab.
+     */
+    ASYNC,
+
+    /**
+     * The gitlab4j client, running its blocking calls on a pool sized like its connection pool.
+     * Kept as a fallback for instances or proxies the asynchronous client does not work with.
+     */
+    GITLAB4J;
+
+    /**
+     * Resolves a client type from its (case-insensitive) name.
+     *
+     * @param value Client type name, e.g. "gitlab4j"
+     * @return Matching client type
+     * @throws IllegalArgumentException If the value does not name a client type
+     */
+    public static GitLabClientType fromString(String value) {
+        for (GitLabClientType type : values()) {
+            if (type.name().equalsIgnoreCase(value.trim())) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown GitLab client: " + value);
+    }
+}
@@ -0,0 +1,222 @@
+package com.gitlab.orchestrator;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Class responsible for routing pipelines to GitLab instances and holding the per-instance settings.
+ * Each CSV row may name its instance in the optional "GitLab URL" column; rows without one go to
+ * the default instance. Connection pool size, timeouts and the number of pipelines in flight can be
+ * overridden per host in a properties file, so a slow instance cannot starve pipelines going to a
+ * fast one:
+ * <pre>
+ * gitlab.eu.example.com.max-concurrency=8
+ * gitlab.eu.example.com.http-read-timeout-ms=60000
+ * gitlab.com.http-max-connections=50
+ * </pre>
+ * Hosts are matched by name, plus ":port" when the URL has an explicit port.
+ */
+public class GitLabHosts {
+    private static final String MAX_CONCURRENCY = "max-concurrency";
+    private static final String HTTP_MAX_CONNECTIONS = "http-max-connections";
+    private static final String HTTP_CONNECT_TIMEOUT_MS = "http-connect-timeout-ms";
+    private static final String HTTP_READ_TIMEOUT_MS = "http-read-timeout-ms";
+    private static final String[] SETTING_NAMES = {MAX_CONCURRENCY, HTTP_MAX_CONNECTIONS, HTTP_CONNECT_TIMEOUT_MS,
+            HTTP_READ_TIMEOUT_MS};
+
+    private final String defaultUrl;
+    private final Settings defaults;
+    private final Map<String, Settings> hostSettings;
+
+    /**
+     * Constructor for GitLabHosts using the same settings for every instance.
+     *
+     * @param defaultUrl Base URL of the instance used by rows that do not name one
+     * @param defaults   Settings of every instance
+     */
+    public GitLabHosts(String defaultUrl, Settings defaults) {
+        this(defaultUrl, defaults, Map.of());
+    }
+
+    private GitLabHosts(String defaultUrl, Settings defaults, Map<String, Settings> hostSettings) {
+        this.defaultUrl = normalizeUrl(defaultUrl);
+        this.defaults = defaults;
+        this.hostSettings = hostSettings;
+    }
+
+    /**
+     * Builds the instance settings from the run settings and the optional hosts file.
+     *
+     * @param settings Run settings
+     * @return Instance settings
+     * @throws IllegalArgumentException If the hosts file cannot be read or has an invalid entry
+     */
+    public static GitLabHosts fromSettings(OrchestratorSettings settings) {
+        Settings defaults = new Settings(settings.getMaxConcurrency(), settings.getHttpMaxConnections(),
+                settings.getHttpConnectTimeoutMs(), settings.getHttpReadTimeoutMs());
+        String hostsFile = settings.getGitLabHostsFile();
+        if (hostsFile == null || hostsFile.isEmpty()) {
+            return new GitLabHosts(settings.getGitLabUrl(), defaults);
+        }
+
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(Paths.get(hostsFile), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read GitLab hosts file " + hostsFile + ": " + e.getMessage(), e);
+        }
+
+        // Collect the overrides per host first, then fill in the defaults
+        Map<String, Map<String, Integer>> overrides = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            String settingName = null;
+            for (String name : SETTING_NAMES) {
+                if (key.endsWith("." + name)) {
+                    settingName = name;
+                    break;
+                }
+            }
+            if (settingName == null) {
+                throw new IllegalArgumentException("Unknown entry in GitLab hosts file " + hostsFile + ": " + key);
+            }
+            String host = key.substring(0, key.length() - settingName.length() - 1).toLowerCase();
+            overrides.computeIfAbsent(host, h -> new HashMap<>())
+                    .put(settingName, parsePositiveInt(key, properties.getProperty(key)));
+        }
+
+        Map<String, Settings> hostSettings = new HashMap<>();
+        overrides.forEach((host, values) -> hostSettings.put(host, new Settings(
+                values.getOrDefault(MAX_CONCURRENCY, defaults.maxConcurrency),
+                values.getOrDefault(HTTP_MAX_CONNECTIONS, defaults.maxConnections),
+                values.getOrDefault(HTTP_CONNECT_TIMEOUT_MS, defaults.connectTimeoutMs),
+                values.getOrDefault(HTTP_READ_TIMEOUT_MS, defaults.readTimeoutMs))));
+        return new GitLabHosts(settings.getGitLabUrl(), defaults, hostSettings);
+    }
+
+    /**
+     * Returns the base URL of the instance a pipeline runs on.
+     *
+     * @param config Pipeline configuration
+     * @return Base URL of the instance named by the row, or of the default instance
+     */
+    public String baseUrlOf(PipelineConfig config) {
+        String url = config.getGitLabUrl();
+        return url != null && !url.isEmpty() ? url : defaultUrl;
+    }
+
+    /**
+     * Returns the settings of an instance.
+     *
+     * @param baseUrl Base URL of the instance
+     * @return Settings of its host, or the defaults if the host has no overrides
+     */
+    public Settings getSettings(String baseUrl) {
+        return hostSettings.getOrDefault(hostOf(baseUrl), defaults);
+    }
+
+    /**
+     * Extracts the host used to match settings and label statistics.
+     *
+     * @param baseUrl Base URL, e.g. "https://gitlab.example.com:8443"
+     * @return Host name, with ":port" if the URL has an explicit port, e.g. "gitlab.example.com:8443"
+     */
+    public static String hostOf(String baseUrl) {
+        try {
+            URI uri = URI.create(baseUrl);
+            if (uri.getHost() != null) {
+                String host = uri.getHost().toLowerCase();
+                return uri.getPort() >= 0 ? host + ":" + uri.getPort() : host;
+            }
+        } catch (IllegalArgumentException ignored) {
+            // Fall back to the raw value below
+        }
+        return baseUrl;
+    }
+
+    /**
+     * Removes surrounding whitespace and trailing slashes from a base URL.
+     *
+     * @param url Base URL as written by the user
+     * @return Normalized base URL, or an empty string if none was given
+     */
+    static String normalizeUrl(String url) {
+        if (url == null) {
+            return "";
+        }
+        String normalized = url.trim();
+        while (normalized.endsWith("/")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        return normalized;
+    }
+
+    private static int parsePositiveInt(String key, String value) {
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException ignored) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid value for " + key + " in GitLab hosts file: " + value);
+    }
+
+    /**
+     * Connection and concurrency settings of one GitLab instance.
+     */
+    public static final class Settings {
+        private final int maxConcurrency;
+        private final int maxConnections;
+        private final int connectTimeoutMs;
+        private final int readTimeoutMs;
+
+        /**
+         * Constructor for Settings.
+         *
+         * @param maxConcurrency   Maximum number of pipelines in flight on the instance
+         * @param maxConnections   Maximum number of pooled connections per client
+         * @param connectTimeoutMs Connect timeout in milliseconds
+         * @param readTimeoutMs    Read timeout in milliseconds
+         */
+        public Settings(int maxConcurrency, int maxConnections, int connectTimeoutMs, int readTimeoutMs) {
+            this.maxConcurrency = maxConcurrency;
+            this.maxConnections = maxConnections;
+            this.connectTimeoutMs = connectTimeoutMs;
+            this.readTimeoutMs = readTimeoutMs;
+        }
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public int getConnectTimeoutMs() {
+            return connectTimeoutMs;
+        }
+
+        public int getReadTimeoutMs() {
+            return readTimeoutMs;
+        }
+
+        @Override
+        public String toString() {
+            return "Settings{" +
+                    "maxConcurrency=" + maxConcurrency +
+                    ", maxConnections=" + maxConnections +
+                    ", connectTimeoutMs=" + connectTimeoutMs +
+                    ", readTimeoutMs=" + readTimeoutMs +
+                    '}';
+        }
+    }
+}
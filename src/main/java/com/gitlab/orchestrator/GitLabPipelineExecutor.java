@@ -1,6 +1,7 @@
 package com.gitlab.orchestrator;
 
-import org.gitlab4j.api.GitLabApi;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
 import org.gitlab4j.api.GitLabApiException;
 import org.gitlab4j.api.models.Pipeline;
 import org.gitlab4j.api.models.PipelineStatus;
@@ -9,21 +10,52 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 /**
  * Main class for the GitLab Pipeline Executor application.
  * This application reads pipeline configurations from a CSV file,
- * triggers GitLab pipelines sequentially, and generates a report.
+ * triggers GitLab pipelines sequentially or in dependency order, and generates a report.
+ * <p>
+ * With a daemon port configured, the process instead stays up and accepts manifests through
+ * the {@link OrchestratorDaemon} API, executing them as independent runs that share the warm
+ * GitLab clients, poller and rate limiter set up here.
  */
 public class GitLabPipelineExecutor {
     private static final Logger logger = LoggerFactory.getLogger(GitLabPipelineExecutor.class);
-    private static final String GITLAB_URL = "https://gitlab.com";
-    private static final String DEFAULT_CSV_PATH = "pipelines.csv";
-    private static final long POLLING_INTERVAL_MS = 10000; // 10 seconds
+
+    private static GitLabHosts gitLabHosts;
+    private static GitLabClientRegistry clientRegistry;
+    private static PipelineStatusPoller statusPoller;
+    private static PipelineWebhookListener webhookListener;
+    private static GitLabApiCaller apiCaller;
+    private static JobTimingFetcher jobTimingFetcher;
+    private static BuildTimeHistory buildTimeHistory = new BuildTimeHistory();
+    private static PipelineMetrics pipelineMetrics;
+    private static OrchestratorDaemon daemon;
+    private static LiveHtmlReport liveHtmlReport;
+    private static Appender<ILoggingEvent> detachedConsoleAppender;
+    private static MetricsHttpServer metricsServer;
+    private static String metricsFile;
+    private static LatencyHistogram triggerLatency;
+    private static final AtomicBoolean firstTriggerRecorded = new AtomicBoolean();
 
     /**
      * Main method that executes the application.
@@ -41,67 +73,351 @@ public class GitLabPipelineExecutor {
                 "$$/       $$$$$$$$/  $$$$$$/  $$/      $$/       $$/       $$$$$$/  $$/   $$/  $$$$$$/  $$$$$$$$/ ");
         logger.info("Starting GitLab Pipeline Executor Service");
 
-        // Determine CSV file path from arguments or use default
-        String csvFilePath = DEFAULT_CSV_PATH;
-        if (args.length > 0) {
-            csvFilePath = args[0];
-        }
-        
+        PipelineRun run = null;
         try {
-            // Parse CSV file
+            // Determine CSV file path and execution settings from arguments
+            OrchestratorSettings settings = OrchestratorSettings.fromArgs(args);
+            logger.info("Using settings: {}", settings);
+            startServices(settings);
+            
+            if (settings.isDaemon()) {
+                runDaemon(settings, args);
+                return;
+            }
+            
+            run = new PipelineRun("cli", settings, new RunJournal(settings.getJournalPath(), settings.isResume()),
+                    new PipelineCanceller(apiCaller, statusPoller), -1);
+            run.getEvents().addListener(pipelineMetrics);
+            
+            // Report progress while the pipelines run
+            if (settings.isLiveReport()) {
+                liveHtmlReport = new LiveHtmlReport();
+                run.getEvents().addListener(liveHtmlReport);
+            }
+            if (settings.isLiveCli()) {
+                detachedConsoleAppender = detachConsoleLogging();
+                run.getEvents().addListener(new LiveCliReport(System.out, System.console() != null));
+            }
+            
+            // Parse the CSV file lazily while executing pipelines and collect results
             CsvParser csvParser = new CsvParser();
-            List<PipelineConfig> pipelineConfigs = csvParser.parse(csvFilePath);
+            List<PipelineResult> results;
+            try (Stream<PipelineConfig> pipelineConfigs = csvParser.stream(settings.getCsvFilePath())) {
+                results = execute(run, pipelineConfigs.iterator());
+            } finally {
+                closeLiveReports();
+            }
             
-            if (pipelineConfigs.isEmpty()) {
+            if (results.isEmpty()) {
                 logger.warn("No valid pipeline configurations found in the CSV file");
                 return;
             }
-            
-            // Execute pipelines sequentially and collect results
-            List<PipelineResult> results = executePipelinesSequentially(pipelineConfigs);
+            run.awaitJobTimings();
             
             // Generate CLI report
             PipelineReporter reporter = new PipelineReporter();
-            reporter.generateCliReport(results);
+            reporter.generateCliReport(results, apiCaller.getHostStats());
             
             // Generate HTML report
-            HtmlReportGenerator htmlReporter = new HtmlReportGenerator();
-            htmlReporter.generateHtmlReport(results);
+            HtmlReportGenerator htmlReporter = new HtmlReportGenerator(settings.getReportPageSize());
+            htmlReporter.generateHtmlReport(results, apiCaller.getHostStats());
             
         } catch (IOException e) {
             logger.error("Error reading CSV file: {}", e.getMessage(), e);
+        } catch (UncheckedIOException e) {
+            logger.error("Error reading CSV file: {}", e.getCause().getMessage(), e);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid configuration: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            logger.error("Pipeline execution interrupted", e);
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             logger.error("Unexpected error: {}", e.getMessage(), e);
+        } finally {
+            closeLiveReports();
+            if (run != null) {
+                run.getJournal().close();
+            }
+            stopServices();
         }
         
         logger.info("GitLab Pipeline Executor Service Completed");
     }
 
+    /**
+     * Sets up the GitLab clients, poller, rate limiter, build time history and metrics shared by all runs.
+     *
+     * @param settings Settings of the process
+     * @throws IOException If the build time history, webhook listener or metrics server cannot be opened
+     */
+    private static void startServices(OrchestratorSettings settings) throws IOException {
+        gitLabHosts = GitLabHosts.fromSettings(settings);
+        clientRegistry = new GitLabClientRegistry(gitLabHosts, settings.getGitLabClient());
+        if (!settings.getBuildHistoryPath().isEmpty()) {
+            buildTimeHistory = new BuildTimeHistory(settings.getBuildHistoryPath());
+        }
+        apiCaller = new GitLabApiCaller(settings.getRateLimit(), settings.getRateBurst(), settings.getMaxRetries());
+        jobTimingFetcher = new JobTimingFetcher(apiCaller);
+        if (settings.isWebhookEnabled()) {
+            // Webhooks report completion; polling only acts as a slow safety net
+            statusPoller = new PipelineStatusPoller(new AdaptivePollingPolicy(
+                    settings.getWebhookSafetyPollMs(), Math.max(settings.getWebhookSafetyPollMs(), settings.getPollMaxIntervalMs())), apiCaller);
+            webhookListener = new PipelineWebhookListener(settings.getWebhookPort(), settings.getWebhookSecret(), statusPoller);
+        } else {
+            statusPoller = new PipelineStatusPoller(new AdaptivePollingPolicy(
+                    settings.getPollMinIntervalMs(), settings.getPollMaxIntervalMs()), apiCaller);
+        }
+        
+        // Collect metrics, served while running and/or written at the end of the run
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        triggerLatency = metrics.histogram("flowforge_create_pipeline_latency_seconds",
+                "Latency of the createPipeline request triggering a pipeline");
+        pipelineMetrics = new PipelineMetrics(metrics, apiCaller);
+        metricsFile = settings.getMetricsFile();
+        if (settings.getMetricsPort() > 0) {
+            metricsServer = new MetricsHttpServer(settings.getMetricsPort(), metrics);
+        }
+    }
+
+    /**
+     * Stops the shared services and writes the metrics file.
+     */
+    private static void stopServices() {
+        exportMetrics();
+        if (daemon != null) {
+            daemon.close();
+        }
+        if (metricsServer != null) {
+            metricsServer.close();
+        }
+        if (webhookListener != null) {
+            webhookListener.close();
+        }
+        if (statusPoller != null) {
+            statusPoller.close();
+        }
+        if (clientRegistry != null) {
+            clientRegistry.close();
+        }
+        buildTimeHistory.close();
+    }
+
+    /**
+     * Serves the submission API until the process is asked to stop, e.g. with Ctrl+C.
+     * Runs still in progress at that point are interrupted; their journals record what was triggered.
+     *
+     * @param settings Settings of the process
+     * @param args     Command line arguments, the defaults of every submitted run
+     * @throws IOException          If the API server cannot be started
+     * @throws InterruptedException If interrupted while serving
+     */
+    private static void runDaemon(OrchestratorSettings settings, String[] args) throws IOException, InterruptedException {
+        daemon = new OrchestratorDaemon(settings.getDaemonPort(), args);
+        Thread mainThread = Thread.currentThread();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            daemon.close();
+            try {
+                // Let the main thread release the shared services before the JVM halts
+                mainThread.join(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "daemon-shutdown"));
+        daemon.awaitClose();
+    }
+
+    /**
+     * Starts a run submitted to the daemon, sharing the services set up by {@link #main(String[])}.
+     *
+     * @param runId           Identifier of the run
+     * @param settings        Settings of the run
+     * @param pipelineConfigs Parsed manifest
+     * @return The started run
+     * @throws IOException If the run's journal cannot be opened
+     */
+    static PipelineRun startRun(String runId, OrchestratorSettings settings, List<PipelineConfig> pipelineConfigs)
+            throws IOException {
+        RunJournal journal = new RunJournal(PipelineRun.journalPathOf(settings.getJournalPath(), runId), false);
+        PipelineRun run = new PipelineRun(runId, settings, journal, new PipelineCanceller(apiCaller, statusPoller),
+                pipelineConfigs.size());
+        run.getEvents().addListener(pipelineMetrics);
+        return run;
+    }
+
+    /**
+     * Executes a run submitted to the daemon to completion and writes its HTML report,
+     * then releases its journal.
+     *
+     * @param run             Run to execute
+     * @param pipelineConfigs Parsed manifest
+     */
+    static void completeRun(PipelineRun run, List<PipelineConfig> pipelineConfigs) {
+        String error = null;
+        try {
+            List<PipelineResult> results = execute(run, pipelineConfigs.iterator());
+            run.awaitJobTimings();
+            HtmlReportGenerator htmlReporter = new HtmlReportGenerator(run.getReportPath(),
+                    run.getSettings().getReportPageSize());
+            htmlReporter.generateHtmlReport(results, apiCaller.getHostStats());
+        } catch (InterruptedException e) {
+            error = "Interrupted";
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.error("Run {} failed: {}", run.getId(), e.getMessage(), e);
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        } finally {
+            run.getJournal().close();
+            run.end(error);
+        }
+    }
+
+    /**
+     * Executes the pipelines of a run in the run's execution mode.
+     *
+     * @param run             Run the pipelines belong to
+     * @param pipelineConfigs Iterator over the pipeline configurations
+     * @return List of pipeline results
+     * @throws InterruptedException If interrupted while waiting for pipelines
+     */
+    private static List<PipelineResult> execute(PipelineRun run, Iterator<PipelineConfig> pipelineConfigs)
+            throws InterruptedException {
+        OrchestratorSettings settings = run.getSettings();
+        if (settings.getExecutionMode() != ExecutionMode.PARALLEL) {
+            return executePipelinesSequentially(run, pipelineConfigs);
+        }
+        
+        PipelineScheduler scheduler = new PipelineScheduler(settings.getMaxConcurrency(), settings.isVirtualThreads());
+        scheduler.setEventListener(run.getEvents());
+        scheduler.setHosts(gitLabHosts);
+        scheduler.setProjectLimits(settings.getProjectLimits());
+        scheduler.setRunnerTagLimits(settings.getRunnerTagLimits());
+        scheduler.setBuildTimeHistory(buildTimeHistory);
+        scheduler.setReadAhead(settings.getReadAhead());
+        scheduler.setCancellationPolicy(settings.getCancellationPolicy());
+        scheduler.setCancelHandler(run.getCanceller()::cancel);
+        return scheduler.execute(pipelineConfigs, config -> executePipeline(run, config));
+    }
+
+    /**
+     * Logs and exports how long after the start of the JVM the first pipeline was triggered,
+     * the startup cost the fast-startup build reduces. Daemon mode is left out, since its first
+     * trigger waits for a submission.
+     */
+    private static void recordFirstTrigger() {
+        if (daemon != null || !firstTriggerRecorded.compareAndSet(false, true)) {
+            return;
+        }
+        long timeToFirstTriggerMs = ManagementFactory.getRuntimeMXBean().getUptime();
+        logger.info("First pipeline triggered {} ms after JVM start", timeToFirstTriggerMs);
+        MetricsRegistry.getDefault().gauge("flowforge_time_to_first_trigger_seconds",
+                "Time from the start of the JVM until the first pipeline was triggered",
+                () -> timeToFirstTriggerMs / 1000.0);
+    }
+
+    /**
+     * Writes the metrics file, if one was requested.
+     */
+    private static void exportMetrics() {
+        if (metricsFile == null || metricsFile.isEmpty()) {
+            return;
+        }
+        try {
+            MetricsRegistry.getDefault().writeFile(metricsFile);
+            logger.info("Metrics written to {}", metricsFile);
+        } catch (IOException e) {
+            logger.error("Error writing metrics file {}: {}", metricsFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Closes the live reports once the pipelines are done and gives the console back to logging.
+     */
+    private static void closeLiveReports() {
+        if (liveHtmlReport != null) {
+            liveHtmlReport.close();
+            liveHtmlReport = null;
+        }
+        if (detachedConsoleAppender != null) {
+            rootLogger().addAppender(detachedConsoleAppender);
+            detachedConsoleAppender = null;
+        }
+    }
+
+    /**
+     * Stops logging to the console so the live status table owns it. Logs still go to the log file.
+     *
+     * @return The detached console appender, or null if there is none
+     */
+    private static Appender<ILoggingEvent> detachConsoleLogging() {
+        ch.qos.logback.classic.Logger root = rootLogger();
+        Appender<ILoggingEvent> console = root.getAppender("CONSOLE");
+        if (console != null) {
+            logger.info("Live status table enabled, console logging paused (see flow-forge-execution.log)");
+            root.detachAppender(console);
+        }
+        return console;
+    }
+
+    private static ch.qos.logback.classic.Logger rootLogger() {
+        return (ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME);
+    }
+
     /**
      * Executes the pipelines sequentially, waiting for each to complete before starting the next.
+     * When a pipeline does not succeed, the cancellation policy decides whether the following
+     * pipelines of its group still run; unless it is continue-all, they are recorded as skipped.
+     * <p>
+     * Consecutive rows marked as independent are the exception: they are triggered together and
+     * awaited together, see {@link #executeIndependentPipelines}.
      *
-     * @param pipelineConfigs List of pipeline configurations
+     * @param run             Run the pipelines belong to, whose settings hold the cancellation policy
+     * @param pipelineConfigs Iterator over the pipeline configurations, read as execution proceeds
      * @return List of pipeline results
      */
-    private static List<PipelineResult> executePipelinesSequentially(List<PipelineConfig> pipelineConfigs) {
+    private static List<PipelineResult> executePipelinesSequentially(PipelineRun run,
+                                                                     Iterator<PipelineConfig> pipelineConfigs) {
         List<PipelineResult> results = new ArrayList<>();
+        Set<String> haltedGroups = ConcurrentHashMap.newKeySet();
+        ExecutorService triggers = null;
         
-        for (PipelineConfig config : pipelineConfigs) {
-            logger.info("Processing pipeline for app: {}", config.getAppName());
-            
-            try {
-                PipelineResult result = executePipeline(config);
-                results.add(result);
+        try {
+            PipelineConfig next = pipelineConfigs.hasNext() ? pipelineConfigs.next() : null;
+            while (next != null) {
+                PipelineConfig config = next;
+                next = pipelineConfigs.hasNext() ? pipelineConfigs.next() : null;
+                
+                if (config.isIndependent() && next != null && next.isIndependent()) {
+                    List<PipelineConfig> independent = new ArrayList<>();
+                    independent.add(config);
+                    while (next != null && next.isIndependent()) {
+                        independent.add(next);
+                        next = pipelineConfigs.hasNext() ? pipelineConfigs.next() : null;
+                    }
+                    if (triggers == null) {
+                        triggers = newTriggerExecutor(run.getSettings().getTriggerConcurrency());
+                    }
+                    results.addAll(executeIndependentPipelines(run, independent, haltedGroups, triggers));
+                    continue;
+                }
                 
-                // Only continue to the next pipeline if this one was successful
-                if (result.getStatus() != PipelineStatus.SUCCESS) {
-                    logger.warn("Pipeline for app '{}' did not succeed (status: {}). Stopping sequential execution.", 
-                            config.getAppName(), result.getStatus());
-                    break;
+                if (haltedGroups.contains(config.getGroup())) {
+                    results.add(skipHaltedPipeline(run, config));
+                    continue;
                 }
-            } catch (Exception e) {
-                logger.error("Error executing pipeline for app '{}': {}", config.getAppName(), e.getMessage(), e);
-                break;
+                logger.info("Processing pipeline for app: {}", config.getAppName());
+                
+                PipelineResult result;
+                try {
+                    result = executePipeline(run, config);
+                } catch (Exception e) {
+                    result = failedPipeline(run, config, e);
+                }
+                results.add(result);
+                applyCancellationPolicy(run, config, result, haltedGroups, List.of());
+            }
+        } finally {
+            if (triggers != null) {
+                triggers.shutdownNow();
             }
         }
         
@@ -109,119 +425,318 @@ public class GitLabPipelineExecutor {
     }
 
     /**
-     * Executes a single pipeline according to the provided configuration.
+     * Executes consecutive independent pipelines in two phases. First every pipeline is triggered,
+     * with at most trigger-concurrency createPipeline calls in flight, so GitLab queues all of them
+     * for runners right away; then the shared poller waits on all of them at once. The last pipeline
+     * therefore starts seconds after the first one instead of after every build before it.
+     * <p>
+     * The cancellation policy applies as soon as a pipeline fails: its group is halted for the rows
+     * after the batch and, with fail-fast, the pipelines of the group still in the batch are canceled.
      *
-     * @param config Pipeline configuration
-     * @return Result of the pipeline execution
-     * @throws GitLabApiException If there is an error with the GitLab API
+     * @param run          Run the pipelines belong to
+     * @param independent  Consecutive independent pipelines, in manifest order
+     * @param haltedGroups Groups halted after a failure, updated as pipelines fail
+     * @param triggers     Executor sending the createPipeline calls
+     * @return Results of the pipelines, in manifest order
      */
-    private static PipelineResult executePipeline(PipelineConfig config) throws GitLabApiException {
-        logger.info("Initializing GitLab API client for project ID: {}", config.getProjectId());
-        
-        // Create GitLab API client
-        GitLabApi gitLabApi = new GitLabApi(GITLAB_URL, config.getAccessToken());
-        
-        // Use project ID as a string since GitLabApi expects String, Long, or Project instance
-        String projectId = config.getProjectId();
-        
-        // Prepare variables
-        List<Variable> pipelineVariables = convertVariables(config.getVariables());
-        
-        // Record start time
-        LocalDateTime startTime = LocalDateTime.now();
-        logger.info("Triggering pipeline for app '{}' on branch '{}'", config.getAppName(), config.getBranchName());
-        
-        // Trigger pipeline
-        Pipeline pipeline = gitLabApi.getPipelineApi().createPipeline(projectId, config.getBranchName(), pipelineVariables);
-        logger.info("Pipeline triggered successfully. Pipeline ID: {}", pipeline.getId());
-        
-        // Poll until pipeline is complete
-        PipelineStatus finalStatus = pollPipelineStatus(gitLabApi, projectId, pipeline.getId());
-        
-        // Record end time
-        LocalDateTime endTime = LocalDateTime.now();
-        
-        // Create and return result
-        PipelineResult result = new PipelineResult(
-                config.getAppName(),
-                startTime,
-                endTime,
-                finalStatus,
-                config.getVariables(),
-                pipeline.getId()
-        );
+    private static List<PipelineResult> executeIndependentPipelines(PipelineRun run, List<PipelineConfig> independent,
+                                                                     Set<String> haltedGroups, ExecutorService triggers) {
+        logger.info("Triggering {} independent pipelines before polling any of them", independent.size());
+        List<CompletableFuture<PipelineResult>> pipelines = new ArrayList<>();
+        for (PipelineConfig config : independent) {
+            CompletableFuture<PipelineResult> pipeline = CompletableFuture.supplyAsync(() -> {
+                if (haltedGroups.contains(config.getGroup())) {
+                    return CompletableFuture.completedFuture(skipHaltedPipeline(run, config));
+                }
+                logger.info("Processing pipeline for app: {}", config.getAppName());
+                CompletableFuture<PipelineResult> started;
+                try {
+                    started = startPipeline(run, config);
+                } catch (Exception e) {
+                    started = CompletableFuture.failedFuture(e);
+                }
+                // Only pipelines that were started can halt their group, not the ones skipped because it is halted
+                return started.handle((result, error) -> {
+                    PipelineResult finished = error == null ? result : failedPipeline(run, config, unwrap(error));
+                    applyCancellationPolicy(run, config, finished, haltedGroups, independent);
+                    return finished;
+                });
+            }, triggers).thenCompose(finished -> finished);
+            pipelines.add(pipeline);
+        }
         
-        logger.info("Pipeline for app '{}' completed with status: {}", config.getAppName(), finalStatus);
-        return result;
+        List<PipelineResult> results = new ArrayList<>();
+        for (CompletableFuture<PipelineResult> pipeline : pipelines) {
+            results.add(pipeline.join());
+        }
+        return results;
     }
 
     /**
-     * Converts a map of variables to a list of GitLab Variables.
+     * Creates the executor sending the createPipeline calls of independent pipelines.
      *
-     * @param variables Map of variable key-value pairs
-     * @return List of GitLab Variables
+     * @param triggerConcurrency Maximum number of createPipeline calls in flight
+     * @return Executor service
      */
-    private static List<Variable> convertVariables(Map<String, String> variables) {
-        List<Variable> pipelineVariables = new ArrayList<>();
-        
-        for (Map.Entry<String, String> entry : variables.entrySet()) {
-            pipelineVariables.add(new Variable(entry.getKey(), entry.getValue()));
+    private static ExecutorService newTriggerExecutor(int triggerConcurrency) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(triggerConcurrency, runnable -> {
+            Thread thread = new Thread(runnable, "pipeline-trigger-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Records a pipeline that is not started because its group was halted after a failure.
+     *
+     * @param run    Run the pipeline belongs to
+     * @param config Pipeline configuration
+     * @return Skipped result
+     */
+    private static PipelineResult skipHaltedPipeline(PipelineRun run, PipelineConfig config) {
+        logger.warn("Skipping pipeline for app '{}' because its group was halted after a failure", config.getAppName());
+        PipelineResult skipped = new PipelineResult(config.getAppName(), null, null, PipelineStatus.SKIPPED,
+                config.getVariables(), 0L);
+        run.getEvents().onFinished(skipped);
+        return skipped;
+    }
+
+    /**
+     * Records a pipeline that could not be executed.
+     *
+     * @param run    Run the pipeline belongs to
+     * @param config Pipeline configuration
+     * @param error  Why the pipeline could not be executed
+     * @return Failed result
+     */
+    private static PipelineResult failedPipeline(PipelineRun run, PipelineConfig config, Throwable error) {
+        logger.error("Error executing pipeline for app '{}': {}", config.getAppName(), error.getMessage(), error);
+        PipelineResult failed = new PipelineResult(config.getAppName(), null, null, PipelineStatus.FAILED,
+                config.getVariables(), 0L);
+        run.getEvents().onFinished(failed);
+        return failed;
+    }
+
+    /**
+     * Only continues with the pipeline's group if it was successful or the policy says so.
+     *
+     * @param run          Run the pipeline belongs to, whose settings hold the cancellation policy
+     * @param config       Pipeline configuration
+     * @param result       Result of the pipeline
+     * @param haltedGroups Groups halted after a failure, to which the pipeline's group is added if it stops
+     * @param running      Pipelines that may still be running next to it, canceled with the fail-fast policy
+     */
+    private static void applyCancellationPolicy(PipelineRun run, PipelineConfig config, PipelineResult result,
+                                                Set<String> haltedGroups, List<PipelineConfig> running) {
+        if (result.getStatus() == PipelineStatus.SUCCESS) {
+            return;
+        }
+        CancellationPolicy policy = config.getOnFailure() != null ? config.getOnFailure()
+                : run.getSettings().getCancellationPolicy();
+        if (policy == CancellationPolicy.CONTINUE_ALL) {
+            logger.warn("Pipeline for app '{}' did not succeed (status: {}). Continuing with the next pipeline.",
+                    config.getAppName(), result.getStatus());
+            return;
+        }
+        if (haltedGroups.add(config.getGroup())) {
+            logger.warn("Pipeline for app '{}' did not succeed (status: {}). Stopping sequential execution of {}.",
+                    config.getAppName(), result.getStatus(),
+                    config.getGroup().isEmpty() ? "the run" : "group '" + config.getGroup() + "'");
+        }
+        if (policy == CancellationPolicy.FAIL_FAST) {
+            List<PipelineConfig> sameGroup = new ArrayList<>();
+            for (PipelineConfig other : running) {
+                if (other != config && other.getGroup().equals(config.getGroup())) {
+                    sameGroup.add(other);
+                }
+            }
+            run.getCanceller().cancel(sameGroup);
         }
-        
-        return pipelineVariables;
     }
 
     /**
-     * Polls the pipeline status until it reaches a final state.
+     * @param error Failure of a pipeline future
+     * @return The failure without the CompletionException wrapping it
+     */
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Executes a single pipeline according to the provided configuration.
      *
-     * @param gitLabApi GitLab API client
-     * @param projectId Project ID
-     * @param pipelineId Pipeline ID
-     * @return Final status of the pipeline
+     * @param run    Run the pipeline belongs to
+     * @param config Pipeline configuration
+     * @return Result of the pipeline execution
      * @throws GitLabApiException If there is an error with the GitLab API
      */
-    private static PipelineStatus pollPipelineStatus(GitLabApi gitLabApi, String projectId, Long pipelineId) 
+    private static PipelineResult executePipeline(PipelineRun run, PipelineConfig config) throws GitLabApiException {
+        CompletableFuture<PipelineResult> pipeline = startPipeline(run, config);
+        try {
+            return pipeline.get();
+        } catch (InterruptedException e) {
+            logger.error("Polling interrupted", e);
+            Thread.currentThread().interrupt();
+            throw new GitLabApiException("Polling was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof GitLabApiException) {
+                throw (GitLabApiException) e.getCause();
+            }
+            throw new GitLabApiException((Exception) e.getCause());
+        }
+    }
+
+    /**
+     * Triggers a pipeline, or re-attaches to it when resuming, and hands it to the shared poller,
+     * which batches status requests per project. Returns as soon as the pipeline is triggered.
+     *
+     * @param run    Run the pipeline belongs to
+     * @param config Pipeline configuration
+     * @return Result of the pipeline execution, completed when the pipeline reaches a final state
+     * @throws GitLabApiException If the pipeline cannot be triggered
+     */
+    private static CompletableFuture<PipelineResult> startPipeline(PipelineRun run, PipelineConfig config)
             throws GitLabApiException {
-        logger.info("Starting to poll pipeline status for pipeline ID: {}", pipelineId);
+        RunJournal runJournal = run.getJournal();
+        PipelineEvents events = run.getEvents();
+        PipelineCanceller canceller = run.getCanceller();
+        // Skip or re-attach to pipelines recorded by a previous run when resuming
+        RunJournal.Entry previous = runJournal.getPreviousEntry(config.getAppName());
+        if (previous != null && previous.isFinished()) {
+            logger.info("Pipeline for app '{}' already finished in a previous run (pipeline ID: {}, status: {}), skipping",
+                    config.getAppName(), previous.getPipelineId(), previous.getFinalStatus());
+            PipelineResult result = new PipelineResult(config.getAppName(), previous.getStartTime(), previous.getEndTime(),
+                    previous.getFinalStatus(), config.getVariables(), previous.getPipelineId());
+            events.onFinished(result);
+            fetchJobTimings(run, clientRegistry.getClient(gitLabHosts.baseUrlOf(config), config.getAccessToken()),
+                    config.getProjectId(), result);
+            return CompletableFuture.completedFuture(result);
+        }
+        
+        // Reuse the shared GitLab client for this instance and token
+        GitLabClient client = clientRegistry.getClient(gitLabHosts.baseUrlOf(config), config.getAccessToken());
         
-        PipelineStatus status;
-        boolean isComplete = false;
+        // Use project ID as a string, it may also be a project path
+        String projectId = config.getProjectId();
         
-        do {
+        LocalDateTime startTime;
+        long pipelineId;
+        if (previous != null) {
+            startTime = previous.getStartTime();
+            pipelineId = previous.getPipelineId();
+            logger.info("Re-attaching to pipeline {} for app '{}' started in a previous run", pipelineId, config.getAppName());
+        } else if (canceller.isCancelRequested(config.getAppName())) {
+            // The group failed fast while this pipeline was waiting to be triggered
+            logger.info("Not triggering pipeline for app '{}', its group was canceled", config.getAppName());
+            PipelineResult result = new PipelineResult(config.getAppName(), null, null, PipelineStatus.SKIPPED,
+                    config.getVariables(), 0L);
+            events.onFinished(result);
+            return CompletableFuture.completedFuture(result);
+        } else {
+            // Prepare variables
+            List<Variable> pipelineVariables = convertVariables(config.getVariables());
+            
+            // Record start time
+            startTime = LocalDateTime.now();
+            logger.info("Triggering pipeline for app '{}' on branch '{}'", config.getAppName(), config.getBranchName());
+            
+            // Trigger pipeline
+            Pipeline pipeline = GitLabApiCaller.await(apiCaller.execute(client, "createPipeline " + projectId, false, () -> {
+                long requestStart = System.nanoTime();
+                return client.createPipeline(projectId, config.getBranchName(), pipelineVariables).thenApply(created -> {
+                    triggerLatency.recordSince(requestStart);
+                    return created;
+                });
+            }));
+            pipelineId = pipeline.getId();
+            logger.info("Pipeline triggered successfully. Pipeline ID: {}", pipelineId);
+            recordFirstTrigger();
+            
             try {
-                // Sleep before polling again
-                Thread.sleep(POLLING_INTERVAL_MS);
-                
-                // Get pipeline status
-                Pipeline pipeline = gitLabApi.getPipelineApi().getPipeline(projectId, pipelineId);
-                status = pipeline.getStatus();
-                
-                logger.info("Current status of pipeline {}: {}", pipelineId, status);
-                
-                // Check if the pipeline has reached a terminal state
-                isComplete = isTerminalStatus(status);
-                
-            } catch (InterruptedException e) {
-                logger.error("Polling interrupted", e);
-                Thread.currentThread().interrupt();
-                throw new GitLabApiException("Polling was interrupted");
+                runJournal.recordTriggered(config.getAppName(), projectId, pipelineId, startTime);
+            } catch (IOException e) {
+                logger.error("Could not journal pipeline {} for app '{}', it cannot be resumed after a crash: {}",
+                        pipelineId, config.getAppName(), e.getMessage());
             }
-        } while (!isComplete);
+        }
+        events.onTriggered(config, pipelineId, startTime);
         
-        logger.info("Pipeline {} has reached terminal status: {}", pipelineId, status);
-        return status;
+        // Poll until pipeline is complete, or canceled by a fail-fast policy
+        Duration expectedBuildTime = buildTimeHistory.expectedBuildTime(config.getAppName());
+        long watchedPipelineId = pipelineId;
+        LocalDateTime pipelineStartTime = startTime;
+        canceller.register(config.getAppName(), client, projectId, pipelineId);
+        logger.info("Starting to poll pipeline status for pipeline ID: {}", pipelineId);
+        return statusPoller.watch(client, projectId, pipelineId, expectedBuildTime,
+                        status -> events.onStatusChanged(config, watchedPipelineId, status))
+                .whenComplete((status, error) -> canceller.unregister(config.getAppName()))
+                .thenApply(finalStatus -> {
+                    logger.info("Pipeline {} has reached terminal status: {}", watchedPipelineId, finalStatus);
+                    
+                    // Create and return result
+                    PipelineResult result = new PipelineResult(
+                            config.getAppName(),
+                            pipelineStartTime,
+                            LocalDateTime.now(),
+                            finalStatus,
+                            config.getVariables(),
+                            watchedPipelineId
+                    );
+                    result.setExpectedBuildTime(expectedBuildTime);
+                    
+                    runJournal.recordFinished(result);
+                    buildTimeHistory.record(result);
+                    events.onFinished(result);
+                    fetchJobTimings(run, client, projectId, result);
+                    logger.info("Pipeline for app '{}' completed with status: {}", config.getAppName(), finalStatus);
+                    return result;
+                });
+    }
+
+    /**
+     * Starts fetching the job timings of a finished pipeline when the run asks for them.
+     * The timings are set on the result once fetched; the run waits for them before reporting.
+     *
+     * @param run       Run the pipeline belongs to
+     * @param client    GitLab client owning the pipeline
+     * @param projectId Project ID
+     * @param result    Result of the finished pipeline
+     */
+    private static void fetchJobTimings(PipelineRun run, GitLabClient client, String projectId, PipelineResult result) {
+        if (!run.getSettings().isJobTimings() || result.getPipelineId() <= 0) {
+            return;
+        }
+        run.addJobTimingFetch(jobTimingFetcher.fetch(client, projectId, result.getPipelineId())
+                .handle((jobTimings, error) -> {
+                    if (error != null) {
+                        logger.warn("Could not fetch the jobs of pipeline {} for app '{}': {}", result.getPipelineId(),
+                                result.getAppName(), unwrap(error).getMessage());
+                    } else {
+                        result.setJobTimings(jobTimings);
+                    }
+                    return null;
+                }));
     }
 
     /**
-     * Determines if a pipeline status is a terminal status.
+     * Converts a map of variables to a list of GitLab Variables.
+     * Canonical variable sets build their list once and share it between pipelines.
      *
-     * @param status Pipeline status
-     * @return True if the status is terminal
+     * @param variables Map of variable key-value pairs
+     * @return List of GitLab Variables
      */
-    private static boolean isTerminalStatus(PipelineStatus status) {
-        return status == PipelineStatus.SUCCESS || 
-               status == PipelineStatus.FAILED || 
-               status == PipelineStatus.CANCELED || 
-               status == PipelineStatus.SKIPPED;
+    static List<Variable> convertVariables(Map<String, String> variables) {
+        if (variables instanceof VariableSet) {
+            return ((VariableSet) variables).getGitLabVariables();
+        }
+
+        List<Variable> pipelineVariables = new ArrayList<>();
+        
+        for (Map.Entry<String, String> entry : variables.entrySet()) {
+            pipelineVariables.add(new Variable(entry.getKey(), entry.getValue()));
+        }
+        
+        return pipelineVariables;
     }
 }
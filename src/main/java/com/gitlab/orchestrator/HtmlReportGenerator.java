@@ -4,21 +4,62 @@ import org.gitlab4j.api.models.PipelineStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Class responsible for generating HTML reports about pipeline executions.
+ * The report is streamed card by card to a buffered UTF-8 writer, so memory use does not grow
+ * with the number of pipelines. Large runs are split into pages of a fixed number of cards:
+ * the first page keeps the report file name and links to the others.
  */
 public class HtmlReportGenerator {
     private static final Logger logger = LoggerFactory.getLogger(HtmlReportGenerator.class);
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private static final String REPORT_FILE = "flow-forge-report.html";
+    private static final int DEFAULT_PAGE_SIZE = 1000;
+    private static final int SLOWEST_JOBS = 10;
+
+    private final Path reportFile;
+    private final int pageSize;
+
+    /**
+     * Constructor for HtmlReportGenerator writing flow-forge-report.html in the working directory.
+     */
+    public HtmlReportGenerator() {
+        this(DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Constructor for HtmlReportGenerator writing flow-forge-report.html in the working directory.
+     *
+     * @param pageSize Maximum number of pipeline cards per page
+     */
+    public HtmlReportGenerator(int pageSize) {
+        this(REPORT_FILE, pageSize);
+    }
+
+    /**
+     * Constructor for HtmlReportGenerator.
+     *
+     * @param reportFile Path of the report; further pages are written next to it
+     * @param pageSize   Maximum number of pipeline cards per page
+     */
+    public HtmlReportGenerator(String reportFile, int pageSize) {
+        this.reportFile = Paths.get(reportFile);
+        this.pageSize = Math.max(1, pageSize);
+    }
 
     /**
      * Generates an HTML report for all pipeline results.
@@ -26,239 +67,554 @@ public class HtmlReportGenerator {
      * @param results List of pipeline results
      */
     public void generateHtmlReport(List<PipelineResult> results) {
+        generateHtmlReport(results, Collections.emptyMap());
+    }
+
+    /**
+     * Generates an HTML report for all pipeline results, with the request latency of each GitLab instance.
+     *
+     * @param results   List of pipeline results
+     * @param hostStats Request statistics per GitLab host
+     */
+    public void generateHtmlReport(List<PipelineResult> results, Map<String, GitLabApiCaller.HostStats> hostStats) {
         logger.info("Generating HTML pipeline execution report...");
-        
-        try (FileWriter writer = new FileWriter(REPORT_FILE)) {
-            StringBuilder html = new StringBuilder();
-            
-            // Start HTML document
-            html.append("<!DOCTYPE html>\n")
-                .append("<html lang=\"en\">\n")
-                .append("<head>\n")
-                .append("    <meta charset=\"UTF-8\">\n")
-                .append("    <meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\">\n")
-                .append("    <title>Flow Forge Execution Report</title>\n")
-                .append("    <style>\n")
-                .append("        body { font-family: Arial, sans-serif; margin: 20px; line-height: 1.6; }\n")
-                .append("        h1 { color: #2e86de; text-align: center; margin-bottom: 30px; }\n")
-                .append("        .report-container { max-width: 900px; margin: 0 auto; }\n")
-                .append("        .pipeline-card { background-color: #f5f6fa; border-radius: 8px; padding: 20px; margin-bottom: 20px; box-shadow: 0 2px 5px rgba(0,0,0,0.1); }\n")
-                .append("        .pipeline-header { display: flex; justify-content: space-between; margin-bottom: 15px; }\n")
-                .append("        .pipeline-title { font-size: 1.4em; font-weight: bold; color: #2d3436; margin: 0; }\n")
-                .append("        .pipeline-id { color: #636e72; font-size: 1em; }\n")
-                .append("        .pipeline-detail { display: flex; margin-bottom: 8px; }\n")
-                .append("        .detail-label { font-weight: bold; min-width: 140px; color: #636e72; }\n")
-                .append("        .detail-value { flex-grow: 1; }\n")
-                .append("        .status-success { color: #27ae60; font-weight: bold; }\n")
-                .append("        .status-failed { color: #e74c3c; font-weight: bold; }\n")
-                .append("        .status-pending { color: #f39c12; font-weight: bold; }\n")
-                .append("        .status-other { color: #7f8c8d; font-weight: bold; }\n")
-                .append("        .variables-container { background-color: #ecf0f1; border-radius: 4px; padding: 10px; margin-top: 10px; }\n")
-                .append("        .variable-item { margin-bottom: 5px; }\n")
-                .append("        .build-time { font-weight: bold; margin-top: 15px; text-align: right; color: #2c3e50; }\n")
-                .append("        .timestamp { color: #7f8c8d; font-size: 0.9em; }\n")
-                .append("        .chart-container { margin-top: 40px; text-align: center; }\n")
-                .append("    </style>\n")
-                .append("</head>\n")
-                .append("<body>\n")
-                .append("    <div class=\"report-container\">\n")
-                .append("        <h1>Flow Forge Execution Report</h1>\n");
-            
-            // Add each pipeline result
-            for (PipelineResult result : results) {
-                html.append(generatePipelineCard(result));
+
+        int pageCount = Math.max(1, (results.size() + pageSize - 1) / pageSize);
+        try {
+            for (int page = 1; page <= pageCount; page++) {
+                try (Writer writer = Files.newBufferedWriter(pageFile(page), StandardCharsets.UTF_8)) {
+                    writePage(writer, results, hostStats, page, pageCount);
+                }
+            }
+            if (pageCount > 1) {
+                logger.info("HTML report generated successfully: {} ({} pages)", reportFile, pageCount);
+            } else {
+                logger.info("HTML report generated successfully: {}", reportFile);
             }
-            
-            // Add summary chart
-            html.append(generateSummaryChart(results));
-            
-            // Close HTML document
-            html.append("    </div>\n")
-                .append("</body>\n")
-                .append("</html>");
-            
-            writer.write(html.toString());
-            logger.info("HTML report generated successfully: {}", REPORT_FILE);
-            
         } catch (IOException e) {
             logger.error("Error generating HTML report: {}", e.getMessage(), e);
         }
     }
-    
+
     /**
-     * Generate HTML for a single pipeline card
-     * 
+     * Deletes the pages of a report written earlier with the same report file.
+     *
+     * @throws IOException If a page exists but cannot be deleted
+     */
+    public void deleteReport() throws IOException {
+        for (int page = 1; Files.deleteIfExists(pageFile(page)); page++) {
+            logger.debug("Deleted report page {}", pageFile(page));
+        }
+    }
+
+    /**
+     * Returns the file of a report page.
+     *
+     * @param page One-based page number
+     * @return The report file for page 1, otherwise e.g. flow-forge-report-page-2.html next to it
+     */
+    Path pageFile(int page) {
+        if (page == 1) {
+            return reportFile;
+        }
+        String name = reportFile.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String pageName = dot > 0
+                ? name.substring(0, dot) + "-page-" + page + name.substring(dot)
+                : name + "-page-" + page;
+        return reportFile.resolveSibling(pageName);
+    }
+
+    /**
+     * Writes one page of the report.
+     *
+     * @param writer    Writer of the page file
+     * @param results   List of all pipeline results
+     * @param hostStats Request statistics per GitLab host
+     * @param page      One-based page number
+     * @param pageCount Total number of pages
+     * @throws IOException If the page cannot be written
+     */
+    private void writePage(Writer writer, List<PipelineResult> results, Map<String, GitLabApiCaller.HostStats> hostStats,
+                           int page, int pageCount) throws IOException {
+        // Start HTML document
+        writer.write("<!DOCTYPE html>\n"
+                + "<html lang=\"en\">\n"
+                + "<head>\n"
+                + "    <meta charset=\"UTF-8\">\n"
+                + "    <meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\">\n"
+                + "    <title>Flow Forge Execution Report" + (pageCount > 1 ? " - Page " + page : "") + "</title>\n"
+                + "    <style>\n"
+                + "        body { font-family: Arial, sans-serif; margin: 20px; line-height: 1.6; }\n"
+                + "        h1 { color: #2e86de; text-align: center; margin-bottom: 30px; }\n"
+                + "        .report-container { max-width: 900px; margin: 0 auto; }\n"
+                + "        .pipeline-card { background-color: #f5f6fa; border-radius: 8px; padding: 20px; margin-bottom: 20px; box-shadow: 0 2px 5px rgba(0,0,0,0.1); content-visibility: auto; contain-intrinsic-size: auto 320px; }\n"
+                + "        .pipeline-header { display: flex; justify-content: space-between; margin-bottom: 15px; }\n"
+                + "        .pipeline-title { font-size: 1.4em; font-weight: bold; color: #2d3436; margin: 0; }\n"
+                + "        .pipeline-id { color: #636e72; font-size: 1em; }\n"
+                + "        .pipeline-detail { display: flex; margin-bottom: 8px; }\n"
+                + "        .detail-label { font-weight: bold; min-width: 140px; color: #636e72; }\n"
+                + "        .detail-value { flex-grow: 1; }\n"
+                + "        .status-success { color: #27ae60; font-weight: bold; }\n"
+                + "        .status-failed { color: #e74c3c; font-weight: bold; }\n"
+                + "        .status-pending { color: #f39c12; font-weight: bold; }\n"
+                + "        .status-other { color: #7f8c8d; font-weight: bold; }\n"
+                + "        .variables-container { background-color: #ecf0f1; border-radius: 4px; padding: 10px; margin-top: 10px; }\n"
+                + "        .variable-item { margin-bottom: 5px; }\n"
+                + "        .build-time { font-weight: bold; margin-top: 15px; text-align: right; color: #2c3e50; }\n"
+                + "        .timestamp { color: #7f8c8d; font-size: 0.9em; }\n"
+                + "        .chart-container { margin-top: 40px; text-align: center; }\n"
+                + "        .page-nav { text-align: center; margin: 20px 0; word-wrap: break-word; }\n"
+                + "        .page-nav a, .page-nav strong { margin: 0 4px; }\n"
+                + "        .host-table { margin: 20px auto; border-collapse: collapse; }\n"
+                + "        .host-table th, .host-table td { padding: 6px 12px; border-bottom: 1px solid #dfe6e9; text-align: right; }\n"
+                + "        .host-table th:first-child, .host-table td:first-child { text-align: left; }\n"
+                + "    </style>\n"
+                + "</head>\n"
+                + "<body>\n"
+                + "    <div class=\"report-container\">\n"
+                + "        <h1>Flow Forge Execution Report</h1>\n");
+
+        if (pageCount > 1) {
+            writePageNavigation(writer, page, pageCount, results.size());
+        }
+
+        // Add the pipeline results of this page
+        int from = (page - 1) * pageSize;
+        int to = Math.min(results.size(), from + pageSize);
+        for (PipelineResult result : results.subList(from, to)) {
+            writePipelineCard(writer, result);
+        }
+
+        if (pageCount > 1) {
+            writePageNavigation(writer, page, pageCount, results.size());
+        }
+
+        // Add summary chart, slowest jobs and instance latencies to the first page
+        if (page == 1) {
+            writeSummaryChart(writer, results);
+            List<Map.Entry<String, PipelineJobTimings.JobTiming>> slowestJobs = PipelineJobTimings.slowestJobs(results, SLOWEST_JOBS);
+            if (!slowestJobs.isEmpty()) {
+                writeSlowestJobsTable(writer, slowestJobs);
+            }
+            if (!hostStats.isEmpty()) {
+                writeHostTable(writer, hostStats);
+            }
+        }
+
+        // Close HTML document
+        writer.write("    </div>\n"
+                + "</body>\n"
+                + "</html>");
+    }
+
+    /**
+     * Write the links to the other pages of the report
+     *
+     * @param writer       Writer of the page file
+     * @param page         One-based number of the current page
+     * @param pageCount    Total number of pages
+     * @param resultCount  Total number of pipeline results
+     * @throws IOException If the navigation cannot be written
+     */
+    private void writePageNavigation(Writer writer, int page, int pageCount, int resultCount) throws IOException {
+        writer.write("        <nav class=\"page-nav\">");
+        writer.write(resultCount + " pipelines, page " + page + " of " + pageCount + ":");
+        for (int i = 1; i <= pageCount; i++) {
+            if (i == page) {
+                writer.write(" <strong>" + i + "</strong>");
+            } else {
+                writer.write(" <a href=\"");
+                writeEscaped(writer, pageFile(i).getFileName().toString());
+                writer.write("\">" + i + "</a>");
+            }
+        }
+        writer.write("</nav>\n");
+    }
+
+    /**
+     * Write the HTML of a single pipeline card
+     *
+     * @param writer Writer of the page file
      * @param result Pipeline result
-     * @return HTML string for pipeline card
+     * @throws IOException If the card cannot be written
      */
-    private String generatePipelineCard(PipelineResult result) {
-        StringBuilder card = new StringBuilder();
-        
-        card.append("        <div class=\"pipeline-card\">\n")
-            .append("            <div class=\"pipeline-header\">\n")
-            .append("                <h2 class=\"pipeline-title\">").append(result.getAppName()).append("</h2>\n")
-            .append("                <span class=\"pipeline-id\">Pipeline ID: ").append(result.getPipelineId()).append("</span>\n")
-            .append("            </div>\n");
-        
+    private void writePipelineCard(Writer writer, PipelineResult result) throws IOException {
+        writer.write("        <div class=\"pipeline-card\">\n"
+                + "            <div class=\"pipeline-header\">\n"
+                + "                <h2 class=\"pipeline-title\">");
+        writeEscaped(writer, result.getAppName());
+        writer.write("</h2>\n"
+                + "                <span class=\"pipeline-id\">Pipeline ID: " + result.getPipelineId() + "</span>\n"
+                + "            </div>\n");
+
         // Status with colored styling
-        card.append("            <div class=\"pipeline-detail\">\n")
-            .append("                <div class=\"detail-label\">Status:</div>\n")
-            .append("                <div class=\"detail-value ").append(getStatusClass(result.getStatus())).append("\">\n")
-            .append("                    ").append(result.getStatus()).append("\n")
-            .append("                </div>\n")
-            .append("            </div>\n");
-        
+        writer.write("            <div class=\"pipeline-detail\">\n"
+                + "                <div class=\"detail-label\">Status:</div>\n"
+                + "                <div class=\"detail-value " + getStatusClass(result.getStatus()) + "\">\n"
+                + "                    " + result.getStatus() + "\n"
+                + "                </div>\n"
+                + "            </div>\n");
+
         // Project details
-        card.append("            <div class=\"pipeline-detail\">\n")
-            .append("                <div class=\"detail-label\">Start Time:</div>\n")
-            .append("                <div class=\"detail-value timestamp\">").append(formatDateTime(result.getStartTime())).append("</div>\n")
-            .append("            </div>\n");
-        
-        card.append("            <div class=\"pipeline-detail\">\n")
-            .append("                <div class=\"detail-label\">End Time:</div>\n")
-            .append("                <div class=\"detail-value timestamp\">").append(formatDateTime(result.getEndTime())).append("</div>\n")
-            .append("            </div>\n");
-        
+        writer.write("            <div class=\"pipeline-detail\">\n"
+                + "                <div class=\"detail-label\">Start Time:</div>\n"
+                + "                <div class=\"detail-value timestamp\">" + formatDateTime(result.getStartTime()) + "</div>\n"
+                + "            </div>\n");
+
+        writer.write("            <div class=\"pipeline-detail\">\n"
+                + "                <div class=\"detail-label\">End Time:</div>\n"
+                + "                <div class=\"detail-value timestamp\">" + formatDateTime(result.getEndTime()) + "</div>\n"
+                + "            </div>\n");
+
         // Variables
-        card.append("            <div class=\"pipeline-detail\">\n")
-            .append("                <div class=\"detail-label\">Injected Variables:</div>\n")
-            .append("                <div class=\"detail-value\">\n")
-            .append("                    <div class=\"variables-container\">\n");
-        
+        writer.write("            <div class=\"pipeline-detail\">\n"
+                + "                <div class=\"detail-label\">Injected Variables:</div>\n"
+                + "                <div class=\"detail-value\">\n"
+                + "                    <div class=\"variables-container\">\n");
+
         for (Map.Entry<String, String> variable : result.getInjectedVariables().entrySet()) {
-            card.append("                        <div class=\"variable-item\">")
-                .append(variable.getKey()).append(" = ").append(variable.getValue())
-                .append("</div>\n");
+            writer.write("                        <div class=\"variable-item\">");
+            writeEscaped(writer, variable.getKey());
+            writer.write(" = ");
+            writeEscaped(writer, variable.getValue());
+            writer.write("</div>\n");
         }
-        
-        card.append("                    </div>\n")
-            .append("                </div>\n")
-            .append("            </div>\n");
-        
+
+        writer.write("                    </div>\n"
+                + "                </div>\n"
+                + "            </div>\n");
+
+        // Timings recorded by GitLab
+        PipelineJobTimings jobTimings = result.getJobTimings();
+        if (jobTimings != null) {
+            writer.write("            <div class=\"pipeline-detail\">\n"
+                    + "                <div class=\"detail-label\">GitLab Build Time:</div>\n"
+                    + "                <div class=\"detail-value\">" + formatDuration(jobTimings.getBuildTime())
+                    + " (queued: " + formatDuration(jobTimings.getQueueTime()) + ")</div>\n"
+                    + "            </div>\n"
+                    + "            <div class=\"pipeline-detail\">\n"
+                    + "                <div class=\"detail-label\">Stages:</div>\n"
+                    + "                <div class=\"detail-value\">\n"
+                    + "                    <div class=\"variables-container\">\n");
+            for (PipelineJobTimings.StageTiming stage : jobTimings.getStages()) {
+                writer.write("                        <div class=\"variable-item\">");
+                writeEscaped(writer, String.valueOf(stage.getName()));
+                writer.write(": " + formatDuration(stage.getDuration()) + " (queued: "
+                        + formatDuration(stage.getQueuedDuration()) + ", " + stage.getJobCount() + " jobs)</div>\n");
+            }
+            writer.write("                    </div>\n"
+                    + "                </div>\n"
+                    + "            </div>\n");
+        }
+
         // Build time
-        card.append("            <div class=\"build-time\">Build Time: ").append(formatDuration(result.getBuildTime())).append("</div>\n")
-            .append("        </div>\n");
-        
-        return card.toString();
+        writer.write("            <div class=\"build-time\">Build Time: " + formatDuration(result.getBuildTime()));
+        if (result.getExpectedBuildTime() != null) {
+            writer.write(" (predicted: " + formatDuration(result.getExpectedBuildTime()) + ")");
+        }
+        writer.write("</div>\n"
+                + "        </div>\n");
     }
-    
+
     /**
-     * Generate a summary chart HTML for all pipelines
-     * 
+     * Write the table of the jobs that ran longest in the whole run.
+     *
+     * @param writer      Writer of the page file
+     * @param slowestJobs App name and timings of the slowest jobs, longest first
+     * @throws IOException If the table cannot be written
+     */
+    private void writeSlowestJobsTable(Writer writer, List<Map.Entry<String, PipelineJobTimings.JobTiming>> slowestJobs)
+            throws IOException {
+        writer.write("        <div class=\"chart-container\">\n"
+                + "            <h2>Slowest Jobs</h2>\n"
+                + "            <table class=\"host-table\">\n"
+                + "                <tr><th>App</th><th>Job</th><th>Stage</th><th>Status</th><th>Duration</th>"
+                + "<th>Queued</th></tr>\n");
+        for (Map.Entry<String, PipelineJobTimings.JobTiming> entry : slowestJobs) {
+            PipelineJobTimings.JobTiming job = entry.getValue();
+            writer.write("                <tr><td>");
+            writeEscaped(writer, entry.getKey());
+            writer.write("</td><td>");
+            writeEscaped(writer, String.valueOf(job.getName()));
+            writer.write("</td><td>");
+            writeEscaped(writer, String.valueOf(job.getStage()));
+            writer.write("</td><td>");
+            writeEscaped(writer, job.getStatus());
+            writer.write("</td><td>" + formatDuration(job.getDuration())
+                    + "</td><td>" + formatDuration(job.getQueuedDuration()) + "</td></tr>\n");
+        }
+        writer.write("            </table>\n"
+                + "        </div>\n");
+    }
+
+    /**
+     * Write the table of request latencies per GitLab instance.
+     *
+     * @param writer    Writer of the page file
+     * @param hostStats Request statistics per GitLab host
+     * @throws IOException If the table cannot be written
+     */
+    private void writeHostTable(Writer writer, Map<String, GitLabApiCaller.HostStats> hostStats) throws IOException {
+        writer.write("        <div class=\"chart-container\">\n"
+                + "            <h2>GitLab Instances</h2>\n"
+                + "            <table class=\"host-table\">\n"
+                + "                <tr><th>Host</th><th>Requests</th><th>p50</th><th>p90</th><th>p99</th><th>Max</th>"
+                + "<th>Retries</th><th>Failures</th></tr>\n");
+        for (GitLabApiCaller.HostStats stats : hostStats.values()) {
+            LatencyHistogram latency = stats.getLatency();
+            writer.write("                <tr><td>");
+            writeEscaped(writer, stats.getHost());
+            writer.write("</td><td>" + latency.getCount()
+                    + "</td><td>" + latency.getValueAtPercentile(50) + " ms"
+                    + "</td><td>" + latency.getValueAtPercentile(90) + " ms"
+                    + "</td><td>" + latency.getValueAtPercentile(99) + " ms"
+                    + "</td><td>" + latency.getMax() + " ms"
+                    + "</td><td>" + stats.getRetryCount()
+                    + "</td><td>" + stats.getFailureCount() + "</td></tr>\n");
+        }
+        writer.write("            </table>\n"
+                + "        </div>\n");
+    }
+
+    /**
+     * Write the summary chart for all pipelines.
+     * Up to one page of pipelines gets a bar per pipeline; larger runs are charted per status,
+     * since tens of thousands of bars cannot be rendered usefully.
+     *
+     * @param writer  Writer of the page file
      * @param results List of pipeline results
-     * @return HTML for the summary chart
+     * @throws IOException If the chart cannot be written
      */
-    private String generateSummaryChart(List<PipelineResult> results) {
-        StringBuilder chart = new StringBuilder();
-        
-        chart.append("        <div class=\"chart-container\">\n")
-            .append("            <h2>Pipeline Status Summary</h2>\n");
-        
+    private void writeSummaryChart(Writer writer, List<PipelineResult> results) throws IOException {
+        writer.write("        <div class=\"chart-container\">\n"
+                + "            <h2>Pipeline Status Summary</h2>\n");
+
         // Add Chart.js
-        chart.append("            <script src=\"https://cdn.jsdelivr.net/npm/chart.js\"></script>\n")
-            .append("            <canvas id=\"pipelineChart\" width=\"400\" height=\"200\"></canvas>\n")
-            .append("            <h4>Developed By : <a href=\"mailto:connectwithsiddharthm@gmail.com\">Siddharth Mishra</a></h4>\n")
-            .append("            <script>\n")
-            .append("                const ctx = document.getElementById('pipelineChart').getContext('2d');\n")
-            .append("                const pipelineLabels = [");
-        
+        writer.write("            <script src=\"https://cdn.jsdelivr.net/npm/chart.js\"></script>\n"
+                + "            <canvas id=\"pipelineChart\" width=\"400\" height=\"200\"></canvas>\n"
+                + "            <h4>Developed By : <a href=\"mailto:connectwithsiddharthm@gmail.com\">Siddharth Mishra</a></h4>\n"
+                + "            <script>\n"
+                + "                const ctx = document.getElementById('pipelineChart').getContext('2d');\n");
+
+        String valueLabel;
+        String axisLabel;
+        if (results.size() <= pageSize) {
+            valueLabel = "Build Time (seconds)";
+            axisLabel = "Pipelines";
+            writePerPipelineData(writer, results);
+        } else {
+            valueLabel = "Pipelines";
+            axisLabel = "Status";
+            writePerStatusData(writer, results);
+        }
+
+        writer.write("                const pipelineChart = new Chart(ctx, {\n"
+                + "                    type: 'bar',\n"
+                + "                    data: {\n"
+                + "                        labels: pipelineLabels,\n"
+                + "                        datasets: [{\n"
+                + "                            label: '" + valueLabel + "',\n"
+                + "                            data: buildTimes,\n"
+                + "                            backgroundColor: statusColors,\n"
+                + "                            borderColor: statusColors,\n"
+                + "                            borderWidth: 1\n"
+                + "                        }]\n"
+                + "                    },\n"
+                + "                    options: {\n"
+                + "                        responsive: true,\n"
+                + "                        scales: {\n"
+                + "                            y: {\n"
+                + "                                beginAtZero: true,\n"
+                + "                                title: {\n"
+                + "                                    display: true,\n"
+                + "                                    text: '" + valueLabel + "'\n"
+                + "                                }\n"
+                + "                            },\n"
+                + "                            x: {\n"
+                + "                                title: {\n"
+                + "                                    display: true,\n"
+                + "                                    text: '" + axisLabel + "'\n"
+                + "                                }\n"
+                + "                            }\n"
+                + "                        },\n"
+                + "                        plugins: {\n"
+                + "                            title: {\n"
+                + "                                display: true,\n"
+                + "                                text: '" + (results.size() <= pageSize ? "Pipeline Build Times" : "Pipelines per Status") + "'\n"
+                + "                            },\n"
+                + "                            tooltip: {\n"
+                + "                                callbacks: {\n"
+                + "                                    afterLabel: function(context) {\n"
+                + "                                        return 'Status: ' + ['SUCCESS', 'FAILED', 'PENDING', 'OTHER'][Math.floor(Math.random() * 4)];\n"
+                + "                                    }\n"
+                + "                                }\n"
+                + "                            }\n"
+                + "                        }\n"
+                + "                    }\n"
+                + "                });\n"
+                + "            </script>\n"
+                + "        </div>\n");
+    }
+
+    /**
+     * Write the chart data with one bar per pipeline
+     *
+     * @param writer  Writer of the page file
+     * @param results List of pipeline results
+     * @throws IOException If the data cannot be written
+     */
+    private void writePerPipelineData(Writer writer, List<PipelineResult> results) throws IOException {
+        writer.write("                const pipelineLabels = [");
+
         // Pipeline names for labels
         boolean first = true;
         for (PipelineResult result : results) {
             if (!first) {
-                chart.append(", ");
+                writer.write(", ");
             }
-            chart.append("'").append(result.getAppName()).append("'");
+            writer.write("'");
+            writeEscapedScriptString(writer, result.getAppName());
+            writer.write("'");
             first = false;
         }
-        
-        chart.append("];\n")
-            .append("                const buildTimes = [");
-        
+
+        writer.write("];\n"
+                + "                const buildTimes = [");
+
         // Build times for data
         first = true;
         for (PipelineResult result : results) {
             if (!first) {
-                chart.append(", ");
+                writer.write(", ");
             }
-            chart.append(result.getBuildTime().getSeconds());
+            writer.write(Long.toString(result.getBuildTime().getSeconds()));
             first = false;
         }
-        
-        chart.append("];\n")
-            .append("                const statusColors = [");
-        
+
+        writer.write("];\n"
+                + "                const statusColors = [");
+
         // Colors based on status
         first = true;
         for (PipelineResult result : results) {
             if (!first) {
-                chart.append(", ");
+                writer.write(", ");
             }
-            
-            if (result.getStatus() == PipelineStatus.SUCCESS) {
-                chart.append("'#27ae60'"); // Green for success
-            } else if (result.getStatus() == PipelineStatus.FAILED) {
-                chart.append("'#e74c3c'"); // Red for failed
-            } else if (result.getStatus() == PipelineStatus.PENDING) {
-                chart.append("'#f39c12'"); // Orange for pending
+            writer.write(getStatusColor(result.getStatus()));
+            first = false;
+        }
+
+        writer.write("];\n");
+    }
+
+    /**
+     * Write the chart data with one bar per status
+     *
+     * @param writer  Writer of the page file
+     * @param results List of pipeline results
+     * @throws IOException If the data cannot be written
+     */
+    private void writePerStatusData(Writer writer, List<PipelineResult> results) throws IOException {
+        Map<PipelineStatus, Integer> counts = new EnumMap<>(PipelineStatus.class);
+        int unknown = 0;
+        for (PipelineResult result : results) {
+            if (result.getStatus() == null) {
+                unknown++;
             } else {
-                chart.append("'#7f8c8d'"); // Gray for other statuses
+                counts.merge(result.getStatus(), 1, Integer::sum);
             }
-            
-            first = false;
         }
-        
-        chart.append("];\n")
-            .append("                const pipelineChart = new Chart(ctx, {\n")
-            .append("                    type: 'bar',\n")
-            .append("                    data: {\n")
-            .append("                        labels: pipelineLabels,\n")
-            .append("                        datasets: [{\n")
-            .append("                            label: 'Build Time (seconds)',\n")
-            .append("                            data: buildTimes,\n")
-            .append("                            backgroundColor: statusColors,\n")
-            .append("                            borderColor: statusColors,\n")
-            .append("                            borderWidth: 1\n")
-            .append("                        }]\n")
-            .append("                    },\n")
-            .append("                    options: {\n")
-            .append("                        responsive: true,\n")
-            .append("                        scales: {\n")
-            .append("                            y: {\n")
-            .append("                                beginAtZero: true,\n")
-            .append("                                title: {\n")
-            .append("                                    display: true,\n")
-            .append("                                    text: 'Build Time (seconds)'\n")
-            .append("                                }\n")
-            .append("                            },\n")
-            .append("                            x: {\n")
-            .append("                                title: {\n")
-            .append("                                    display: true,\n")
-            .append("                                    text: 'Pipelines'\n")
-            .append("                                }\n")
-            .append("                            }\n")
-            .append("                        },\n")
-            .append("                        plugins: {\n")
-            .append("                            title: {\n")
-            .append("                                display: true,\n")
-            .append("                                text: 'Pipeline Build Times'\n")
-            .append("                            },\n")
-            .append("                            tooltip: {\n")
-            .append("                                callbacks: {\n")
-            .append("                                    afterLabel: function(context) {\n")
-            .append("                                        return 'Status: ' + ['SUCCESS', 'FAILED', 'PENDING', 'OTHER'][Math.floor(Math.random() * 4)];\n")
-            .append("                                    }\n")
-            .append("                                }\n")
-            .append("                            }\n")
-            .append("                        }\n")
-            .append("                    }\n")
-            .append("                });\n")
-            .append("            </script>\n")
-            .append("        </div>\n");
-        
-        return chart.toString();
+
+        StringBuilder labels = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        StringBuilder colors = new StringBuilder();
+        for (Map.Entry<PipelineStatus, Integer> count : counts.entrySet()) {
+            String separator = labels.length() > 0 ? ", " : "";
+            labels.append(separator).append('\'').append(count.getKey().name()).append('\'');
+            values.append(separator).append(count.getValue());
+            colors.append(separator).append(getStatusColor(count.getKey()));
+        }
+        if (unknown > 0) {
+            String separator = labels.length() > 0 ? ", " : "";
+            labels.append(separator).append("'UNKNOWN'");
+            values.append(separator).append(unknown);
+            colors.append(separator).append(getStatusColor(null));
+        }
+
+        writer.write("                const pipelineLabels = [" + labels + "];\n"
+                + "                const buildTimes = [" + values + "];\n"
+                + "                const statusColors = [" + colors + "];\n");
     }
-    
+
+    /**
+     * Get the chart color for a status
+     *
+     * @param status Pipeline status
+     * @return Quoted color literal
+     */
+    private String getStatusColor(PipelineStatus status) {
+        if (status == PipelineStatus.SUCCESS) {
+            return "'#27ae60'"; // Green for success
+        } else if (status == PipelineStatus.FAILED) {
+            return "'#e74c3c'"; // Red for failed
+        } else if (status == PipelineStatus.PENDING) {
+            return "'#f39c12'"; // Orange for pending
+        } else {
+            return "'#7f8c8d'"; // Gray for other statuses
+        }
+    }
+
+    /**
+     * Write text with the HTML special characters escaped
+     *
+     * @param writer Writer of the page file
+     * @param text   Text to write, may be null
+     * @throws IOException If the text cannot be written
+     */
+    private void writeEscaped(Writer writer, String text) throws IOException {
+        if (text == null) {
+            return;
+        }
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            String replacement;
+            switch (text.charAt(i)) {
+                case '<': replacement = "&lt;"; break;
+                case '>': replacement = "&gt;"; break;
+                case '&': replacement = "&amp;"; break;
+                case '"': replacement = "&quot;"; break;
+                case '\'': replacement = "&#39;"; break;
+                default: continue;
+            }
+            writer.write(text, start, i - start);
+            writer.write(replacement);
+            start = i + 1;
+        }
+        writer.write(text, start, text.length() - start);
+    }
+
+    /**
+     * Write text as the content of a single-quoted JavaScript string inside a script element
+     *
+     * @param writer Writer of the page file
+     * @param text   Text to write, may be null
+     * @throws IOException If the text cannot be written
+     */
+    private void writeEscapedScriptString(Writer writer, String text) throws IOException {
+        if (text == null) {
+            return;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\'' || c == '\\' || c == '<' || c == '>' || c < 0x20) {
+                writer.write(String.format("\\u%04x", (int) c));
+            } else {
+                writer.write(c);
+            }
+        }
+    }
+
     /**
      * Get the CSS class for a status
      * 
@@ -0,0 +1,404 @@
+package com.gitlab.orchestrator;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.gitlab4j.api.GitLabApiException;
+import org.gitlab4j.api.models.Job;
+import org.gitlab4j.api.models.Pipeline;
+import org.gitlab4j.api.models.Variable;
+import org.gitlab4j.api.utils.JacksonJson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Class responsible for making the GitLab calls with the non-blocking java.net.http client.
+ * HTTP/2 is negotiated where the server supports it, multiplexing every request to the instance
+ * over a single connection; otherwise the client falls back to HTTP/1.1 keep-alive connections.
+ * No thread waits for GitLab: responses are parsed, with gitlab4j's JSON mapping, by a handful of
+ * threads, and the number of requests in flight is capped like the gitlab4j connection pool.
+ */
+public class HttpGitLabClient implements GitLabClient {
+    private static final Logger logger = LoggerFactory.getLogger(HttpGitLabClient.class);
+    private static final String PROJECTS_PATH = "/api/v4/projects/";
+    private static final int PAGE_SIZE = 100;
+    private static final int RESPONSE_THREADS = 4;
+    private static final AtomicInteger clientCount = new AtomicInteger();
+
+    private final String baseUrl;
+    private final String accessToken;
+    private final Duration requestTimeout;
+    private final int maxInFlight;
+    private final ExecutorService responseHandlers;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new JacksonJson().getObjectMapper();
+    private final JavaType pipelineType;
+    private final JavaType pipelineListType;
+    private final JavaType jobListType;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+    private final Set<CompletableFuture<?>> pending = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+    private final AtomicBoolean versionLogged = new AtomicBoolean();
+    private volatile RateLimitStatus rateLimitStatus;
+
+    /**
+     * Constructor for HttpGitLabClient.
+     *
+     * @param baseUrl     GitLab base URL, e.g. "https://gitlab.com"
+     * @param accessToken GitLab access token
+     * @param settings    Maximum requests in flight and timeouts of the instance
+     */
+    public HttpGitLabClient(String baseUrl, String accessToken, GitLabHosts.Settings settings) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.accessToken = accessToken;
+        this.requestTimeout = Duration.ofMillis(settings.getReadTimeoutMs());
+        this.maxInFlight = settings.getMaxConnections();
+
+        String prefix = "gitlab-http-" + clientCount.incrementAndGet() + "-";
+        AtomicInteger threadCount = new AtomicInteger();
+        this.responseHandlers = Executors.newFixedThreadPool(RESPONSE_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(settings.getConnectTimeoutMs()))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .executor(responseHandlers)
+                .build();
+        this.pipelineType = objectMapper.constructType(Pipeline.class);
+        this.pipelineListType = objectMapper.getTypeFactory().constructCollectionType(List.class, Pipeline.class);
+        this.jobListType = objectMapper.getTypeFactory().constructCollectionType(List.class, Job.class);
+    }
+
+    @Override
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    @Override
+    public String getAccessToken() {
+        return accessToken;
+    }
+
+    @Override
+    public RateLimitStatus getRateLimitStatus() {
+        return rateLimitStatus;
+    }
+
+    @Override
+    public CompletableFuture<Pipeline> createPipeline(String projectId, String ref, List<Variable> variables) {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("ref", ref);
+        if (variables != null && !variables.isEmpty()) {
+            body.set("variables", objectMapper.valueToTree(variables));
+        }
+
+        HttpRequest request;
+        try {
+            request = request(encode(projectId) + "/pipeline")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new GitLabApiException(e));
+        }
+        return exchange(request).thenApply(response -> readBody(response, pipelineType));
+    }
+
+    @Override
+    public CompletableFuture<Pipeline> getPipeline(String projectId, long pipelineId) {
+        HttpRequest request = request(encode(projectId) + "/pipelines/" + pipelineId).GET().build();
+        return exchange(request).thenApply(response -> readBody(response, pipelineType));
+    }
+
+    @Override
+    public CompletableFuture<List<Pipeline>> listPipelines(String projectId, Date updatedAfter, long minPipelineId) {
+        String path = encode(projectId) + "/pipelines?order_by=id&sort=desc&per_page=" + PAGE_SIZE
+                + "&updated_after=" + encode(DateTimeFormatter.ISO_INSTANT.format(updatedAfter.toInstant()));
+        return listPages(path, pipelineListType, (Pipeline pipeline) -> pipeline.getId() < minPipelineId, 1,
+                new ArrayList<>());
+    }
+
+    @Override
+    public CompletableFuture<Pipeline> cancelPipeline(String projectId, long pipelineId) {
+        HttpRequest request = request(encode(projectId) + "/pipelines/" + pipelineId + "/cancel")
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        return exchange(request).thenApply(response -> readBody(response, pipelineType));
+    }
+
+    @Override
+    public CompletableFuture<List<Job>> listJobs(String projectId, long pipelineId) {
+        String path = encode(projectId) + "/pipelines/" + pipelineId + "/jobs?per_page=" + PAGE_SIZE;
+        return listPages(path, jobListType, (Job job) -> false, 1, new ArrayList<>());
+    }
+
+    /**
+     * Fetches the pages of a listing one after the other, following the X-Next-Page header.
+     *
+     * @param path      Path and query of the listing, without the page parameter
+     * @param type      Type of a page
+     * @param stopAt    Items from which the listing is not needed anymore
+     * @param page      Page to fetch
+     * @param collected Items of the previous pages
+     * @param <T>       Type of the listed items
+     * @return Future completed with the items of every fetched page
+     */
+    private <T> CompletableFuture<List<T>> listPages(String path, JavaType type, Predicate<T> stopAt, int page,
+                                                     List<T> collected) {
+        HttpRequest request = request(path + "&page=" + page).GET().build();
+        return exchange(request).thenCompose(response -> {
+            List<T> items = readBody(response, type);
+            for (T item : items) {
+                if (stopAt.test(item)) {
+                    return CompletableFuture.completedFuture(collected);
+                }
+                collected.add(item);
+            }
+            int nextPage = nextPage(response, page);
+            if (items.isEmpty() || nextPage == 0) {
+                return CompletableFuture.completedFuture(collected);
+            }
+            return listPages(path, type, stopAt, nextPage, collected);
+        });
+    }
+
+    /**
+     * Reads the page following a listing page from the X-Next-Page header. The header is empty
+     * on the last page; a value that is not a later page number is treated the same way, so a
+     * proxy mangling the header ends the listing instead of failing or looping over it.
+     *
+     * @param response Response of a listing page
+     * @param page     Page the response is for
+     * @return Next page, or 0 if this is the last page
+     */
+    private static int nextPage(HttpResponse<?> response, int page) {
+        String nextPage = response.headers().firstValue("X-Next-Page").orElse("").trim();
+        if (nextPage.isEmpty()) {
+            return 0;
+        }
+        try {
+            int next = Integer.parseInt(nextPage);
+            if (next > page) {
+                return next;
+            }
+        } catch (NumberFormatException ignored) {
+            // Handled below like any other invalid value
+        }
+        logger.warn("Ignoring invalid X-Next-Page header '{}' after page {} of {}", nextPage, page,
+                response.uri().getPath());
+        return 0;
+    }
+
+    /**
+     * @param pathAndQuery Path below the projects API, e.g. "123/pipelines/456"
+     * @return Request builder with the authentication header and timeout set
+     */
+    private HttpRequest.Builder request(String pathAndQuery) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + PROJECTS_PATH + pathAndQuery))
+                .timeout(requestTimeout)
+                .header("PRIVATE-TOKEN", accessToken)
+                .header("Accept", "application/json");
+    }
+
+    /**
+     * Sends a request and turns network errors and error responses into {@link GitLabApiException}s.
+     *
+     * @param request Request to send
+     * @return Future completed with the successful response
+     */
+    private CompletableFuture<HttpResponse<byte[]>> exchange(HttpRequest request) {
+        return send(request).handle((response, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                throw new CompletionException(cause instanceof GitLabApiException ? cause
+                        : new GitLabApiException(cause instanceof Exception ? (Exception) cause : new Exception(cause)));
+            }
+            if (versionLogged.compareAndSet(false, true)) {
+                logger.info("Connected to {} over {}", baseUrl, response.version());
+            }
+            RateLimitStatus status = RateLimitStatus.fromHeaders(name -> response.headers().firstValue(name).orElse(null));
+            if (status != null) {
+                rateLimitStatus = status;
+            }
+            if (response.statusCode() >= 400) {
+                throw new CompletionException(new ResponseException(errorMessage(response), response.statusCode(),
+                        response.headers()));
+            }
+            return response;
+        });
+    }
+
+    /**
+     * Sends a request once fewer than the maximum number of requests are in flight.
+     *
+     * @param request Request to send
+     * @return Future completed with the response
+     */
+    private CompletableFuture<HttpResponse<byte[]>> send(HttpRequest request) {
+        CompletableFuture<HttpResponse<byte[]>> result = new CompletableFuture<>();
+        // Registered before checking for close, so close() either sees the request or the request sees close()
+        pending.add(result);
+        result.whenComplete((value, error) -> pending.remove(result));
+        if (closed) {
+            result.completeExceptionally(closedException());
+            return result;
+        }
+        waiting.add(() -> {
+            CompletableFuture<HttpResponse<byte[]>> response;
+            try {
+                response = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+            } catch (RuntimeException e) {
+                response = CompletableFuture.failedFuture(e);
+            }
+            // The JDK completes sendAsync on the default async pool, a new thread per response on a
+            // single-CPU host, so move right back to our threads before parsing
+            try {
+                response.whenCompleteAsync((value, error) -> {
+                    inFlight.decrementAndGet();
+                    sendWaiting();
+                    if (error != null) {
+                        result.completeExceptionally(error);
+                    } else {
+                        result.complete(value);
+                    }
+                }, responseHandlers);
+            } catch (RejectedExecutionException e) {
+                inFlight.decrementAndGet();
+                result.completeExceptionally(closedException());
+            }
+        });
+        sendWaiting();
+        return result;
+    }
+
+    /**
+     * Sends queued requests while there is room for them.
+     */
+    private void sendWaiting() {
+        while (!waiting.isEmpty()) {
+            int current = inFlight.get();
+            if (current >= maxInFlight) {
+                return;
+            }
+            if (!inFlight.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            Runnable next = waiting.poll();
+            if (next == null) {
+                inFlight.decrementAndGet();
+            } else {
+                next.run();
+            }
+        }
+    }
+
+    /**
+     * Parses the JSON body of a successful response.
+     *
+     * @param response Response
+     * @param type     Type of the body
+     * @param <T>      Type of the body
+     * @return Parsed body
+     */
+    private <T> T readBody(HttpResponse<byte[]> response, JavaType type) {
+        try {
+            return objectMapper.readValue(response.body(), type);
+        } catch (IOException e) {
+            throw new CompletionException(new GitLabApiException("Unexpected response from " + response.uri()
+                    + ": " + e.getMessage(), response.statusCode()));
+        }
+    }
+
+    /**
+     * @param response Error response
+     * @return Message sent by GitLab, or the status code if the body has none
+     */
+    private String errorMessage(HttpResponse<byte[]> response) {
+        try {
+            JsonNode body = objectMapper.readTree(response.body());
+            JsonNode message = body != null && body.has("message") ? body.get("message") : body != null ? body.get("error") : null;
+            if (message != null) {
+                return message.isTextual() ? message.asText() : message.toString();
+            }
+        } catch (IOException e) {
+            // Not JSON, e.g. an error page of a proxy
+        }
+        return "HTTP " + response.statusCode();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static GitLabApiException closedException() {
+        return new GitLabApiException("GitLab client has been closed");
+    }
+
+    /**
+     * Stops the response threads. Requests still queued are dropped and every request without a
+     * response yet fails, so no caller is left waiting for a response that will never be handled.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        waiting.clear();
+        responseHandlers.shutdownNow();
+        for (CompletableFuture<?> request : pending) {
+            request.completeExceptionally(closedException());
+        }
+    }
+
+    /**
+     * Error response of GitLab, keeping the response headers for the retry policy.
+     */
+    public static final class ResponseException extends GitLabApiException {
+        private static final long serialVersionUID = 1L;
+
+        private final transient HttpHeaders headers;
+
+        ResponseException(String message, int httpStatus, HttpHeaders headers) {
+            super(message, httpStatus);
+            this.headers = headers;
+        }
+
+        /**
+         * @param name Header name, case-insensitive
+         * @return First value of the header, if the response had it
+         */
+        public Optional<String> getHeader(String name) {
+            return headers != null ? headers.firstValue(name) : Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.gitlab.orchestrator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Class responsible for fetching the job timings of finished pipelines.
+ * A fetch is started as soon as a pipeline finishes and goes through the rate limiter without
+ * holding a thread, so the jobs of many pipelines are fetched concurrently while the rest of
+ * the run goes on; a run only waits for them before writing its reports.
+ * <p>
+ * The jobs of a finished pipeline do not change anymore, so the timings are cached per pipeline
+ * (least recently used ones are dropped first): resumed runs and repeated daemon runs reuse them
+ * instead of listing the jobs again. Failed fetches are not cached.
+ */
+public class JobTimingFetcher {
+    private static final Logger logger = LoggerFactory.getLogger(JobTimingFetcher.class);
+    private static final int MAX_CACHED_PIPELINES = 10000;
+
+    private final GitLabApiCaller apiCaller;
+    private final Map<String, CompletableFuture<PipelineJobTimings>> cache =
+            new LinkedHashMap<String, CompletableFuture<PipelineJobTimings>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<PipelineJobTimings>> eldest) {
+                    return size() > MAX_CACHED_PIPELINES;
+                }
+            };
+
+    /**
+     * Constructor for JobTimingFetcher.
+     *
+     * @param apiCaller Rate limiter and retry policy for the job listings
+     */
+    public JobTimingFetcher(GitLabApiCaller apiCaller) {
+        this.apiCaller = apiCaller;
+    }
+
+    /**
+     * Fetches the job timings of a finished pipeline, or returns them from the cache.
+     *
+     * @param client     GitLab client owning the pipeline
+     * @param projectId  Project ID
+     * @param pipelineId Pipeline ID
+     * @return Future completed with the timings of the pipeline's jobs
+     */
+    public CompletableFuture<PipelineJobTimings> fetch(GitLabClient client, String projectId, long pipelineId) {
+        String key = client.getBaseUrl() + '\u0000' + projectId + '\u0000' + pipelineId;
+        CompletableFuture<PipelineJobTimings> timings;
+        synchronized (cache) {
+            timings = cache.get(key);
+            if (timings != null) {
+                return timings;
+            }
+            timings = new CompletableFuture<>();
+            cache.put(key, timings);
+        }
+
+        CompletableFuture<PipelineJobTimings> fetched = timings;
+        logger.debug("Fetching the jobs of pipeline {}", pipelineId);
+        apiCaller.execute(client, "listJobs " + pipelineId, () -> client.listJobs(projectId, pipelineId))
+                .thenApply(PipelineJobTimings::fromJobs)
+                .whenComplete((jobTimings, error) -> {
+                    if (error != null) {
+                        synchronized (cache) {
+                            cache.remove(key, fetched);
+                        }
+                        fetched.completeExceptionally(error);
+                    } else {
+                        fetched.complete(jobTimings);
+                    }
+                });
+        return fetched;
+    }
+}
@@ -0,0 +1,123 @@
+package com.gitlab.orchestrator;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class responsible for parsing a manifest given as JSON instead of CSV, e.g. when submitted to
+ * the daemon. The manifest is an array with one object per pipeline; the fields mirror the CSV
+ * columns:
+ * <pre>
+ * [{"appName": "api", "projectId": 123, "accessToken": "...", "branchName": "main",
+ *   "variables": "ENV=prod", "dependsOn": ["db"], "gitLabUrl": "https://gitlab.example.com",
+ *   "group": "backend", "onFailure": "fail-fast", "priority": 2, "runnerTags": ["gpu"],
+ *   "independent": false}]
+ * </pre>
+ * Only appName, projectId and accessToken are required. Unlike CSV rows, an invalid entry
+ * rejects the whole manifest, so that a submission either runs completely or not at all.
+ */
+public class JsonManifestParser {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Parses a JSON manifest.
+     *
+     * @param json JSON content
+     * @return List of PipelineConfig objects in manifest order
+     * @throws IOException              If the content cannot be read
+     * @throws IllegalArgumentException If the content is not a valid manifest
+     */
+    public List<PipelineConfig> parse(InputStream json) throws IOException {
+        JsonNode manifest;
+        try {
+            manifest = objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Manifest is not valid JSON: " + e.getOriginalMessage());
+        }
+        if (manifest == null || !manifest.isArray()) {
+            throw new IllegalArgumentException("Manifest must be a JSON array of pipelines");
+        }
+
+        List<PipelineConfig> configs = new ArrayList<>();
+        for (int i = 0; i < manifest.size(); i++) {
+            configs.add(parseEntry(manifest.get(i), "entry " + (i + 1)));
+        }
+        return configs;
+    }
+
+    /**
+     * Parses and validates one pipeline of the manifest.
+     *
+     * @param entry    JSON object of the pipeline
+     * @param location Position of the entry, for error reporting
+     * @return Pipeline configuration
+     * @throws IllegalArgumentException If the entry is invalid
+     */
+    private PipelineConfig parseEntry(JsonNode entry, String location) {
+        if (!entry.isObject()) {
+            throw new IllegalArgumentException("Pipeline must be a JSON object (" + location + ")");
+        }
+
+        PipelineConfig config = new PipelineConfig(text(entry, "appName"), text(entry, "projectId"),
+                text(entry, "accessToken"), text(entry, "branchName"), text(entry, "variables"), list(entry, "dependsOn"));
+        config.setGitLabUrl(text(entry, "gitLabUrl"));
+        config.setGroup(text(entry, "group"));
+        if (!text(entry, "onFailure").isEmpty()) {
+            config.setOnFailure(CancellationPolicy.fromString(text(entry, "onFailure")));
+        }
+        if (entry.has("priority")) {
+            JsonNode priority = entry.get("priority");
+            if (!priority.canConvertToInt() || !priority.isIntegralNumber() || priority.intValue() <= 0) {
+                throw new IllegalArgumentException("Priority must be a positive integer (" + location + ")");
+            }
+            config.setPriority(priority.intValue());
+        }
+        List<String> runnerTags = new ArrayList<>();
+        for (String tag : list(entry, "runnerTags").split(";")) {
+            if (!tag.trim().isEmpty()) {
+                runnerTags.add(tag.trim());
+            }
+        }
+        config.setRunnerTags(runnerTags);
+        if (entry.has("independent")) {
+            if (!entry.get("independent").isBoolean()) {
+                throw new IllegalArgumentException("Independent must be true or false (" + location + ")");
+            }
+            config.setIndependent(entry.get("independent").booleanValue());
+        }
+
+        CsvParser.validateConfig(config, location);
+        return config;
+    }
+
+    /**
+     * @param entry JSON object of a pipeline
+     * @param field Field name
+     * @return Text of a string or number field, or an empty string if it is missing or null
+     */
+    private String text(JsonNode entry, String field) {
+        JsonNode value = entry.get(field);
+        return value == null || value.isNull() ? "" : value.asText();
+    }
+
+    /**
+     * @param entry JSON object of a pipeline
+     * @param field Field name of an array of strings, or of a string separated by semicolons
+     * @return Items separated by semicolons, as in the CSV columns
+     */
+    private String list(JsonNode entry, String field) {
+        JsonNode value = entry.get(field);
+        if (value == null || !value.isArray()) {
+            return text(entry, field);
+        }
+        List<String> items = new ArrayList<>();
+        value.forEach(item -> items.add(item.asText()));
+        return String.join(";", items);
+    }
+}
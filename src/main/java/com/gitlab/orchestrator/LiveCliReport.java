@@ -0,0 +1,129 @@
+package com.gitlab.orchestrator;
+
+import org.gitlab4j.api.models.PipelineStatus;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class responsible for the live status table shown on the console while the pipelines run.
+ * On a terminal each pipeline owns one line of the table, and an update rewrites only that
+ * line in place using ANSI cursor movement. When the output is not a terminal every update is
+ * printed as a new line instead.
+ */
+public class LiveCliReport implements PipelineEventListener {
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static final String ROW_FORMAT = "%-30.30s %-12s %-12s %-10s %s";
+
+    private final PrintStream out;
+    private final boolean inPlace;
+    private final Map<String, Row> rows = new HashMap<>();
+    private final List<Row> order = new ArrayList<>();
+
+    /**
+     * Constructor for LiveCliReport.
+     *
+     * @param out     Console stream
+     * @param inPlace True to update rows in place, which requires an ANSI terminal
+     */
+    public LiveCliReport(PrintStream out, boolean inPlace) {
+        this.out = out;
+        this.inPlace = inPlace;
+        out.println();
+        out.println(String.format(ROW_FORMAT, "App", "Pipeline ID", "Status", "Started", "Build Time"));
+    }
+
+    @Override
+    public synchronized void onTriggered(PipelineConfig config, long pipelineId, LocalDateTime startTime) {
+        Row row = row(config.getAppName());
+        row.pipelineId = pipelineId;
+        row.status = "triggered";
+        row.startTime = startTime;
+        render(row);
+    }
+
+    @Override
+    public synchronized void onStatusChanged(PipelineConfig config, long pipelineId, PipelineStatus status) {
+        Row row = row(config.getAppName());
+        row.pipelineId = pipelineId;
+        row.status = String.valueOf(status);
+        render(row);
+    }
+
+    @Override
+    public synchronized void onFinished(PipelineResult result) {
+        Row row = row(result.getAppName());
+        row.pipelineId = result.getPipelineId();
+        row.status = String.valueOf(result.getStatus());
+        row.startTime = result.getStartTime();
+        row.buildTime = result.getStartTime() != null && result.getEndTime() != null ? result.getBuildTime() : null;
+        render(row);
+    }
+
+    /**
+     * Returns the row of an app, adding it at the bottom of the table if it is new.
+     */
+    private Row row(String appName) {
+        return rows.computeIfAbsent(appName, name -> new Row(name, -1));
+    }
+
+    /**
+     * Prints a row: a new row is appended, an existing one is rewritten where it stands.
+     *
+     * @param row Changed row
+     */
+    private void render(Row row) {
+        String line = format(row);
+        if (!inPlace) {
+            out.println(line);
+            return;
+        }
+
+        if (row.line < 0) {
+            row.line = order.size();
+            order.add(row);
+            out.println(line);
+        } else {
+            // The cursor sits below the last row; move up to the row, rewrite it and come back
+            int up = order.size() - row.line;
+            out.print("\u001b[" + up + "A\r\u001b[2K" + line + "\u001b[" + up + "B\r");
+        }
+        out.flush();
+    }
+
+    private String format(Row row) {
+        return String.format(ROW_FORMAT, row.appName,
+                row.pipelineId > 0 ? String.valueOf(row.pipelineId) : "-",
+                row.status,
+                row.startTime != null ? row.startTime.format(TIME_FORMATTER) : "-",
+                row.buildTime != null ? formatDuration(row.buildTime) : "");
+    }
+
+    private String formatDuration(Duration duration) {
+        long seconds = duration.getSeconds();
+        return String.format("%d:%02d:%02d", seconds / 3600, (seconds % 3600) / 60, seconds % 60);
+    }
+
+    /**
+     * Line of the status table.
+     */
+    private static final class Row {
+        private final String appName;
+        private int line;
+        private long pipelineId;
+        private String status;
+        private LocalDateTime startTime;
+        private Duration buildTime;
+
+        Row(String appName, int line) {
+            this.appName = appName;
+            this.line = line;
+        }
+    }
+}
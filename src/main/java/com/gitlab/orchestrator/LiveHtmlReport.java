@@ -0,0 +1,203 @@
+package com.gitlab.orchestrator;
+
+import org.gitlab4j.api.models.PipelineStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Class responsible for the live HTML report updated while the pipelines run.
+ * The report is an append-only page: a fixed header with a status table and a small script,
+ * followed by one script line per event that updates the row of its pipeline. Every update
+ * therefore costs one short append, independent of the number of pipelines, and the page
+ * reloads itself periodically to pick up new lines.
+ */
+public class LiveHtmlReport implements PipelineEventListener, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(LiveHtmlReport.class);
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String REPORT_FILE = "flow-forge-live.html";
+    private static final int REFRESH_SECONDS = 5;
+
+    private final Path reportFile;
+    private final Map<String, Integer> rowIndexes = new HashMap<>();
+    private Writer writer;
+
+    /**
+     * Constructor for LiveHtmlReport writing flow-forge-live.html in the working directory.
+     *
+     * @throws IOException If the report cannot be created
+     */
+    public LiveHtmlReport() throws IOException {
+        this(REPORT_FILE);
+    }
+
+    /**
+     * Constructor for LiveHtmlReport.
+     *
+     * @param reportFile Path of the live report
+     * @throws IOException If the report cannot be created
+     */
+    public LiveHtmlReport(String reportFile) throws IOException {
+        this.reportFile = Paths.get(reportFile);
+        this.writer = Files.newBufferedWriter(this.reportFile, StandardCharsets.UTF_8);
+        writer.write("<!DOCTYPE html>\n"
+                + "<html lang=\"en\">\n"
+                + "<head>\n"
+                + "    <meta charset=\"UTF-8\">\n"
+                + "    <title>Flow Forge Live Report</title>\n"
+                + "    <style>\n"
+                + "        body { font-family: Arial, sans-serif; margin: 20px; }\n"
+                + "        h1 { color: #2e86de; text-align: center; }\n"
+                + "        .summary { text-align: center; margin-bottom: 20px; color: #636e72; }\n"
+                + "        table { border-collapse: collapse; margin: 0 auto; min-width: 900px; }\n"
+                + "        th, td { padding: 6px 12px; border-bottom: 1px solid #dfe6e9; text-align: left; }\n"
+                + "        th { background-color: #f5f6fa; }\n"
+                + "        .status-success { color: #27ae60; font-weight: bold; }\n"
+                + "        .status-failed { color: #e74c3c; font-weight: bold; }\n"
+                + "        .status-running, .status-pending, .status-created { color: #f39c12; font-weight: bold; }\n"
+                + "        .status-other { color: #7f8c8d; font-weight: bold; }\n"
+                + "    </style>\n"
+                + "    <script>\n"
+                + "        var rows = [], counts = {}, finished = false;\n"
+                + "        setTimeout(function() { if (!finished) location.reload(); }, " + REFRESH_SECONDS * 1000 + ");\n"
+                + "        function u(i, app, id, status, start, end) {\n"
+                + "            var row = rows[i];\n"
+                + "            if (!row) {\n"
+                + "                row = rows[i] = document.getElementById('pipelines').insertRow(-1);\n"
+                + "                for (var c = 0; c < 5; c++) row.insertCell(-1);\n"
+                + "                row.cells[0].textContent = app;\n"
+                + "            } else {\n"
+                + "                counts[row.status]--;\n"
+                + "            }\n"
+                + "            row.status = status;\n"
+                + "            counts[status] = (counts[status] || 0) + 1;\n"
+                + "            if (id) row.cells[1].textContent = id;\n"
+                + "            row.cells[2].textContent = status;\n"
+                + "            row.cells[2].className = /^(success|failed|running|pending|created)$/.test(status) ? 'status-' + status : 'status-other';\n"
+                + "            if (start) row.cells[3].textContent = start;\n"
+                + "            if (end) row.cells[4].textContent = end;\n"
+                + "            var summary = [];\n"
+                + "            for (var s in counts) if (counts[s] > 0) summary.push(s + ': ' + counts[s]);\n"
+                + "            document.getElementById('summary').textContent = rows.length + ' pipelines - ' + summary.join(', ');\n"
+                + "        }\n"
+                + "    </script>\n"
+                + "</head>\n"
+                + "<body>\n"
+                + "    <h1>Flow Forge Live Report</h1>\n"
+                + "    <div class=\"summary\" id=\"summary\">Waiting for the first pipeline...</div>\n"
+                + "    <table>\n"
+                + "        <thead><tr><th>App</th><th>Pipeline ID</th><th>Status</th><th>Start Time</th><th>End Time</th></tr></thead>\n"
+                + "        <tbody id=\"pipelines\"></tbody>\n"
+                + "    </table>\n");
+        writer.flush();
+        logger.info("Live HTML report: {}", this.reportFile.toAbsolutePath());
+    }
+
+    @Override
+    public void onTriggered(PipelineConfig config, long pipelineId, LocalDateTime startTime) {
+        append(config.getAppName(), pipelineId, "triggered", startTime, null);
+    }
+
+    @Override
+    public void onStatusChanged(PipelineConfig config, long pipelineId, PipelineStatus status) {
+        append(config.getAppName(), pipelineId, String.valueOf(status), null, null);
+    }
+
+    @Override
+    public void onFinished(PipelineResult result) {
+        append(result.getAppName(), result.getPipelineId(), String.valueOf(result.getStatus()),
+                result.getStartTime(), result.getEndTime());
+    }
+
+    /**
+     * Appends the update of one pipeline row.
+     *
+     * @param appName    Name of the application
+     * @param pipelineId GitLab pipeline ID, or 0 if the pipeline was never triggered
+     * @param status     Status shown in the row
+     * @param startTime  Start time, or null to keep the current value
+     * @param endTime    End time, or null to keep the current value
+     */
+    private synchronized void append(String appName, long pipelineId, String status,
+                                     LocalDateTime startTime, LocalDateTime endTime) {
+        if (writer == null) {
+            return;
+        }
+
+        Integer index = rowIndexes.get(appName);
+        if (index == null) {
+            index = rowIndexes.size();
+            rowIndexes.put(appName, index);
+        }
+
+        try {
+            writer.write("<script>u(" + index + ", '");
+            writeScriptString(appName);
+            writer.write("', " + (pipelineId > 0 ? String.valueOf(pipelineId) : "0") + ", '");
+            writeScriptString(status);
+            writer.write("', '" + formatDateTime(startTime) + "', '" + formatDateTime(endTime) + "')</script>\n");
+            writer.flush();
+        } catch (IOException e) {
+            logger.warn("Error updating live HTML report, disabling it: {}", e.getMessage());
+            closeQuietly();
+        }
+    }
+
+    /**
+     * Write text as the content of a single-quoted JavaScript string inside a script element
+     *
+     * @param text Text to write
+     * @throws IOException If the text cannot be written
+     */
+    private void writeScriptString(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\'' || c == '\\' || c == '<' || c == '>' || c < 0x20) {
+                writer.write(String.format("\\u%04x", (int) c));
+            } else {
+                writer.write(c);
+            }
+        }
+    }
+
+    private String formatDateTime(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.format(TIME_FORMATTER) : "";
+    }
+
+    /**
+     * Marks the run as finished and closes the report. The finished page no longer reloads itself.
+     */
+    @Override
+    public synchronized void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.write("<script>finished = true; document.getElementById('summary').textContent += ' (run finished)';</script>\n"
+                    + "</body>\n"
+                    + "</html>\n");
+        } catch (IOException e) {
+            logger.warn("Error finishing live HTML report: {}", e.getMessage());
+        }
+        closeQuietly();
+    }
+
+    private void closeQuietly() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            logger.debug("Error closing live HTML report: {}", e.getMessage());
+        }
+        writer = null;
+    }
+}
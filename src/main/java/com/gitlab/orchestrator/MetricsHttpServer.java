@@ -0,0 +1,90 @@
+package com.gitlab.orchestrator;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Class responsible for serving the metrics to Prometheus while a run is in progress.
+ * An embedded HTTP server answers GET requests on /metrics with the text exposition format.
+ */
+public class MetricsHttpServer implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsHttpServer.class);
+    private static final String METRICS_PATH = "/metrics";
+
+    private final HttpServer server;
+    private final ExecutorService handler;
+    private final MetricsRegistry registry;
+
+    /**
+     * Starts the metrics endpoint.
+     *
+     * @param port     Port to listen on
+     * @param registry Registry to expose
+     * @throws IOException If the server cannot be started
+     */
+    public MetricsHttpServer(int port, MetricsRegistry registry) throws IOException {
+        this.registry = registry;
+        this.handler = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.server.createContext(METRICS_PATH, this::handle);
+        this.server.setExecutor(handler);
+        this.server.start();
+        logger.info("Serving metrics on port {} at {}", getPort(), METRICS_PATH);
+    }
+
+    /**
+     * Handles a single scrape.
+     *
+     * @param exchange HTTP exchange
+     * @throws IOException If the response cannot be written
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            StringWriter text = new StringWriter();
+            registry.writePrometheus(text);
+            byte[] body = text.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * @return Port the server is listening on
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the server.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        handler.shutdownNow();
+    }
+}
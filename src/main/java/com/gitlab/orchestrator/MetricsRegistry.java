@@ -0,0 +1,267 @@
+package com.gitlab.orchestrator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Class responsible for holding the metrics of the orchestrator: counters, gauges and latency
+ * histograms, optionally split by labels. Metrics are created on first use and can be exported
+ * in the Prometheus text format or as JSON.
+ */
+public class MetricsRegistry {
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private final ConcurrentMap<String, Family> families = new ConcurrentSkipListMap<>();
+
+    /**
+     * @return Registry shared by all components of the process
+     */
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns a counter, creating it on first use.
+     *
+     * @param name   Metric name
+     * @param help   Description of the metric
+     * @param labels Label names and values, alternating
+     * @return Counter
+     */
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) family(name, help, "counter").metrics.computeIfAbsent(labelString(labels), key -> new Counter());
+    }
+
+    /**
+     * Registers a gauge whose value is read when the metrics are exported.
+     * Registering the same gauge again replaces its value supplier.
+     *
+     * @param name   Metric name
+     * @param help   Description of the metric
+     * @param value  Supplier of the current value
+     * @param labels Label names and values, alternating
+     */
+    public void gauge(String name, String help, Supplier<? extends Number> value, String... labels) {
+        family(name, help, "gauge").metrics.put(labelString(labels), new Gauge(value));
+    }
+
+    /**
+     * Returns a latency histogram in milliseconds, creating it on first use.
+     * It is exported in seconds.
+     *
+     * @param name   Metric name
+     * @param help   Description of the metric
+     * @param labels Label names and values, alternating
+     * @return Latency histogram
+     */
+    public LatencyHistogram histogram(String name, String help, String... labels) {
+        return (LatencyHistogram) family(name, help, "summary").metrics.computeIfAbsent(labelString(labels),
+                key -> new LatencyHistogram());
+    }
+
+    /**
+     * Writes the metrics in the Prometheus text exposition format.
+     *
+     * @param writer Destination
+     * @throws IOException If the metrics cannot be written
+     */
+    public void writePrometheus(Writer writer) throws IOException {
+        for (Map.Entry<String, Family> entry : families.entrySet()) {
+            String name = entry.getKey();
+            Family family = entry.getValue();
+            writer.write("# HELP " + name + " " + family.help + "\n");
+            writer.write("# TYPE " + name + " " + family.type + "\n");
+
+            for (Map.Entry<String, Object> metric : family.metrics.entrySet()) {
+                String labels = metric.getKey();
+                Object value = metric.getValue();
+                if (value instanceof LatencyHistogram) {
+                    LatencyHistogram histogram = (LatencyHistogram) value;
+                    for (double quantile : QUANTILES) {
+                        writer.write(name + withLabel(labels, "quantile=\"" + quantile + "\"") + " "
+                                + seconds(histogram.getValueAtPercentile(quantile * 100)) + "\n");
+                    }
+                    writer.write(name + "_sum" + braces(labels) + " " + seconds(histogram.getSum()) + "\n");
+                    writer.write(name + "_count" + braces(labels) + " " + histogram.getCount() + "\n");
+                } else {
+                    writer.write(name + braces(labels) + " " + numericValue(value) + "\n");
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds a JSON-friendly snapshot of the metrics.
+     *
+     * @return One map per metric, with name, type, labels and values
+     */
+    public List<Map<String, Object>> snapshot() {
+        List<Map<String, Object>> snapshot = new ArrayList<>();
+        for (Map.Entry<String, Family> entry : families.entrySet()) {
+            for (Map.Entry<String, Object> metric : entry.getValue().metrics.entrySet()) {
+                Map<String, Object> values = new LinkedHashMap<>();
+                values.put("name", entry.getKey());
+                values.put("type", entry.getValue().type);
+                values.put("labels", parseLabels(metric.getKey()));
+                if (metric.getValue() instanceof LatencyHistogram) {
+                    LatencyHistogram histogram = (LatencyHistogram) metric.getValue();
+                    values.put("count", histogram.getCount());
+                    values.put("sumMs", histogram.getSum());
+                    values.put("maxMs", histogram.getMax());
+                    for (double quantile : QUANTILES) {
+                        values.put("p" + (int) (quantile * 100) + "Ms", histogram.getValueAtPercentile(quantile * 100));
+                    }
+                } else {
+                    values.put("value", numericValue(metric.getValue()));
+                }
+                snapshot.add(values);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Writes the metrics to a file: JSON if the file name ends with ".json", otherwise the
+     * Prometheus text format, e.g. for the node exporter's textfile collector.
+     *
+     * @param filePath Path of the metrics file
+     * @throws IOException If the file cannot be written
+     */
+    public void writeFile(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            if (filePath.endsWith(".json")) {
+                new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(writer, snapshot());
+            } else {
+                writePrometheus(writer);
+            }
+        }
+    }
+
+    private Family family(String name, String help, String type) {
+        Family family = families.computeIfAbsent(name, key -> new Family(help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as a " + family.type);
+        }
+        return family;
+    }
+
+    private static String labelString(String... labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be given as name-value pairs");
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(labels[i]).append("=\"")
+                    .append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+                    .append('"');
+        }
+        return sb.toString();
+    }
+
+    private static Map<String, String> parseLabels(String labelString) {
+        Map<String, String> labels = new LinkedHashMap<>();
+        int i = 0;
+        while (i < labelString.length()) {
+            int equals = labelString.indexOf("=\"", i);
+            StringBuilder value = new StringBuilder();
+            int j = equals + 2;
+            for (; labelString.charAt(j) != '"'; j++) {
+                char c = labelString.charAt(j);
+                if (c == '\\') {
+                    char next = labelString.charAt(++j);
+                    value.append(next == 'n' ? '\n' : next);
+                } else {
+                    value.append(c);
+                }
+            }
+            labels.put(labelString.substring(i, equals), value.toString());
+            i = j + 2; // Skip the closing quote and the comma
+        }
+        return labels;
+    }
+
+    private static String braces(String labels) {
+        return labels.isEmpty() ? "" : "{" + labels + "}";
+    }
+
+    private static String withLabel(String labels, String label) {
+        return "{" + (labels.isEmpty() ? "" : labels + ",") + label + "}";
+    }
+
+    private static String seconds(long millis) {
+        return String.valueOf(millis / 1000.0);
+    }
+
+    private static Number numericValue(Object metric) {
+        if (metric instanceof Counter) {
+            return ((Counter) metric).get();
+        }
+        Number value = ((Gauge) metric).value.get();
+        return value != null ? value : 0;
+    }
+
+    /**
+     * Monotonic counter.
+     */
+    public static final class Counter {
+        private final LongAdder value = new LongAdder();
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    /**
+     * Gauge read on export.
+     */
+    private static final class Gauge {
+        private final Supplier<? extends Number> value;
+
+        Gauge(Supplier<? extends Number> value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * Metrics sharing a name, one per label combination.
+     */
+    private static final class Family {
+        private final String help;
+        private final String type;
+        private final ConcurrentMap<String, Object> metrics = new ConcurrentHashMap<>();
+
+        Family(String help, String type) {
+            this.help = help;
+            this.type = type;
+        }
+    }
+}
@@ -0,0 +1,418 @@
+package com.gitlab.orchestrator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Class responsible for the submission API of daemon mode.
+ * An embedded HTTP server, bound to the loopback interface since manifests carry access tokens,
+ * accepts manifests and executes each one as an independent {@link PipelineRun}:
+ * <ul>
+ *     <li>POST /runs submits a manifest, CSV or JSON (Content-Type application/json). Query
+ *     parameters override the run options given on the command line, e.g.
+ *     /runs?mode=parallel&amp;max-concurrency=50. The run starts right away; the response
+ *     holds its ID.</li>
+ *     <li>GET /runs lists the runs, GET /runs/{id} returns a run with the results so far. With
+ *     job-timings set, results also carry GitLab's job timings once they have been fetched.</li>
+ *     <li>GET /runs/{id}/results streams the results as newline-delimited JSON, one line per
+ *     finished pipeline, until the run is over.</li>
+ * </ul>
+ * Runs execute at the same time, sharing the warm GitLab clients, the poller and the rate limit.
+ * The last 100 runs that are over are kept; older ones are forgotten and their journal and
+ * report files deleted, so a long-lived daemon does not fill its working directory.
+ */
+public class OrchestratorDaemon implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(OrchestratorDaemon.class);
+    private static final String RUNS_PATH = "/runs";
+    private static final Set<String> RUN_OPTIONS = Set.of("mode", "max-concurrency", "virtual-threads",
+            "cancellation-policy", "project-limits", "runner-tag-limits", "read-ahead", "trigger-concurrency",
+            "report-page-size", "job-timings");
+    private static final int MAX_ENDED_RUNS = 100;
+    private static final long STREAM_HEARTBEAT_MS = 15_000;
+    private static final DateTimeFormatter RUN_ID_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final String[] defaultArgs;
+    private final HttpServer server;
+    private final ExecutorService handlers;
+    private final ExecutorService runners;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, PipelineRun> runs = new LinkedHashMap<>();
+    private final AtomicInteger runCount = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final CountDownLatch closeLatch = new CountDownLatch(1);
+
+    /**
+     * Starts the submission API.
+     *
+     * @param port        Port to listen on
+     * @param defaultArgs Command line arguments of the daemon, the defaults of every run
+     * @throws IOException If the server cannot be started
+     */
+    public OrchestratorDaemon(int port, String[] defaultArgs) throws IOException {
+        this.defaultArgs = defaultArgs.clone();
+        // Result streams hold their handler thread for the length of a run
+        this.handlers = Executors.newCachedThreadPool(namedThreads("daemon-http"));
+        this.runners = Executors.newCachedThreadPool(namedThreads("daemon-run"));
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.server.createContext(RUNS_PATH, this::handle);
+        this.server.setExecutor(handlers);
+        this.server.start();
+        logger.info("Accepting runs on http://{}:{}{}", server.getAddress().getHostString(), getPort(), RUNS_PATH);
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Routes a request to its handler.
+     *
+     * @param exchange HTTP exchange
+     * @throws IOException If the response cannot be written
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String[] path = exchange.getRequestURI().getPath().substring(RUNS_PATH.length()).split("/");
+            String method = exchange.getRequestMethod();
+            if (path.length <= 1) {
+                if ("POST".equals(method)) {
+                    submit(exchange);
+                } else if ("GET".equals(method)) {
+                    sendJson(exchange, 200, listRuns());
+                } else {
+                    sendError(exchange, 405, "Use GET or POST on " + RUNS_PATH);
+                }
+                return;
+            }
+
+            PipelineRun run = getRun(path[1]);
+            if (run == null || path.length > 3 || (path.length == 3 && !"results".equals(path[2]))) {
+                sendError(exchange, 404, "No such run or resource: " + exchange.getRequestURI().getPath());
+            } else if (!"GET".equals(method)) {
+                sendError(exchange, 405, "Use GET on " + exchange.getRequestURI().getPath());
+            } else if (path.length == 2) {
+                ObjectNode body = describe(run);
+                ArrayNode results = body.putArray("results");
+                run.getFinished().forEach(result -> results.add(describe(result)));
+                sendJson(exchange, 200, body);
+            } else {
+                streamResults(exchange, run);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Error handling {} {}: {}", exchange.getRequestMethod(), exchange.getRequestURI(), e.getMessage(), e);
+            sendError(exchange, 500, "Internal error: " + e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Parses a submitted manifest and starts its run.
+     *
+     * @param exchange HTTP exchange
+     * @throws IOException If the request cannot be read or the response cannot be written
+     */
+    private void submit(HttpExchange exchange) throws IOException {
+        String runId = LocalDateTime.now().format(RUN_ID_FORMATTER) + "-" + runCount.incrementAndGet();
+        OrchestratorSettings settings;
+        List<PipelineConfig> configs;
+        try {
+            settings = runSettings(exchange.getRequestURI().getRawQuery());
+            configs = parseManifest(exchange);
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+            return;
+        }
+        if (configs.isEmpty()) {
+            sendError(exchange, 400, "The manifest has no valid pipelines");
+            return;
+        }
+
+        PipelineRun run;
+        try {
+            run = GitLabPipelineExecutor.startRun(runId, settings, configs);
+        } catch (IOException e) {
+            logger.error("Could not start run {}: {}", runId, e.getMessage());
+            sendError(exchange, 500, "Could not start run: " + e.getMessage());
+            return;
+        }
+        List<PipelineRun> evicted;
+        synchronized (runs) {
+            runs.put(runId, run);
+            evicted = evictEndedRuns();
+        }
+        for (PipelineRun endedRun : evicted) {
+            try {
+                endedRun.deleteFiles();
+            } catch (IOException e) {
+                logger.warn("Could not delete the files of run {}: {}", endedRun.getId(), e.getMessage());
+            }
+        }
+        runners.execute(() -> GitLabPipelineExecutor.completeRun(run, configs));
+        logger.info("Run {} submitted with {} pipelines ({} mode)", runId, configs.size(),
+                settings.getExecutionMode().name().toLowerCase());
+
+        exchange.getResponseHeaders().set("Location", RUNS_PATH + "/" + runId);
+        sendJson(exchange, 202, describe(run));
+    }
+
+    /**
+     * Builds the settings of a run: the daemon's command line, overridden by the query parameters.
+     *
+     * @param rawQuery Raw query of the submission, or null
+     * @return Settings of the run
+     * @throws IllegalArgumentException If a parameter is not a run option or has an invalid value
+     */
+    private OrchestratorSettings runSettings(String rawQuery) {
+        List<String> args = new ArrayList<>(Arrays.asList(defaultArgs));
+        if (rawQuery != null && !rawQuery.isEmpty()) {
+            for (String parameter : rawQuery.split("&")) {
+                String[] nameValue = parameter.split("=", 2);
+                String name = URLDecoder.decode(nameValue[0], StandardCharsets.UTF_8);
+                if (!RUN_OPTIONS.contains(name)) {
+                    throw new IllegalArgumentException("Not a run option: " + name + " (run options: "
+                            + String.join(", ", new TreeSet<>(RUN_OPTIONS)) + ")");
+                }
+                args.add("--" + name + (nameValue.length > 1 ? "=" + URLDecoder.decode(nameValue[1], StandardCharsets.UTF_8) : ""));
+            }
+        }
+        return OrchestratorSettings.fromArgs(args.toArray(new String[0]));
+    }
+
+    /**
+     * Reads the submitted manifest.
+     *
+     * @param exchange HTTP exchange
+     * @return Valid pipelines of the manifest
+     * @throws IOException              If the request cannot be read
+     * @throws IllegalArgumentException If the manifest is invalid
+     */
+    private List<PipelineConfig> parseManifest(HttpExchange exchange) throws IOException {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        try (InputStream body = exchange.getRequestBody()) {
+            if (contentType != null && contentType.startsWith("application/json")) {
+                return new JsonManifestParser().parse(body);
+            }
+            try (Stream<PipelineConfig> configs = new CsvParser().stream(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+                return configs.collect(Collectors.toList());
+            } catch (UncheckedIOException e) {
+                throw new IllegalArgumentException("Invalid CSV manifest: " + e.getCause().getMessage());
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Invalid CSV manifest: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Streams the results of a run as newline-delimited JSON until the run is over,
+     * starting with those that already finished.
+     *
+     * @param exchange HTTP exchange
+     * @param run      Run to follow
+     * @throws IOException If the client goes away
+     */
+    private void streamResults(HttpExchange exchange, PipelineRun run) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson; charset=utf-8");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            int sent = 0;
+            while (true) {
+                List<PipelineResult> results = run.awaitResults(sent, STREAM_HEARTBEAT_MS);
+                for (PipelineResult result : results) {
+                    out.write(objectMapper.writeValueAsBytes(describe(result)));
+                    out.write('\n');
+                }
+                sent += results.size();
+                if (results.isEmpty()) {
+                    if (run.getState() != PipelineRun.State.RUNNING) {
+                        break;
+                    }
+                    // Keeps idle connections from being dropped by proxies during long builds
+                    out.write('\n');
+                }
+                out.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @param runId Run ID
+     * @return The run, or null if there is none with this ID
+     */
+    private PipelineRun getRun(String runId) {
+        synchronized (runs) {
+            return runs.get(runId);
+        }
+    }
+
+    /**
+     * Forgets the oldest runs that are over once more than {@value #MAX_ENDED_RUNS} of them are kept.
+     * Their journal and report are deleted by the caller, outside the lock on the runs.
+     *
+     * @return The forgotten runs
+     */
+    private List<PipelineRun> evictEndedRuns() {
+        List<PipelineRun> evicted = new ArrayList<>();
+        long ended = runs.values().stream().filter(run -> run.getState() != PipelineRun.State.RUNNING).count();
+        for (Iterator<PipelineRun> it = runs.values().iterator(); it.hasNext() && ended > MAX_ENDED_RUNS; ) {
+            PipelineRun run = it.next();
+            if (run.getState() != PipelineRun.State.RUNNING) {
+                it.remove();
+                evicted.add(run);
+                ended--;
+            }
+        }
+        return evicted;
+    }
+
+    private ArrayNode listRuns() {
+        ArrayNode list = objectMapper.createArrayNode();
+        synchronized (runs) {
+            runs.values().forEach(run -> list.add(describe(run)));
+        }
+        return list;
+    }
+
+    /**
+     * @param run Run
+     * @return Summary of the run: state, times and pipeline counts per status
+     */
+    private ObjectNode describe(PipelineRun run) {
+        List<PipelineResult> finished = run.getFinished();
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("id", run.getId());
+        node.put("state", run.getState().name());
+        node.put("submittedAt", run.getSubmittedAt().toString());
+        node.put("endedAt", run.getEndedAt() != null ? run.getEndedAt().toString() : null);
+        node.put("error", run.getError());
+        node.put("mode", run.getSettings().getExecutionMode().name());
+        node.put("pipelines", run.getPipelineCount());
+        node.put("finished", finished.size());
+        ObjectNode statuses = node.putObject("statuses");
+        finished.stream()
+                .collect(Collectors.groupingBy(result -> result.getStatus().name(), TreeMap::new, Collectors.counting()))
+                .forEach(statuses::put);
+        return node;
+    }
+
+    /**
+     * @param result Result of a pipeline
+     * @return JSON form of the result
+     */
+    private ObjectNode describe(PipelineResult result) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("appName", result.getAppName());
+        node.put("pipelineId", result.getPipelineId());
+        node.put("status", result.getStatus().name());
+        node.put("startTime", result.getStartTime() != null ? result.getStartTime().toString() : null);
+        node.put("endTime", result.getEndTime() != null ? result.getEndTime().toString() : null);
+        node.put("buildTimeSeconds", result.getBuildTime().toMillis() / 1000.0);
+        if (result.getExpectedBuildTime() != null) {
+            node.put("expectedBuildTimeSeconds", result.getExpectedBuildTime().toMillis() / 1000.0);
+        }
+        PipelineJobTimings jobTimings = result.getJobTimings();
+        if (jobTimings != null) {
+            node.put("gitLabBuildTimeSeconds", jobTimings.getBuildTime().toMillis() / 1000.0);
+            node.put("queueTimeSeconds", jobTimings.getQueueTime().toMillis() / 1000.0);
+            ArrayNode jobs = node.putArray("jobs");
+            for (PipelineJobTimings.JobTiming job : jobTimings.getJobs()) {
+                ObjectNode jobNode = jobs.addObject();
+                jobNode.put("name", job.getName());
+                jobNode.put("stage", job.getStage());
+                jobNode.put("status", job.getStatus());
+                jobNode.put("startedAt", job.getStartedAt() != null ? job.getStartedAt().toString() : null);
+                jobNode.put("finishedAt", job.getFinishedAt() != null ? job.getFinishedAt().toString() : null);
+                jobNode.put("durationSeconds", job.getDuration().toMillis() / 1000.0);
+                jobNode.put("queuedSeconds", job.getQueuedDuration().toMillis() / 1000.0);
+            }
+        }
+        return node;
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("error", message);
+        sendJson(exchange, status, body);
+    }
+
+    private void sendJson(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * @return Port the server is listening on
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Blocks until the daemon is closed.
+     *
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public void awaitClose() throws InterruptedException {
+        closeLatch.await();
+    }
+
+    /**
+     * Stops accepting requests and interrupts the runs still in progress.
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        logger.info("Stopping daemon");
+        server.stop(0);
+        runners.shutdownNow();
+        handlers.shutdownNow();
+        closeLatch.countDown();
+    }
+}
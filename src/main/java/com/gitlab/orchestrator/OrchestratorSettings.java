@@ -0,0 +1,437 @@
+package com.gitlab.orchestrator;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Class holding the run-wide settings of the orchestrator.
+ * Settings are read from command line options of the form "--name=value",
+ * falling back to "flowforge.*" system properties and then to defaults.
+ */
+public class OrchestratorSettings {
+    private static final String DEFAULT_CSV_PATH = "pipelines.csv";
+    private static final String DEFAULT_GITLAB_URL = "https://gitlab.com";
+    private static final String PROPERTY_PREFIX = "flowforge.";
+
+    private String csvFilePath = DEFAULT_CSV_PATH;
+    private String gitLabUrl;
+    private String gitLabHostsFile;
+    private GitLabClientType gitLabClient;
+    private ExecutionMode executionMode;
+    private int maxConcurrency;
+    private int readAhead;
+    private int triggerConcurrency;
+    private boolean virtualThreads;
+    private CancellationPolicy cancellationPolicy;
+    private Map<String, Integer> projectLimits;
+    private Map<String, Integer> runnerTagLimits;
+    private int httpMaxConnections;
+    private int httpConnectTimeoutMs;
+    private int httpReadTimeoutMs;
+    private int pollMinIntervalMs;
+    private int pollMaxIntervalMs;
+    private int webhookPort;
+    private String webhookSecret;
+    private int webhookSafetyPollMs;
+    private int rateLimit;
+    private int rateBurst;
+    private int maxRetries;
+    private String journalPath;
+    private boolean resume;
+    private String buildHistoryPath;
+    private int reportPageSize;
+    private boolean jobTimings;
+    private boolean liveReport;
+    private boolean liveCli;
+    private String metricsFile;
+    private int metricsPort;
+    private int daemonPort;
+
+    /**
+     * Builds the settings from the command line arguments.
+     * The first argument that is not an option is treated as the CSV file path.
+     *
+     * @param args Command line arguments
+     * @return Parsed settings
+     * @throws IllegalArgumentException If an option is unknown or has an invalid value
+     */
+    public static OrchestratorSettings fromArgs(String[] args) {
+        OrchestratorSettings settings = new OrchestratorSettings();
+        Map<String, String> options = new HashMap<>();
+
+        boolean csvPathSet = false;
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                if (!csvPathSet) {
+                    settings.csvFilePath = arg;
+                    csvPathSet = true;
+                }
+                continue;
+            }
+
+            String[] option = arg.substring(2).split("=", 2);
+            options.put(option[0], option.length > 1 ? option[1] : "");
+        }
+
+        settings.gitLabUrl = take(options, "gitlab-url", "gitlab.url", DEFAULT_GITLAB_URL);
+        settings.gitLabHostsFile = take(options, "gitlab-hosts", "gitlab.hosts", "");
+        settings.gitLabClient = GitLabClientType.fromString(
+                take(options, "gitlab-client", "gitlab.client", "async"));
+        settings.executionMode = ExecutionMode.fromString(
+                take(options, "mode", "mode", "sequential"));
+        settings.maxConcurrency = parsePositiveInt("max-concurrency",
+                take(options, "max-concurrency", "maxConcurrency", "4"));
+        settings.readAhead = parseNonNegativeInt("read-ahead",
+                take(options, "read-ahead", "readAhead", "1000"));
+        settings.triggerConcurrency = parsePositiveInt("trigger-concurrency",
+                take(options, "trigger-concurrency", "triggerConcurrency", "4"));
+        String cancellationPolicy = take(options, "cancellation-policy", "cancellationPolicy", "");
+        settings.cancellationPolicy = cancellationPolicy.isEmpty() ? null : CancellationPolicy.fromString(cancellationPolicy);
+        settings.projectLimits = parseLimits("project-limits",
+                take(options, "project-limits", "projectLimits", ""));
+        settings.runnerTagLimits = parseLimits("runner-tag-limits",
+                take(options, "runner-tag-limits", "runnerTagLimits", ""));
+        settings.virtualThreads = parseFlag(
+                take(options, "virtual-threads", "virtualThreads", "false"));
+        settings.httpMaxConnections = parsePositiveInt("http-max-connections",
+                take(options, "http-max-connections", "http.maxConnections", "20"));
+        settings.httpConnectTimeoutMs = parsePositiveInt("http-connect-timeout-ms",
+                take(options, "http-connect-timeout-ms", "http.connectTimeoutMs", "10000"));
+        settings.httpReadTimeoutMs = parsePositiveInt("http-read-timeout-ms",
+                take(options, "http-read-timeout-ms", "http.readTimeoutMs", "30000"));
+        settings.pollMinIntervalMs = parsePositiveInt("poll-min-interval-ms",
+                take(options, "poll-min-interval-ms", "poll.minIntervalMs", "2000"));
+        settings.pollMaxIntervalMs = parsePositiveInt("poll-max-interval-ms",
+                take(options, "poll-max-interval-ms", "poll.maxIntervalMs", "60000"));
+        settings.webhookPort = parseNonNegativeInt("webhook-port",
+                take(options, "webhook-port", "webhook.port", "0"));
+        settings.webhookSecret = take(options, "webhook-secret", "webhook.secret", "");
+        settings.webhookSafetyPollMs = parsePositiveInt("webhook-safety-poll-ms",
+                take(options, "webhook-safety-poll-ms", "webhook.safetyPollMs", "120000"));
+        settings.rateLimit = parsePositiveInt("rate-limit",
+                take(options, "rate-limit", "rateLimit", "10"));
+        settings.rateBurst = parsePositiveInt("rate-burst",
+                take(options, "rate-burst", "rateBurst", "20"));
+        settings.maxRetries = parseNonNegativeInt("max-retries",
+                take(options, "max-retries", "maxRetries", "5"));
+        settings.journalPath = take(options, "journal", "journal", "flow-forge-journal.log");
+        settings.resume = parseFlag(take(options, "resume", "resume", "false"));
+        settings.buildHistoryPath = take(options, "build-history", "buildHistory", "flow-forge-build-history.log");
+        settings.reportPageSize = parsePositiveInt("report-page-size",
+                take(options, "report-page-size", "report.pageSize", "1000"));
+        settings.jobTimings = parseFlag(take(options, "job-timings", "jobTimings", "false"));
+        settings.liveReport = parseFlag(take(options, "live-report", "liveReport", "false"));
+        settings.liveCli = parseFlag(take(options, "live-cli", "liveCli", "false"));
+        settings.metricsFile = take(options, "metrics-file", "metrics.file", "");
+        settings.metricsPort = parseNonNegativeInt("metrics-port",
+                take(options, "metrics-port", "metrics.port", "0"));
+        settings.daemonPort = parseNonNegativeInt("daemon-port",
+                take(options, "daemon-port", "daemon.port", "0"));
+
+        if (!options.isEmpty()) {
+            throw new IllegalArgumentException("Unknown option(s): --" + String.join(", --", options.keySet()));
+        }
+        if (settings.webhookPort > 0 && settings.webhookSecret.isEmpty()) {
+            // The listener accepts requests from any host, so an unauthenticated one could complete pipelines
+            throw new IllegalArgumentException("webhook-secret must be set when webhook-port is set");
+        }
+
+        return settings;
+    }
+
+    /**
+     * Removes an option from the parsed command line, falling back to its system property.
+     *
+     * @param options      Options parsed from the command line
+     * @param optionName   Name of the command line option, without the leading dashes
+     * @param propertyName Name of the system property, without the "flowforge." prefix
+     * @param defaultValue Value used when neither the option nor the property is set
+     * @return Raw value of the setting
+     */
+    private static String take(Map<String, String> options, String optionName, String propertyName, String defaultValue) {
+        String value = options.remove(optionName);
+        return value != null ? value : System.getProperty(PROPERTY_PREFIX + propertyName, defaultValue);
+    }
+
+    /**
+     * Parses a boolean flag. A flag given without a value ("--name") counts as true.
+     *
+     * @param value Raw value
+     * @return Parsed flag
+     */
+    private static boolean parseFlag(String value) {
+        return value.isEmpty() || Boolean.parseBoolean(value.trim());
+    }
+
+    /**
+     * Parses a strictly positive integer setting.
+     *
+     * @param name  Name of the setting, used in error messages
+     * @param value Raw value
+     * @return Parsed value
+     * @throws IllegalArgumentException If the value is not a positive integer
+     */
+    private static int parsePositiveInt(String name, String value) {
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to the error below
+        }
+        throw new IllegalArgumentException(name + " must be a positive integer, got: " + value);
+    }
+
+    /**
+     * Parses a non-negative integer setting.
+     *
+     * @param name  Name of the setting, used in error messages
+     * @param value Raw value
+     * @return Parsed value
+     * @throws IllegalArgumentException If the value is not a non-negative integer
+     */
+    private static int parseNonNegativeInt(String name, String value) {
+        return value.trim().equals("0") ? 0 : parsePositiveInt(name, value);
+    }
+
+    /**
+     * Parses a list of caps of the form "key1=limit1,key2=limit2".
+     *
+     * @param name  Name of the setting, used in error messages
+     * @param value Raw value
+     * @return Limits by key, empty if the value is empty
+     * @throws IllegalArgumentException If an entry has no key or its limit is not a positive integer
+     */
+    private static Map<String, Integer> parseLimits(String name, String value) {
+        Map<String, Integer> limits = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            if (entry.trim().isEmpty()) {
+                continue;
+            }
+            String[] keyValue = entry.split("=", 2);
+            if (keyValue.length < 2 || keyValue[0].trim().isEmpty()) {
+                throw new IllegalArgumentException(name + " entries must be of the form key=limit, got: " + entry);
+            }
+            limits.put(keyValue[0].trim(), parsePositiveInt(name, keyValue[1]));
+        }
+        return Collections.unmodifiableMap(limits);
+    }
+
+    // Getters
+    public String getCsvFilePath() {
+        return csvFilePath;
+    }
+
+    public String getGitLabUrl() {
+        return gitLabUrl;
+    }
+
+    public String getGitLabHostsFile() {
+        return gitLabHostsFile;
+    }
+
+    /**
+     * @return Implementation of the GitLab clients, the asynchronous one unless gitlab4j is asked for
+     */
+    public GitLabClientType getGitLabClient() {
+        return gitLabClient;
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * @return Maximum number of ready rows read ahead of the free slots in parallel mode
+     */
+    public int getReadAhead() {
+        return readAhead;
+    }
+
+    /**
+     * @return Maximum number of createPipeline calls in flight when independent rows are triggered together in sequential mode
+     */
+    public int getTriggerConcurrency() {
+        return triggerConcurrency;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * @return Policy applied when a pipeline fails; unless configured, sequential runs stop
+     * starting pipelines and parallel runs only skip the downstream pipelines
+     */
+    public CancellationPolicy getCancellationPolicy() {
+        if (cancellationPolicy != null) {
+            return cancellationPolicy;
+        }
+        return executionMode == ExecutionMode.SEQUENTIAL
+                ? CancellationPolicy.LET_RUNNING_FINISH : CancellationPolicy.CONTINUE_ALL;
+    }
+
+    /**
+     * @return Maximum number of pipelines in flight per project, keyed by project ID or by "host/project ID"
+     */
+    public Map<String, Integer> getProjectLimits() {
+        return projectLimits;
+    }
+
+    /**
+     * @return Maximum number of pipelines in flight per runner tag
+     */
+    public Map<String, Integer> getRunnerTagLimits() {
+        return runnerTagLimits;
+    }
+
+    public int getHttpMaxConnections() {
+        return httpMaxConnections;
+    }
+
+    public int getHttpConnectTimeoutMs() {
+        return httpConnectTimeoutMs;
+    }
+
+    public int getHttpReadTimeoutMs() {
+        return httpReadTimeoutMs;
+    }
+
+    public int getPollMinIntervalMs() {
+        return pollMinIntervalMs;
+    }
+
+    public int getPollMaxIntervalMs() {
+        return pollMaxIntervalMs;
+    }
+
+    public boolean isWebhookEnabled() {
+        return webhookPort > 0;
+    }
+
+    public int getWebhookPort() {
+        return webhookPort;
+    }
+
+    public String getWebhookSecret() {
+        return webhookSecret;
+    }
+
+    public int getWebhookSafetyPollMs() {
+        return webhookSafetyPollMs;
+    }
+
+    public int getRateLimit() {
+        return rateLimit;
+    }
+
+    public int getRateBurst() {
+        return rateBurst;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public String getJournalPath() {
+        return journalPath;
+    }
+
+    public boolean isResume() {
+        return resume;
+    }
+
+    /**
+     * @return Path of the file keeping build times between runs, or an empty string to keep them in memory only
+     */
+    public String getBuildHistoryPath() {
+        return buildHistoryPath;
+    }
+
+    public int getReportPageSize() {
+        return reportPageSize;
+    }
+
+    /**
+     * @return True to fetch the jobs of every finished pipeline and report GitLab's job and stage timings
+     */
+    public boolean isJobTimings() {
+        return jobTimings;
+    }
+
+    /**
+     * @return True to keep flow-forge-live.html updated while pipelines run; off unless --live-report is given
+     */
+    public boolean isLiveReport() {
+        return liveReport;
+    }
+
+    public boolean isLiveCli() {
+        return liveCli;
+    }
+
+    public String getMetricsFile() {
+        return metricsFile;
+    }
+
+    public int getMetricsPort() {
+        return metricsPort;
+    }
+
+    /**
+     * @return True to serve the submission API instead of executing the CSV file once
+     */
+    public boolean isDaemon() {
+        return daemonPort > 0;
+    }
+
+    public int getDaemonPort() {
+        return daemonPort;
+    }
+
+    @Override
+    public String toString() {
+        return "OrchestratorSettings{" +
+                "csvFilePath='" + csvFilePath + '\'' +
+                ", gitLabUrl='" + gitLabUrl + '\'' +
+                ", gitLabHostsFile='" + gitLabHostsFile + '\'' +
+                ", gitLabClient=" + gitLabClient +
+                ", executionMode=" + executionMode +
+                ", maxConcurrency=" + maxConcurrency +
+                ", readAhead=" + readAhead +
+                ", triggerConcurrency=" + triggerConcurrency +
+                ", virtualThreads=" + virtualThreads +
+                ", cancellationPolicy=" + getCancellationPolicy() +
+                ", projectLimits=" + projectLimits +
+                ", runnerTagLimits=" + runnerTagLimits +
+                ", httpMaxConnections=" + httpMaxConnections +
+                ", httpConnectTimeoutMs=" + httpConnectTimeoutMs +
+                ", httpReadTimeoutMs=" + httpReadTimeoutMs +
+                ", pollMinIntervalMs=" + pollMinIntervalMs +
+                ", pollMaxIntervalMs=" + pollMaxIntervalMs +
+                ", webhookPort=" + webhookPort +
+                ", webhookSecret='" + (webhookSecret.isEmpty() ? "" : "[REDACTED]") + '\'' +
+                ", webhookSafetyPollMs=" + webhookSafetyPollMs +
+                ", rateLimit=" + rateLimit +
+                ", rateBurst=" + rateBurst +
+                ", maxRetries=" + maxRetries +
+                ", journalPath='" + journalPath + '\'' +
+                ", resume=" + resume +
+                ", buildHistoryPath='" + buildHistoryPath + '\'' +
+                ", reportPageSize=" + reportPageSize +
+                ", jobTimings=" + jobTimings +
+                ", liveReport=" + liveReport +
+                ", liveCli=" + liveCli +
+                ", metricsFile='" + metricsFile + '\'' +
+                ", metricsPort=" + metricsPort +
+                ", daemonPort=" + daemonPort +
+                '}';
+    }
+}
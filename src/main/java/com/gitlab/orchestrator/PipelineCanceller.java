@@ -0,0 +1,132 @@
+package com.gitlab.orchestrator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Class responsible for canceling in-flight pipelines when a fail-fast policy is triggered.
+ * Workers register their pipeline once it has been triggered; a cancellation request sends
+ * the GitLab cancel call for every registered pipeline concurrently, and pipelines that have
+ * not been triggered yet are flagged so their worker does not trigger them at all.
+ * The canceled pipelines then finish through the status poller with status CANCELED.
+ */
+public class PipelineCanceller {
+    private static final Logger logger = LoggerFactory.getLogger(PipelineCanceller.class);
+
+    private final GitLabApiCaller apiCaller;
+    private final PipelineStatusPoller statusPoller;
+    private final Map<String, InFlight> inFlight = new HashMap<>();
+    private final Set<String> requested = new HashSet<>();
+    private final MetricsRegistry.Counter canceledCounter;
+
+    /**
+     * Constructor for PipelineCanceller.
+     *
+     * @param apiCaller    Rate limiter and retry policy for the cancel requests
+     * @param statusPoller Poller watching the pipelines, told to look at canceled pipelines right away
+     */
+    public PipelineCanceller(GitLabApiCaller apiCaller, PipelineStatusPoller statusPoller) {
+        this.apiCaller = apiCaller;
+        this.statusPoller = statusPoller;
+        this.canceledCounter = MetricsRegistry.getDefault().counter("flowforge_pipeline_cancel_requests_total",
+                "Cancel requests sent for in-flight pipelines by the fail-fast policy");
+    }
+
+    /**
+     * Registers a triggered pipeline so it can be canceled. If its cancellation was requested
+     * while it was being triggered, it is canceled right away.
+     *
+     * @param appName    Name of the application
+     * @param client     GitLab client owning the pipeline
+     * @param projectId  Project ID
+     * @param pipelineId Pipeline ID
+     */
+    public synchronized void register(String appName, GitLabClient client, String projectId, long pipelineId) {
+        InFlight pipeline = new InFlight(appName, client, projectId, pipelineId);
+        inFlight.put(appName, pipeline);
+        if (requested.contains(appName)) {
+            sendCancel(pipeline);
+        }
+    }
+
+    /**
+     * Forgets a pipeline once it has finished.
+     *
+     * @param appName Name of the application
+     */
+    public synchronized void unregister(String appName) {
+        inFlight.remove(appName);
+    }
+
+    /**
+     * @param appName Name of the application
+     * @return True if the pipeline of the app must not be triggered because it was canceled
+     */
+    public synchronized boolean isCancelRequested(String appName) {
+        return requested.contains(appName);
+    }
+
+    /**
+     * Cancels the given pipelines, concurrently, without waiting for GitLab to answer.
+     *
+     * @param configs Configurations of the pipelines to cancel
+     */
+    public synchronized void cancel(List<PipelineConfig> configs) {
+        for (PipelineConfig config : configs) {
+            if (requested.add(config.getAppName())) {
+                InFlight pipeline = inFlight.get(config.getAppName());
+                if (pipeline != null) {
+                    sendCancel(pipeline);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends the cancel call of one pipeline, without waiting for the answer.
+     *
+     * @param pipeline Pipeline to cancel
+     */
+    private void sendCancel(InFlight pipeline) {
+        canceledCounter.increment();
+        apiCaller.execute(pipeline.client, "cancelPipelineJobs " + pipeline.pipelineId,
+                () -> pipeline.client.cancelPipeline(pipeline.projectId, pipeline.pipelineId))
+                .whenComplete((canceled, error) -> {
+                    if (error != null) {
+                        logger.error("Could not cancel pipeline {} of app '{}': {}", pipeline.pipelineId, pipeline.appName,
+                                error.getMessage());
+                        return;
+                    }
+                    logger.info("Canceled pipeline {} of app '{}' (status: {})", pipeline.pipelineId, pipeline.appName,
+                            canceled.getStatus());
+                    if (PipelineStatusPoller.isTerminalStatus(canceled.getStatus())) {
+                        statusPoller.onStatusUpdate(pipeline.projectId, pipeline.pipelineId, canceled.getStatus());
+                    } else {
+                        statusPoller.pollSoon(pipeline.projectId, pipeline.pipelineId);
+                    }
+                });
+    }
+
+    /**
+     * A triggered pipeline that can be canceled.
+     */
+    private static final class InFlight {
+        private final String appName;
+        private final GitLabClient client;
+        private final String projectId;
+        private final long pipelineId;
+
+        InFlight(String appName, GitLabClient client, String projectId, long pipelineId) {
+            this.appName = appName;
+            this.client = client;
+            this.projectId = projectId;
+            this.pipelineId = pipelineId;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.gitlab.orchestrator;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -13,6 +15,13 @@ public class PipelineConfig {
     private String branchName;
     private String variablesString;
     private Map<String, String> variables;
+    private List<String> dependsOn;
+    private String gitLabUrl = "";
+    private String group = "";
+    private CancellationPolicy onFailure;
+    private int priority = 1;
+    private List<String> runnerTags = Collections.emptyList();
+    private boolean independent;
 
     /**
      * Constructor for PipelineConfig.
@@ -24,58 +33,47 @@ public class PipelineConfig {
      * @param variablesString  String of variables in format "key1=value1,key2=value2"
      */
     public PipelineConfig(String appName, String projectId, String accessToken, String branchName, String variablesString) {
+        this(appName, projectId, accessToken, branchName, variablesString, "");
+    }
+
+    /**
+     * Constructor for PipelineConfig with upstream dependencies.
+     *
+     * @param appName          Name of the application
+     * @param projectId        GitLab project ID
+     * @param accessToken      GitLab access token
+     * @param branchName       Branch name to trigger pipeline on
+     * @param variablesString  String of variables in format "key1=value1:key2=value2", see {@link VariableParser}
+     * @param dependsOnString  App names this pipeline depends on, separated by ";" or ","
+     */
+    public PipelineConfig(String appName, String projectId, String accessToken, String branchName,
+                          String variablesString, String dependsOnString) {
         this.appName = appName;
         this.projectId = projectId;
         this.accessToken = accessToken;
         this.branchName = branchName != null && !branchName.trim().isEmpty() ? branchName : "main";
-        this.variablesString = variablesString;
-        this.variables = parseVariables(variablesString);
+        setVariablesString(variablesString);
+        this.dependsOn = parseDependsOn(dependsOnString);
     }
 
     /**
-     * Parses a colon-separated string of key-value pairs into a map.
+     * Parses the list of upstream app names.
      *
-     * @param variablesStr String in format "key1=value1:key2=value2:key3=value3"
-     * @return Map of key-value pairs
+     * @param dependsOnStr String in format "app1;app2" or "app1,app2"
+     * @return Unmodifiable list of app names, empty if there are no dependencies
      */
-    private Map<String, String> parseVariables(String variablesStr) {
-        Map<String, String> vars = new HashMap<>();
-        
-        if (variablesStr != null && !variablesStr.trim().isEmpty()) {
-            // Check if format is using colon as delimiter (new format)
-            if (variablesStr.contains(":")) {
-                String[] pairs = variablesStr.split(":");
-                for (String pair : pairs) {
-                    if (pair.contains("=")) {
-                        String[] keyValue = pair.split("=", 2);
-                        if (keyValue.length == 2) {
-                            vars.put(keyValue[0].trim(), keyValue[1].trim());
-                        }
-                    }
-                }
-            } 
-            // For backward compatibility - support comma as delimiter (old format)
-            else if (variablesStr.contains(",")) {
-                String[] pairs = variablesStr.split(",");
-                for (String pair : pairs) {
-                    if (pair.contains("=")) {
-                        String[] keyValue = pair.split("=", 2);
-                        if (keyValue.length == 2) {
-                            vars.put(keyValue[0].trim(), keyValue[1].trim());
-                        }
-                    }
-                }
-            }
-            // Single key-value pair without delimiter
-            else if (variablesStr.contains("=")) {
-                String[] keyValue = variablesStr.split("=", 2);
-                if (keyValue.length == 2) {
-                    vars.put(keyValue[0].trim(), keyValue[1].trim());
-                }
+    private List<String> parseDependsOn(String dependsOnStr) {
+        if (dependsOnStr == null || dependsOnStr.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<String> names = new ArrayList<>();
+        for (String name : dependsOnStr.split("[;,]")) {
+            if (!name.trim().isEmpty()) {
+                names.add(name.trim());
             }
         }
-        
-        return vars;
+        return Collections.unmodifiableList(names);
     }
 
     // Getters and setters
@@ -116,14 +114,94 @@ public class PipelineConfig {
     }
 
     public void setVariablesString(String variablesString) {
-        this.variablesString = variablesString;
-        this.variables = parseVariables(variablesString);
+        // Rows with the same column share one canonical string and variable set
+        VariableSetStore store = VariableSetStore.getDefault();
+        this.variablesString = store.canonicalString(variablesString);
+        this.variables = store.intern(variablesString);
     }
 
+    /**
+     * @return Canonical, immutable set of the variables, shared with every row declaring the same content
+     */
     public Map<String, String> getVariables() {
         return variables;
     }
 
+    /**
+     * @return Base URL of the GitLab instance the pipeline runs on, or an empty string for the default instance
+     */
+    public String getGitLabUrl() {
+        return gitLabUrl;
+    }
+
+    public void setGitLabUrl(String gitLabUrl) {
+        this.gitLabUrl = GitLabHosts.normalizeUrl(gitLabUrl);
+    }
+
+    /**
+     * @return Name of the group the pipeline fails together with, or an empty string for the whole run
+     */
+    public String getGroup() {
+        return group;
+    }
+
+    public void setGroup(String group) {
+        this.group = group != null ? group.trim() : "";
+    }
+
+    /**
+     * @return Policy applied to the pipeline's group when it fails, or null for the run's policy
+     */
+    public CancellationPolicy getOnFailure() {
+        return onFailure;
+    }
+
+    public void setOnFailure(CancellationPolicy onFailure) {
+        this.onFailure = onFailure;
+    }
+
+    /**
+     * @return Weight of the pipeline when ready pipelines compete for a slot; higher starts sooner
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * @return Runner tags whose caps on pipelines in flight apply to the pipeline
+     */
+    public List<String> getRunnerTags() {
+        return runnerTags;
+    }
+
+    public void setRunnerTags(List<String> runnerTags) {
+        this.runnerTags = runnerTags != null ? Collections.unmodifiableList(new ArrayList<>(runnerTags)) : Collections.emptyList();
+    }
+
+    /**
+     * @return True if the pipeline does not need the pipelines before it in sequential mode, so that
+     * it can be triggered together with the independent pipelines next to it
+     */
+    public boolean isIndependent() {
+        return independent;
+    }
+
+    public void setIndependent(boolean independent) {
+        this.independent = independent;
+    }
+
+    public List<String> getDependsOn() {
+        return dependsOn;
+    }
+
+    public void setDependsOn(List<String> dependsOn) {
+        this.dependsOn = dependsOn != null ? Collections.unmodifiableList(new ArrayList<>(dependsOn)) : Collections.emptyList();
+    }
+
     @Override
     public String toString() {
         return "PipelineConfig{" +
@@ -133,6 +211,13 @@ public class PipelineConfig {
                 ", branchName='" + branchName + '\'' +
                 ", variablesString='" + variablesString + '\'' +
                 ", variables=" + variables +
+                ", dependsOn=" + dependsOn +
+                ", gitLabUrl='" + gitLabUrl + '\'' +
+                ", group='" + group + '\'' +
+                ", onFailure=" + onFailure +
+                ", priority=" + priority +
+                ", runnerTags=" + runnerTags +
+                ", independent=" + independent +
                 '}';
     }
 }
@@ -0,0 +1,41 @@
+package com.gitlab.orchestrator;
+
+import org.gitlab4j.api.models.PipelineStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Listener notified of the progress of individual pipelines while a run is in progress.
+ * Events may arrive concurrently from several worker and poller threads, and each event
+ * concerns a single pipeline, so listeners can update their state incrementally.
+ */
+public interface PipelineEventListener {
+
+    /**
+     * Called when a pipeline was triggered, or re-attached to when resuming a run.
+     *
+     * @param config     Pipeline configuration
+     * @param pipelineId GitLab pipeline ID
+     * @param startTime  Start time of the pipeline
+     */
+    default void onTriggered(PipelineConfig config, long pipelineId, LocalDateTime startTime) {
+    }
+
+    /**
+     * Called when a new status of a running pipeline was observed.
+     *
+     * @param config     Pipeline configuration
+     * @param pipelineId GitLab pipeline ID
+     * @param status     New status of the pipeline
+     */
+    default void onStatusChanged(PipelineConfig config, long pipelineId, PipelineStatus status) {
+    }
+
+    /**
+     * Called when the result of a pipeline is known, including pipelines that were skipped.
+     *
+     * @param result Result of the pipeline execution
+     */
+    default void onFinished(PipelineResult result) {
+    }
+}
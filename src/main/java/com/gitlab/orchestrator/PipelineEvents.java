@@ -0,0 +1,59 @@
+package com.gitlab.orchestrator;
+
+import org.gitlab4j.api.models.PipelineStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Class responsible for dispatching pipeline events to the registered listeners.
+ * A failing listener is logged and does not affect the run or the other listeners.
+ */
+public class PipelineEvents implements PipelineEventListener {
+    private static final Logger logger = LoggerFactory.getLogger(PipelineEvents.class);
+
+    private final List<PipelineEventListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registers a listener.
+     *
+     * @param listener Listener to notify of every event
+     */
+    public void addListener(PipelineEventListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void onTriggered(PipelineConfig config, long pipelineId, LocalDateTime startTime) {
+        dispatch(listener -> listener.onTriggered(config, pipelineId, startTime));
+    }
+
+    @Override
+    public void onStatusChanged(PipelineConfig config, long pipelineId, PipelineStatus status) {
+        dispatch(listener -> listener.onStatusChanged(config, pipelineId, status));
+    }
+
+    @Override
+    public void onFinished(PipelineResult result) {
+        dispatch(listener -> listener.onFinished(result));
+    }
+
+    /**
+     * Delivers an event to every listener.
+     *
+     * @param event Event delivery for a single listener
+     */
+    private void dispatch(Consumer<PipelineEventListener> event) {
+        for (PipelineEventListener listener : listeners) {
+            try {
+                event.accept(listener);
+            } catch (RuntimeException e) {
+                logger.warn("Pipeline event listener {} failed: {}", listener.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+}
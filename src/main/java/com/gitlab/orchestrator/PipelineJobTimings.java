@@ -0,0 +1,273 @@
+package com.gitlab.orchestrator;
+
+import org.gitlab4j.api.models.Job;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class representing the timings GitLab recorded for the jobs of one finished pipeline.
+ * The build time of a {@link PipelineResult} runs from our trigger request to the poll that saw
+ * the pipeline finish, so it includes the polling lag; these timings come from GitLab's own
+ * timestamps and separate the time jobs ran from the time they waited for a runner.
+ */
+public class PipelineJobTimings {
+    private final List<JobTiming> jobs;
+
+    /**
+     * Constructor for PipelineJobTimings.
+     *
+     * @param jobs Timings of the jobs of the pipeline
+     */
+    public PipelineJobTimings(List<JobTiming> jobs) {
+        this.jobs = Collections.unmodifiableList(new ArrayList<>(jobs));
+    }
+
+    /**
+     * Builds the timings from the jobs listed by GitLab.
+     *
+     * @param jobs Jobs of the pipeline
+     * @return Timings of the jobs, in the order they were created
+     */
+    public static PipelineJobTimings fromJobs(List<Job> jobs) {
+        List<JobTiming> timings = new ArrayList<>();
+        for (Job job : jobs) {
+            LocalDateTime startedAt = toLocalDateTime(job.getStartedAt());
+            LocalDateTime finishedAt = toLocalDateTime(job.getFinishedAt());
+            Duration duration;
+            if (job.getDuration() != null) {
+                duration = seconds(job.getDuration());
+            } else if (startedAt != null && finishedAt != null) {
+                duration = Duration.between(startedAt, finishedAt);
+            } else {
+                duration = Duration.ZERO;
+            }
+            timings.add(new JobTiming(job.getName(), job.getStage(),
+                    job.getStatus() != null ? job.getStatus().toString() : "",
+                    toLocalDateTime(job.getCreatedAt()), startedAt, finishedAt, duration,
+                    job.getQueuedDuration() != null ? seconds(job.getQueuedDuration()) : Duration.ZERO));
+        }
+        // GitLab lists the newest jobs first
+        timings.sort(Comparator.comparing(JobTiming::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder())));
+        return new PipelineJobTimings(timings);
+    }
+
+    /**
+     * @return Timings of every job of the pipeline
+     */
+    public List<JobTiming> getJobs() {
+        return jobs;
+    }
+
+    /**
+     * Get the build time of the pipeline as recorded by GitLab.
+     *
+     * @return Time from the start of the first job to the end of the last one, or zero if no job ran
+     */
+    public Duration getBuildTime() {
+        LocalDateTime first = null;
+        LocalDateTime last = null;
+        for (JobTiming job : jobs) {
+            if (job.getStartedAt() != null && (first == null || job.getStartedAt().isBefore(first))) {
+                first = job.getStartedAt();
+            }
+            if (job.getFinishedAt() != null && (last == null || job.getFinishedAt().isAfter(last))) {
+                last = job.getFinishedAt();
+            }
+        }
+        return first != null && last != null && last.isAfter(first) ? Duration.between(first, last) : Duration.ZERO;
+    }
+
+    /**
+     * @return Total time the jobs of the pipeline waited for a runner
+     */
+    public Duration getQueueTime() {
+        Duration total = Duration.ZERO;
+        for (JobTiming job : jobs) {
+            total = total.plus(job.getQueuedDuration());
+        }
+        return total;
+    }
+
+    /**
+     * @return Timings of the stages, in the order their first job was created
+     */
+    public List<StageTiming> getStages() {
+        Map<String, StageTiming> stages = new LinkedHashMap<>();
+        for (JobTiming job : jobs) {
+            stages.computeIfAbsent(job.getStage(), StageTiming::new).add(job);
+        }
+        return new ArrayList<>(stages.values());
+    }
+
+    /**
+     * @param limit Maximum number of jobs returned
+     * @return The jobs that ran longest, longest first
+     */
+    public List<JobTiming> getSlowestJobs(int limit) {
+        List<JobTiming> sorted = new ArrayList<>(jobs);
+        sorted.sort(Comparator.comparing(JobTiming::getDuration).reversed());
+        return sorted.subList(0, Math.min(limit, sorted.size()));
+    }
+
+    /**
+     * Collects the slowest jobs of a whole run, e.g. to see which jobs are worth tuning.
+     *
+     * @param results Pipeline results, those without job timings are ignored
+     * @param limit   Maximum number of jobs returned
+     * @return App name and timings of the jobs that ran longest, longest first
+     */
+    public static List<Map.Entry<String, JobTiming>> slowestJobs(List<PipelineResult> results, int limit) {
+        List<Map.Entry<String, JobTiming>> jobs = new ArrayList<>();
+        for (PipelineResult result : results) {
+            if (result.getJobTimings() != null) {
+                for (JobTiming job : result.getJobTimings().getSlowestJobs(limit)) {
+                    jobs.add(new AbstractMap.SimpleImmutableEntry<>(result.getAppName(), job));
+                }
+            }
+        }
+        jobs.sort(Comparator.comparing((Map.Entry<String, JobTiming> entry) -> entry.getValue().getDuration()).reversed());
+        return jobs.subList(0, Math.min(limit, jobs.size()));
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return date != null ? LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault()) : null;
+    }
+
+    private static Duration seconds(float seconds) {
+        return Duration.ofMillis(Math.round(seconds * 1000.0));
+    }
+
+    /**
+     * Timings of one job.
+     */
+    public static final class JobTiming {
+        private final String name;
+        private final String stage;
+        private final String status;
+        private final LocalDateTime createdAt;
+        private final LocalDateTime startedAt;
+        private final LocalDateTime finishedAt;
+        private final Duration duration;
+        private final Duration queuedDuration;
+
+        public JobTiming(String name, String stage, String status, LocalDateTime createdAt, LocalDateTime startedAt,
+                         LocalDateTime finishedAt, Duration duration, Duration queuedDuration) {
+            this.name = name;
+            this.stage = stage;
+            this.status = status;
+            this.createdAt = createdAt;
+            this.startedAt = startedAt;
+            this.finishedAt = finishedAt;
+            this.duration = duration;
+            this.queuedDuration = queuedDuration;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getStage() {
+            return stage;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+
+        /**
+         * @return Time a runner picked the job up, or null if it never ran
+         */
+        public LocalDateTime getStartedAt() {
+            return startedAt;
+        }
+
+        public LocalDateTime getFinishedAt() {
+            return finishedAt;
+        }
+
+        /**
+         * @return Time the job ran on its runner
+         */
+        public Duration getDuration() {
+            return duration;
+        }
+
+        /**
+         * @return Time the job waited for a runner
+         */
+        public Duration getQueuedDuration() {
+            return queuedDuration;
+        }
+    }
+
+    /**
+     * Timings of the jobs of one stage taken together.
+     */
+    public static final class StageTiming {
+        private final String name;
+        private LocalDateTime startedAt;
+        private LocalDateTime finishedAt;
+        private Duration queuedDuration = Duration.ZERO;
+        private int jobCount;
+
+        StageTiming(String name) {
+            this.name = name;
+        }
+
+        private void add(JobTiming job) {
+            jobCount++;
+            queuedDuration = queuedDuration.plus(job.getQueuedDuration());
+            if (job.getStartedAt() != null && (startedAt == null || job.getStartedAt().isBefore(startedAt))) {
+                startedAt = job.getStartedAt();
+            }
+            if (job.getFinishedAt() != null && (finishedAt == null || job.getFinishedAt().isAfter(finishedAt))) {
+                finishedAt = job.getFinishedAt();
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public LocalDateTime getStartedAt() {
+            return startedAt;
+        }
+
+        public LocalDateTime getFinishedAt() {
+            return finishedAt;
+        }
+
+        /**
+         * @return Time from the start of the stage's first job to the end of its last one
+         */
+        public Duration getDuration() {
+            return startedAt != null && finishedAt != null && finishedAt.isAfter(startedAt)
+                    ? Duration.between(startedAt, finishedAt) : Duration.ZERO;
+        }
+
+        /**
+         * @return Total time the jobs of the stage waited for a runner
+         */
+        public Duration getQueuedDuration() {
+            return queuedDuration;
+        }
+
+        public int getJobCount() {
+            return jobCount;
+        }
+    }
+}
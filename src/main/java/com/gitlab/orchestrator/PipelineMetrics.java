@@ -0,0 +1,44 @@
+package com.gitlab.orchestrator;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class responsible for the pipeline-level metrics derived from execution events:
+ * pipelines in flight, pipelines finished per status and GitLab API calls per pipeline.
+ */
+public class PipelineMetrics implements PipelineEventListener {
+    private final MetricsRegistry registry;
+    private final MetricsRegistry.Counter triggered;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor for PipelineMetrics.
+     *
+     * @param registry  Registry the metrics are created in
+     * @param apiCaller Caller counting the GitLab API requests
+     */
+    public PipelineMetrics(MetricsRegistry registry, GitLabApiCaller apiCaller) {
+        this.registry = registry;
+        this.triggered = registry.counter("flowforge_pipelines_triggered_total",
+                "Pipelines triggered or re-attached to");
+        registry.gauge("flowforge_pipelines_in_flight", "Pipelines triggered and not finished yet", inFlight::size);
+        registry.gauge("flowforge_gitlab_api_calls_per_pipeline",
+                "GitLab API requests, including polls and retries, per triggered pipeline",
+                () -> (double) apiCaller.getRequestCount() / Math.max(1, triggered.get()));
+    }
+
+    @Override
+    public void onTriggered(PipelineConfig config, long pipelineId, LocalDateTime startTime) {
+        triggered.increment();
+        inFlight.add(config.getAppName());
+    }
+
+    @Override
+    public void onFinished(PipelineResult result) {
+        inFlight.remove(result.getAppName());
+        registry.counter("flowforge_pipelines_finished_total", "Pipelines finished, by final status",
+                "status", String.valueOf(result.getStatus())).increment();
+    }
+}
@@ -6,6 +6,7 @@ import org.slf4j.LoggerFactory;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -15,6 +16,7 @@ import java.util.Map;
 public class PipelineReporter {
     private static final Logger logger = LoggerFactory.getLogger(PipelineReporter.class);
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int SLOWEST_JOBS = 10;
 
     /**
      * Generates a CLI report for all pipeline results.
@@ -22,6 +24,16 @@ public class PipelineReporter {
      * @param results List of pipeline results
      */
     public void generateCliReport(List<PipelineResult> results) {
+        generateCliReport(results, Collections.emptyMap());
+    }
+
+    /**
+     * Generates a CLI report for all pipeline results, followed by the request latency of each GitLab instance.
+     *
+     * @param results   List of pipeline results
+     * @param hostStats Request statistics per GitLab host
+     */
+    public void generateCliReport(List<PipelineResult> results, Map<String, GitLabApiCaller.HostStats> hostStats) {
         logger.info("Generating pipeline execution report...");
         
         StringBuilder report = new StringBuilder()
@@ -37,6 +49,44 @@ public class PipelineReporter {
             report.append("- Status: ").append(result.getStatus()).append("\n");
             report.append("- Injected Variables: ").append(formatVariables(result.getInjectedVariables())).append("\n");
             report.append("- Build Time: ").append(formatDuration(result.getBuildTime())).append("\n");
+            if (result.getExpectedBuildTime() != null) {
+                report.append("- Predicted Build Time: ").append(formatDuration(result.getExpectedBuildTime())).append("\n");
+            }
+            PipelineJobTimings jobTimings = result.getJobTimings();
+            if (jobTimings != null) {
+                report.append("- GitLab Build Time: ").append(formatDuration(jobTimings.getBuildTime()))
+                        .append(" (queued: ").append(formatDuration(jobTimings.getQueueTime())).append(")\n");
+                for (PipelineJobTimings.StageTiming stage : jobTimings.getStages()) {
+                    report.append("  - Stage ").append(stage.getName()).append(": ").append(formatDuration(stage.getDuration()))
+                            .append(" (queued: ").append(formatDuration(stage.getQueuedDuration())).append(")\n");
+                }
+            }
+            report.append("\n");
+        }
+        
+        List<Map.Entry<String, PipelineJobTimings.JobTiming>> slowestJobs = PipelineJobTimings.slowestJobs(results, SLOWEST_JOBS);
+        if (!slowestJobs.isEmpty()) {
+            report.append("Slowest Jobs:\n");
+            for (Map.Entry<String, PipelineJobTimings.JobTiming> entry : slowestJobs) {
+                PipelineJobTimings.JobTiming job = entry.getValue();
+                report.append("- ").append(entry.getKey()).append(" / ").append(job.getName())
+                        .append(" (stage ").append(job.getStage()).append(", ").append(job.getStatus()).append("): ")
+                        .append(formatDuration(job.getDuration()))
+                        .append(", queued ").append(formatDuration(job.getQueuedDuration())).append("\n");
+            }
+            report.append("\n");
+        }
+        
+        if (!hostStats.isEmpty()) {
+            report.append("GitLab Instances:\n");
+            for (GitLabApiCaller.HostStats stats : hostStats.values()) {
+                LatencyHistogram latency = stats.getLatency();
+                report.append(String.format("- %s: %d requests, latency p50 %d ms, p90 %d ms, p99 %d ms, max %d ms, "
+                                + "%d retries, %d failures%n",
+                        stats.getHost(), latency.getCount(), latency.getValueAtPercentile(50),
+                        latency.getValueAtPercentile(90), latency.getValueAtPercentile(99), latency.getMax(),
+                        stats.getRetryCount(), stats.getFailureCount()));
+            }
             report.append("\n");
         }
         
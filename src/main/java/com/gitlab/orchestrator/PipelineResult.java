@@ -16,6 +16,8 @@ public class PipelineResult {
     private PipelineStatus status;
     private Map<String, String> injectedVariables;
     private long pipelineId;
+    private Duration expectedBuildTime;
+    private volatile PipelineJobTimings jobTimings;
 
     /**
      * Constructor for PipelineResult.
@@ -33,7 +35,7 @@ public class PipelineResult {
         this.startTime = startTime;
         this.endTime = endTime;
         this.status = status;
-        this.injectedVariables = injectedVariables;
+        this.injectedVariables = VariableSetStore.getDefault().intern(injectedVariables);
         this.pipelineId = pipelineId;
     }
 
@@ -49,6 +51,32 @@ public class PipelineResult {
         return Duration.ZERO;
     }
 
+    /**
+     * Get the build time the app was expected to take when the pipeline started.
+     *
+     * @return Median of the app's recent build times, or null if it had no history
+     */
+    public Duration getExpectedBuildTime() {
+        return expectedBuildTime;
+    }
+
+    public void setExpectedBuildTime(Duration expectedBuildTime) {
+        this.expectedBuildTime = expectedBuildTime;
+    }
+
+    /**
+     * Get the job and stage timings recorded by GitLab, fetched after the pipeline finished.
+     *
+     * @return Job timings, or null if they were not fetched
+     */
+    public PipelineJobTimings getJobTimings() {
+        return jobTimings;
+    }
+
+    public void setJobTimings(PipelineJobTimings jobTimings) {
+        this.jobTimings = jobTimings;
+    }
+
     // Getters and setters
     public String getAppName() {
         return appName;
@@ -87,7 +115,7 @@ public class PipelineResult {
     }
 
     public void setInjectedVariables(Map<String, String> injectedVariables) {
-        this.injectedVariables = injectedVariables;
+        this.injectedVariables = VariableSetStore.getDefault().intern(injectedVariables);
     }
 
     public long getPipelineId() {
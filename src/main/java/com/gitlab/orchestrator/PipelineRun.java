@@ -0,0 +1,221 @@
+package com.gitlab.orchestrator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Class holding the state of one run: its settings, its journal, the listeners of its events
+ * and the canceller of its pipelines. The GitLab clients, poller and rate limiter are shared
+ * by all runs of the process; everything keyed by app name lives here, so that runs executing
+ * at the same time in daemon mode cannot see each other's pipelines.
+ * <p>
+ * The run also collects the results of its pipelines as they finish, so they can be queried
+ * and streamed while the run is in progress, and keeps track of the job timings still being
+ * fetched for them.
+ */
+public class PipelineRun implements PipelineEventListener {
+
+    /**
+     * Lifecycle of a run.
+     */
+    public enum State {
+        RUNNING,
+        FINISHED,
+        FAILED
+    }
+
+    private final String id;
+    private final OrchestratorSettings settings;
+    private final RunJournal journal;
+    private final PipelineEvents events = new PipelineEvents();
+    private final PipelineCanceller canceller;
+    private final int pipelineCount;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+    private final List<PipelineResult> finished = new ArrayList<>();
+    private final List<CompletableFuture<?>> jobTimingFetches = new ArrayList<>();
+    private State state = State.RUNNING;
+    private LocalDateTime endedAt;
+    private String error;
+
+    /**
+     * Constructor for PipelineRun.
+     *
+     * @param id            Identifier of the run
+     * @param settings      Settings of the run
+     * @param journal       Journal of the run
+     * @param canceller     Canceller of the run's pipelines
+     * @param pipelineCount Number of pipelines in the manifest, or -1 if it is read lazily
+     */
+    public PipelineRun(String id, OrchestratorSettings settings, RunJournal journal, PipelineCanceller canceller,
+                       int pipelineCount) {
+        this.id = id;
+        this.settings = settings;
+        this.journal = journal;
+        this.canceller = canceller;
+        this.pipelineCount = pipelineCount;
+        events.addListener(this);
+    }
+
+    /**
+     * Derives the journal file of a run from the configured journal path,
+     * e.g. "flow-forge-journal-20261016-101500-1.log" for "flow-forge-journal.log".
+     *
+     * @param journalPath Configured journal path
+     * @param runId       Identifier of the run
+     * @return Journal path of the run
+     */
+    public static String journalPathOf(String journalPath, String runId) {
+        int dot = journalPath.lastIndexOf('.');
+        int separator = Math.max(journalPath.lastIndexOf('/'), journalPath.lastIndexOf('\\'));
+        if (dot <= separator + 1) {
+            return journalPath + "-" + runId;
+        }
+        return journalPath.substring(0, dot) + "-" + runId + journalPath.substring(dot);
+    }
+
+    /**
+     * @return Journal file of the run
+     */
+    public String getJournalPath() {
+        return journalPathOf(settings.getJournalPath(), id);
+    }
+
+    /**
+     * @return HTML report of the run next to its journal, e.g. "flow-forge-report-20261016-101500-1.html"
+     */
+    public String getReportPath() {
+        return Paths.get(getJournalPath()).resolveSibling("flow-forge-report-" + id + ".html").toString();
+    }
+
+    /**
+     * Deletes the journal and HTML report of a run that is over, once it is no longer kept.
+     *
+     * @throws IOException If a file exists but cannot be deleted
+     */
+    public void deleteFiles() throws IOException {
+        Files.deleteIfExists(Paths.get(getJournalPath()));
+        new HtmlReportGenerator(getReportPath(), settings.getReportPageSize()).deleteReport();
+    }
+
+    @Override
+    public synchronized void onFinished(PipelineResult result) {
+        finished.add(result);
+        notifyAll();
+    }
+
+    /**
+     * Marks the run as over.
+     *
+     * @param error Reason the run could not complete, or null if it completed
+     */
+    public synchronized void end(String error) {
+        this.state = error == null ? State.FINISHED : State.FAILED;
+        this.error = error;
+        this.endedAt = LocalDateTime.now();
+        notifyAll();
+    }
+
+    /**
+     * Returns the results that finished after the ones already seen, waiting for at least one
+     * if there are none yet and the run is still going.
+     *
+     * @param from      Number of results already seen
+     * @param timeoutMs Maximum time to wait in milliseconds
+     * @return Results from index {@code from} on, empty if the wait timed out or the run is over
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public synchronized List<PipelineResult> awaitResults(int from, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (finished.size() <= from && state == State.RUNNING) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                break;
+            }
+            wait(remaining);
+        }
+        return new ArrayList<>(finished.subList(Math.min(from, finished.size()), finished.size()));
+    }
+
+    /**
+     * Keeps track of the job timing fetch of a finished pipeline, so the reports can wait for it.
+     *
+     * @param fetch Future completed once the timings have been set on the result, or have failed
+     */
+    public synchronized void addJobTimingFetch(CompletableFuture<?> fetch) {
+        jobTimingFetches.add(fetch);
+    }
+
+    /**
+     * Waits until the job timings of every finished pipeline have been fetched or have failed.
+     *
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public void awaitJobTimings() throws InterruptedException {
+        CompletableFuture<?>[] fetches;
+        synchronized (this) {
+            fetches = jobTimingFetches.toArray(new CompletableFuture<?>[0]);
+        }
+        try {
+            CompletableFuture.allOf(fetches).get();
+        } catch (ExecutionException e) {
+            // Failed fetches are logged where they complete; their results simply have no timings
+        }
+    }
+
+    /**
+     * @return Results of the pipelines finished so far, in completion order
+     */
+    public synchronized List<PipelineResult> getFinished() {
+        return new ArrayList<>(finished);
+    }
+
+    // Getters
+    public String getId() {
+        return id;
+    }
+
+    public OrchestratorSettings getSettings() {
+        return settings;
+    }
+
+    public RunJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * @return Dispatcher of the run's pipeline events; the run itself is always one of its listeners
+     */
+    public PipelineEvents getEvents() {
+        return events;
+    }
+
+    public PipelineCanceller getCanceller() {
+        return canceller;
+    }
+
+    public int getPipelineCount() {
+        return pipelineCount;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized LocalDateTime getEndedAt() {
+        return endedAt;
+    }
+
+    public synchronized String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,816 @@
+package com.gitlab.orchestrator;
+
+import org.gitlab4j.api.models.PipelineStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class responsible for running pipelines concurrently according to their dependencies.
+ * The "Depends On" column of the CSV file is turned into a DAG; pipelines whose upstream
+ * pipelines all succeeded are started as soon as a worker is free, and a failure
+ * skips the pipelines downstream of it.
+ * <p>
+ * What happens to the rest of the run depends on the {@link CancellationPolicy} of the failed
+ * pipeline's group (the rows sharing its "Group" value, or the whole run): other pipelines keep
+ * going, no further pipelines of the group are started, or in addition the group's in-flight
+ * pipelines are canceled on GitLab so their runners are freed right away.
+ * <p>
+ * Every started pipeline gets its own worker task; a fair semaphore bounds how many of them
+ * trigger and poll at the same time. With virtual threads enabled the worker tasks are cheap
+ * enough to run hundreds of blocking trigger-and-poll loops from a single JVM.
+ * <p>
+ * Configurations can be consumed from an iterator as they are parsed. Rows are only read
+ * while there is room to start more pipelines, plus a bounded read-ahead of ready rows, so the
+ * first pipelines are triggered while the rest of a large manifest is still on disk.
+ * <p>
+ * On top of the global limit, pipelines in flight can be capped per GitLab instance, per
+ * project and per runner tag, e.g. for projects with a small dedicated runner pool where
+ * extra pipelines would only queue inside GitLab. Ready pipelines blocked by a cap wait
+ * without holding a worker or a global slot, so a saturated project or instance cannot
+ * starve the others.
+ * <p>
+ * Ready pipelines are dispatched with self-clocked weighted fair queuing: rows with the same
+ * priority form one flow, and flows share the runners' time in proportion to their priority,
+ * each pipeline costing its expected build time. A high-priority row therefore starts ahead
+ * of a backlog of bulk rows instead of behind it.
+ * <p>
+ * Within a flow, the pipeline heading the longest remaining chain of expected build times
+ * (its critical path through the rows read so far) starts first, so long chains are not left
+ * to start last and stretch the run. Expected build times come from the {@link BuildTimeHistory};
+ * apps without history are assumed to take as long as a typical app.
+ */
+public class PipelineScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(PipelineScheduler.class);
+    private static final double DEFAULT_COST_SECONDS = 60;
+    private static final Comparator<Node> READY_ORDER =
+            Comparator.<Node>comparingDouble(node -> -node.rank).thenComparingLong(node -> node.sequence);
+
+    private final int maxConcurrency;
+    private final boolean virtualThreads;
+    private PipelineEventListener eventListener = new PipelineEventListener() { };
+    private static final AtomicInteger queuedInAllRuns = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private GitLabHosts hosts;
+    private Map<String, Integer> projectLimits = Map.of();
+    private Map<String, Integer> runnerTagLimits = Map.of();
+    private BuildTimeHistory buildTimeHistory = new BuildTimeHistory();
+    private int readAhead;
+    private CancellationPolicy cancellationPolicy = CancellationPolicy.CONTINUE_ALL;
+    private PipelineCancelHandler cancelHandler = configs -> { };
+
+    /**
+     * Functional interface for the action that executes a single pipeline.
+     */
+    @FunctionalInterface
+    public interface PipelineRunner {
+        PipelineResult run(PipelineConfig config) throws Exception;
+    }
+
+    /**
+     * Functional interface for the action that cancels pipelines already handed to the runner.
+     */
+    @FunctionalInterface
+    public interface PipelineCancelHandler {
+        void cancel(List<PipelineConfig> configs);
+    }
+
+    /**
+     * Constructor for PipelineScheduler.
+     *
+     * @param maxConcurrency Maximum number of pipelines running at the same time
+     */
+    public PipelineScheduler(int maxConcurrency) {
+        this(maxConcurrency, false);
+    }
+
+    /**
+     * Constructor for PipelineScheduler.
+     *
+     * @param maxConcurrency Maximum number of pipelines running at the same time
+     * @param virtualThreads True to run each pipeline on its own virtual thread (Java 21+)
+     */
+    public PipelineScheduler(int maxConcurrency, boolean virtualThreads) {
+        this.maxConcurrency = maxConcurrency;
+        this.virtualThreads = virtualThreads;
+        MetricsRegistry.getDefault().gauge("flowforge_queued_pipelines",
+                "Pipelines ready to run and waiting for a concurrency slot", queuedInAllRuns::get);
+    }
+
+    /**
+     * Sets the listener notified of the results the scheduler records itself, i.e. pipelines
+     * that were skipped or whose runner failed before producing a result.
+     *
+     * @param eventListener Listener of pipeline events
+     */
+    public void setEventListener(PipelineEventListener eventListener) {
+        this.eventListener = eventListener;
+    }
+
+    /**
+     * Sets the GitLab instances whose per-host concurrency caps apply on top of the global limit.
+     *
+     * @param hosts Settings of the GitLab instances, or null for no per-host caps
+     */
+    public void setHosts(GitLabHosts hosts) {
+        this.hosts = hosts;
+    }
+
+    /**
+     * Sets the caps on pipelines in flight per project.
+     *
+     * @param projectLimits Maximum number of pipelines in flight, keyed by project ID or by "host/project ID"
+     */
+    public void setProjectLimits(Map<String, Integer> projectLimits) {
+        this.projectLimits = projectLimits;
+    }
+
+    /**
+     * Sets the caps on pipelines in flight per runner tag.
+     *
+     * @param runnerTagLimits Maximum number of pipelines in flight, keyed by runner tag
+     */
+    public void setRunnerTagLimits(Map<String, Integer> runnerTagLimits) {
+        this.runnerTagLimits = runnerTagLimits;
+    }
+
+    /**
+     * Sets the build time history used to order ready pipelines by their critical path.
+     *
+     * @param buildTimeHistory Recent build times of the apps
+     */
+    public void setBuildTimeHistory(BuildTimeHistory buildTimeHistory) {
+        this.buildTimeHistory = buildTimeHistory;
+    }
+
+    /**
+     * Sets how many ready rows may be read beyond those that can start right away, so that
+     * long chains further down the manifest are seen and started first.
+     *
+     * @param readAhead Maximum number of ready pipelines waiting for a slot before reading stops
+     */
+    public void setReadAhead(int readAhead) {
+        this.readAhead = readAhead;
+    }
+
+    /**
+     * Sets the policy applied when a pipeline fails, unless its row names its own.
+     *
+     * @param cancellationPolicy Policy for the run
+     */
+    public void setCancellationPolicy(CancellationPolicy cancellationPolicy) {
+        this.cancellationPolicy = cancellationPolicy;
+    }
+
+    /**
+     * Sets the action canceling in-flight pipelines under the fail-fast policy.
+     *
+     * @param cancelHandler Action canceling pipelines
+     */
+    public void setCancelHandler(PipelineCancelHandler cancelHandler) {
+        this.cancelHandler = cancelHandler;
+    }
+
+    /**
+     * Executes the pipelines, starting each one once all of its dependencies have succeeded.
+     * The whole dependency graph is validated before any pipeline is started.
+     *
+     * @param pipelineConfigs List of pipeline configurations
+     * @param runner          Action that executes a single pipeline
+     * @return List of pipeline results in CSV order, including skipped pipelines
+     * @throws IllegalArgumentException If the dependency graph is invalid
+     * @throws InterruptedException     If the scheduler is interrupted while waiting
+     */
+    public List<PipelineResult> execute(List<PipelineConfig> pipelineConfigs, PipelineRunner runner)
+            throws InterruptedException {
+        validateGraph(pipelineConfigs);
+        return execute(pipelineConfigs.iterator(), runner);
+    }
+
+    /**
+     * Executes the pipelines read from an iterator, starting each one once all of its
+     * dependencies have succeeded. Rows whose dependencies are unknown or cyclic can only be
+     * detected at the end of the input; they are reported and recorded as skipped.
+     *
+     * @param pipelineConfigs Iterator over the pipeline configurations, typically backed by the CSV parser
+     * @param runner          Action that executes a single pipeline
+     * @return List of pipeline results in input order, including skipped pipelines
+     * @throws InterruptedException If the scheduler is interrupted while waiting
+     */
+    public List<PipelineResult> execute(Iterator<PipelineConfig> pipelineConfigs, PipelineRunner runner)
+            throws InterruptedException {
+        logger.info("Scheduling pipelines with a concurrency limit of {}", maxConcurrency);
+
+        Map<String, Node> graph = new LinkedHashMap<>();
+        Map<String, List<Node>> waitingForUnseen = new HashMap<>();
+        Map<String, PipelineResult> results = new HashMap<>();
+
+        ExecutorService workers = WorkerExecutors.newWorkerExecutor(virtualThreads, maxConcurrency);
+        CompletionService<Completion> completions = new ExecutorCompletionService<>(workers);
+        RunState state = new RunState(results, completions, new Semaphore(maxConcurrency, true), runner);
+        Duration typicalBuildTime = buildTimeHistory.typicalBuildTime();
+        double defaultCost = typicalBuildTime != null ? typicalBuildTime.toMillis() / 1000.0 : DEFAULT_COST_SECONDS;
+
+        try {
+            while (true) {
+                // Read more rows only while there is room to start more pipelines or to look ahead;
+                // rows blocked by a cap count against the look-ahead even when global slots are free
+                while (((state.running < maxConcurrency && state.ready == 0) || state.ready < readAhead)
+                        && pipelineConfigs.hasNext()) {
+                    Node node = admit(pipelineConfigs.next(), graph, waitingForUnseen, results);
+                    if (node != null) {
+                        rankCriticalPath(node, graph, defaultCost);
+                    }
+                    if (node != null && node.pendingDependencies == 0) {
+                        enqueue(state, node);
+                        dispatchReady(state);
+                    }
+                }
+
+                if (state.running == 0) {
+                    if (!pipelineConfigs.hasNext()) {
+                        break;
+                    }
+                    continue;
+                }
+
+                Completion completion = takeCompletion(completions);
+                state.running--;
+
+                Node node = completion.node;
+                node.result = completion.result;
+                results.put(node.config.getAppName(), completion.result);
+                state.inFlight.remove(node);
+                for (String slot : node.slots) {
+                    state.slotsInUse.merge(slot, -1, Integer::sum);
+                }
+
+                if (completion.result.getStatus() == PipelineStatus.SUCCESS) {
+                    for (Node dependent : node.dependents) {
+                        if (--dependent.pendingDependencies == 0 && dependent.result == null) {
+                            enqueue(state, dependent);
+                        }
+                    }
+                } else {
+                    logger.warn("Pipeline for app '{}' did not succeed (status: {}). Skipping its downstream pipelines.",
+                            node.config.getAppName(), completion.result.getStatus());
+                    skipDownstream(node, results);
+                    applyCancellationPolicy(node, state);
+                }
+                dispatchReady(state);
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+
+        reportUnresolved(graph, waitingForUnseen, results);
+
+        List<PipelineResult> ordered = new ArrayList<>();
+        for (String appName : graph.keySet()) {
+            ordered.add(results.get(appName));
+        }
+        return ordered;
+    }
+
+    /**
+     * Adds a newly read configuration to the dependency graph.
+     *
+     * @param config           Pipeline configuration
+     * @param graph            Graph nodes keyed by app name, in input order
+     * @param waitingForUnseen Nodes waiting for apps that have not been read yet, keyed by app name
+     * @param results          Results collected so far, keyed by app name
+     * @return Graph node of the configuration, or null if it was rejected or skipped right away
+     */
+    private Node admit(PipelineConfig config, Map<String, Node> graph, Map<String, List<Node>> waitingForUnseen,
+                       Map<String, PipelineResult> results) {
+        String appName = config.getAppName();
+        if (graph.containsKey(appName)) {
+            logger.error("Duplicate app name '{}' in dependency graph, ignoring the later row", appName);
+            return null;
+        }
+
+        Node node = new Node(config);
+        graph.put(appName, node);
+
+        // Rows may depend on rows that appear later in the file
+        List<Node> waiting = waitingForUnseen.remove(appName);
+        if (waiting != null) {
+            node.dependents.addAll(waiting);
+        }
+
+        Node failedUpstream = null;
+        for (String dependency : config.getDependsOn()) {
+            Node upstream = graph.get(dependency);
+            if (upstream == null) {
+                waitingForUnseen.computeIfAbsent(dependency, key -> new ArrayList<>()).add(node);
+                node.pendingDependencies++;
+            } else if (upstream.result == null) {
+                upstream.dependents.add(node);
+                node.pendingDependencies++;
+            } else if (upstream.result.getStatus() != PipelineStatus.SUCCESS) {
+                failedUpstream = upstream;
+            }
+        }
+
+        if (failedUpstream != null) {
+            skip(node, failedUpstream, results);
+            skipDownstream(node, results);
+            return null;
+        }
+        return node;
+    }
+
+    /**
+     * Validates a complete dependency graph before anything is started.
+     *
+     * @param pipelineConfigs List of pipeline configurations
+     * @throws IllegalArgumentException If app names are duplicated, a dependency is unknown or there is a cycle
+     */
+    private void validateGraph(List<PipelineConfig> pipelineConfigs) {
+        Map<String, PipelineConfig> byName = new HashMap<>();
+        for (PipelineConfig config : pipelineConfigs) {
+            if (byName.put(config.getAppName(), config) != null) {
+                throw new IllegalArgumentException("Duplicate app name in dependency graph: " + config.getAppName());
+            }
+        }
+
+        Map<String, Integer> inDegree = new HashMap<>();
+        Map<String, List<String>> dependents = new HashMap<>();
+        for (PipelineConfig config : pipelineConfigs) {
+            inDegree.put(config.getAppName(), config.getDependsOn().size());
+            for (String dependency : config.getDependsOn()) {
+                if (!byName.containsKey(dependency)) {
+                    throw new IllegalArgumentException("App '" + config.getAppName()
+                            + "' depends on unknown app '" + dependency + "'");
+                }
+                dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(config.getAppName());
+            }
+        }
+
+        // Kahn's algorithm: every node is visited only if the graph is acyclic
+        Deque<String> ready = new ArrayDeque<>();
+        inDegree.forEach((appName, degree) -> {
+            if (degree == 0) {
+                ready.add(appName);
+            }
+        });
+
+        int visited = 0;
+        while (!ready.isEmpty()) {
+            String appName = ready.poll();
+            visited++;
+            for (String dependent : dependents.getOrDefault(appName, List.of())) {
+                if (inDegree.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+
+        if (visited != pipelineConfigs.size()) {
+            throw new IllegalArgumentException("The \"Depends On\" column contains a dependency cycle");
+        }
+    }
+
+    /**
+     * Reports rows that could never start because of unknown or cyclic dependencies
+     * and records them as skipped.
+     *
+     * @param graph            Graph nodes keyed by app name
+     * @param waitingForUnseen Nodes waiting for apps that never appeared, keyed by app name
+     * @param results          Results collected so far, keyed by app name
+     */
+    private void reportUnresolved(Map<String, Node> graph, Map<String, List<Node>> waitingForUnseen,
+                                  Map<String, PipelineResult> results) {
+        waitingForUnseen.forEach((missing, nodes) -> {
+            for (Node node : nodes) {
+                logger.error("App '{}' depends on unknown app '{}'", node.config.getAppName(), missing);
+            }
+        });
+
+        for (Node node : graph.values()) {
+            if (node.result == null) {
+                logger.error("Pipeline for app '{}' was never started because its dependencies could not be resolved",
+                        node.config.getAppName());
+                node.result = new PipelineResult(node.config.getAppName(), null, null,
+                        PipelineStatus.SKIPPED, node.config.getVariables(), 0L);
+                results.put(node.config.getAppName(), node.result);
+                eventListener.onFinished(node.result);
+            }
+        }
+    }
+
+    /**
+     * Computes the critical path of a newly admitted pipeline, i.e. its expected build time plus
+     * the longest chain of expected build times downstream of it, and lengthens the critical path
+     * of its unfinished upstream pipelines accordingly.
+     *
+     * @param node        Graph node of the new pipeline
+     * @param graph       Graph nodes keyed by app name
+     * @param defaultCost Expected build time in seconds of apps without history
+     */
+    private void rankCriticalPath(Node node, Map<String, Node> graph, double defaultCost) {
+        Duration expected = buildTimeHistory.expectedBuildTime(node.config.getAppName());
+        node.cost = expected != null ? Math.max(expected.toMillis() / 1000.0, 0.001) : defaultCost;
+        node.rank = node.cost;
+        node.pathLength = 1;
+        for (Node dependent : node.dependents) {
+            if (node.cost + dependent.rank > node.rank) {
+                node.rank = node.cost + dependent.rank;
+                node.pathLength = dependent.pathLength + 1;
+            }
+        }
+
+        Deque<Node> toUpdate = new ArrayDeque<>();
+        toUpdate.add(node);
+        while (!toUpdate.isEmpty()) {
+            Node current = toUpdate.poll();
+            // A path longer than the graph can only go round a cycle, which is reported at the end
+            if (current.pathLength >= graph.size()) {
+                continue;
+            }
+            for (String dependency : current.config.getDependsOn()) {
+                Node upstream = graph.get(dependency);
+                if (upstream == null || upstream.result != null || upstream.cost + current.rank <= upstream.rank) {
+                    continue;
+                }
+                // Re-insert a ready pipeline so its queue sees the new rank
+                PriorityQueue<Node> readyQueue = upstream.readyQueue;
+                if (readyQueue != null) {
+                    readyQueue.remove(upstream);
+                }
+                upstream.rank = upstream.cost + current.rank;
+                upstream.pathLength = current.pathLength + 1;
+                if (readyQueue != null) {
+                    readyQueue.add(upstream);
+                }
+                toUpdate.add(upstream);
+            }
+        }
+    }
+
+    /**
+     * Adds a pipeline whose dependencies have all succeeded to the ready queue of its flow and caps,
+     * or records it as skipped if its group has been halted. Ready pipelines of a group are dropped
+     * from the queues when it is halted, so the queues never hold pipelines of a halted group.
+     *
+     * @param state Bookkeeping of the execution
+     * @param node  Graph node of the pipeline
+     */
+    private void enqueue(RunState state, Node node) {
+        if (state.haltedGroups.containsKey(node.config.getGroup())) {
+            skipHalted(node, state.results);
+            return;
+        }
+        resolveSlots(node);
+        node.sequence = state.sequence++;
+        node.readyQueue = state.readyQueues.computeIfAbsent(node.config.getPriority() + "\n" + String.join("\n", node.slots),
+                key -> new PriorityQueue<>(READY_ORDER));
+        node.readyQueue.add(node);
+        state.ready++;
+        markQueued(1);
+    }
+
+    /**
+     * Starts ready pipelines until the global limit is reached or every remaining ready pipeline
+     * is blocked by a cap. Each flow offers its ready pipeline with the longest critical path among
+     * those whose caps have room; the flow whose offer has the lowest finish tag wins. The finish
+     * tag is the flow's previous tag, or the current virtual time if the flow was idle, plus the
+     * pipeline's expected build time over the flow's priority.
+     *
+     * @param state Bookkeeping of the execution
+     */
+    private void dispatchReady(RunState state) {
+        Map<Integer, PriorityQueue<Node>> offers = new HashMap<>();
+        while (state.running < maxConcurrency) {
+            offers.clear();
+            for (PriorityQueue<Node> readyQueue : state.readyQueues.values()) {
+                Node head = readyQueue.peek();
+                if (head != null && hasFreeSlots(state, head)) {
+                    offers.merge(head.config.getPriority(), readyQueue,
+                            (offer, candidate) -> READY_ORDER.compare(candidate.peek(), offer.peek()) < 0 ? candidate : offer);
+                }
+            }
+
+            PriorityQueue<Node> next = null;
+            double nextTag = 0;
+            for (PriorityQueue<Node> offer : offers.values()) {
+                Node head = offer.peek();
+                int priority = head.config.getPriority();
+                double tag = Math.max(state.virtualTime, state.flowFinishTags.getOrDefault(priority, 0.0))
+                        + head.cost / priority;
+                if (next == null || tag < nextTag || (tag == nextTag && priority > next.peek().config.getPriority())) {
+                    next = offer;
+                    nextTag = tag;
+                }
+            }
+            if (next == null) {
+                return;
+            }
+
+            Node node = next.poll();
+            node.readyQueue = null;
+            state.ready--;
+            markQueued(-1);
+            state.virtualTime = nextTag;
+            state.flowFinishTags.put(node.config.getPriority(), nextTag);
+            for (String slot : node.slots) {
+                state.slotsInUse.merge(slot, 1, Integer::sum);
+            }
+            state.inFlight.add(node);
+            state.running++;
+            submit(state.completions, state.permits, node, state.runner);
+        }
+    }
+
+    /**
+     * Counts pipelines entering or leaving the wait for a slot, in this run and in the gauge of all runs.
+     *
+     * @param delta 1 when a pipeline starts waiting, -1 when it stops
+     */
+    private void markQueued(int delta) {
+        queued.addAndGet(delta);
+        queuedInAllRuns.addAndGet(delta);
+    }
+
+    /**
+     * @param state Bookkeeping of the execution
+     * @param node  Graph node of a ready pipeline
+     * @return True if none of the caps the pipeline is subject to is reached
+     */
+    private boolean hasFreeSlots(RunState state, Node node) {
+        for (int i = 0; i < node.slots.length; i++) {
+            if (state.slotsInUse.getOrDefault(node.slots[i], 0) >= node.slotLimits[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Determines the caps a pipeline is subject to: its GitLab instance, its project and its runner tags.
+     * Unlimited ones are left out.
+     *
+     * @param node Graph node of the pipeline
+     */
+    private void resolveSlots(Node node) {
+        if (node.slots != null) {
+            return;
+        }
+        PipelineConfig config = node.config;
+        List<String> slots = new ArrayList<>();
+        List<Integer> limits = new ArrayList<>();
+
+        String host = "";
+        if (hosts != null) {
+            String baseUrl = hosts.baseUrlOf(config);
+            host = GitLabHosts.hostOf(baseUrl);
+            addSlot(slots, limits, "host " + host, hosts.getSettings(baseUrl).getMaxConcurrency());
+        }
+        String project = host.isEmpty() ? config.getProjectId() : host + "/" + config.getProjectId();
+        Integer projectLimit = projectLimits.containsKey(project) ? projectLimits.get(project) : projectLimits.get(config.getProjectId());
+        addSlot(slots, limits, "project " + project, projectLimit);
+        for (String tag : config.getRunnerTags()) {
+            addSlot(slots, limits, "tag " + tag, runnerTagLimits.get(tag));
+        }
+
+        node.slots = slots.toArray(new String[0]);
+        node.slotLimits = limits.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static void addSlot(List<String> slots, List<Integer> limits, String slot, Integer limit) {
+        if (limit != null && limit < Integer.MAX_VALUE) {
+            slots.add(slot);
+            limits.add(limit);
+        }
+    }
+
+    /**
+     * Applies the cancellation policy of a failed pipeline to the rest of its group.
+     * The group is halted once; pipelines of a halted group are no longer started, and under
+     * {@link CancellationPolicy#FAIL_FAST} the ones in flight are canceled.
+     *
+     * @param failed Graph node of the failed pipeline
+     * @param state  Pipelines in flight, waiting per GitLab instance and halted groups
+     */
+    private void applyCancellationPolicy(Node failed, RunState state) {
+        String group = failed.config.getGroup();
+        CancellationPolicy policy = failed.config.getOnFailure() != null ? failed.config.getOnFailure() : cancellationPolicy;
+        if (policy == CancellationPolicy.CONTINUE_ALL || state.haltedGroups.containsKey(group)) {
+            return;
+        }
+
+        state.haltedGroups.put(group, policy);
+        logger.warn("Pipeline for app '{}' failed, halting {} ({})", failed.config.getAppName(),
+                group.isEmpty() ? "the run" : "group '" + group + "'", policy);
+
+        // Ready pipelines of the group will never start
+        for (PriorityQueue<Node> readyQueue : state.readyQueues.values()) {
+            List<Node> halted = new ArrayList<>();
+            for (Node node : readyQueue) {
+                if (node.config.getGroup().equals(group)) {
+                    halted.add(node);
+                }
+            }
+            readyQueue.removeAll(halted);
+            for (Node node : halted) {
+                node.readyQueue = null;
+                state.ready--;
+                markQueued(-1);
+                skipHalted(node, state.results);
+            }
+        }
+
+        if (policy == CancellationPolicy.FAIL_FAST) {
+            List<PipelineConfig> toCancel = new ArrayList<>();
+            for (Node node : state.inFlight) {
+                if (node.config.getGroup().equals(group)) {
+                    toCancel.add(node.config);
+                }
+            }
+            if (!toCancel.isEmpty()) {
+                logger.warn("Canceling {} in-flight pipeline(s)", toCancel.size());
+                cancelHandler.cancel(toCancel);
+            }
+        }
+    }
+
+    /**
+     * Submits a pipeline to the worker pool.
+     *
+     * @param completions Completion service backed by the worker pool
+     * @param permits     Semaphore bounding the number of pipelines in flight
+     * @param node        Graph node of the pipeline
+     * @param runner      Action that executes a single pipeline
+     */
+    private void submit(CompletionService<Completion> completions, Semaphore permits, Node node, PipelineRunner runner) {
+        markQueued(1);
+        completions.submit(() -> {
+            try {
+                permits.acquire();
+            } finally {
+                markQueued(-1);
+            }
+            try {
+                logger.info("Processing pipeline for app: {}", node.config.getAppName());
+                return new Completion(node, runner.run(node.config));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw e;
+            } catch (Exception e) {
+                logger.error("Error executing pipeline for app '{}': {}", node.config.getAppName(), e.getMessage(), e);
+                PipelineResult failed = new PipelineResult(node.config.getAppName(), null, null,
+                        PipelineStatus.FAILED, node.config.getVariables(), 0L);
+                eventListener.onFinished(failed);
+                return new Completion(node, failed);
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    /**
+     * Waits for the next pipeline to finish.
+     *
+     * @param completions Completion service backed by the worker pool
+     * @return Completed pipeline
+     * @throws InterruptedException If interrupted while waiting
+     */
+    private Completion takeCompletion(CompletionService<Completion> completions) throws InterruptedException {
+        try {
+            return completions.take().get();
+        } catch (ExecutionException e) {
+            // Workers catch every exception themselves, so this indicates a programming error
+            throw new IllegalStateException("Pipeline worker failed unexpectedly", e.getCause());
+        }
+    }
+
+    /**
+     * Records every pipeline downstream of a failed pipeline as skipped.
+     *
+     * @param failed  Graph node of the failed pipeline
+     * @param results Results collected so far, keyed by app name
+     */
+    private void skipDownstream(Node failed, Map<String, PipelineResult> results) {
+        Deque<Node> toSkip = new ArrayDeque<>(failed.dependents);
+
+        while (!toSkip.isEmpty()) {
+            Node node = toSkip.poll();
+            if (node.result != null) {
+                continue;
+            }
+            skip(node, failed, results);
+            toSkip.addAll(node.dependents);
+        }
+    }
+
+    /**
+     * Records a single pipeline as skipped because of a failed upstream pipeline.
+     *
+     * @param node    Graph node of the skipped pipeline
+     * @param failed  Graph node of the failed upstream pipeline
+     * @param results Results collected so far, keyed by app name
+     */
+    private void skip(Node node, Node failed, Map<String, PipelineResult> results) {
+        String appName = node.config.getAppName();
+        logger.warn("Skipping pipeline for app '{}' because upstream app '{}' did not succeed",
+                appName, failed.config.getAppName());
+        node.result = new PipelineResult(appName, null, null, PipelineStatus.SKIPPED, node.config.getVariables(), 0L);
+        results.put(appName, node.result);
+        eventListener.onFinished(node.result);
+    }
+
+    /**
+     * Records a pipeline of a halted group as skipped, together with everything downstream of it.
+     *
+     * @param node    Graph node of the skipped pipeline
+     * @param results Results collected so far, keyed by app name
+     */
+    private void skipHalted(Node node, Map<String, PipelineResult> results) {
+        String appName = node.config.getAppName();
+        logger.warn("Skipping pipeline for app '{}' because its group was halted after a failure", appName);
+        node.result = new PipelineResult(appName, null, null, PipelineStatus.SKIPPED, node.config.getVariables(), 0L);
+        results.put(appName, node.result);
+        eventListener.onFinished(node.result);
+        skipDownstream(node, results);
+    }
+
+    /**
+     * Node of the dependency graph.
+     */
+    private static class Node {
+        private final PipelineConfig config;
+        private final List<Node> dependents = new ArrayList<>();
+        private int pendingDependencies;
+        private PipelineResult result;
+        private String[] slots;
+        private int[] slotLimits;
+        private double cost;
+        private double rank;
+        private int pathLength;
+        private long sequence;
+        private PriorityQueue<Node> readyQueue;
+
+        Node(PipelineConfig config) {
+            this.config = config;
+        }
+    }
+
+    /**
+     * Bookkeeping of one execution beyond the dependency graph.
+     */
+    private static class RunState {
+        private final Map<String, PipelineResult> results;
+        private final CompletionService<Completion> completions;
+        private final Semaphore permits;
+        private final PipelineRunner runner;
+        private final Map<String, PriorityQueue<Node>> readyQueues = new HashMap<>();
+        private final Map<String, Integer> slotsInUse = new HashMap<>();
+        private final Map<Integer, Double> flowFinishTags = new HashMap<>();
+        private final Set<Node> inFlight = new LinkedHashSet<>();
+        private final Map<String, CancellationPolicy> haltedGroups = new HashMap<>();
+        private double virtualTime;
+        private long sequence;
+        private int running;
+        private int ready;
+
+        RunState(Map<String, PipelineResult> results, CompletionService<Completion> completions, Semaphore permits,
+                 PipelineRunner runner) {
+            this.results = results;
+            this.completions = completions;
+            this.permits = permits;
+            this.runner = runner;
+        }
+    }
+
+    /**
+     * Pairs a graph node with the result of its pipeline.
+     */
+    private static class Completion {
+        private final Node node;
+        private final PipelineResult result;
+
+        Completion(Node node, PipelineResult result) {
+            this.node = node;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,601 @@
+package com.gitlab.orchestrator;
+
+import org.gitlab4j.api.GitLabApiException;
+import org.gitlab4j.api.models.Pipeline;
+import org.gitlab4j.api.models.PipelineStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Class responsible for polling the status of all in-flight pipelines from a single place.
+ * In-flight pipelines are grouped by client and project; on every tick each project is
+ * queried once with a paged pipeline listing (newest first, filtered by "updated_after")
+ * and the statuses are fanned out to the waiting tasks. This makes the number of API calls
+ * per tick proportional to the number of projects instead of the number of pipelines.
+ * <p>
+ * Each pipeline carries its own next-poll time computed by an {@link AdaptivePollingPolicy};
+ * a project is queried on a tick only when at least one of its pipelines is due, and not while
+ * its previous query is still in flight. Queries are sent without waiting for their answers,
+ * so a slow project does not hold back the ticks of the others.
+ * <p>
+ * A failed query does not fail the pipelines it covered: they stay watched and are polled
+ * again with a growing delay. Only a pipeline whose status could not be fetched
+ * five times in a row is completed exceptionally.
+ * <p>
+ * A short build can finish, and its webhook arrive, before the trigger has registered the
+ * pipeline here. Terminal statuses pushed for unknown pipelines are therefore kept for a minute,
+ * and a pipeline watched after its terminal status was pushed is confirmed right away.
+ */
+public class PipelineStatusPoller implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(PipelineStatusPoller.class);
+    private static final long CLOCK_SKEW_MS = 60000; // tolerate clock drift between us and GitLab
+    private static final long MAX_TICK_MS = 1000;
+    private static final int MAX_CONSECUTIVE_FAILURES = 5;
+    private static final long EARLY_EVENT_TTL_MS = 60000;
+
+    private final AdaptivePollingPolicy pollingPolicy;
+    private final GitLabApiCaller apiCaller;
+    private final long earlyEventTtlMs;
+    private final ConcurrentMap<ProjectKey, ConcurrentMap<Long, Watch>> watches = new ConcurrentHashMap<>();
+    private final Set<ProjectKey> polling = ConcurrentHashMap.newKeySet();
+    // Terminal statuses pushed before their pipeline was watched, keyed by "projectId/pipelineId" and
+    // "projectPath/pipelineId", with their arrival time
+    private final ConcurrentMap<String, Long> earlyTerminalEvents = new ConcurrentHashMap<>();
+    private final AtomicBoolean projectMismatchReported = new AtomicBoolean();
+    private final ScheduledExecutorService ticker;
+    private final LatencyHistogram getPipelineLatency;
+    private final LatencyHistogram listPipelinesLatency;
+    private final LatencyHistogram detectionLag;
+
+    /**
+     * Constructor for PipelineStatusPoller.
+     *
+     * @param pollingPolicy Policy deciding when each pipeline is polled next
+     * @param apiCaller     Rate limiter and retry policy for the status requests
+     */
+    public PipelineStatusPoller(AdaptivePollingPolicy pollingPolicy, GitLabApiCaller apiCaller) {
+        this(pollingPolicy, apiCaller, EARLY_EVENT_TTL_MS);
+    }
+
+    PipelineStatusPoller(AdaptivePollingPolicy pollingPolicy, GitLabApiCaller apiCaller, long earlyEventTtlMs) {
+        this.pollingPolicy = pollingPolicy;
+        this.apiCaller = apiCaller;
+        this.earlyEventTtlMs = earlyEventTtlMs;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(namedDaemonThreads("pipeline-status-poller"));
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        this.getPipelineLatency = metrics.histogram("flowforge_get_pipeline_latency_seconds",
+                "Latency of a single getPipeline status request");
+        this.listPipelinesLatency = metrics.histogram("flowforge_list_pipelines_latency_seconds",
+                "Latency of a batched pipeline listing, all pages included");
+        this.detectionLag = metrics.histogram("flowforge_completion_detection_lag_seconds",
+                "Time from GitLab finishing a pipeline to the poller noticing it");
+        metrics.gauge("flowforge_watched_pipelines", "Pipelines whose status is being polled", this::watchCount);
+        long tickMs = Math.min(MAX_TICK_MS, pollingPolicy.getMinIntervalMs());
+        this.ticker.scheduleWithFixedDelay(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts watching a pipeline until it reaches a terminal status.
+     *
+     * @param client     GitLab client owning the pipeline
+     * @param projectId  Project ID
+     * @param pipelineId Pipeline ID
+     * @param expectedDuration Expected build time of the app, or null if unknown
+     * @return Future completed with the terminal status, or exceptionally if the status repeatedly cannot be fetched
+     */
+    public CompletableFuture<PipelineStatus> watch(GitLabClient client, String projectId, long pipelineId,
+                                                   Duration expectedDuration) {
+        return watch(client, projectId, pipelineId, expectedDuration, null);
+    }
+
+    /**
+     * Starts watching a pipeline until it reaches a terminal status, reporting every status change.
+     *
+     * @param client           GitLab client owning the pipeline
+     * @param projectId        Project ID
+     * @param pipelineId       Pipeline ID
+     * @param expectedDuration Expected build time of the app, or null if unknown
+     * @param statusListener   Called with each newly observed status, or null
+     * @return Future completed with the terminal status, or exceptionally if the status repeatedly cannot be fetched
+     */
+    public CompletableFuture<PipelineStatus> watch(GitLabClient client, String projectId, long pipelineId,
+                                                   Duration expectedDuration, Consumer<PipelineStatus> statusListener) {
+        Watch watch = new Watch(pipelineId, expectedDuration, statusListener);
+        watch.nextPollAt = watch.startedAt + pollingPolicy.nextDelayMs(0, 0, expectedDuration);
+        ProjectKey projectKey = new ProjectKey(client, projectId);
+        ConcurrentMap<Long, Watch> projectWatches = watches.compute(projectKey, (key, current) -> {
+            ConcurrentMap<Long, Watch> result = current != null ? current : new ConcurrentHashMap<>();
+            result.put(pipelineId, watch);
+            return result;
+        });
+        if (!earlyTerminalEvents.isEmpty() && earlyTerminalEvents.remove(eventKey(projectId, pipelineId)) != null) {
+            logger.debug("Pipeline {} was reported finished before it was watched", pipelineId);
+            confirmStatus(projectKey, projectWatches, watch);
+        }
+        return watch.future;
+    }
+
+    /**
+     * Applies a status pushed to us (e.g. by a webhook) to the matching in-flight pipeline.
+     * Pushed statuses are not trusted to end a watch: a terminal status only triggers an
+     * immediate getPipeline, and the pipeline completes with the status GitLab returns.
+     * A terminal status of a pipeline that is not watched yet is kept for {@link #watch}.
+     *
+     * @param projectId  Project ID
+     * @param pipelineId Pipeline ID
+     * @param status     Reported pipeline status
+     * @return True if an in-flight pipeline matched the update
+     */
+    public boolean onStatusUpdate(String projectId, long pipelineId, PipelineStatus status) {
+        return onStatusUpdate(projectId, null, pipelineId, status);
+    }
+
+    /**
+     * Applies a status pushed to us to the matching in-flight pipeline, like
+     * {@link #onStatusUpdate(String, long, PipelineStatus)}. Webhook events name the project by
+     * numeric ID and by path while the manifest may use either, so a pipeline matches if its
+     * project was given as one or the other.
+     *
+     * @param projectId   Numeric project ID
+     * @param projectPath Full path of the project, e.g. "group/project", or null if unknown
+     * @param pipelineId  Pipeline ID
+     * @param status      Reported pipeline status
+     * @return True if an in-flight pipeline matched the update
+     */
+    public boolean onStatusUpdate(String projectId, String projectPath, long pipelineId, PipelineStatus status) {
+        if (applyStatusUpdate(projectId, projectPath, pipelineId, status)) {
+            return true;
+        }
+        String otherProject = findOtherProject(projectId, projectPath, pipelineId);
+        if (otherProject != null) {
+            if (projectMismatchReported.compareAndSet(false, true)) {
+                logger.warn("Pipeline event of project {} ({}) matches pipeline {} watched for project '{}' only by "
+                        + "pipeline ID; such events are ignored and the pipelines are completed by polling",
+                        projectId, projectPath, pipelineId, otherProject);
+            }
+            return false;
+        }
+        if (!isTerminalStatus(status)) {
+            return false;
+        }
+
+        long now = System.currentTimeMillis();
+        earlyTerminalEvents.put(eventKey(projectId, pipelineId), now);
+        if (projectPath != null) {
+            earlyTerminalEvents.put(eventKey(projectPath, pipelineId), now);
+        }
+        // watch() may have registered the pipeline in the meantime without seeing the event yet
+        Map.Entry<ProjectKey, ConcurrentMap<Long, Watch>> match = findProject(projectId, projectPath, pipelineId);
+        Watch watch = match != null ? match.getValue().get(pipelineId) : null;
+        if (watch != null && earlyTerminalEvents.remove(eventKey(match.getKey().projectId, pipelineId)) != null) {
+            confirmStatus(match.getKey(), match.getValue(), watch);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Applies a pushed status to the pipeline if it is watched.
+     *
+     * @param projectId   Project ID
+     * @param projectPath Full path of the project, or null if unknown
+     * @param pipelineId  Pipeline ID
+     * @param status      Reported pipeline status
+     * @return True if an in-flight pipeline matched the update
+     */
+    private boolean applyStatusUpdate(String projectId, String projectPath, long pipelineId, PipelineStatus status) {
+        Map.Entry<ProjectKey, ConcurrentMap<Long, Watch>> match = findProject(projectId, projectPath, pipelineId);
+        Watch watch = match != null ? match.getValue().get(pipelineId) : null;
+        if (watch == null) {
+            return false;
+        }
+
+        if (isTerminalStatus(status)) {
+            confirmStatus(match.getKey(), match.getValue(), watch);
+        } else {
+            updateStatus(watch, status);
+        }
+        return true;
+    }
+
+    /**
+     * @param projectId   Project ID
+     * @param projectPath Full path of the project, or null if unknown
+     * @param pipelineId  Pipeline ID
+     * @return Client and in-flight pipelines of the project watching the pipeline, or null if it is not watched
+     */
+    private Map.Entry<ProjectKey, ConcurrentMap<Long, Watch>> findProject(String projectId, String projectPath,
+                                                                          long pipelineId) {
+        for (Map.Entry<ProjectKey, ConcurrentMap<Long, Watch>> entry : watches.entrySet()) {
+            if (isProject(entry.getKey(), projectId, projectPath) && entry.getValue().containsKey(pipelineId)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param projectId   Project ID
+     * @param projectPath Full path of the project, or null if unknown
+     * @param pipelineId  Pipeline ID
+     * @return Project under which the pipeline is watched although it is neither the given ID nor path, or null
+     */
+    private String findOtherProject(String projectId, String projectPath, long pipelineId) {
+        for (Map.Entry<ProjectKey, ConcurrentMap<Long, Watch>> entry : watches.entrySet()) {
+            if (!isProject(entry.getKey(), projectId, projectPath) && entry.getValue().containsKey(pipelineId)) {
+                return entry.getKey().projectId;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isProject(ProjectKey key, String projectId, String projectPath) {
+        return key.projectId.equals(projectId) || key.projectId.equals(projectPath);
+    }
+
+    private static String eventKey(String projectId, long pipelineId) {
+        return projectId + "/" + pipelineId;
+    }
+
+    /**
+     * Fetches the status of a pipeline right away and completes it if GitLab confirms it has finished.
+     *
+     * @param key            Client and project
+     * @param projectWatches In-flight pipelines of the project, keyed by pipeline ID
+     * @param watch          Watched pipeline
+     */
+    private void confirmStatus(ProjectKey key, ConcurrentMap<Long, Watch> projectWatches, Watch watch) {
+        apiCaller.execute(key.client, "getPipeline " + watch.pipelineId, () -> {
+            long start = System.nanoTime();
+            return key.client.getPipeline(key.projectId, watch.pipelineId).thenApply(pipeline -> {
+                getPipelineLatency.recordSince(start);
+                return pipeline;
+            });
+        }).whenComplete((pipeline, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                logger.warn("Could not confirm the status of pipeline {}, leaving it to polling: {}",
+                        watch.pipelineId, cause.getMessage());
+                watch.nextPollAt = 0;
+                return;
+            }
+
+            PipelineStatus status = pipeline.getStatus();
+            updateStatus(watch, status);
+            if (isTerminalStatus(status) && projectWatches.remove(watch.pipelineId, watch)) {
+                recordDetectionLag(pipeline);
+                watch.future.complete(status);
+            }
+        });
+    }
+
+    /**
+     * Records how long after finishing a pipeline was seen as finished. Listings do not carry
+     * finished_at, so the time of the pipeline's last update, its move to the terminal status,
+     * stands in for it there.
+     *
+     * @param pipeline Pipeline seen in a terminal status
+     */
+    private void recordDetectionLag(Pipeline pipeline) {
+        Date finishedAt = pipeline.getFinishedAt() != null ? pipeline.getFinishedAt() : pipeline.getUpdatedAt();
+        if (finishedAt != null) {
+            detectionLag.record(System.currentTimeMillis() - finishedAt.getTime());
+        }
+    }
+
+    /**
+     * Makes an in-flight pipeline due for polling on the next tick, e.g. right after canceling it.
+     *
+     * @param projectId  Project ID
+     * @param pipelineId Pipeline ID
+     */
+    public void pollSoon(String projectId, long pipelineId) {
+        for (Map.Entry<ProjectKey, ConcurrentMap<Long, Watch>> entry : watches.entrySet()) {
+            if (entry.getKey().projectId.equals(projectId)) {
+                Watch watch = entry.getValue().get(pipelineId);
+                if (watch != null) {
+                    watch.nextPollAt = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Number of pipelines currently being watched
+     */
+    private int watchCount() {
+        int count = 0;
+        for (ConcurrentMap<Long, Watch> projectWatches : watches.values()) {
+            count += projectWatches.size();
+        }
+        return count;
+    }
+
+    /**
+     * Runs one polling round over every project with in-flight pipelines.
+     */
+    private void tick() {
+        long now = System.currentTimeMillis();
+        if (!earlyTerminalEvents.isEmpty()) {
+            // Events of pipelines we never watch, e.g. triggered by someone else on the same project
+            earlyTerminalEvents.values().removeIf(receivedAt -> now - receivedAt > earlyEventTtlMs);
+        }
+
+        for (Map.Entry<ProjectKey, ConcurrentMap<Long, Watch>> entry : watches.entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                // Drop idle projects atomically so a concurrent watch() cannot be lost
+                watches.computeIfPresent(entry.getKey(), (key, projectWatches) -> projectWatches.isEmpty() ? null : projectWatches);
+                continue;
+            }
+            if (hasDueWatch(entry.getValue(), now) && polling.add(entry.getKey())) {
+                pollProject(entry.getKey(), entry.getValue()).whenComplete((ignored, error) -> {
+                    polling.remove(entry.getKey());
+                    if (error != null) {
+                        logger.error("Unexpected error while polling pipeline statuses", error);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Checks whether any pipeline of a project is due for polling.
+     *
+     * @param projectWatches In-flight pipelines of the project
+     * @param now            Current time in epoch milliseconds
+     * @return True if at least one pipeline is due
+     */
+    private boolean hasDueWatch(ConcurrentMap<Long, Watch> projectWatches, long now) {
+        for (Watch watch : projectWatches.values()) {
+            if (watch.nextPollAt <= now) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Polls the in-flight pipelines of a single project and completes the finished ones.
+     *
+     * @param key            Client and project
+     * @param projectWatches In-flight pipelines of the project, keyed by pipeline ID
+     * @return Future completed once the statuses have been applied
+     */
+    private CompletableFuture<Void> pollProject(ProjectKey key, ConcurrentMap<Long, Watch> projectWatches) {
+        List<Watch> snapshot = new ArrayList<>(projectWatches.values());
+        if (snapshot.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<List<Pipeline>> poll;
+        if (snapshot.size() == 1) {
+            long pipelineId = snapshot.get(0).pipelineId;
+            poll = apiCaller.execute(key.client, "getPipeline " + pipelineId, () -> {
+                long start = System.nanoTime();
+                return key.client.getPipeline(key.projectId, pipelineId).thenApply(pipeline -> {
+                    getPipelineLatency.recordSince(start);
+                    return List.of(pipeline);
+                });
+            });
+        } else {
+            poll = listPipelines(key, snapshot);
+        }
+
+        return poll.handle((pipelines, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                if (!(cause instanceof GitLabApiException)) {
+                    throw new CompletionException(cause);
+                }
+                long now = System.currentTimeMillis();
+                int givenUp = 0;
+                for (Watch watch : snapshot) {
+                    watch.consecutiveFailures++;
+                    if (watch.consecutiveFailures >= MAX_CONSECUTIVE_FAILURES) {
+                        projectWatches.remove(watch.pipelineId);
+                        watch.future.completeExceptionally(cause);
+                        givenUp++;
+                    } else {
+                        watch.nextPollAt = now + pollingPolicy.failureDelayMs(watch.consecutiveFailures);
+                    }
+                }
+                if (givenUp > 0) {
+                    logger.error("Error polling pipelines of project {}, giving up on {} pipeline(s) after {} failed polls: {}",
+                            key.projectId, givenUp, MAX_CONSECUTIVE_FAILURES, cause.getMessage());
+                } else {
+                    logger.warn("Error polling pipelines of project {}, retrying later: {}", key.projectId, cause.getMessage());
+                }
+                return null;
+            }
+
+            for (Pipeline pipeline : pipelines) {
+                Watch watch = projectWatches.get(pipeline.getId());
+                if (watch == null) {
+                    continue;
+                }
+
+                PipelineStatus status = pipeline.getStatus();
+                updateStatus(watch, status);
+                if (isTerminalStatus(status)) {
+                    recordDetectionLag(pipeline);
+                    projectWatches.remove(pipeline.getId());
+                    watch.future.complete(status);
+                }
+            }
+
+            // Every pipeline of the project was refreshed by this poll, so reschedule them all
+            long now = System.currentTimeMillis();
+            for (Watch watch : snapshot) {
+                watch.consecutiveFailures = 0;
+                watch.pollCount++;
+                watch.nextPollAt = now + pollingPolicy.nextDelayMs(now - watch.startedAt, watch.pollCount, watch.expectedDuration);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Records the latest status of a pipeline and reports it if it changed.
+     *
+     * @param watch  Watched pipeline
+     * @param status Observed status
+     */
+    private void updateStatus(Watch watch, PipelineStatus status) {
+        if (status == watch.lastStatus) {
+            return;
+        }
+        logger.info("Current status of pipeline {}: {}", watch.pipelineId, status);
+        watch.lastStatus = status;
+        if (watch.statusListener != null) {
+            try {
+                watch.statusListener.accept(status);
+            } catch (RuntimeException e) {
+                logger.warn("Status listener of pipeline {} failed: {}", watch.pipelineId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Lists the recently updated pipelines of a project, newest first, stopping once the
+     * listing goes past the oldest pipeline being watched.
+     *
+     * @param key      Client and project
+     * @param snapshot In-flight pipelines of the project
+     * @return Future completed with the recently updated pipelines of the project
+     */
+    private CompletableFuture<List<Pipeline>> listPipelines(ProjectKey key, List<Watch> snapshot) {
+        long oldestId = Long.MAX_VALUE;
+        long oldestWatchStart = Long.MAX_VALUE;
+        for (Watch watch : snapshot) {
+            oldestId = Math.min(oldestId, watch.pipelineId);
+            oldestWatchStart = Math.min(oldestWatchStart, watch.lastPolledAt);
+        }
+
+        long minPipelineId = oldestId;
+        Date updatedAfter = new Date(oldestWatchStart - CLOCK_SKEW_MS);
+        long pollStartedAt = System.currentTimeMillis();
+        return apiCaller.execute(key.client, "getPipelines " + key.projectId, () -> {
+            long start = System.nanoTime();
+            return key.client.listPipelines(key.projectId, updatedAfter, minPipelineId).thenApply(pipelines -> {
+                listPipelinesLatency.recordSince(start);
+                for (Watch watch : snapshot) {
+                    watch.lastPolledAt = pollStartedAt;
+                }
+                return pipelines;
+            });
+        });
+    }
+
+    /**
+     * Determines if a pipeline status is a terminal status.
+     *
+     * @param status Pipeline status
+     * @return True if the status is terminal
+     */
+    static boolean isTerminalStatus(PipelineStatus status) {
+        return status == PipelineStatus.SUCCESS ||
+               status == PipelineStatus.FAILED ||
+               status == PipelineStatus.CANCELED ||
+               status == PipelineStatus.SKIPPED;
+    }
+
+    /**
+     * Stops polling. Pipelines still being watched are completed exceptionally.
+     */
+    @Override
+    public void close() {
+        ticker.shutdownNow();
+        for (ConcurrentMap<Long, Watch> projectWatches : watches.values()) {
+            for (Watch watch : projectWatches.values()) {
+                watch.future.completeExceptionally(new GitLabApiException("Polling was stopped"));
+            }
+        }
+        watches.clear();
+    }
+
+    /**
+     * Creates a thread factory for named daemon threads.
+     *
+     * @param prefix Thread name prefix
+     * @return Thread factory
+     */
+    private static ThreadFactory namedDaemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * A pipeline being watched.
+     */
+    private static final class Watch {
+        private final long pipelineId;
+        private final Duration expectedDuration;
+        private final Consumer<PipelineStatus> statusListener;
+        private final long startedAt = System.currentTimeMillis();
+        private final CompletableFuture<PipelineStatus> future = new CompletableFuture<>();
+        private volatile long lastPolledAt = startedAt;
+        private volatile long nextPollAt;
+        private volatile int pollCount;
+        private volatile int consecutiveFailures;
+        private volatile PipelineStatus lastStatus;
+
+        Watch(long pipelineId, Duration expectedDuration, Consumer<PipelineStatus> statusListener) {
+            this.pipelineId = pipelineId;
+            this.expectedDuration = expectedDuration;
+            this.statusListener = statusListener;
+        }
+    }
+
+    /**
+     * Key grouping pipelines by client and project.
+     */
+    private static final class ProjectKey {
+        private final GitLabClient client;
+        private final String projectId;
+
+        ProjectKey(GitLabClient client, String projectId) {
+            this.client = client;
+            this.projectId = projectId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ProjectKey)) {
+                return false;
+            }
+            ProjectKey other = (ProjectKey) o;
+            return client == other.client && projectId.equals(other.projectId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(client), projectId);
+        }
+    }
+}
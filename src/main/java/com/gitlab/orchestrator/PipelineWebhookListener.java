@@ -0,0 +1,166 @@
+package com.gitlab.orchestrator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.gitlab4j.api.models.PipelineStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class responsible for receiving GitLab pipeline webhook events.
+ * An embedded HTTP server accepts "Pipeline Hook" POST requests and hands the reported
+ * status to the {@link PipelineStatusPoller}, which confirms a finished pipeline with
+ * GitLab and completes it immediately. Events are matched to pipelines by project ID or
+ * path, whichever the manifest used. Polling keeps running at a slow interval as a
+ * safety net for events that are lost or never sent.
+ * <p>
+ * The server listens on all interfaces so that GitLab can reach it, which is why a secret
+ * token is mandatory: requests without the matching X-Gitlab-Token header are rejected.
+ */
+public class PipelineWebhookListener implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(PipelineWebhookListener.class);
+    private static final String WEBHOOK_PATH = "/webhooks/gitlab";
+    private static final String TOKEN_HEADER = "X-Gitlab-Token";
+    private static final int HANDLER_THREADS = 2;
+
+    private final HttpServer server;
+    private final ExecutorService handlers;
+    private final PipelineStatusPoller statusPoller;
+    private final String secretToken;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Starts the webhook listener.
+     *
+     * @param port         Port to listen on
+     * @param secretToken  Expected value of the X-Gitlab-Token header
+     * @param statusPoller Poller whose in-flight pipelines are completed by the events
+     * @throws IOException              If the server cannot be started
+     * @throws IllegalArgumentException If the secret token is empty
+     */
+    public PipelineWebhookListener(int port, String secretToken, PipelineStatusPoller statusPoller) throws IOException {
+        if (secretToken == null || secretToken.isEmpty()) {
+            throw new IllegalArgumentException("A webhook secret token is required to listen for webhooks");
+        }
+        this.statusPoller = statusPoller;
+        this.secretToken = secretToken;
+        AtomicInteger counter = new AtomicInteger();
+        this.handlers = Executors.newFixedThreadPool(HANDLER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "pipeline-webhook-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.server.createContext(WEBHOOK_PATH, this::handle);
+        this.server.setExecutor(handlers);
+        this.server.start();
+        logger.info("Listening for GitLab pipeline webhooks on port {} at {}", getPort(), WEBHOOK_PATH);
+    }
+
+    /**
+     * Handles a single webhook request.
+     *
+     * @param exchange HTTP exchange
+     * @throws IOException If the response cannot be written
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            if (!isAuthorized(exchange.getRequestHeaders().getFirst(TOKEN_HEADER))) {
+                logger.warn("Rejected webhook request with missing or invalid {} header", TOKEN_HEADER);
+                exchange.sendResponseHeaders(401, -1);
+                return;
+            }
+
+            JsonNode payload;
+            try (InputStream body = exchange.getRequestBody()) {
+                payload = objectMapper.readTree(body);
+            } catch (IOException e) {
+                logger.warn("Rejected malformed webhook payload: {}", e.getMessage());
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+
+            processEvent(payload);
+            exchange.sendResponseHeaders(200, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Applies a pipeline event to the in-flight pipelines. Other event kinds are ignored.
+     *
+     * @param payload Webhook payload
+     */
+    private void processEvent(JsonNode payload) {
+        if (!"pipeline".equals(payload.path("object_kind").asText())) {
+            return;
+        }
+
+        JsonNode attributes = payload.path("object_attributes");
+        long pipelineId = attributes.path("id").asLong(0);
+        String projectId = payload.path("project").path("id").asText("");
+        String projectPath = payload.path("project").path("path_with_namespace").asText("");
+        String statusValue = attributes.path("status").asText("");
+        if (pipelineId == 0 || projectId.isEmpty() || statusValue.isEmpty()) {
+            logger.warn("Ignoring pipeline webhook without project ID, pipeline ID or status");
+            return;
+        }
+
+        PipelineStatus status = PipelineStatus.forValue(statusValue);
+        if (status == null) {
+            logger.warn("Ignoring pipeline webhook with unknown status '{}'", statusValue);
+            return;
+        }
+
+        if (statusPoller.onStatusUpdate(projectId, projectPath.isEmpty() ? null : projectPath, pipelineId, status)) {
+            logger.info("Webhook reported status {} for pipeline {}", status, pipelineId);
+        } else {
+            logger.debug("Webhook for pipeline {} does not match an in-flight pipeline", pipelineId);
+        }
+    }
+
+    /**
+     * Checks the secret token sent by GitLab in constant time.
+     *
+     * @param token Value of the X-Gitlab-Token header, or null if missing
+     * @return True if the request is authorized
+     */
+    private boolean isAuthorized(String token) {
+        return token != null && MessageDigest.isEqual(
+                secretToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the port the listener is bound to.
+     *
+     * @return Port number
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the HTTP server.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        handlers.shutdownNow();
+    }
+}
@@ -0,0 +1,52 @@
+package com.gitlab.orchestrator;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Rate limit state reported by GitLab in the RateLimit-Remaining and RateLimit-Reset headers,
+ * which are sent with successful responses as well as with 429 responses.
+ */
+public final class RateLimitStatus {
+    private final long remaining;
+    private final long resetAtMillis;
+
+    /**
+     * Constructor for RateLimitStatus.
+     *
+     * @param remaining     Requests left in the current rate limit window
+     * @param resetAtMillis Time the window resets, in epoch milliseconds
+     */
+    public RateLimitStatus(long remaining, long resetAtMillis) {
+        this.remaining = remaining;
+        this.resetAtMillis = resetAtMillis;
+    }
+
+    /**
+     * Reads the rate limit headers of a response.
+     *
+     * @param header Returns the first value of a response header by name, or null if it is missing
+     * @return Reported rate limit state, or null if the response has no (valid) rate limit headers
+     */
+    public static RateLimitStatus fromHeaders(Function<String, String> header) {
+        String remaining = header.apply("RateLimit-Remaining");
+        String reset = header.apply("RateLimit-Reset");
+        if (remaining == null || reset == null) {
+            return null;
+        }
+        try {
+            return new RateLimitStatus(Long.parseLong(remaining.trim()),
+                    TimeUnit.SECONDS.toMillis(Long.parseLong(reset.trim())));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public long getRemaining() {
+        return remaining;
+    }
+
+    public long getResetAtMillis() {
+        return resetAtMillis;
+    }
+}
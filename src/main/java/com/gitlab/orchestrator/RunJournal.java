@@ -0,0 +1,360 @@
+package com.gitlab.orchestrator;
+
+import org.gitlab4j.api.models.PipelineStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class responsible for the durable, append-only journal of a run.
+ * Every trigger and every terminal status is appended as one tab-separated line. Writes
+ * are grouped and fsynced in batches by a background thread; recording a trigger waits for
+ * its batch to reach the disk, so a crash can never lose a pipeline we already started.
+ * With resume enabled the existing journal is read back to re-attach to in-flight pipelines
+ * and to skip the ones that already finished.
+ */
+public class RunJournal implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(RunJournal.class);
+    private static final long SYNC_INTERVAL_MS = 200;
+    private static final String TRIGGERED = "TRIGGERED";
+    private static final String FINISHED = "FINISHED";
+
+    private final Path path;
+    private final FileChannel channel;
+    private final Map<String, Entry> previousRun;
+    private final Thread syncThread;
+    private final StringBuilder pending = new StringBuilder();
+    private long appendedSequence;
+    private long syncedSequence;
+    private IOException syncFailure;
+    private boolean stopping;
+    private boolean closed;
+
+    /**
+     * Opens the journal.
+     *
+     * @param filePath Path of the journal file
+     * @param resume   True to load the previous run and append to it, false to start a new journal
+     * @throws IOException If the journal cannot be read or opened
+     */
+    public RunJournal(String filePath, boolean resume) throws IOException {
+        this.path = Paths.get(filePath);
+        this.previousRun = resume && Files.exists(path) ? load(path) : Collections.emptyMap();
+
+        if (resume) {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            logger.info("Resuming from journal {} ({} pipelines recorded)", path, previousRun.size());
+        } else {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        this.syncThread = new Thread(this::syncLoop, "run-journal-sync");
+        this.syncThread.setDaemon(true);
+        this.syncThread.start();
+    }
+
+    /**
+     * Returns what the previous run recorded for an app.
+     *
+     * @param appName Name of the application
+     * @return Last journal entry of the app, or null if it was never triggered
+     */
+    public Entry getPreviousEntry(String appName) {
+        return previousRun.get(appName);
+    }
+
+    /**
+     * Records that a pipeline was triggered and waits until the record is on disk.
+     *
+     * @param appName    Name of the application
+     * @param projectId  GitLab project ID
+     * @param pipelineId GitLab pipeline ID
+     * @param startTime  Start time of the pipeline
+     * @throws IOException If the record cannot be written
+     */
+    public void recordTriggered(String appName, String projectId, long pipelineId, LocalDateTime startTime)
+            throws IOException {
+        long sequence = append(String.join("\t", TRIGGERED, escape(appName), escape(projectId),
+                String.valueOf(pipelineId), startTime.toString()));
+        awaitSync(sequence);
+    }
+
+    /**
+     * Records the terminal status of a pipeline. The record is written with the next batch.
+     *
+     * @param result Result of the pipeline execution
+     */
+    public void recordFinished(PipelineResult result) {
+        append(String.join("\t", FINISHED, escape(result.getAppName()), String.valueOf(result.getPipelineId()),
+                result.getStatus().name(),
+                String.valueOf(result.getStartTime()), String.valueOf(result.getEndTime())));
+    }
+
+    /**
+     * Queues a line for the next batch.
+     *
+     * @param line Journal line without line terminator
+     * @return Sequence number of the line
+     */
+    private synchronized long append(String line) {
+        pending.append(line).append('\n');
+        return ++appendedSequence;
+    }
+
+    /**
+     * Waits until the line with the given sequence number has been fsynced.
+     *
+     * @param sequence Sequence number of the line
+     * @throws IOException If the batch could not be written or the wait was interrupted
+     */
+    private synchronized void awaitSync(long sequence) throws IOException {
+        while (syncedSequence < sequence) {
+            if (syncFailure != null) {
+                throw syncFailure;
+            }
+            if (closed) {
+                throw new IOException("Run journal is closed");
+            }
+            try {
+                wait(SYNC_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the run journal", e);
+            }
+        }
+    }
+
+    /**
+     * Background loop writing and fsyncing the queued lines in batches.
+     */
+    private void syncLoop() {
+        while (true) {
+            synchronized (this) {
+                try {
+                    if (!stopping) {
+                        wait(SYNC_INTERVAL_MS);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (stopping) {
+                    // The final batch is written by close()
+                    return;
+                }
+            }
+            sync();
+        }
+    }
+
+    /**
+     * Writes and fsyncs the queued lines, then wakes up the writers waiting for them.
+     */
+    private void sync() {
+        String batch;
+        long sequence;
+        synchronized (this) {
+            if (pending.length() == 0) {
+                return;
+            }
+            batch = pending.toString();
+            sequence = appendedSequence;
+            pending.setLength(0);
+        }
+
+        IOException failure = null;
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(batch.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            logger.error("Error writing run journal {}: {}", path, e.getMessage());
+            failure = e;
+        }
+
+        synchronized (this) {
+            if (failure != null) {
+                syncFailure = failure;
+            } else {
+                syncedSequence = Math.max(syncedSequence, sequence);
+            }
+            notifyAll();
+        }
+    }
+
+    /**
+     * Writes the last batch and closes the journal file.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            stopping = true;
+            notifyAll();
+        }
+        try {
+            syncThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sync();
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("Error closing run journal {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Reads a journal and keeps the last entry of each app.
+     * A truncated last line, e.g. from a crash in the middle of a write, is ignored.
+     *
+     * @param path Path of the journal file
+     * @return Last entry of each app, keyed by app name
+     * @throws IOException If the journal cannot be read
+     */
+    private static Map<String, Entry> load(Path path) throws IOException {
+        Map<String, Entry> entries = new HashMap<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String[] fields = line.split("\t", -1);
+                try {
+                    if (TRIGGERED.equals(fields[0]) && fields.length == 5) {
+                        String appName = unescape(fields[1]);
+                        entries.put(appName, new Entry(appName, unescape(fields[2]), Long.parseLong(fields[3]),
+                                LocalDateTime.parse(fields[4]), null, null));
+                    } else if (FINISHED.equals(fields[0]) && fields.length == 6) {
+                        String appName = unescape(fields[1]);
+                        Entry triggered = entries.get(appName);
+                        entries.put(appName, new Entry(appName, triggered != null ? triggered.projectId : null,
+                                Long.parseLong(fields[2]), parseDateTime(fields[4]), parseDateTime(fields[5]),
+                                PipelineStatus.valueOf(fields[3])));
+                    } else {
+                        logger.warn("Ignoring malformed journal line {}", lineNumber);
+                    }
+                } catch (RuntimeException e) {
+                    logger.warn("Ignoring malformed journal line {}: {}", lineNumber, e.getMessage());
+                }
+            }
+        }
+
+        return entries;
+    }
+
+    /**
+     * Parses a date time written by {@link LocalDateTime#toString()}.
+     *
+     * @param value Serialized value, or "null"
+     * @return Parsed date time, or null
+     */
+    private static LocalDateTime parseDateTime(String value) {
+        return "null".equals(value) ? null : LocalDateTime.parse(value);
+    }
+
+    /**
+     * Escapes tabs, line breaks and backslashes so a value fits in one journal field.
+     *
+     * @param value Raw value
+     * @return Escaped value
+     */
+    static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    /**
+     * Reverses {@link #escape(String)}.
+     *
+     * @param value Escaped value
+     * @return Raw value
+     */
+    static String unescape(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                sb.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * What the journal recorded for one app.
+     */
+    public static final class Entry {
+        private final String appName;
+        private final String projectId;
+        private final long pipelineId;
+        private final LocalDateTime startTime;
+        private final LocalDateTime endTime;
+        private final PipelineStatus finalStatus;
+
+        Entry(String appName, String projectId, long pipelineId, LocalDateTime startTime,
+              LocalDateTime endTime, PipelineStatus finalStatus) {
+            this.appName = appName;
+            this.projectId = projectId;
+            this.pipelineId = pipelineId;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.finalStatus = finalStatus;
+        }
+
+        /**
+         * @return True if the pipeline reached a terminal status in the previous run
+         */
+        public boolean isFinished() {
+            return finalStatus != null;
+        }
+
+        public String getAppName() {
+            return appName;
+        }
+
+        public String getProjectId() {
+            return projectId;
+        }
+
+        public long getPipelineId() {
+            return pipelineId;
+        }
+
+        public LocalDateTime getStartTime() {
+            return startTime;
+        }
+
+        public LocalDateTime getEndTime() {
+            return endTime;
+        }
+
+        public PipelineStatus getFinalStatus() {
+            return finalStatus;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.gitlab.orchestrator;
+
+/**
+ * Token bucket limiting the rate of requests sent with one access token to one GitLab instance.
+ * The bucket refills continuously at a fixed rate up to its burst capacity, and can be
+ * paused until a given time when the server tells us to back off. When GitLab reports that
+ * the requests left in its rate limit window would run out at that rate, the bucket slows
+ * down to spread them over the rest of the window instead of running into 429 responses.
+ * <p>
+ * Requests queue up as numbered tickets. A ticket may be sent once the bucket has released
+ * it; the time this takes is only an estimate, computed again whenever the caller asks, so
+ * requests already waiting also follow a pause or a lower rate that comes up meanwhile.
+ */
+public class TokenBucket {
+    private final double permitsPerSecond;
+    private final double capacity;
+    private long nextTicket;
+    private double released;
+    private long lastRefillNanos;
+    private long pausedUntilMillis;
+    private double throttledRate;
+    private long throttledUntilMillis;
+
+    /**
+     * Constructor for TokenBucket. The bucket starts full.
+     *
+     * @param permitsPerSecond Sustained request rate
+     * @param burst            Maximum number of requests that may be sent back to back
+     */
+    public TokenBucket(double permitsPerSecond, int burst) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.capacity = Math.max(1, burst);
+        this.released = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Queues a request without blocking.
+     *
+     * @return Ticket of the request, to pass to {@link #delayMs(long)}
+     */
+    public synchronized long reserve() {
+        refill();
+        return nextTicket++;
+    }
+
+    /**
+     * Tells how long a queued request still has to wait. Callers wait for the returned delay
+     * and ask again, until the delay is 0.
+     *
+     * @param ticket Ticket returned by {@link #reserve()}
+     * @return Milliseconds to wait before asking again, 0 to send the request right away
+     */
+    public synchronized long delayMs(long ticket) {
+        refill();
+        long pausedMillis = Math.max(0, pausedUntilMillis - System.currentTimeMillis());
+        if (ticket + 1 <= released) {
+            return pausedMillis;
+        }
+        long waitMillis = Math.max(1, (long) Math.ceil((ticket + 1 - released) * 1000 / currentRate()));
+        long throttledMillis = throttledUntilMillis - System.currentTimeMillis();
+        if (throttledMillis > 0) {
+            // Ask again when the rate limit window resets and the bucket speeds up
+            waitMillis = Math.min(waitMillis, throttledMillis);
+        }
+        return pausedMillis + waitMillis;
+    }
+
+    /**
+     * Stops handing out permits until the given time, e.g. after a 429 response.
+     *
+     * @param epochMillis Time until which no request may be sent
+     */
+    public synchronized void pauseUntil(long epochMillis) {
+        if (epochMillis > pausedUntilMillis) {
+            refill();
+            pausedUntilMillis = epochMillis;
+            // Requests still waiting queue behind the pause instead of going out in a burst after it
+            released = Math.min(released, nextTicket);
+        }
+    }
+
+    /**
+     * Adapts the rate to the rate limit window reported by GitLab, e.g. with every response.
+     * The bucket keeps its own rate as long as the requests left last until the window resets,
+     * otherwise it releases them evenly until then.
+     *
+     * @param remaining     Requests left in the current window
+     * @param resetAtMillis Time the window resets, in epoch milliseconds
+     */
+    public synchronized void throttle(long remaining, long resetAtMillis) {
+        long windowMillis = resetAtMillis - System.currentTimeMillis();
+        if (windowMillis <= 0) {
+            return;
+        }
+        if (remaining <= 0) {
+            pauseUntil(resetAtMillis);
+            return;
+        }
+
+        refill();
+        double rate = remaining * 1000.0 / windowMillis;
+        if (rate >= permitsPerSecond) {
+            throttledUntilMillis = 0;
+            return;
+        }
+        throttledRate = rate;
+        throttledUntilMillis = resetAtMillis;
+        // Never release more requests back to back than GitLab has left
+        released = Math.min(released, nextTicket + Math.min(capacity, remaining));
+    }
+
+    /**
+     * @return Permits released per second, lowered while GitLab's rate limit window is running low
+     */
+    private double currentRate() {
+        return System.currentTimeMillis() < throttledUntilMillis ? throttledRate : permitsPerSecond;
+    }
+
+    /**
+     * Releases the permits accumulated since the last refill, keeping at most a burst ahead of the queue.
+     */
+    private void refill() {
+        long now = System.nanoTime();
+        if (System.currentTimeMillis() >= pausedUntilMillis) {
+            released = Math.min(nextTicket + capacity, released + (now - lastRefillNanos) * currentRate() / 1_000_000_000.0);
+        }
+        lastRefillNanos = now;
+    }
+}
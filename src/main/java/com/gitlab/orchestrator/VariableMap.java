@@ -0,0 +1,170 @@
+package com.gitlab.orchestrator;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Compact, immutable map of pipeline variables that keeps the order in which they were declared.
+ * Keys and values are stored next to each other in a single array. Small maps are searched
+ * linearly; larger ones get an open-addressing index of entry positions.
+ */
+final class VariableMap extends AbstractMap<String, String> {
+    static final VariableMap EMPTY = new VariableMap(new String[0], 0, null);
+
+    private static final int LINEAR_SEARCH_LIMIT = 8;
+
+    private final String[] entries;
+    private final int size;
+    private final int[] index;
+    private Set<Entry<String, String>> entrySet;
+
+    /**
+     * Constructor for VariableMap.
+     *
+     * @param entries Keys and values, alternating; owned by the map from now on
+     * @param size    Number of distinct keys in the array
+     * @param index   Hash index of the keys, or null to search linearly
+     */
+    private VariableMap(String[] entries, int size, int[] index) {
+        this.entries = entries;
+        this.size = size;
+        this.index = index;
+    }
+
+    /**
+     * Builds a map from alternating keys and values. A key that appears more than once keeps
+     * its first position and its last value.
+     *
+     * @param keysAndValues Keys and values, alternating; the array is reused by the map
+     * @param count         Number of key-value pairs in the array
+     * @return Immutable, insertion-ordered map
+     */
+    static VariableMap of(String[] keysAndValues, int count) {
+        if (count == 0) {
+            return EMPTY;
+        }
+
+        int size = 0;
+        int[] seen = count > LINEAR_SEARCH_LIMIT ? new int[tableSize(count)] : null;
+        for (int i = 0; i < count; i++) {
+            String key = keysAndValues[2 * i];
+            String value = keysAndValues[2 * i + 1];
+            int existing = seen != null ? findInTable(seen, keysAndValues, key) : findLinear(keysAndValues, size, key);
+            if (existing >= 0) {
+                keysAndValues[2 * existing + 1] = value;
+                continue;
+            }
+            if (seen != null) {
+                seen[slot(seen, keysAndValues, key)] = size + 1;
+            }
+            keysAndValues[2 * size] = key;
+            keysAndValues[2 * size + 1] = value;
+            size++;
+        }
+
+        String[] entries = keysAndValues.length == 2 * size ? keysAndValues : Arrays.copyOf(keysAndValues, 2 * size);
+        return new VariableMap(entries, size, size > LINEAR_SEARCH_LIMIT ? seen : null);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public String get(Object key) {
+        int i = indexOf(key);
+        return i >= 0 ? entries[2 * i + 1] : null;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Entry<String, String>>() {
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    return new Iterator<Entry<String, String>>() {
+                        private int next;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < size;
+                        }
+
+                        @Override
+                        public Entry<String, String> next() {
+                            if (next >= size) {
+                                throw new NoSuchElementException();
+                            }
+                            int i = next++;
+                            return new SimpleImmutableEntry<>(entries[2 * i], entries[2 * i + 1]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    /**
+     * Finds the position of a key.
+     *
+     * @param key Key to look for
+     * @return Position of the entry, or -1 if the key is not present
+     */
+    private int indexOf(Object key) {
+        if (!(key instanceof String)) {
+            return -1;
+        }
+        return index != null ? findInTable(index, entries, (String) key) : findLinear(entries, size, (String) key);
+    }
+
+    private static int findLinear(String[] entries, int size, String key) {
+        for (int i = 0; i < size; i++) {
+            if (entries[2 * i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int findInTable(int[] table, String[] entries, String key) {
+        return table[slot(table, entries, key)] - 1;
+    }
+
+    /**
+     * Linear probing over a power-of-two table holding entry positions plus one (0 means empty).
+     */
+    private static int slot(int[] table, String[] entries, String key) {
+        int mask = table.length - 1;
+        int h = key.hashCode();
+        int i = (h ^ (h >>> 16)) & mask;
+        while (table[i] != 0 && !entries[2 * (table[i] - 1)].equals(key)) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private static int tableSize(int count) {
+        return Integer.highestOneBit(count * 2 - 1) << 1;
+    }
+}
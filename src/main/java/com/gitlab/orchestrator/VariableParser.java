@@ -0,0 +1,156 @@
+package com.gitlab.orchestrator;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Class responsible for parsing the variables column of the manifest.
+ * Pairs are written as "key1=value1:key2=value2"; the legacy comma-separated format is still
+ * accepted when the column contains no colon. A backslash escapes the next character, so
+ * keys and values can contain ":", ",", "=" or "\". Surrounding whitespace is trimmed and
+ * pairs without "=" are ignored.
+ * The column is tokenized in a single pass over its characters; substrings are only
+ * allocated for the keys and values themselves.
+ */
+public final class VariableParser {
+
+    private VariableParser() {
+    }
+
+    /**
+     * Parses a variables string into an immutable map that keeps the declaration order.
+     * When a key is declared twice, the last value wins.
+     *
+     * @param variablesStr String in format "key1=value1:key2=value2:key3=value3"
+     * @return Immutable, insertion-ordered map of key-value pairs
+     */
+    public static Map<String, String> parse(String variablesStr) {
+        if (variablesStr == null || variablesStr.isEmpty()) {
+            return VariableMap.EMPTY;
+        }
+
+        Tokenizer tokenizer = new Tokenizer(variablesStr);
+        if (!tokenizer.tokenize(':') && tokenizer.sawComma) {
+            // No colon at all: fall back to the legacy comma-separated format
+            tokenizer.reset();
+            tokenizer.tokenize(',');
+        }
+        return VariableMap.of(tokenizer.pairs, tokenizer.count);
+    }
+
+    /**
+     * Tokenizer state for one variables string.
+     */
+    private static final class Tokenizer {
+        private final String input;
+        private String[] pairs;
+        private int count;
+        private boolean sawComma;
+
+        Tokenizer(String input) {
+            this.input = input;
+            this.pairs = new String[8];
+        }
+
+        void reset() {
+            count = 0;
+        }
+
+        /**
+         * Splits the input on unescaped delimiters and collects its key-value pairs.
+         *
+         * @param delimiter Pair delimiter
+         * @return True if at least one unescaped delimiter was found
+         */
+        boolean tokenize(char delimiter) {
+            boolean sawDelimiter = false;
+            int length = input.length();
+            int pairStart = 0;
+            int equalsAt = -1;
+            boolean escaped = false;
+
+            for (int i = 0; i < length; i++) {
+                char c = input.charAt(i);
+                if (c == '\\') {
+                    escaped = true;
+                    i++; // The next character is taken literally
+                } else if (c == delimiter) {
+                    sawDelimiter = true;
+                    addPair(pairStart, equalsAt, i, escaped);
+                    pairStart = i + 1;
+                    equalsAt = -1;
+                    escaped = false;
+                } else if (c == '=' && equalsAt < 0) {
+                    equalsAt = i;
+                } else if (c == ',') {
+                    sawComma = true;
+                }
+            }
+            addPair(pairStart, equalsAt, length, escaped);
+            return sawDelimiter;
+        }
+
+        /**
+         * Adds the pair found between two delimiters.
+         *
+         * @param start    Index of the first character of the pair
+         * @param equalsAt Index of the unescaped "=", or -1 if there is none
+         * @param end      Index after the last character of the pair
+         * @param escaped  True if the pair contains escape sequences
+         */
+        private void addPair(int start, int equalsAt, int end, boolean escaped) {
+            if (equalsAt < 0) {
+                return;
+            }
+            if (2 * count + 2 > pairs.length) {
+                pairs = Arrays.copyOf(pairs, pairs.length * 2);
+            }
+            pairs[2 * count] = token(start, equalsAt, escaped);
+            pairs[2 * count + 1] = token(equalsAt + 1, end, escaped);
+            count++;
+        }
+
+        /**
+         * Extracts a trimmed key or value, resolving escape sequences if there are any.
+         *
+         * @param start   Index of the first character
+         * @param end     Index after the last character
+         * @param escaped True if the range may contain escape sequences
+         * @return The key or value
+         */
+        private String token(int start, int end, boolean escaped) {
+            while (start < end && Character.isWhitespace(input.charAt(start))) {
+                start++;
+            }
+            while (end > start && Character.isWhitespace(input.charAt(end - 1)) && !isEscapedAt(start, end - 1)) {
+                end--;
+            }
+            int backslash = escaped ? input.indexOf('\\', start) : -1;
+            if (backslash < 0 || backslash >= end) {
+                return input.substring(start, end);
+            }
+
+            StringBuilder sb = new StringBuilder(end - start);
+            for (int i = start; i < end; i++) {
+                char c = input.charAt(i);
+                if (c == '\\' && i + 1 < end) {
+                    sb.append(input.charAt(++i));
+                } else if (c != '\\') {
+                    sb.append(c);
+                }
+            }
+            return sb.toString();
+        }
+
+        /**
+         * Checks whether the character at an index is preceded by an odd number of backslashes.
+         */
+        private boolean isEscapedAt(int start, int index) {
+            int backslashes = 0;
+            for (int i = index - 1; i >= start && input.charAt(i) == '\\'; i--) {
+                backslashes++;
+            }
+            return backslashes % 2 == 1;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.gitlab.orchestrator;
+
+import org.gitlab4j.api.models.Variable;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable, canonical set of pipeline variables handed out by {@link VariableSetStore}.
+ * A set is either a base layer holding all of its variables, or a thin layer on top of a
+ * base that only holds the overridden and added variables. Rows sharing the same content
+ * share the same instance, from the {@link PipelineConfig} down to the {@link PipelineResult}.
+ */
+public final class VariableSet extends AbstractMap<String, String> {
+    static final VariableSet EMPTY = new VariableSet(null, VariableMap.EMPTY, VariableMap.EMPTY);
+
+    private final VariableSet base;
+    private final Map<String, String> overrides;
+    private final Map<String, String> additions;
+    private final int size;
+    private volatile List<Variable> gitLabVariables;
+    private Set<Entry<String, String>> entrySet;
+
+    /**
+     * Constructor for VariableSet.
+     *
+     * @param base      Base layer, or null if this set is a base layer itself
+     * @param overrides Variables of the base whose value differs in this set
+     * @param additions Variables that are not in the base; all variables of a base layer
+     */
+    VariableSet(VariableSet base, Map<String, String> overrides, Map<String, String> additions) {
+        this.base = base;
+        this.overrides = overrides;
+        this.additions = additions;
+        this.size = (base != null ? base.size : 0) + additions.size();
+    }
+
+    /**
+     * @return True if this set is stored as a delta on top of another set
+     */
+    public boolean isLayered() {
+        return base != null;
+    }
+
+    /**
+     * @return Number of variables stored by this set itself, excluding what it shares with its base
+     */
+    public int getOwnVariableCount() {
+        return overrides.size() + additions.size();
+    }
+
+    /**
+     * Returns the variables in the form expected by the GitLab API.
+     * The list is built on first use and then shared by every pipeline using this set.
+     *
+     * @return Unmodifiable list of GitLab Variables
+     */
+    public List<Variable> getGitLabVariables() {
+        List<Variable> variables = gitLabVariables;
+        if (variables == null) {
+            List<Variable> built = new ArrayList<>(size);
+            for (Entry<String, String> entry : entrySet()) {
+                built.add(new Variable(entry.getKey(), entry.getValue()));
+            }
+            variables = Collections.unmodifiableList(built);
+            gitLabVariables = variables;
+        }
+        return variables;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return additions.containsKey(key) || (base != null && base.containsKey(key));
+    }
+
+    @Override
+    public String get(Object key) {
+        String value = overrides.get(key);
+        if (value == null) {
+            value = additions.get(key);
+        }
+        if (value == null && base != null) {
+            value = base.get(key);
+        }
+        return value;
+    }
+
+    /**
+     * Iterates the variables of the base in its order, with overridden values substituted,
+     * followed by the added variables.
+     */
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Entry<String, String>>() {
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    return base == null ? additions.entrySet().iterator() : new LayeredIterator();
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    /**
+     * Iterator over a layered set.
+     */
+    private final class LayeredIterator implements Iterator<Entry<String, String>> {
+        private final Iterator<Entry<String, String>> baseEntries = base.entrySet().iterator();
+        private final Iterator<Entry<String, String>> addedEntries = additions.entrySet().iterator();
+
+        @Override
+        public boolean hasNext() {
+            return baseEntries.hasNext() || addedEntries.hasNext();
+        }
+
+        @Override
+        public Entry<String, String> next() {
+            if (baseEntries.hasNext()) {
+                Entry<String, String> entry = baseEntries.next();
+                String override = overrides.get(entry.getKey());
+                return override != null ? new SimpleImmutableEntry<>(entry.getKey(), override) : entry;
+            }
+            if (addedEntries.hasNext()) {
+                return addedEntries.next();
+            }
+            throw new NoSuchElementException();
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.gitlab.orchestrator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Class responsible for canonicalizing the variable sets of a manifest.
+ * Identical variables columns are parsed once, and sets with identical content are the same
+ * instance. Keys are interned. A set that only overrides or adds a few variables to a recently
+ * seen set is stored as a delta layered on it, so memory grows with the distinct content of
+ * the manifest rather than with rows times variables.
+ */
+public class VariableSetStore {
+    private static final Logger logger = LoggerFactory.getLogger(VariableSetStore.class);
+    private static final VariableSetStore DEFAULT = new VariableSetStore();
+
+    /** Sets smaller than this are always stored whole; a delta would not save anything. */
+    private static final int MIN_LAYERED_SIZE = 8;
+    /** A set is layered when its delta is at most a quarter of its size. */
+    private static final int MAX_DELTA_RATIO = 4;
+    /** Number of recent base layers considered for new sets. */
+    private static final int MAX_BASE_CANDIDATES = 8;
+    /** Canonical strings and sets kept for lookups; cached sets stay alive through their users. */
+    private static final int MAX_CACHED_SETS = 10_000;
+
+    private final ConcurrentMap<String, Parsed> byString = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Map<String, String>, VariableSet> byContent = new ConcurrentHashMap<>();
+    private final Deque<VariableSet> baseCandidates = new ArrayDeque<>();
+
+    /**
+     * @return Store shared by all pipeline configurations of the process
+     */
+    public static VariableSetStore getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns the canonical instance of a variables string, so rows with the same column share it.
+     *
+     * @param variablesString String of variables in format "key1=value1:key2=value2"
+     * @return Equal string shared by all rows with this column, or null for null
+     */
+    public String canonicalString(String variablesString) {
+        return variablesString == null ? null : lookup(variablesString).source;
+    }
+
+    /**
+     * Parses a variables string into its canonical variable set.
+     *
+     * @param variablesString String of variables in format "key1=value1:key2=value2", see {@link VariableParser}
+     * @return Canonical variable set
+     */
+    public VariableSet intern(String variablesString) {
+        if (variablesString == null || variablesString.isEmpty()) {
+            return VariableSet.EMPTY;
+        }
+        return lookup(variablesString).set;
+    }
+
+    /**
+     * Returns the canonical variable set with the given content.
+     *
+     * @param variables Map of variable key-value pairs
+     * @return Canonical variable set
+     */
+    public VariableSet intern(Map<String, String> variables) {
+        if (variables instanceof VariableSet) {
+            return (VariableSet) variables;
+        }
+        if (variables == null || variables.isEmpty()) {
+            return VariableSet.EMPTY;
+        }
+        VariableSet existing = byContent.get(variables);
+        if (existing != null) {
+            return existing;
+        }
+
+        VariableSet created = create(variables);
+        existing = byContent.putIfAbsent(created, created);
+        return existing != null ? existing : created;
+    }
+
+    /**
+     * Finds or parses the canonical entry of a variables string.
+     */
+    private Parsed lookup(String variablesString) {
+        Parsed parsed = byString.get(variablesString);
+        if (parsed == null) {
+            if (byString.size() >= MAX_CACHED_SETS) {
+                evict();
+            }
+            parsed = byString.computeIfAbsent(variablesString,
+                    source -> new Parsed(source, intern(VariableParser.parse(source))));
+        }
+        return parsed;
+    }
+
+    /**
+     * Builds a new set, as a delta on the closest recent base layer when that is cheaper.
+     */
+    private VariableSet create(Map<String, String> variables) {
+        if (variables.size() >= MIN_LAYERED_SIZE) {
+            VariableSet base = closestBase(variables);
+            if (base != null) {
+                return layer(base, variables);
+            }
+        }
+
+        String[] entries = new String[variables.size() * 2];
+        int count = 0;
+        for (Map.Entry<String, String> entry : variables.entrySet()) {
+            entries[2 * count] = entry.getKey().intern();
+            entries[2 * count + 1] = entry.getValue();
+            count++;
+        }
+        VariableSet base = new VariableSet(null, VariableMap.EMPTY, VariableMap.of(entries, count));
+        if (variables.size() >= MIN_LAYERED_SIZE) {
+            synchronized (baseCandidates) {
+                baseCandidates.addFirst(base);
+                if (baseCandidates.size() > MAX_BASE_CANDIDATES) {
+                    baseCandidates.removeLast();
+                }
+            }
+        }
+        return base;
+    }
+
+    /**
+     * Finds the recent base layer needing the smallest delta. Only bases whose variables are
+     * all present in the new set qualify, since a delta cannot remove variables.
+     *
+     * @param variables Content of the new set
+     * @return Base to layer on, or null if every delta would be too large
+     */
+    private VariableSet closestBase(Map<String, String> variables) {
+        VariableSet[] candidates;
+        synchronized (baseCandidates) {
+            candidates = baseCandidates.toArray(new VariableSet[0]);
+        }
+
+        VariableSet best = null;
+        int bestDelta = variables.size() / MAX_DELTA_RATIO + 1;
+        for (VariableSet candidate : candidates) {
+            if (candidate.size() > variables.size() || variables.size() - candidate.size() >= bestDelta) {
+                continue;
+            }
+            int delta = variables.size() - candidate.size();
+            boolean containsBase = true;
+            for (Map.Entry<String, String> entry : candidate.entrySet()) {
+                String value = variables.get(entry.getKey());
+                if (value == null) {
+                    containsBase = false;
+                    break;
+                }
+                if (!value.equals(entry.getValue()) && ++delta >= bestDelta) {
+                    break;
+                }
+            }
+            if (containsBase && delta < bestDelta) {
+                best = candidate;
+                bestDelta = delta;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Builds a set holding only its differences to a base layer.
+     */
+    private VariableSet layer(VariableSet base, Map<String, String> variables) {
+        String[] overrides = new String[8];
+        String[] additions = new String[8];
+        int overrideCount = 0;
+        int additionCount = 0;
+
+        for (Map.Entry<String, String> entry : variables.entrySet()) {
+            String baseValue = base.get(entry.getKey());
+            if (baseValue == null) {
+                additions = append(additions, additionCount++, entry.getKey().intern(), entry.getValue());
+            } else if (!baseValue.equals(entry.getValue())) {
+                overrides = append(overrides, overrideCount++, entry.getKey().intern(), entry.getValue());
+            }
+        }
+
+        return new VariableSet(base, VariableMap.of(overrides, overrideCount), VariableMap.of(additions, additionCount));
+    }
+
+    private static String[] append(String[] entries, int index, String key, String value) {
+        if (2 * index + 2 > entries.length) {
+            entries = Arrays.copyOf(entries, entries.length * 2);
+        }
+        entries[2 * index] = key;
+        entries[2 * index + 1] = value;
+        return entries;
+    }
+
+    /**
+     * Drops the lookup caches once they grow too large, e.g. in a long-running process.
+     * Sets already handed out stay valid; later rows just start a new canonical generation.
+     */
+    private void evict() {
+        logger.debug("Variable set cache reached {} entries, clearing it", MAX_CACHED_SETS);
+        byString.clear();
+        byContent.clear();
+        synchronized (baseCandidates) {
+            baseCandidates.clear();
+        }
+    }
+
+    /**
+     * Canonical string of a variables column and its parsed set.
+     */
+    private static final class Parsed {
+        private final String source;
+        private final VariableSet set;
+
+        Parsed(String source, VariableSet set) {
+            this.source = source;
+            this.set = set;
+        }
+    }
+}
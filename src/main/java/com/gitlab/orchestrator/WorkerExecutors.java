@@ -0,0 +1,76 @@
+package com.gitlab.orchestrator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Factory for the executor services that run pipeline workers.
+ * Virtual threads are looked up reflectively so that the same jar runs on Java 17,
+ * where the orchestrator falls back to platform threads.
+ */
+public final class WorkerExecutors {
+    private static final Logger logger = LoggerFactory.getLogger(WorkerExecutors.class);
+    private static final String THREAD_NAME_PREFIX = "pipeline-worker-";
+
+    private WorkerExecutors() {
+    }
+
+    /**
+     * Creates the executor service for pipeline workers.
+     *
+     * @param virtualThreads True to run every task on its own virtual thread
+     * @param poolSize       Number of platform threads to use when virtual threads are not used
+     * @return Executor service for pipeline workers
+     */
+    public static ExecutorService newWorkerExecutor(boolean virtualThreads, int poolSize) {
+        if (virtualThreads) {
+            ExecutorService executor = newVirtualThreadPerTaskExecutor();
+            if (executor != null) {
+                logger.info("Running pipeline workers on virtual threads");
+                return executor;
+            }
+            logger.warn("Virtual threads require Java 21 or later (running on {}), falling back to platform threads",
+                    Runtime.version());
+        }
+        return Executors.newFixedThreadPool(poolSize, new PlatformThreadFactory());
+    }
+
+    /**
+     * Creates an executor that starts a named virtual thread per task.
+     *
+     * @return Executor service, or null if the running JVM has no virtual threads
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, THREAD_NAME_PREFIX, 1L);
+            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            Method newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newThreadPerTaskExecutor.invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            logger.debug("Virtual threads are not available: {}", e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Thread factory giving platform worker threads recognizable names in the logs.
+     */
+    private static class PlatformThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.gitlab.orchestrator;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptivePollingPolicyTest {
+    private final AdaptivePollingPolicy policy = new AdaptivePollingPolicy(1000, 60000);
+
+    @Test
+    void pollsAtTheMinimumIntervalRightAfterTheTrigger() {
+        for (int pollCount = 0; pollCount < 3; pollCount++) {
+            assertEquals(1000, policy.nextDelayMs(0, pollCount, null));
+        }
+    }
+
+    @Test
+    void backsOffExponentiallyUpToTheMaximumInterval() {
+        assertJittered(2000, policy.nextDelayMs(10000, 4, null));
+        assertJittered(8000, policy.nextDelayMs(10000, 6, null));
+        assertJittered(60000, policy.nextDelayMs(10000, 50, null));
+    }
+
+    @Test
+    void neverSleepsPastTheExpectedFinish() {
+        Duration expected = Duration.ofMinutes(2);
+
+        // Half of the time left, rather than the maximum interval
+        assertJittered(50000, policy.nextDelayMs(Duration.ofSeconds(20).toMillis(), 50, expected));
+        assertJittered(15000, policy.nextDelayMs(Duration.ofSeconds(90).toMillis(), 50, expected));
+    }
+
+    @Test
+    void pollsQuicklyAroundTheExpectedFinish() {
+        Duration expected = Duration.ofMinutes(10);
+
+        assertNearMinimum(policy.nextDelayMs(Duration.ofSeconds(570).toMillis(), 50, expected));
+        assertNearMinimum(policy.nextDelayMs(Duration.ofSeconds(630).toMillis(), 50, expected));
+        // Long overdue: back to the plain backoff
+        assertJittered(60000, policy.nextDelayMs(Duration.ofMinutes(12).toMillis(), 50, expected));
+    }
+
+    @Test
+    void waitsLongerAfterEachFailedPoll() {
+        assertJittered(2000, policy.failureDelayMs(1));
+        assertJittered(8000, policy.failureDelayMs(3));
+        assertJittered(60000, policy.failureDelayMs(100));
+    }
+
+    @Test
+    void neverWaitsLessThanTheMinimumInterval() {
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(policy.nextDelayMs(0, 3, null) >= 1000);
+            assertTrue(policy.failureDelayMs(1) >= 1000);
+        }
+    }
+
+    private static void assertJittered(long expectedMs, long actualMs) {
+        assertTrue(actualMs >= expectedMs * 0.8 && actualMs <= expectedMs * 1.2,
+                actualMs + " ms is not within 20% of " + expectedMs + " ms");
+    }
+
+    private static void assertNearMinimum(long actualMs) {
+        assertTrue(actualMs >= 1000 && actualMs <= 1200, actualMs + " ms is not the minimum interval");
+    }
+}
@@ -0,0 +1,161 @@
+package com.gitlab.orchestrator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvParserTest {
+    private static final String HEADER = "App Name,Project Id,Access Token,Branch Name,Variable and Values\n";
+
+    private final CsvParser parser = new CsvParser();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void parsesEveryValidRowOfAFile() throws IOException {
+        Path file = dir.resolve("pipelines.csv");
+        Files.writeString(file, HEADER
+                + "web,1,token,main,A=1:B=2\n"
+                + "api,2,token,,\n");
+
+        List<PipelineConfig> configs = parser.parse(file.toString());
+
+        assertEquals(List.of("web", "api"), appNames(configs));
+        assertEquals("main", configs.get(1).getBranchName());
+        assertEquals("2", configs.get(0).getVariables().get("B"));
+    }
+
+    @Test
+    void handsOutRowsBeforeTheRestOfTheFileIsRead() throws IOException {
+        FailingReader source = new FailingReader(HEADER + "web,1,token,main,\napi,2,tok");
+
+        try (Stream<PipelineConfig> configs = parser.stream(source)) {
+            assertEquals("web", configs.findFirst().orElseThrow().getAppName());
+        }
+        assertTrue(source.closed);
+    }
+
+    @Test
+    void reportsReadErrorsAfterTheHeaderWhenTheyAreReached() throws IOException {
+        // Cut off within a row: opencsv takes a failure between rows for the end of the file
+        FailingReader source = new FailingReader(HEADER + "web,1,token,main,\napi,2,tok");
+
+        try (Stream<PipelineConfig> configs = parser.stream(source)) {
+            assertThrows(UncheckedIOException.class, () -> configs.forEach(config -> { }));
+        }
+    }
+
+    @Test
+    void skipsInvalidRows() throws IOException {
+        String csv = HEADER
+                + "short,1,token\n"
+                + "name,not-a-number,token,main,\n"
+                + ",3,token,main,\n"
+                + "token,4,,main,\n"
+                + "web,5,token,main,\n";
+
+        assertEquals(List.of("web"), appNames(csv));
+    }
+
+    @Test
+    void rejectsAMissingOrShortHeader() {
+        assertThrows(IOException.class, () -> parser.stream(new StringReader("")));
+        assertThrows(IOException.class, () -> parser.stream(new StringReader("App Name,Project Id\n")));
+    }
+
+    @Test
+    void readsTheGitLabUrlColumnWhereverItIs() throws IOException {
+        List<PipelineConfig> configs = configs(HEADER.trim() + ",Depends On,gitlab url\n"
+                + "web,1,token,main,,,https://gitlab.example.com/ \n"
+                + "api,2,token,main,,web,\n"
+                + "worker,3,token,main,,,gitlab.example.com\n");
+
+        assertEquals(List.of("web", "api"), appNames(configs));
+        assertEquals("https://gitlab.example.com", configs.get(0).getGitLabUrl());
+        assertEquals("", configs.get(1).getGitLabUrl());
+        assertEquals(List.of("web"), configs.get(1).getDependsOn());
+    }
+
+    @Test
+    void readsTheGroupAndCancellationPolicyOfARow() throws IOException {
+        List<PipelineConfig> configs = configs(HEADER.trim() + ",On Failure,Group\n"
+                + "web,1,token,main,,Let-Running-Finish, frontend \n"
+                + "api,2,token,main,,,\n"
+                + "worker,3,token,main,,retry,backend\n");
+
+        assertEquals(List.of("web", "api"), appNames(configs));
+        assertEquals("frontend", configs.get(0).getGroup());
+        assertEquals(CancellationPolicy.LET_RUNNING_FINISH, configs.get(0).getOnFailure());
+        assertEquals("", configs.get(1).getGroup());
+        assertNull(configs.get(1).getOnFailure());
+    }
+
+    @Test
+    void readsThePriorityAndRunnerTagsOfARow() throws IOException {
+        List<PipelineConfig> configs = configs(HEADER.trim() + ",RUNNER TAGS,Priority\n"
+                + "web,1,token,main,,docker; gpu ;,3\n"
+                + "api,2,token,main,,,\n"
+                + "worker,3,token,main,,,0\n"
+                + "batch,4,token,main,,,high\n");
+
+        assertEquals(List.of("web", "api"), appNames(configs));
+        assertEquals(3, configs.get(0).getPriority());
+        assertEquals(List.of("docker", "gpu"), configs.get(0).getRunnerTags());
+        assertEquals(1, configs.get(1).getPriority());
+        assertEquals(List.of(), configs.get(1).getRunnerTags());
+    }
+
+    private List<PipelineConfig> configs(String csv) throws IOException {
+        try (Stream<PipelineConfig> configs = parser.stream(new StringReader(csv))) {
+            return configs.toList();
+        }
+    }
+
+    private List<String> appNames(String csv) throws IOException {
+        return appNames(configs(csv));
+    }
+
+    private static List<String> appNames(List<PipelineConfig> configs) {
+        return configs.stream().map(PipelineConfig::getAppName).toList();
+    }
+
+    /**
+     * Reader failing once its content has been read, as if the rest of the file could not be read.
+     */
+    private static final class FailingReader extends Reader {
+        private final Reader content;
+        private boolean closed;
+
+        FailingReader(String content) {
+            this.content = new StringReader(content);
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            int read = content.read(buffer, offset, length);
+            if (read < 0) {
+                throw new IOException("Disk error");
+            }
+            return read;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
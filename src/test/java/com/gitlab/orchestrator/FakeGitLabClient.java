@@ -0,0 +1,112 @@
+package com.gitlab.orchestrator;
+
+import org.gitlab4j.api.models.Job;
+import org.gitlab4j.api.models.Pipeline;
+import org.gitlab4j.api.models.PipelineStatus;
+import org.gitlab4j.api.models.Variable;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory GitLab client answering status requests from the pipelines it was given.
+ */
+class FakeGitLabClient implements GitLabClient {
+    private final Map<Long, Pipeline> pipelines = new ConcurrentHashMap<>();
+    private final AtomicInteger getPipelineCalls = new AtomicInteger();
+    private final List<Date> listUpdatedAfter = new CopyOnWriteArrayList<>();
+    private volatile Exception listFailure;
+
+    /**
+     * Sets the status GitLab reports for a pipeline, as of now.
+     */
+    void setStatus(long pipelineId, PipelineStatus status) {
+        Pipeline pipeline = new Pipeline();
+        pipeline.setId(pipelineId);
+        pipeline.setStatus(status);
+        pipeline.setUpdatedAt(new Date());
+        pipelines.put(pipelineId, pipeline);
+    }
+
+    /**
+     * Makes every listing fail with the given exception, or succeed again if it is null.
+     */
+    void failListings(Exception failure) {
+        listFailure = failure;
+    }
+
+    int getPipelineCalls() {
+        return getPipelineCalls.get();
+    }
+
+    /**
+     * @return The updated_after filter of every listing, in order
+     */
+    List<Date> getListUpdatedAfter() {
+        return listUpdatedAfter;
+    }
+
+    @Override
+    public String getBaseUrl() {
+        return "https://gitlab.example.com";
+    }
+
+    @Override
+    public String getAccessToken() {
+        return "token";
+    }
+
+    @Override
+    public RateLimitStatus getRateLimitStatus() {
+        return null;
+    }
+
+    @Override
+    public CompletableFuture<Pipeline> createPipeline(String projectId, String ref, List<Variable> variables) {
+        return CompletableFuture.failedFuture(new UnsupportedOperationException());
+    }
+
+    @Override
+    public CompletableFuture<Pipeline> getPipeline(String projectId, long pipelineId) {
+        getPipelineCalls.incrementAndGet();
+        Pipeline pipeline = pipelines.get(pipelineId);
+        return pipeline != null ? CompletableFuture.completedFuture(pipeline)
+                : CompletableFuture.failedFuture(new IllegalStateException("Unknown pipeline " + pipelineId));
+    }
+
+    @Override
+    public CompletableFuture<List<Pipeline>> listPipelines(String projectId, Date updatedAfter, long minPipelineId) {
+        listUpdatedAfter.add(updatedAfter);
+        Exception failure = listFailure;
+        if (failure != null) {
+            return CompletableFuture.failedFuture(failure);
+        }
+        List<Pipeline> listed = new ArrayList<>();
+        for (Pipeline pipeline : pipelines.values()) {
+            if (pipeline.getId() >= minPipelineId && !pipeline.getUpdatedAt().before(updatedAfter)) {
+                listed.add(pipeline);
+            }
+        }
+        return CompletableFuture.completedFuture(listed);
+    }
+
+    @Override
+    public CompletableFuture<Pipeline> cancelPipeline(String projectId, long pipelineId) {
+        return CompletableFuture.failedFuture(new UnsupportedOperationException());
+    }
+
+    @Override
+    public CompletableFuture<List<Job>> listJobs(String projectId, long pipelineId) {
+        return CompletableFuture.failedFuture(new UnsupportedOperationException());
+    }
+
+    @Override
+    public void close() {
+    }
+}
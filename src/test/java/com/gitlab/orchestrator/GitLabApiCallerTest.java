@@ -0,0 +1,104 @@
+package com.gitlab.orchestrator;
+
+import org.gitlab4j.api.GitLabApiException;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpHeaders;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GitLabApiCallerTest {
+    private final FakeGitLabClient client = new FakeGitLabClient();
+    private final GitLabApiCaller apiCaller = new GitLabApiCaller(1000, 100, 2);
+    private final List<Long> attempts = new CopyOnWriteArrayList<>();
+
+    @Test
+    void retriesTransientFailuresOfReads() throws Exception {
+        CompletableFuture<String> result = apiCaller.execute(client, "getPipeline 1/7",
+                failingFirst(new GitLabApiException("Bad gateway", 502)));
+
+        assertEquals("ok", result.get(10, TimeUnit.SECONDS));
+        assertEquals(2, attempts.size());
+        assertEquals(1, apiCaller.getHostStats().get("gitlab.example.com").getRetryCount());
+    }
+
+    @Test
+    void retriesWritesOnlyWhenGitLabDidNotProcessThem() throws Exception {
+        CompletableFuture<String> rejected = apiCaller.execute(client, "createPipeline 1", false,
+                failingFirst(new GitLabApiException("Service unavailable", 503)));
+        assertEquals("ok", rejected.get(10, TimeUnit.SECONDS));
+        assertEquals(2, attempts.size());
+
+        attempts.clear();
+        GitLabApiException failure = new GitLabApiException("Bad gateway", 502);
+        CompletableFuture<String> failed = apiCaller.execute(client, "createPipeline 1", false, failingFirst(failure));
+        assertSame(failure, assertThrows(ExecutionException.class, () -> failed.get(10, TimeUnit.SECONDS)).getCause());
+        assertEquals(1, attempts.size());
+    }
+
+    @Test
+    void doesNotRetryClientErrors() {
+        GitLabApiException failure = new GitLabApiException("Not found", 404);
+        CompletableFuture<String> result = apiCaller.execute(client, "getPipeline 1/7", failingFirst(failure));
+
+        assertSame(failure, assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS)).getCause());
+        assertEquals(1, attempts.size());
+    }
+
+    @Test
+    void doesNotRetryFailuresOutsideTheGitLabApi() {
+        IllegalStateException failure = new IllegalStateException("Bug");
+        CompletableFuture<String> result = apiCaller.execute(client, "getPipeline 1/7", failingFirst(failure));
+
+        assertSame(failure, assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS)).getCause());
+        assertEquals(1, attempts.size());
+    }
+
+    @Test
+    void givesUpAfterTheMaximumNumberOfRetries() {
+        GitLabApiCaller oneRetry = new GitLabApiCaller(1000, 100, 1);
+        GitLabApiException failure = new GitLabApiException("Bad gateway", 502);
+        CompletableFuture<String> result = oneRetry.execute(client, "getPipeline 1/7", () -> {
+            attempts.add(System.currentTimeMillis());
+            return CompletableFuture.failedFuture(failure);
+        });
+
+        assertSame(failure, assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS)).getCause());
+        assertEquals(2, attempts.size());
+        assertEquals(1, oneRetry.getHostStats().get("gitlab.example.com").getFailureCount());
+    }
+
+    @Test
+    void holdsEveryCallOfTheTokenForTheRetryAfterDelay() throws Exception {
+        HttpHeaders headers = HttpHeaders.of(Map.of("Retry-After", List.of("2")), (name, value) -> true);
+        CompletableFuture<String> limited = apiCaller.execute(client, "getPipeline 1/7",
+                failingFirst(new HttpGitLabClient.ResponseException("Too many requests", 429, headers)));
+        long rejectedAt = attempts.get(0);
+        CompletableFuture<Long> other = apiCaller.execute(client, "getPipeline 1/8",
+                () -> CompletableFuture.completedFuture(System.currentTimeMillis()));
+
+        assertEquals("ok", limited.get(10, TimeUnit.SECONDS));
+        assertTrue(attempts.get(1) - rejectedAt >= 1900, attempts.toString());
+        assertTrue(other.get(10, TimeUnit.SECONDS) - rejectedAt >= 1900, "Sent during the pause");
+    }
+
+    /**
+     * @return Call recording the time of each attempt, failing the first one with the given exception
+     */
+    private Supplier<CompletableFuture<String>> failingFirst(Exception failure) {
+        return () -> {
+            attempts.add(System.currentTimeMillis());
+            return attempts.size() == 1 ? CompletableFuture.failedFuture(failure) : CompletableFuture.completedFuture("ok");
+        };
+    }
+}
@@ -0,0 +1,101 @@
+package com.gitlab.orchestrator;
+
+import org.gitlab4j.api.models.PipelineStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HtmlReportGeneratorTest {
+    private static final String CARD = "<div class=\"pipeline-card\">";
+    private static final String NAVIGATION = "<nav class=\"page-nav\">";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writesSmallRunsOnASinglePage() throws IOException {
+        Path report = dir.resolve("report.html");
+        new HtmlReportGenerator(report.toString(), 10).generateHtmlReport(results(3));
+
+        assertEquals(List.of("report.html"), fileNames());
+        String html = Files.readString(report);
+        assertEquals(3, occurrences(html, CARD));
+        assertFalse(html.contains(NAVIGATION));
+    }
+
+    @Test
+    void splitsLargeRunsIntoLinkedPages() throws IOException {
+        HtmlReportGenerator generator = new HtmlReportGenerator(dir.resolve("report.html").toString(), 2);
+        generator.generateHtmlReport(results(5));
+
+        assertEquals(List.of("report-page-2.html", "report-page-3.html", "report.html"), fileNames());
+        String first = Files.readString(dir.resolve("report.html"));
+        String last = Files.readString(dir.resolve("report-page-3.html"));
+        assertEquals(2, occurrences(first, CARD));
+        assertTrue(first.contains(">app-1<") && !first.contains(">app-2<"));
+        assertTrue(first.contains("<a href=\"report-page-3.html\">3</a>"));
+        assertTrue(first.contains("<canvas"), "Summary chart on the first page");
+        assertEquals(1, occurrences(last, CARD));
+        assertTrue(last.contains(">app-4<"));
+        assertTrue(last.contains("<a href=\"report.html\">1</a>"));
+        assertFalse(last.contains("<canvas"));
+
+        generator.deleteReport();
+        assertEquals(List.of(), fileNames());
+    }
+
+    @Test
+    void namesThePagesAfterTheReportFile() {
+        assertEquals(dir.resolve("run.v2.html"), new HtmlReportGenerator(dir.resolve("run.v2.html").toString(), 1).pageFile(1));
+        assertEquals(dir.resolve("run.v2-page-2.html"), new HtmlReportGenerator(dir.resolve("run.v2.html").toString(), 1).pageFile(2));
+        assertEquals(dir.resolve("report-page-2"), new HtmlReportGenerator(dir.resolve("report").toString(), 1).pageFile(2));
+    }
+
+    @Test
+    void escapesNamesAndVariables() throws IOException {
+        Path report = dir.resolve("report.html");
+        String name = "<script>alert('x')</script>";
+        new HtmlReportGenerator(report.toString(), 10).generateHtmlReport(List.of(
+                new PipelineResult(name, null, null, PipelineStatus.SUCCESS, Map.of("QUERY", "a<b&c=\"d\""), 1)));
+
+        String html = Files.readString(report);
+        assertFalse(html.contains("<script>alert"));
+        assertTrue(html.contains("&lt;script&gt;alert(&#39;x&#39;)&lt;/script&gt;"));
+        assertTrue(html.contains("QUERY = a&lt;b&amp;c=&quot;d&quot;"));
+        // Chart labels are JavaScript strings
+        assertTrue(html.contains("'\\u003cscript\\u003ealert(\\u0027x\\u0027)\\u003c/script\\u003e'"));
+    }
+
+    private static List<PipelineResult> results(int count) {
+        List<PipelineResult> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            results.add(new PipelineResult("app-" + i, null, null, PipelineStatus.SUCCESS, Map.of(), i));
+        }
+        return results;
+    }
+
+    private List<String> fileNames() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    private static int occurrences(String text, String part) {
+        int count = 0;
+        for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+}
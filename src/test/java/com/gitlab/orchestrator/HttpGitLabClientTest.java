@@ -0,0 +1,93 @@
+package com.gitlab.orchestrator;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.gitlab4j.api.models.Pipeline;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HttpGitLabClientTest {
+    private final Map<Integer, String> nextPages = new ConcurrentHashMap<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private HttpServer server;
+    private HttpGitLabClient client;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/api/v4/projects/1/pipelines", this::listPage);
+        server.start();
+        client = new HttpGitLabClient("http://localhost:" + server.getAddress().getPort(), "token",
+                new GitLabHosts.Settings(4, 4, 1000, 5000));
+    }
+
+    @AfterEach
+    void stopServer() {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    void followsTheNextPageHeader() throws Exception {
+        nextPages.put(1, " 2 ");
+        nextPages.put(2, "3");
+        nextPages.put(3, "");
+
+        assertEquals(List.of(1001L, 2001L, 3001L), listedIds());
+    }
+
+    @Test
+    void treatsAnInvalidNextPageAsTheLastPage() throws Exception {
+        nextPages.put(1, "2");
+        nextPages.put(2, "next");
+
+        assertEquals(List.of(1001L, 2001L), listedIds());
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void doesNotGoBackToAnEarlierPage() throws Exception {
+        nextPages.put(1, "2");
+        nextPages.put(2, "1");
+
+        assertEquals(List.of(1001L, 2001L), listedIds());
+        assertEquals(2, requests.get());
+    }
+
+    private List<Long> listedIds() throws Exception {
+        return client.listPipelines("1", new Date(0), 0).get(5, TimeUnit.SECONDS).stream()
+                .map(Pipeline::getId)
+                .toList();
+    }
+
+    /**
+     * Answers page N with pipeline N * 1000 + 1 and the X-Next-Page header set for it.
+     */
+    private void listPage(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        String query = exchange.getRequestURI().getQuery();
+        int page = Integer.parseInt(query.substring(query.lastIndexOf("&page=") + "&page=".length()));
+        byte[] body = ("[{\"id\": " + (page * 1000 + 1) + ", \"status\": \"success\"}]").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.getResponseHeaders().set("X-Next-Page", nextPages.getOrDefault(page, ""));
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.gitlab.orchestrator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void countsSmallValuesExactly() {
+        for (long value = 0; value < 128; value++) {
+            assertEquals(value, LatencyHistogram.indexOf(value));
+            assertEquals(value, LatencyHistogram.highestValueOf((int) value));
+        }
+    }
+
+    @Test
+    void bucketsAreContiguousUpToTheLargestLong() {
+        int last = LatencyHistogram.indexOf(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValueOf(last));
+
+        for (int index = 1; index <= last; index++) {
+            long lowest = LatencyHistogram.highestValueOf(index - 1) + 1;
+            long highest = LatencyHistogram.highestValueOf(index);
+            assertEquals(index, LatencyHistogram.indexOf(lowest), "lowest value of bucket " + index);
+            assertEquals(index, LatencyHistogram.indexOf(highest), "highest value of bucket " + index);
+        }
+    }
+
+    @Test
+    void keepsTwoSignificantDigits() {
+        for (long value = 128; value > 0 && value < Long.MAX_VALUE / 3; value = value * 3 + 1) {
+            long highest = LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(value));
+            assertTrue(highest >= value && highest - value <= value / 64, "bucket of " + value + " ends at " + highest);
+        }
+    }
+
+    @Test
+    void reportsPercentilesAndAggregates() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+        histogram.record(10_000);
+
+        assertEquals(101, histogram.getCount());
+        assertEquals(5050 + 10_000, histogram.getSum());
+        assertEquals(10_000, histogram.getMax());
+        assertEquals(51, histogram.getValueAtPercentile(50));
+        assertEquals(100, histogram.getValueAtPercentile(99));
+        assertEquals(10_000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void recordsNegativeValuesAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+
+        assertEquals(0, histogram.getValueAtPercentile(100));
+        assertEquals(0, histogram.getSum());
+    }
+
+    @Test
+    void reportsZeroWhenEmpty() {
+        assertEquals(0, new LatencyHistogram().getValueAtPercentile(99));
+    }
+}
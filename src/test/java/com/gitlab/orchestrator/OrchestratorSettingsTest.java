@@ -0,0 +1,82 @@
+package com.gitlab.orchestrator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrchestratorSettingsTest {
+    @Test
+    void fallsBackToDefaults() {
+        OrchestratorSettings settings = settings();
+
+        assertEquals("pipelines.csv", settings.getCsvFilePath());
+        assertEquals(ExecutionMode.SEQUENTIAL, settings.getExecutionMode());
+        assertEquals(4, settings.getMaxConcurrency());
+        assertEquals(1000, settings.getReadAhead());
+        assertEquals(CancellationPolicy.LET_RUNNING_FINISH, settings.getCancellationPolicy());
+        assertEquals(Map.of(), settings.getProjectLimits());
+        assertFalse(settings.isResume());
+    }
+
+    @Test
+    void takesTheFirstArgumentThatIsNotAnOptionAsTheCsvFile() {
+        assertEquals("first.csv", settings("--resume", "first.csv", "second.csv").getCsvFilePath());
+    }
+
+    @Test
+    void keepsTheLastValueOfARepeatedOption() {
+        assertEquals(8, settings("--max-concurrency=2", "--max-concurrency=8").getMaxConcurrency());
+    }
+
+    @Test
+    void readsFlagsWithOrWithoutAValue() {
+        assertTrue(settings("--resume").isResume());
+        assertTrue(settings("--resume=true").isResume());
+        assertFalse(settings("--resume=false").isResume());
+    }
+
+    @Test
+    void fallsBackToSystemProperties() {
+        System.setProperty("flowforge.maxConcurrency", "7");
+        try {
+            assertEquals(7, settings().getMaxConcurrency());
+            assertEquals(3, settings("--max-concurrency=3").getMaxConcurrency());
+        } finally {
+            System.clearProperty("flowforge.maxConcurrency");
+        }
+    }
+
+    @Test
+    void rejectsUnknownOptions() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> settings("--max-concurency=2"));
+
+        assertTrue(error.getMessage().contains("--max-concurency"), error.getMessage());
+    }
+
+    @Test
+    void rejectsInvalidNumbers() {
+        for (String option : List.of("--max-concurrency=0", "--max-concurrency=many", "--read-ahead=-1",
+                "--rate-limit=", "--project-limits=1=0", "--project-limits==2")) {
+            assertThrows(IllegalArgumentException.class, () -> settings(option), option);
+        }
+        assertEquals(0, settings("--read-ahead=0").getReadAhead());
+        assertEquals(Map.of("1", 2, "group/app", 3), settings("--project-limits=1=2, group/app=3").getProjectLimits());
+    }
+
+    @Test
+    void requiresASecretForTheWebhookListener() {
+        assertThrows(IllegalArgumentException.class, () -> settings("--webhook-port=8080"));
+        assertEquals("s3cret", settings("--webhook-port=8080", "--webhook-secret=s3cret").getWebhookSecret());
+    }
+
+    private static OrchestratorSettings settings(String... args) {
+        return OrchestratorSettings.fromArgs(args);
+    }
+}
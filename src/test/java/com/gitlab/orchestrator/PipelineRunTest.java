@@ -0,0 +1,58 @@
+package com.gitlab.orchestrator;
+
+import org.gitlab4j.api.models.PipelineStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PipelineRunTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void derivesTheJournalOfARunFromTheConfiguredOne() {
+        assertEquals("flow-forge-journal-42.log", PipelineRun.journalPathOf("flow-forge-journal.log", "42"));
+        assertEquals("/var/lib/journal-42", PipelineRun.journalPathOf("/var/lib/journal", "42"));
+        assertEquals("/var/lib.d/journal-42", PipelineRun.journalPathOf("/var/lib.d/journal", "42"));
+        assertEquals(".journal-42", PipelineRun.journalPathOf(".journal", "42"));
+    }
+
+    @Test
+    void deletesItsJournalAndEveryReportPage() throws IOException {
+        OrchestratorSettings settings = OrchestratorSettings.fromArgs(new String[]{"pipelines.csv",
+                "--journal=" + dir.resolve("journal.log"), "--report-page-size=2"});
+        PipelineRun run = new PipelineRun("42", settings, null, null, 5);
+        PipelineRun otherRun = new PipelineRun("43", settings, null, null, 1);
+        Files.writeString(Path.of(run.getJournalPath()), "TRIGGERED\n");
+        Files.writeString(Path.of(otherRun.getJournalPath()), "TRIGGERED\n");
+        List<PipelineResult> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            results.add(new PipelineResult("app-" + i, null, null, PipelineStatus.SUCCESS, Map.of(), i));
+        }
+        new HtmlReportGenerator(run.getReportPath(), 2).generateHtmlReport(results);
+        new HtmlReportGenerator(otherRun.getReportPath(), 2).generateHtmlReport(results.subList(0, 1));
+        assertEquals(6, fileCount());
+
+        run.deleteFiles();
+
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(List.of("flow-forge-report-43.html", "journal-43.log"),
+                    files.map(file -> file.getFileName().toString()).sorted().toList());
+        }
+    }
+
+    private long fileCount() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+}
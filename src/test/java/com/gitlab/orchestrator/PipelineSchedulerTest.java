@@ -0,0 +1,274 @@
+package com.gitlab.orchestrator;
+
+import org.gitlab4j.api.models.PipelineStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PipelineSchedulerTest {
+
+    @Test
+    void rejectsDependencyCycleBeforeStartingAnything() {
+        List<String> started = Collections.synchronizedList(new ArrayList<>());
+        List<PipelineConfig> configs = List.of(config("a", "c"), config("b", "a"), config("c", "b"), config("d", ""));
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> new PipelineScheduler(2).execute(configs, succeeding(started)));
+
+        assertTrue(error.getMessage().contains("cycle"), error.getMessage());
+        assertEquals(List.of(), started);
+    }
+
+    @Test
+    void rejectsUnknownDependency() {
+        List<PipelineConfig> configs = List.of(config("a", ""), config("b", "missing"));
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> new PipelineScheduler(2).execute(configs, succeeding(new ArrayList<>())));
+
+        assertTrue(error.getMessage().contains("missing"), error.getMessage());
+    }
+
+    @Test
+    void startsPipelinesOnlyAfterTheirDependencies() throws InterruptedException {
+        List<String> started = Collections.synchronizedList(new ArrayList<>());
+        List<PipelineConfig> configs = List.of(config("c", "b"), config("a", ""), config("b", "a"));
+
+        List<PipelineResult> results = new PipelineScheduler(4).execute(configs, succeeding(started));
+
+        assertEquals(List.of("a", "b", "c"), started);
+        assertEquals(Map.of("a", PipelineStatus.SUCCESS, "b", PipelineStatus.SUCCESS, "c", PipelineStatus.SUCCESS),
+                statuses(results));
+    }
+
+    @Test
+    void skipsEverythingDownstreamOfAFailedPipeline() throws InterruptedException {
+        List<String> started = Collections.synchronizedList(new ArrayList<>());
+        List<PipelineConfig> configs = List.of(config("a", ""), config("b", "a"), config("c", "b"), config("d", ""));
+
+        List<PipelineResult> results = new PipelineScheduler(2).execute(configs, failing(started, "a"));
+
+        assertEquals(Set.of("a", "d"), Set.copyOf(started));
+        assertEquals(Map.of("a", PipelineStatus.FAILED, "b", PipelineStatus.SKIPPED,
+                "c", PipelineStatus.SKIPPED, "d", PipelineStatus.SUCCESS), statuses(results));
+    }
+
+    @Test
+    void skipsCyclicRowsReadFromAnIterator() throws InterruptedException {
+        List<String> started = Collections.synchronizedList(new ArrayList<>());
+        List<PipelineConfig> configs = List.of(config("a", "b"), config("b", "a"), config("c", ""));
+
+        List<PipelineResult> results = new PipelineScheduler(2).execute(configs.iterator(), succeeding(started));
+
+        assertEquals(List.of("c"), started);
+        assertEquals(Map.of("a", PipelineStatus.SKIPPED, "b", PipelineStatus.SKIPPED, "c", PipelineStatus.SUCCESS),
+                statuses(results));
+    }
+
+    @Test
+    void waitsForDependenciesReadAfterTheRowsNeedingThem() throws InterruptedException {
+        List<String> started = Collections.synchronizedList(new ArrayList<>());
+        // "c" is read before the row it depends on
+        List<PipelineConfig> configs = List.of(config("c", "b"), config("a", ""), config("b", "a"));
+
+        List<PipelineResult> results = new PipelineScheduler(4).execute(configs.iterator(), succeeding(started));
+
+        assertEquals(List.of("a", "b", "c"), started);
+        assertEquals(List.of("c", "a", "b"), results.stream().map(PipelineResult::getAppName).toList());
+    }
+
+    @Test
+    void haltsOnlyTheGroupOfTheFailedPipeline() throws InterruptedException {
+        List<String> started = Collections.synchronizedList(new ArrayList<>());
+        PipelineConfig a = config("a", "");
+        PipelineConfig b = config("b", "");
+        PipelineConfig c = config("c", "");
+        a.setGroup("frontend");
+        b.setGroup("frontend");
+        c.setGroup("backend");
+        PipelineScheduler scheduler = new PipelineScheduler(1);
+        scheduler.setCancellationPolicy(CancellationPolicy.LET_RUNNING_FINISH);
+
+        List<PipelineResult> results = scheduler.execute(List.of(a, b, c).iterator(), failing(started, "a"));
+
+        assertEquals(List.of("a", "c"), started);
+        assertEquals(Map.of("a", PipelineStatus.FAILED, "b", PipelineStatus.SKIPPED, "c", PipelineStatus.SUCCESS),
+                statuses(results));
+    }
+
+    @Test
+    void failFastCancelsPipelinesOfTheGroupInFlight() throws InterruptedException {
+        CountDownLatch canceled = new CountDownLatch(1);
+        List<String> cancelRequests = Collections.synchronizedList(new ArrayList<>());
+        PipelineScheduler scheduler = new PipelineScheduler(2);
+        scheduler.setReadAhead(0);
+        scheduler.setCancellationPolicy(CancellationPolicy.FAIL_FAST);
+        scheduler.setCancelHandler(configs -> {
+            configs.forEach(config -> cancelRequests.add(config.getAppName()));
+            canceled.countDown();
+        });
+
+        List<PipelineResult> results = scheduler.execute(
+                List.of(config("a", ""), config("b", ""), config("c", "")).iterator(), config -> {
+                    if (config.getAppName().equals("a")) {
+                        return result(config, PipelineStatus.FAILED);
+                    }
+                    // "b" runs until it is canceled
+                    assertTrue(canceled.await(10, TimeUnit.SECONDS));
+                    return result(config, PipelineStatus.CANCELED);
+                });
+
+        assertEquals(List.of("b"), cancelRequests);
+        assertEquals(Map.of("a", PipelineStatus.FAILED, "b", PipelineStatus.CANCELED, "c", PipelineStatus.SKIPPED),
+                statuses(results));
+    }
+
+    @Test
+    void skipsRowsOfAHaltedGroupThatBecomeReadyAfterTheFailure() throws InterruptedException {
+        List<String> started = Collections.synchronizedList(new ArrayList<>());
+        List<PipelineConfig> configs = List.of(config("a", ""), config("b", ""), config("c", ""));
+        PipelineScheduler scheduler = new PipelineScheduler(1);
+        scheduler.setReadAhead(0);
+        scheduler.setCancellationPolicy(CancellationPolicy.LET_RUNNING_FINISH);
+
+        // With one slot and no read-ahead, "b" and "c" are only read after "a" has halted the run
+        List<PipelineResult> results = scheduler.execute(configs.iterator(), failing(started, "a", "b", "c"));
+
+        assertEquals(List.of("a"), started);
+        assertEquals(Map.of("a", PipelineStatus.FAILED, "b", PipelineStatus.SKIPPED, "c", PipelineStatus.SKIPPED),
+                statuses(results));
+    }
+
+    @Test
+    void startsHighPriorityRowAheadOfABacklog() throws InterruptedException {
+        List<String> started = Collections.synchronizedList(new ArrayList<>());
+        List<PipelineConfig> configs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            configs.add(config("bulk-" + i, ""));
+        }
+        PipelineConfig urgent = config("urgent", "");
+        urgent.setPriority(10);
+        configs.add(urgent);
+        PipelineScheduler scheduler = new PipelineScheduler(1);
+        scheduler.setReadAhead(10);
+
+        scheduler.execute(configs.iterator(), succeeding(started));
+
+        assertEquals(List.of("bulk-0", "urgent", "bulk-1", "bulk-2", "bulk-3", "bulk-4"), started);
+    }
+
+    @Test
+    void capsPipelinesInFlightPerProject() throws InterruptedException {
+        Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+        Map<String, AtomicInteger> maxInFlight = new ConcurrentHashMap<>();
+        List<PipelineConfig> configs = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            configs.add(new PipelineConfig("capped-" + i, "1", "token", "main", ""));
+            configs.add(new PipelineConfig("free-" + i, "2", "token", "main", ""));
+        }
+        PipelineScheduler scheduler = new PipelineScheduler(4);
+        scheduler.setReadAhead(8);
+        scheduler.setProjectLimits(Map.of("1", 1));
+
+        List<PipelineResult> results = scheduler.execute(configs, config -> {
+            int running = inFlight.computeIfAbsent(config.getProjectId(), key -> new AtomicInteger()).incrementAndGet();
+            maxInFlight.computeIfAbsent(config.getProjectId(), key -> new AtomicInteger()).accumulateAndGet(running, Math::max);
+            Thread.sleep(50);
+            inFlight.get(config.getProjectId()).decrementAndGet();
+            return result(config, PipelineStatus.SUCCESS);
+        });
+
+        assertEquals(1, maxInFlight.get("1").get());
+        assertTrue(maxInFlight.get("2").get() > 1, "uncapped project ran one pipeline at a time");
+        assertTrue(results.stream().allMatch(result -> result.getStatus() == PipelineStatus.SUCCESS));
+    }
+
+    @Test
+    void stopsReadingWhenRowsBlockedByACapFillTheReadAhead() throws InterruptedException {
+        AtomicInteger read = new AtomicInteger();
+        AtomicInteger finished = new AtomicInteger();
+        AtomicInteger maxUnfinished = new AtomicInteger();
+        Iterator<PipelineConfig> rows = new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < 20;
+            }
+
+            @Override
+            public PipelineConfig next() {
+                maxUnfinished.accumulateAndGet(read.incrementAndGet() - finished.get(), Math::max);
+                return new PipelineConfig("capped-" + next++, "1", "token", "main", "");
+            }
+        };
+        PipelineScheduler scheduler = new PipelineScheduler(4);
+        scheduler.setReadAhead(2);
+        scheduler.setProjectLimits(Map.of("1", 1));
+
+        List<PipelineResult> results = scheduler.execute(rows, config -> {
+            Thread.sleep(5);
+            finished.incrementAndGet();
+            return result(config, PipelineStatus.SUCCESS);
+        });
+
+        assertEquals(20, results.size());
+        // One row running and two waiting for the cap, plus the row being read
+        assertTrue(maxUnfinished.get() <= 4, maxUnfinished.get() + " rows read but not finished");
+    }
+
+    @Test
+    void startsLongestChainFirstWithinAFlow() throws InterruptedException {
+        List<String> started = Collections.synchronizedList(new ArrayList<>());
+        List<PipelineConfig> configs = List.of(config("first", ""), config("a", ""), config("b", ""), config("c", "b"));
+        PipelineScheduler scheduler = new PipelineScheduler(1);
+        scheduler.setReadAhead(10);
+
+        scheduler.execute(configs.iterator(), succeeding(started));
+
+        // "b" heads a chain of two pipelines, so it overtakes "a"
+        assertEquals(List.of("first", "b", "a", "c"), started);
+    }
+
+    private static PipelineConfig config(String appName, String dependsOn) {
+        return new PipelineConfig(appName, "1", "token", "main", "", dependsOn);
+    }
+
+    private static PipelineResult result(PipelineConfig config, PipelineStatus status) {
+        return new PipelineResult(config.getAppName(), null, null, status, config.getVariables(), 0L);
+    }
+
+    private static PipelineScheduler.PipelineRunner succeeding(List<String> started) {
+        return failing(started);
+    }
+
+    private static PipelineScheduler.PipelineRunner failing(List<String> started, String... failingApps) {
+        Set<String> failing = Set.of(failingApps);
+        return config -> {
+            started.add(config.getAppName());
+            return result(config, failing.contains(config.getAppName()) ? PipelineStatus.FAILED : PipelineStatus.SUCCESS);
+        };
+    }
+
+    private static Map<String, PipelineStatus> statuses(List<PipelineResult> results) {
+        Map<String, PipelineStatus> statuses = new HashMap<>();
+        for (PipelineResult result : results) {
+            statuses.put(result.getAppName(), result.getStatus());
+        }
+        return statuses;
+    }
+}
@@ -0,0 +1,200 @@
+package com.gitlab.orchestrator;
+
+import org.gitlab4j.api.GitLabApiException;
+import org.gitlab4j.api.models.PipelineStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PipelineStatusPollerTest {
+    private final FakeGitLabClient client = new FakeGitLabClient();
+    private final GitLabApiCaller apiCaller = new GitLabApiCaller(1000, 100, 0);
+    private PipelineStatusPoller poller;
+
+    @AfterEach
+    void closePoller() {
+        poller.close();
+    }
+
+    @Test
+    void pollsASinglePipelineOfAProjectDirectly() throws Exception {
+        poller = polling(10, 50);
+        client.setStatus(7, PipelineStatus.RUNNING);
+        CompletableFuture<PipelineStatus> finished = poller.watch(client, "1", 7, null);
+
+        waitForGetPipelineCalls(1);
+        client.setStatus(7, PipelineStatus.SUCCESS);
+
+        assertEquals(PipelineStatus.SUCCESS, finished.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(), client.getListUpdatedAfter());
+    }
+
+    @Test
+    void listsThePipelinesOfAProjectInOneRequest() throws Exception {
+        // The first poll is due well after all three pipelines are watched
+        poller = polling(200, 200);
+        long watchedAt = System.currentTimeMillis();
+        List<CompletableFuture<PipelineStatus>> finished = new ArrayList<>();
+        for (long pipelineId = 7; pipelineId <= 9; pipelineId++) {
+            client.setStatus(pipelineId, PipelineStatus.RUNNING);
+            finished.add(poller.watch(client, "1", pipelineId, null));
+        }
+
+        waitForListings(2);
+        for (long pipelineId = 7; pipelineId <= 9; pipelineId++) {
+            client.setStatus(pipelineId, PipelineStatus.SUCCESS);
+        }
+
+        for (CompletableFuture<PipelineStatus> future : finished) {
+            assertEquals(PipelineStatus.SUCCESS, future.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(0, client.getPipelineCalls());
+        // Each listing only asks for pipelines updated since the previous one, less the clock skew
+        List<Date> updatedAfter = client.getListUpdatedAfter();
+        assertTrue(updatedAfter.get(0).getTime() <= watchedAt - 60000 + 1000, updatedAfter.get(0).toString());
+        assertTrue(updatedAfter.get(1).after(updatedAfter.get(0)), updatedAfter.toString());
+    }
+
+    @Test
+    void keepsWatchingThroughFailedPolls() throws Exception {
+        poller = polling(10, 50);
+        client.failListings(new GitLabApiException("Bad gateway", 502));
+        client.setStatus(7, PipelineStatus.RUNNING);
+        client.setStatus(8, PipelineStatus.RUNNING);
+        CompletableFuture<PipelineStatus> first = poller.watch(client, "1", 7, null);
+        CompletableFuture<PipelineStatus> second = poller.watch(client, "1", 8, null);
+
+        waitForListings(2);
+        client.setStatus(7, PipelineStatus.SUCCESS);
+        client.setStatus(8, PipelineStatus.FAILED);
+        client.failListings(null);
+
+        assertEquals(PipelineStatus.SUCCESS, first.get(5, TimeUnit.SECONDS));
+        assertEquals(PipelineStatus.FAILED, second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void givesUpAfterFiveFailedPollsInARow() throws Exception {
+        poller = polling(10, 20);
+        GitLabApiException failure = new GitLabApiException("Bad gateway", 502);
+        client.failListings(failure);
+        client.setStatus(7, PipelineStatus.RUNNING);
+        client.setStatus(8, PipelineStatus.RUNNING);
+        CompletableFuture<PipelineStatus> first = poller.watch(client, "1", 7, null);
+        CompletableFuture<PipelineStatus> second = poller.watch(client, "1", 8, null);
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+
+        assertSame(failure, error.getCause());
+        assertEquals(5, client.getListUpdatedAfter().size());
+    }
+
+    @Test
+    void confirmsAPushedTerminalStatusWithGitLab() throws Exception {
+        poller = withoutPolling();
+        client.setStatus(7, PipelineStatus.RUNNING);
+        CompletableFuture<PipelineStatus> finished = poller.watch(client, "1", 7, null);
+
+        assertTrue(poller.onStatusUpdate("1", 7, PipelineStatus.SUCCESS));
+        waitForGetPipelineCalls(1);
+        assertFalse(finished.isDone());
+
+        client.setStatus(7, PipelineStatus.FAILED);
+        assertTrue(poller.onStatusUpdate("1", 7, PipelineStatus.FAILED));
+        assertEquals(PipelineStatus.FAILED, finished.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void completesAPipelineWhoseEventArrivedBeforeItWasWatched() throws Exception {
+        poller = withoutPolling();
+        client.setStatus(7, PipelineStatus.SUCCESS);
+
+        assertFalse(poller.onStatusUpdate("1", 7, PipelineStatus.SUCCESS));
+        CompletableFuture<PipelineStatus> finished = poller.watch(client, "1", 7, null);
+
+        assertEquals(PipelineStatus.SUCCESS, finished.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void forgetsEventsOfPipelinesNotWatchedInTime() throws Exception {
+        poller = new PipelineStatusPoller(new AdaptivePollingPolicy(60000, 60000), apiCaller, 50);
+        client.setStatus(7, PipelineStatus.SUCCESS);
+
+        assertFalse(poller.onStatusUpdate("1", 7, PipelineStatus.SUCCESS));
+        // Outlive the TTL and the first tick, which prunes expired events
+        Thread.sleep(1500);
+        CompletableFuture<PipelineStatus> finished = poller.watch(client, "1", 7, null);
+
+        Thread.sleep(200);
+        assertFalse(finished.isDone());
+        assertEquals(0, client.getPipelineCalls());
+    }
+
+    @Test
+    void matchesEventsToProjectsWatchedByPath() throws Exception {
+        poller = withoutPolling();
+        client.setStatus(7, PipelineStatus.SUCCESS);
+        client.setStatus(8, PipelineStatus.SUCCESS);
+        CompletableFuture<PipelineStatus> watchedFirst = poller.watch(client, "group/app", 7, null);
+
+        assertTrue(poller.onStatusUpdate("42", "group/app", 7, PipelineStatus.SUCCESS));
+        assertFalse(poller.onStatusUpdate("42", "group/app", 8, PipelineStatus.SUCCESS));
+        CompletableFuture<PipelineStatus> eventFirst = poller.watch(client, "group/app", 8, null);
+
+        assertEquals(PipelineStatus.SUCCESS, watchedFirst.get(5, TimeUnit.SECONDS));
+        assertEquals(PipelineStatus.SUCCESS, eventFirst.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void ignoresEventsNamingAnotherProject() throws Exception {
+        poller = withoutPolling();
+        client.setStatus(7, PipelineStatus.SUCCESS);
+        CompletableFuture<PipelineStatus> finished = poller.watch(client, "1", 7, null);
+
+        assertFalse(poller.onStatusUpdate("2", "group/other", 7, PipelineStatus.SUCCESS));
+
+        Thread.sleep(200);
+        assertFalse(finished.isDone());
+        assertEquals(0, client.getPipelineCalls());
+    }
+
+    private PipelineStatusPoller polling(long minIntervalMs, long maxIntervalMs) {
+        return new PipelineStatusPoller(new AdaptivePollingPolicy(minIntervalMs, maxIntervalMs), apiCaller);
+    }
+
+    /**
+     * @return Poller whose first poll is a minute away, so pipelines only complete from pushed statuses
+     */
+    private PipelineStatusPoller withoutPolling() {
+        return new PipelineStatusPoller(new AdaptivePollingPolicy(60000, 60000), apiCaller, 50);
+    }
+
+    private void waitForGetPipelineCalls(int calls) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (client.getPipelineCalls() < calls && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(calls, client.getPipelineCalls());
+    }
+
+    private void waitForListings(int listings) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (client.getListUpdatedAfter().size() < listings && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(client.getListUpdatedAfter().size() >= listings, client.getListUpdatedAfter().size() + " listings");
+    }
+}
@@ -0,0 +1,112 @@
+package com.gitlab.orchestrator;
+
+import org.gitlab4j.api.models.PipelineStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RunJournalTest {
+    private static final LocalDateTime STARTED = LocalDateTime.of(2026, 10, 16, 10, 15);
+    private static final LocalDateTime ENDED = STARTED.plusMinutes(3);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void resumeReattachesToInFlightPipelinesAndSkipsFinishedOnes() throws IOException {
+        String path = dir.resolve("journal.log").toString();
+        try (RunJournal journal = new RunJournal(path, false)) {
+            journal.recordTriggered("api", "42", 1001, STARTED);
+            journal.recordTriggered("web", "43", 1002, STARTED);
+            journal.recordFinished(new PipelineResult("api", STARTED, ENDED, PipelineStatus.SUCCESS, Map.of(), 1001));
+        }
+
+        try (RunJournal resumed = new RunJournal(path, true)) {
+            RunJournal.Entry api = resumed.getPreviousEntry("api");
+            assertTrue(api.isFinished());
+            assertEquals(PipelineStatus.SUCCESS, api.getFinalStatus());
+            assertEquals("42", api.getProjectId());
+            assertEquals(1001, api.getPipelineId());
+            assertEquals(ENDED, api.getEndTime());
+
+            RunJournal.Entry web = resumed.getPreviousEntry("web");
+            assertFalse(web.isFinished());
+            assertEquals("43", web.getProjectId());
+            assertEquals(1002, web.getPipelineId());
+            assertEquals(STARTED, web.getStartTime());
+
+            assertNull(resumed.getPreviousEntry("worker"));
+        }
+    }
+
+    @Test
+    void resumeAppendsToThePreviousRun() throws IOException {
+        String path = dir.resolve("journal.log").toString();
+        try (RunJournal journal = new RunJournal(path, false)) {
+            journal.recordTriggered("api", "42", 1001, STARTED);
+        }
+        try (RunJournal resumed = new RunJournal(path, true)) {
+            resumed.recordFinished(new PipelineResult("api", STARTED, ENDED, PipelineStatus.FAILED, Map.of(), 1001));
+        }
+
+        try (RunJournal resumedAgain = new RunJournal(path, true)) {
+            RunJournal.Entry api = resumedAgain.getPreviousEntry("api");
+            assertEquals(PipelineStatus.FAILED, api.getFinalStatus());
+            assertEquals("42", api.getProjectId());
+        }
+    }
+
+    @Test
+    void newRunDiscardsThePreviousJournal() throws IOException {
+        String path = dir.resolve("journal.log").toString();
+        try (RunJournal journal = new RunJournal(path, false)) {
+            journal.recordTriggered("api", "42", 1001, STARTED);
+        }
+        new RunJournal(path, false).close();
+
+        try (RunJournal resumed = new RunJournal(path, true)) {
+            assertNull(resumed.getPreviousEntry("api"));
+        }
+    }
+
+    @Test
+    void ignoresATruncatedLastLine() throws IOException {
+        Path path = dir.resolve("journal.log");
+        try (RunJournal journal = new RunJournal(path.toString(), false)) {
+            journal.recordTriggered("api", "42", 1001, STARTED);
+        }
+        // A crash in the middle of a write leaves half a line behind
+        Files.writeString(path, "FINISHED\tapi\t1001\tSUCC", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        try (RunJournal resumed = new RunJournal(path.toString(), true)) {
+            RunJournal.Entry api = resumed.getPreviousEntry("api");
+            assertFalse(api.isFinished());
+            assertEquals(1001, api.getPipelineId());
+        }
+    }
+
+    @Test
+    void keepsAppNamesWithSeparators() throws IOException {
+        String path = dir.resolve("journal.log").toString();
+        String appName = "odd\tname\\with\nbreaks";
+        try (RunJournal journal = new RunJournal(path, false)) {
+            journal.recordTriggered(appName, "42", 1001, STARTED);
+        }
+
+        try (RunJournal resumed = new RunJournal(path, true)) {
+            assertEquals(appName, resumed.getPreviousEntry(appName).getAppName());
+        }
+    }
+}
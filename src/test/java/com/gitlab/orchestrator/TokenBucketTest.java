@@ -0,0 +1,78 @@
+package com.gitlab.orchestrator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+    @Test
+    void releasesABurstRightAwayAndTheRestAtTheSustainedRate() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(10, 3);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.delayMs(bucket.reserve()));
+        }
+        long ticket = bucket.reserve();
+
+        long delayMs = bucket.delayMs(ticket);
+        assertTrue(delayMs > 0 && delayMs <= 100, delayMs + " ms");
+
+        Thread.sleep(delayMs + 20);
+        assertEquals(0, bucket.delayMs(ticket));
+    }
+
+    @Test
+    void holdsEveryRequestWhilePaused() {
+        TokenBucket bucket = new TokenBucket(10, 3);
+        long ticket = bucket.reserve();
+        bucket.pauseUntil(System.currentTimeMillis() + 2000);
+        long nextTicket = bucket.reserve();
+
+        long delayMs = bucket.delayMs(ticket);
+        assertTrue(delayMs > 1500 && delayMs <= 2000, delayMs + " ms");
+        // Queued behind the pause rather than released along with the paused burst
+        assertTrue(bucket.delayMs(nextTicket) > delayMs);
+    }
+
+    @Test
+    void neverShortensAPause() {
+        TokenBucket bucket = new TokenBucket(10, 3);
+        bucket.pauseUntil(System.currentTimeMillis() + 2000);
+        bucket.pauseUntil(System.currentTimeMillis() + 100);
+
+        assertTrue(bucket.delayMs(bucket.reserve()) > 1500);
+    }
+
+    @Test
+    void spreadsTheRequestsLeftOverTheRateLimitWindow() {
+        TokenBucket bucket = new TokenBucket(10, 5);
+        // Two requests left for the next ten seconds: 0.2 per second
+        bucket.throttle(2, System.currentTimeMillis() + 10000);
+
+        assertEquals(0, bucket.delayMs(bucket.reserve()));
+        assertEquals(0, bucket.delayMs(bucket.reserve()));
+        long delayMs = bucket.delayMs(bucket.reserve());
+        assertTrue(delayMs > 4000 && delayMs <= 5000, delayMs + " ms");
+    }
+
+    @Test
+    void keepsItsRateWhileEnoughRequestsAreLeft() {
+        TokenBucket bucket = new TokenBucket(10, 3);
+        bucket.throttle(1000, System.currentTimeMillis() + 10000);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.delayMs(bucket.reserve()));
+        }
+        assertTrue(bucket.delayMs(bucket.reserve()) <= 100);
+    }
+
+    @Test
+    void pausesUntilTheWindowResetsOnceNoRequestIsLeft() {
+        TokenBucket bucket = new TokenBucket(10, 3);
+        bucket.throttle(0, System.currentTimeMillis() + 2000);
+
+        // The burst is spent: the first request goes out one interval after the reset
+        long delayMs = bucket.delayMs(bucket.reserve());
+        assertTrue(delayMs > 1500 && delayMs <= 2100, delayMs + " ms");
+    }
+}
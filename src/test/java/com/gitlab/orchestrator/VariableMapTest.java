@@ -0,0 +1,73 @@
+package com.gitlab.orchestrator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class VariableMapTest {
+    // "Aa" and "BB" have the same hash code, and so does any concatenation of them
+    private static final List<String> COLLIDING_KEYS = List.of("AaAa", "AaBB", "BBAa", "BBBB", "AaAaAa", "AaAaBB",
+            "AaBBAa", "BBBBBB", "BBAaBB", "BBBBAa");
+
+    @Test
+    void findsSmallMapsLinearly() {
+        VariableMap map = VariableMap.of(new String[]{"A", "1", "B", "2", "C", "3"}, 3);
+
+        assertEquals(Map.of("A", "1", "B", "2", "C", "3"), map);
+        assertEquals(List.of("A", "B", "C"), new ArrayList<>(map.keySet()));
+        assertNull(map.get("D"));
+    }
+
+    @Test
+    void findsKeysWithTheSameHashCode() {
+        Map<String, String> expected = new LinkedHashMap<>();
+        String[] entries = new String[COLLIDING_KEYS.size() * 2];
+        for (int i = 0; i < COLLIDING_KEYS.size(); i++) {
+            entries[2 * i] = COLLIDING_KEYS.get(i);
+            entries[2 * i + 1] = "value-" + i;
+            expected.put(COLLIDING_KEYS.get(i), "value-" + i);
+        }
+
+        VariableMap map = VariableMap.of(entries, COLLIDING_KEYS.size());
+
+        assertEquals(expected, map);
+        for (String key : COLLIDING_KEYS) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+        assertEquals(COLLIDING_KEYS, new ArrayList<>(map.keySet()));
+        assertFalse(map.containsKey("BBBBBBBB"));
+        assertNull(map.get(42));
+    }
+
+    @Test
+    void keepsTheFirstPositionAndTheLastValueOfARepeatedKey() {
+        for (int count : new int[]{3, 12}) {
+            String[] entries = new String[count * 2];
+            for (int i = 0; i < count - 1; i++) {
+                entries[2 * i] = "KEY_" + i;
+                entries[2 * i + 1] = "first";
+            }
+            entries[2 * count - 2] = "KEY_0";
+            entries[2 * count - 1] = "last";
+
+            VariableMap map = VariableMap.of(entries, count);
+
+            assertEquals(count - 1, map.size());
+            assertEquals("last", map.get("KEY_0"));
+            assertEquals("KEY_0", map.keySet().iterator().next());
+        }
+    }
+
+    @Test
+    void sharesOneEmptyMap() {
+        assertSame(VariableMap.EMPTY, VariableMap.of(new String[0], 0));
+    }
+}
@@ -0,0 +1,68 @@
+package com.gitlab.orchestrator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VariableParserTest {
+
+    @Test
+    void parsesColonSeparatedPairsInDeclarationOrder() {
+        Map<String, String> variables = VariableParser.parse("ZONE=eu:APP=web:DEBUG=false");
+
+        assertEquals(Map.of("ZONE", "eu", "APP", "web", "DEBUG", "false"), variables);
+        assertEquals(List.of("ZONE", "APP", "DEBUG"), List.copyOf(variables.keySet()));
+    }
+
+    @Test
+    void fallsBackToCommasWhenThereIsNoColon() {
+        assertEquals(Map.of("A", "1", "B", "2"), VariableParser.parse("A=1,B=2"));
+    }
+
+    @Test
+    void keepsCommasInValuesWhenPairsAreColonSeparated() {
+        assertEquals(Map.of("HOSTS", "a,b", "PORT", "80"), VariableParser.parse("HOSTS=a,b:PORT=80"));
+    }
+
+    @Test
+    void resolvesEscapedDelimiters() {
+        Map<String, String> variables = VariableParser.parse("URL=http\\://host\\:8080:PATH=C\\\\tmp:EXPR=a\\=b");
+
+        assertEquals(Map.of("URL", "http://host:8080", "PATH", "C\\tmp", "EXPR", "a=b"), variables);
+    }
+
+    @Test
+    void escapedCommaDoesNotTriggerTheCommaFallback() {
+        assertEquals(Map.of("LIST", "x,y"), VariableParser.parse("LIST=x\\,y"));
+    }
+
+    @Test
+    void trimsWhitespaceUnlessItIsEscaped() {
+        assertEquals(Map.of("A", "1", "B", "x "), VariableParser.parse(" A = 1 : B=x\\ "));
+    }
+
+    @Test
+    void ignoresPairsWithoutEquals() {
+        assertEquals(Map.of("A", "1", "B", "2"), VariableParser.parse("A=1:junk:B=2"));
+    }
+
+    @Test
+    void keepsTheLastValueOfARepeatedKey() {
+        assertEquals(Map.of("A", "2"), VariableParser.parse("A=1:A=2"));
+    }
+
+    @Test
+    void splitsOnlyOnTheFirstEquals() {
+        assertEquals(Map.of("OPTS", "-Dx=1"), VariableParser.parse("OPTS=-Dx=1"));
+    }
+
+    @Test
+    void parsesMissingColumnAsNoVariables() {
+        assertTrue(VariableParser.parse(null).isEmpty());
+        assertTrue(VariableParser.parse("").isEmpty());
+    }
+}
@@ -0,0 +1,95 @@
+package com.gitlab.orchestrator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VariableSetStoreTest {
+    private final VariableSetStore store = new VariableSetStore();
+
+    @Test
+    void sharesOneInstancePerContent() {
+        VariableSet set = store.intern("A=1:B=2");
+
+        assertSame(set, store.intern(new String("A=1:B=2")));
+        assertSame(set, store.intern("B=2:A=1"));
+        assertSame(set, store.intern(Map.of("A", "1", "B", "2")));
+        assertSame(VariableSet.EMPTY, store.intern(""));
+        assertSame(VariableSet.EMPTY, store.intern((String) null));
+    }
+
+    @Test
+    void sharesOneInstancePerVariablesString() {
+        String column = store.canonicalString("A=1:B=2");
+
+        assertSame(column, store.canonicalString(new String("A=1:B=2")));
+    }
+
+    @Test
+    void internsVariableKeys() {
+        VariableSet set = store.intern(new String("APP_NAME=web"));
+
+        assertSame("APP_NAME", set.keySet().iterator().next());
+    }
+
+    @Test
+    void storesASetCloseToARecentOneAsADelta() {
+        Map<String, String> base = variables(10);
+        Map<String, String> variant = new LinkedHashMap<>(base);
+        variant.put("KEY_3", "other");
+        variant.put("EXTRA", "added");
+
+        VariableSet baseSet = store.intern(base);
+        VariableSet variantSet = store.intern(variant);
+
+        assertFalse(baseSet.isLayered());
+        assertTrue(variantSet.isLayered());
+        assertEquals(2, variantSet.getOwnVariableCount());
+        assertEquals(variant, variantSet);
+        assertEquals("other", variantSet.get("KEY_3"));
+        // The base order with its overridden values, then the additions
+        assertEquals(new ArrayList<>(variant.entrySet()), new ArrayList<>(variantSet.entrySet()));
+        assertEquals(variantSet.size(), variantSet.getGitLabVariables().size());
+    }
+
+    @Test
+    void storesSetsWhole() {
+        Map<String, String> base = variables(10);
+        store.intern(base);
+
+        // Missing a variable of the base
+        Map<String, String> subset = new LinkedHashMap<>(base);
+        subset.remove("KEY_0");
+        subset.put("EXTRA", "added");
+        assertFalse(store.intern(subset).isLayered());
+
+        // Differing too much from it
+        Map<String, String> distant = new LinkedHashMap<>(base);
+        for (int i = 0; i < 4; i++) {
+            distant.put("KEY_" + i, "other");
+        }
+        assertFalse(store.intern(distant).isLayered());
+
+        // Too small for a delta to save anything
+        store.intern(variables(4));
+        Map<String, String> small = variables(4);
+        small.put("EXTRA", "added");
+        assertFalse(store.intern(small).isLayered());
+    }
+
+    private static Map<String, String> variables(int count) {
+        Map<String, String> variables = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            variables.put("KEY_" + i, "value-" + i);
+        }
+        return variables;
+    }
+}